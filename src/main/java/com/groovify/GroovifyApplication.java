@@ -4,13 +4,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 /**
  * Main entry point for the Groovify Spring Boot application.
  * <p>
  * This class bootstraps the Spring application context and starts the embedded server.
+ * Scheduling is enabled for periodic maintenance such as the song reconciliation pass.
  * </p>
  */
 @SpringBootApplication
+@EnableScheduling
 public class GroovifyApplication {
 
     private static final Logger log = LoggerFactory.getLogger(GroovifyApplication.class);
@@ -1,14 +1,18 @@
 package com.groovify;
 
 import com.groovify.service.GenreImportService;
+import com.groovify.service.ImportQueueService;
 import com.groovify.service.SongImportImpl;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Component responsible for importing genres and songs immediately after application startup.
@@ -16,6 +20,17 @@ import java.util.List;
  * Uses {@link PostConstruct} to trigger the import logic as soon as the bean is initialized
  * and dependencies are injected.
  * </p>
+ * <p>
+ * When {@code groovify.import.queue.enabled} is set, songs are imported through the
+ * shared {@link ImportQueueService} so that several nodes booting at once split the
+ * library between them instead of each scanning all of it.
+ * </p>
+ * <p>
+ * Genres are the built-in defaults plus every folder of the music directory that
+ * contains songs, created together in a single bulk upsert. Archives dropped into
+ * the music directory are streamed into the song store before the folder import;
+ * genres their entries name that do not exist yet are created during that import.
+ * </p>
  */
 @Component
 @ConditionalOnProperty(
@@ -26,18 +41,30 @@ public class StartupImportRunner {
 
     private static final Logger log = LoggerFactory.getLogger(StartupImportRunner.class);
 
+    // Genres that always exist, even before any songs have been added for them
+    private static final List<String> DEFAULT_GENRES =
+            List.of("Rock", "Pop", "Classical", "Tech", "Country", "Folk");
+
     private final GenreImportService genreImportService;
     private final SongImportImpl songImportService;
+    private final ImportQueueService importQueueService;
+
+    /** Whether songs are imported through the shared, multi-node import queue. */
+    @Value("${groovify.import.queue.enabled:false}")
+    boolean queueEnabled;
 
     /**
      * Constructs the {@code StartupImportRunner} with required import services.
      *
      * @param genreImportService service for importing music genres
      * @param songImportService  service for importing MP3 song files
+     * @param importQueueService service for distributing the import across nodes
      */
-    public StartupImportRunner(GenreImportService genreImportService, SongImportImpl songImportService) {
+    public StartupImportRunner(GenreImportService genreImportService, SongImportImpl songImportService,
+                               ImportQueueService importQueueService) {
         this.genreImportService = genreImportService;
         this.songImportService = songImportService;
+        this.importQueueService = importQueueService;
     }
 
     /**
@@ -50,13 +77,19 @@ public class StartupImportRunner {
     @PostConstruct
     public void runImports() {
         log.info("Starting genre import immediately after bean initialization...");
-        genreImportService.importGenres(
-                List.of("Rock", "Pop", "Classical", "Tech", "Country", "Folk")
-        );
-        log.info("Genre import complete.");
+        Set<String> genreNames = new LinkedHashSet<>(DEFAULT_GENRES);
+        genreNames.addAll(songImportService.discoverGenreNames());
+        int created = genreImportService.upsertGenres(genreNames);
+        log.info("Genre import complete: {} new genres.", created);
 
         log.info("Starting MP3 import immediately after bean initialization...");
-        songImportService.importSongs();
+        songImportService.importArchives();
+        if (queueEnabled) {
+            importQueueService.enqueueLibrary();
+            importQueueService.drain();
+        } else {
+            songImportService.importSongs();
+        }
         log.info("MP3 import complete.");
     }
 }
@@ -0,0 +1,143 @@
+package com.groovify.audio;
+
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.DecoderException;
+import javazoom.jl.decoder.Header;
+import javazoom.jl.decoder.JavaLayerException;
+import javazoom.jl.decoder.SampleBuffer;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Decodes MP3 files to mono PCM for analysis, using the pure-Java JLayer decoder.
+ * <p>
+ * Frames are decoded one at a time; each is mixed down to mono and reduced to
+ * {@link #ANALYSIS_RATE} (or kept at its own rate if lower) on the fly by averaging,
+ * so the full-rate signal is never held in memory. At most {@link #MAX_ANALYSIS_SECONDS}
+ * of audio is kept, although the whole file is still read to measure its duration,
+ * peak, and loudness at the original rate and channel layout.
+ * </p>
+ */
+public final class AudioDecoder {
+
+    /** Sample rate of decoded analysis audio. */
+    public static final int ANALYSIS_RATE = 11025;
+
+    /** Longest stretch of audio kept for analysis. */
+    public static final int MAX_ANALYSIS_SECONDS = 600;
+
+    private AudioDecoder() {
+    }
+
+    /**
+     * Decodes an MP3 file.
+     *
+     * @param file the MP3 file
+     * @return the decoded analysis audio
+     * @throws IOException if the file cannot be read or contains no decodable frames
+     */
+    public static DecodedAudio decode(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            return decode(in);
+        }
+    }
+
+    /**
+     * Decodes an MP3 stream. The stream is not closed.
+     *
+     * @param in the MP3 data
+     * @return the decoded analysis audio
+     * @throws IOException if the stream cannot be read or contains no decodable frames
+     */
+    public static DecodedAudio decode(InputStream in) throws IOException {
+        Bitstream bitstream = new Bitstream(in);
+        Decoder decoder = new Decoder();
+
+        float[] samples = new float[ANALYSIS_RATE * 30];
+        int count = 0;
+        int maxSamples = ANALYSIS_RATE * MAX_ANALYSIS_SECONDS;
+
+        int sourceRate = 0;
+        int analysisRate = 0;
+        int channels = 0;
+        float peak = 0;
+        long sourceFrames = 0;
+        LoudnessMeter loudness = null;
+
+        // Averaging resampler state: input samples per output sample, and the running bin
+        double step = 0;
+        double position = 0;
+        double binSum = 0;
+        int binCount = 0;
+
+        try {
+            Header header;
+            while ((header = bitstream.readFrame()) != null) {
+                SampleBuffer output;
+                try {
+                    output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+                } catch (DecoderException e) {
+                    // Skip a corrupt frame and carry on with the next one
+                    bitstream.closeFrame();
+                    continue;
+                }
+
+                if (sourceRate == 0) {
+                    sourceRate = output.getSampleFrequency();
+                    channels = Math.max(1, output.getChannelCount());
+                    // Low-rate files are kept at their own rate rather than upsampled
+                    analysisRate = Math.min(sourceRate, ANALYSIS_RATE);
+                    step = (double) sourceRate / analysisRate;
+                    loudness = new LoudnessMeter(sourceRate, channels);
+                }
+
+                short[] buffer = output.getBuffer();
+                int length = output.getBufferLength();
+                for (int i = 0; i + channels <= length; i += channels) {
+                    float mono = 0;
+                    for (int c = 0; c < channels; c++) {
+                        float value = buffer[i + c] / 32768f;
+                        peak = Math.max(peak, Math.abs(value));
+                        loudness.add(c, value);
+                        mono += value;
+                    }
+                    sourceFrames++;
+
+                    if (count >= maxSamples) {
+                        continue;
+                    }
+                    binSum += mono / channels;
+                    binCount++;
+                    position += 1;
+                    if (position >= step) {
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, Math.min(maxSamples, samples.length * 2));
+                        }
+                        samples[count++] = (float) (binSum / binCount);
+                        position -= step;
+                        binSum = 0;
+                        binCount = 0;
+                    }
+                }
+                bitstream.closeFrame();
+            }
+        } catch (JavaLayerException e) {
+            if (count == 0) {
+                throw new IOException("Could not decode MP3 data: " + e.getMessage(), e);
+            }
+            // Trailing garbage after valid audio; keep what was decoded
+        }
+
+        if (sourceRate == 0 || count == 0) {
+            throw new IOException("No decodable MP3 frames found");
+        }
+        return new DecodedAudio(Arrays.copyOf(samples, count), analysisRate, sourceRate, channels,
+                peak, loudness.integratedLoudness(), (double) sourceFrames / sourceRate);
+    }
+}
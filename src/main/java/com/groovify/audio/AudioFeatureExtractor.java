@@ -0,0 +1,390 @@
+package com.groovify.audio;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes the audio feature vector of a decoded song.
+ * <p>
+ * The signal is cut into overlapping Hann-windowed frames. Per-frame energy, spectral
+ * centroid, spectral rolloff, MFCCs, and spectral flux are computed on a dedicated
+ * {@link ForkJoinPool} whose parallelism is the analysis CPU budget; frame ranges are
+ * split recursively and their sums combined. The tempo is then estimated from the
+ * autocorrelation of the spectral flux envelope.
+ * </p>
+ */
+@Component
+public class AudioFeatureExtractor {
+
+    private static final Logger log = LoggerFactory.getLogger(AudioFeatureExtractor.class);
+
+    // About 93 ms per frame at the analysis rate, with 50% overlap
+    static final int FRAME_SIZE = 1024;
+    static final int HOP_SIZE = FRAME_SIZE / 2;
+
+    private static final int MEL_BANDS = 26;
+    private static final double ROLLOFF_FRACTION = 0.85;
+    private static final int MIN_BPM = 60;
+    private static final int MAX_BPM = 200;
+
+    // Frames processed by one fork-join task before it stops splitting
+    private static final int FRAMES_PER_TASK = 64;
+
+    // Frames quieter than this (RMS) carry no useful spectral shape
+    private static final double SILENCE_RMS = 1e-4;
+    private static final double SILENCE_DB = -100;
+
+    // Minimum periodicity (autocorrelation relative to lag 0) for a tempo to be reported
+    private static final double MIN_PERIODICITY = 0.1;
+
+    private static final Fft FFT = new Fft(FRAME_SIZE);
+    private static final double[] WINDOW = hannWindow(FRAME_SIZE);
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates the extractor and its analysis pool.
+     *
+     * @param parallelism number of analysis threads; 0 uses half of the available processors
+     */
+    public AudioFeatureExtractor(@Value("${groovify.analysis.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.pool = new ForkJoinPool(threads);
+        log.info("Audio analysis pool using {} thread(s)", threads);
+    }
+
+    /**
+     * Stops the analysis threads when the application shuts down.
+     */
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Computes the feature vector of a decoded song.
+     *
+     * @param audio the decoded song
+     * @return the feature values, laid out as described by {@link FeatureVectors}
+     */
+    public float[] extract(DecodedAudio audio) {
+        float[] samples = audio.getSamples();
+        int sampleRate = audio.getSampleRate();
+        int frames = samples.length < FRAME_SIZE ? 0 : 1 + (samples.length - FRAME_SIZE) / HOP_SIZE;
+        float[] vector = new float[FeatureVectors.DIMENSIONS];
+        if (frames == 0) {
+            vector[FeatureVectors.ENERGY] = (float) SILENCE_DB;
+            return vector;
+        }
+
+        MelFilterBank melBank = new MelFilterBank(sampleRate);
+        double[] flux = new double[frames];
+        FrameStats stats = pool.invoke(new FrameTask(samples, sampleRate, melBank, flux, 0, frames));
+
+        double voiced = Math.max(1, stats.voicedFrames);
+        vector[FeatureVectors.TEMPO] = (float) estimateTempo(flux, (double) sampleRate / HOP_SIZE);
+        vector[FeatureVectors.ENERGY] = (float) Math.max(SILENCE_DB, 10 * Math.log10(stats.meanSquareSum / frames));
+        vector[FeatureVectors.CENTROID] = (float) (stats.centroidSum / voiced);
+        vector[FeatureVectors.ROLLOFF] = (float) (stats.rolloffSum / voiced);
+        for (int i = 0; i < FeatureVectors.MFCC_COUNT; i++) {
+            vector[FeatureVectors.MFCC + i] = (float) (stats.mfccSum[i] / voiced);
+        }
+        return vector;
+    }
+
+    // -------------------------------------------------------
+    // FRAME ANALYSIS
+    // -------------------------------------------------------
+
+    /**
+     * Sums of per-frame features over a range of frames.
+     */
+    private static final class FrameStats {
+        private double meanSquareSum;
+        private double centroidSum;
+        private double rolloffSum;
+        private final double[] mfccSum = new double[FeatureVectors.MFCC_COUNT];
+        private int voicedFrames;
+
+        private FrameStats add(FrameStats other) {
+            meanSquareSum += other.meanSquareSum;
+            centroidSum += other.centroidSum;
+            rolloffSum += other.rolloffSum;
+            for (int i = 0; i < mfccSum.length; i++) mfccSum[i] += other.mfccSum[i];
+            voicedFrames += other.voicedFrames;
+            return this;
+        }
+    }
+
+    /**
+     * Analyses frames {@code [from, to)}, splitting the range until it is small enough.
+     * Each task writes the spectral flux of its own frames only, so no locking is needed.
+     */
+    private static final class FrameTask extends RecursiveTask<FrameStats> {
+
+        private final float[] samples;
+        private final int sampleRate;
+        private final MelFilterBank melBank;
+        private final double[] flux;
+        private final int from;
+        private final int to;
+
+        private FrameTask(float[] samples, int sampleRate, MelFilterBank melBank, double[] flux, int from, int to) {
+            this.samples = samples;
+            this.sampleRate = sampleRate;
+            this.melBank = melBank;
+            this.flux = flux;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected FrameStats compute() {
+            if (to - from > FRAMES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                FrameTask left = new FrameTask(samples, sampleRate, melBank, flux, from, mid);
+                left.fork();
+                FrameStats right = new FrameTask(samples, sampleRate, melBank, flux, mid, to).compute();
+                return left.join().add(right);
+            }
+            return computeDirectly();
+        }
+
+        private FrameStats computeDirectly() {
+            FrameStats stats = new FrameStats();
+            int bins = FRAME_SIZE / 2 + 1;
+            double[] frame = new double[FRAME_SIZE];
+            double[] magnitude = new double[bins];
+            double[] previous = new double[bins];
+            double binHz = (double) sampleRate / FRAME_SIZE;
+
+            // The flux of the first frame needs the spectrum of the frame before it
+            if (from > 0) {
+                loadFrame(from - 1, frame);
+                FFT.magnitudes(frame, previous);
+            }
+
+            for (int f = from; f < to; f++) {
+                double meanSquare = loadFrame(f, frame);
+                FFT.magnitudes(frame, magnitude);
+                stats.meanSquareSum += meanSquare;
+
+                double fluxSum = 0;
+                double magnitudeSum = 0;
+                double weightedSum = 0;
+                double powerSum = 0;
+                for (int k = 0; k < bins; k++) {
+                    double m = magnitude[k];
+                    fluxSum += Math.max(0, m - previous[k]);
+                    magnitudeSum += m;
+                    weightedSum += m * k * binHz;
+                    powerSum += m * m;
+                }
+                flux[f] = f == 0 ? 0 : fluxSum;
+
+                if (Math.sqrt(meanSquare) >= SILENCE_RMS && magnitudeSum > 0) {
+                    stats.centroidSum += weightedSum / magnitudeSum;
+                    stats.rolloffSum += rolloff(magnitude, powerSum, binHz);
+                    double[] mfcc = melBank.mfcc(magnitude);
+                    for (int i = 0; i < mfcc.length; i++) stats.mfccSum[i] += mfcc[i];
+                    stats.voicedFrames++;
+                }
+
+                double[] swap = previous;
+                previous = magnitude;
+                magnitude = swap;
+            }
+            return stats;
+        }
+
+        /**
+         * Copies frame {@code f} into {@code frame} with the window applied and returns
+         * the frame's mean square before windowing.
+         */
+        private double loadFrame(int f, double[] frame) {
+            int offset = f * HOP_SIZE;
+            double sumSquares = 0;
+            for (int i = 0; i < FRAME_SIZE; i++) {
+                double x = samples[offset + i];
+                sumSquares += x * x;
+                frame[i] = x * WINDOW[i];
+            }
+            return sumSquares / FRAME_SIZE;
+        }
+    }
+
+    /**
+     * Returns the frequency below which {@link #ROLLOFF_FRACTION} of the frame's power lies.
+     */
+    private static double rolloff(double[] magnitude, double powerSum, double binHz) {
+        double threshold = ROLLOFF_FRACTION * powerSum;
+        double cumulative = 0;
+        for (int k = 0; k < magnitude.length; k++) {
+            cumulative += magnitude[k] * magnitude[k];
+            if (cumulative >= threshold) {
+                return k * binHz;
+            }
+        }
+        return (magnitude.length - 1) * binHz;
+    }
+
+    // -------------------------------------------------------
+    // TEMPO
+    // -------------------------------------------------------
+
+    /**
+     * Estimates the tempo from the autocorrelation of the onset (spectral flux) envelope.
+     * Lags are weighted towards 120 BPM to prefer the beat over its half or double, and
+     * the peak is refined by parabolic interpolation.
+     *
+     * @param flux      the onset envelope, one value per frame
+     * @param frameRate envelope values per second
+     * @return the tempo in BPM, or 0 if the song is too short or has no onsets
+     */
+    static double estimateTempo(double[] flux, double frameRate) {
+        int minLag = (int) Math.floor(frameRate * 60 / MAX_BPM);
+        int maxLag = (int) Math.ceil(frameRate * 60 / MIN_BPM);
+        if (flux.length < maxLag * 4) {
+            return 0;
+        }
+
+        // Remove the local trend so sustained loud passages do not dominate
+        double[] detrended = new double[flux.length];
+        int radius = (int) Math.round(frameRate / 2);
+        double windowSum = 0;
+        int windowStart = 0, windowEnd = 0;
+        for (int i = 0; i < flux.length; i++) {
+            while (windowEnd < flux.length && windowEnd <= i + radius) windowSum += flux[windowEnd++];
+            while (windowStart < i - radius) windowSum -= flux[windowStart++];
+            detrended[i] = Math.max(0, flux[i] - windowSum / (windowEnd - windowStart));
+        }
+
+        // Light smoothing so beats that fall between frames still line up at one lag
+        double[] onset = new double[flux.length];
+        double energy = 0;
+        for (int i = 0; i < onset.length; i++) {
+            double before = i > 0 ? detrended[i - 1] : 0;
+            double after = i + 1 < onset.length ? detrended[i + 1] : 0;
+            onset[i] = 0.25 * before + 0.5 * detrended[i] + 0.25 * after;
+            energy += onset[i] * onset[i];
+        }
+        if (energy == 0) {
+            return 0;
+        }
+        energy /= onset.length;
+
+        double[] score = new double[maxLag + 2];
+        double best = 0;
+        double bestPeriodicity = 0;
+        int bestLag = -1;
+        for (int lag = Math.max(1, minLag - 1); lag <= maxLag + 1; lag++) {
+            double sum = 0;
+            for (int i = lag; i < onset.length; i++) {
+                sum += onset[i] * onset[i - lag];
+            }
+            double periodicity = sum / (onset.length - lag) / energy;
+            double bpm = frameRate * 60 / lag;
+            double octaves = Math.log(bpm / 120) / Math.log(2);
+            score[lag] = periodicity * Math.exp(-0.5 * octaves * octaves);
+            if (lag >= minLag && lag <= maxLag && score[lag] > best) {
+                best = score[lag];
+                bestPeriodicity = periodicity;
+                bestLag = lag;
+            }
+        }
+        if (bestLag < 0 || bestPeriodicity < MIN_PERIODICITY) {
+            return 0;
+        }
+
+        double shift = 0;
+        double left = score[bestLag - 1];
+        double right = score[bestLag + 1];
+        double curvature = left - 2 * best + right;
+        if (curvature < 0) {
+            shift = 0.5 * (left - right) / curvature;
+        }
+        return frameRate * 60 / (bestLag + shift);
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private static double[] hannWindow(int size) {
+        double[] window = new double[size];
+        for (int i = 0; i < size; i++) {
+            window[i] = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / (size - 1));
+        }
+        return window;
+    }
+
+    /**
+     * Triangular mel filters followed by a DCT, turning a magnitude spectrum into MFCCs.
+     */
+    private static final class MelFilterBank {
+
+        private final double[][] filters = new double[MEL_BANDS][];
+        private final int[] firstBin = new int[MEL_BANDS];
+
+        private MelFilterBank(int sampleRate) {
+            int bins = FRAME_SIZE / 2 + 1;
+            double binHz = (double) sampleRate / FRAME_SIZE;
+            double maxMel = hzToMel(sampleRate / 2.0);
+
+            double[] edges = new double[MEL_BANDS + 2];
+            for (int i = 0; i < edges.length; i++) {
+                edges[i] = melToHz(maxMel * i / (MEL_BANDS + 1));
+            }
+
+            for (int band = 0; band < MEL_BANDS; band++) {
+                double low = edges[band], centre = edges[band + 1], high = edges[band + 2];
+                int start = (int) Math.ceil(low / binHz);
+                int end = Math.min(bins - 1, (int) Math.floor(high / binHz));
+                double[] weights = new double[Math.max(0, end - start + 1)];
+                for (int k = start; k <= end; k++) {
+                    double hz = k * binHz;
+                    weights[k - start] = hz <= centre ? (hz - low) / (centre - low) : (high - hz) / (high - centre);
+                }
+                filters[band] = weights;
+                firstBin[band] = start;
+            }
+        }
+
+        private double[] mfcc(double[] magnitude) {
+            double[] logEnergy = new double[MEL_BANDS];
+            for (int band = 0; band < MEL_BANDS; band++) {
+                double energy = 0;
+                double[] weights = filters[band];
+                for (int i = 0; i < weights.length; i++) {
+                    double m = magnitude[firstBin[band] + i];
+                    energy += weights[i] * m * m;
+                }
+                logEnergy[band] = Math.log(energy + 1e-10);
+            }
+
+            double[] coefficients = new double[FeatureVectors.MFCC_COUNT];
+            for (int c = 0; c < coefficients.length; c++) {
+                double sum = 0;
+                for (int band = 0; band < MEL_BANDS; band++) {
+                    sum += logEnergy[band] * Math.cos(Math.PI * c * (band + 0.5) / MEL_BANDS);
+                }
+                coefficients[c] = sum;
+            }
+            return coefficients;
+        }
+
+        private static double hzToMel(double hz) {
+            return 2595 * Math.log10(1 + hz / 700);
+        }
+
+        private static double melToHz(double mel) {
+            return 700 * (Math.pow(10, mel / 2595) - 1);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.groovify.audio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Computes acoustic fingerprints from the pitch content (chroma) of decoded audio.
+ * <p>
+ * The signal is cut into frames of {@link #FRAME_SIZE} samples, about a third of a
+ * second apart, and each frame's spectrum between 28 Hz and 3.5 kHz is folded into the
+ * twelve pitch classes. The chroma is smoothed over a few frames, and each frame becomes
+ * one 32-bit sub-fingerprint made of comparisons:
+ * </p>
+ * <ul>
+ *     <li>bits 0-23 describe the shape of the chroma (which pitch classes are stronger
+ *     than their neighbours a semitone and a major third away); these bits do not
+ *     depend on volume or encoding and form the {@link #key(int) lookup key}</li>
+ *     <li>bits 24-31 describe how the chroma and overall level change over time</li>
+ * </ul>
+ * <p>
+ * Because only relations between values are kept, re-encodes at other bitrates, volume
+ * changes, and mild filtering produce nearly the same bits, and a trimmed copy produces
+ * the same sequence shifted by the trimmed number of frames.
+ * </p>
+ */
+public final class ChromaFingerprinter {
+
+    /** Samples per analysis frame. */
+    public static final int FRAME_SIZE = 4096;
+
+    /** Samples between the starts of consecutive frames. */
+    public static final int HOP_SIZE = FRAME_SIZE / 3;
+
+    private static final int PITCH_CLASSES = 12;
+    private static final double MIN_FREQUENCY = 28;
+    private static final double MAX_FREQUENCY = 3520;
+    private static final int SMOOTHING_FRAMES = 5;
+    private static final int CHANGE_DISTANCE = 3;
+
+    private static final Fft FFT = new Fft(FRAME_SIZE);
+    private static final double[] WINDOW = hammingWindow(FRAME_SIZE);
+
+    private ChromaFingerprinter() {
+    }
+
+    /**
+     * Computes the fingerprint of a decoded song.
+     *
+     * @param audio the decoded song
+     * @return one sub-fingerprint per frame; empty if the song is too short
+     */
+    public static int[] fingerprint(DecodedAudio audio) {
+        float[] samples = audio.getSamples();
+        int frames = samples.length < FRAME_SIZE ? 0 : 1 + (samples.length - FRAME_SIZE) / HOP_SIZE;
+        int warmup = SMOOTHING_FRAMES - 1 + 2 * CHANGE_DISTANCE;
+        if (frames <= warmup) {
+            return new int[0];
+        }
+
+        int[] pitchClass = pitchClassPerBin(audio.getSampleRate());
+        double[][] chroma = new double[frames][];
+        double[] level = new double[frames];
+        double[] frame = new double[FRAME_SIZE];
+        double[] magnitude = new double[FRAME_SIZE / 2 + 1];
+
+        for (int f = 0; f < frames; f++) {
+            int offset = f * HOP_SIZE;
+            for (int i = 0; i < FRAME_SIZE; i++) {
+                frame[i] = samples[offset + i] * WINDOW[i];
+            }
+            FFT.magnitudes(frame, magnitude);
+
+            double[] bins = new double[PITCH_CLASSES];
+            double total = 0;
+            for (int k = 0; k < magnitude.length; k++) {
+                if (pitchClass[k] >= 0) {
+                    double energy = magnitude[k] * magnitude[k];
+                    bins[pitchClass[k]] += energy;
+                    total += energy;
+                }
+            }
+            if (total > 0) {
+                for (int i = 0; i < PITCH_CLASSES; i++) bins[i] /= total;
+            }
+            chroma[f] = bins;
+            level[f] = total;
+        }
+
+        // Moving average over the previous frames to steady the chroma
+        double[][] smooth = new double[frames][PITCH_CLASSES];
+        double[] smoothLevel = new double[frames];
+        for (int f = SMOOTHING_FRAMES - 1; f < frames; f++) {
+            for (int j = f - SMOOTHING_FRAMES + 1; j <= f; j++) {
+                for (int i = 0; i < PITCH_CLASSES; i++) smooth[f][i] += chroma[j][i];
+                smoothLevel[f] += level[j];
+            }
+        }
+
+        int[] fingerprint = new int[frames - warmup];
+        for (int f = warmup; f < frames; f++) {
+            fingerprint[f - warmup] = subFingerprint(smooth, smoothLevel, f);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Returns the part of a sub-fingerprint used to look it up in an index.
+     *
+     * @param subFingerprint one frame of a fingerprint
+     * @return the chroma-shape bits
+     */
+    public static int key(int subFingerprint) {
+        return subFingerprint & 0xFFFFFF;
+    }
+
+    /**
+     * Returns the fraction of differing bits between two fingerprints, where frame
+     * {@code i} of {@code a} is aligned with frame {@code i + offset} of {@code b}.
+     *
+     * @param a      the first fingerprint
+     * @param b      the second fingerprint
+     * @param offset the position in {@code b} of the first frame of {@code a}; may be negative
+     * @return the bit error rate over the overlapping frames, or 1.0 if they do not overlap
+     */
+    public static double bitErrorRate(int[] a, int[] b, int offset) {
+        int start = Math.max(0, -offset);
+        int end = Math.min(a.length, b.length - offset);
+        if (end <= start) {
+            return 1.0;
+        }
+        long errors = 0;
+        for (int i = start; i < end; i++) {
+            errors += Integer.bitCount(a[i] ^ b[i + offset]);
+        }
+        return (double) errors / (32L * (end - start));
+    }
+
+    /**
+     * Returns the number of frames two fingerprints share at the given alignment.
+     *
+     * @param a      the first fingerprint
+     * @param b      the second fingerprint
+     * @param offset the position in {@code b} of the first frame of {@code a}
+     * @return the overlap in frames
+     */
+    public static int overlap(int[] a, int[] b, int offset) {
+        return Math.max(0, Math.min(a.length, b.length - offset) - Math.max(0, -offset));
+    }
+
+    /**
+     * Encodes a fingerprint for storage as little-endian 32-bit values.
+     *
+     * @param fingerprint the fingerprint
+     * @return the packed bytes
+     */
+    public static byte[] pack(int[] fingerprint) {
+        ByteBuffer buffer = ByteBuffer.allocate(fingerprint.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asIntBuffer().put(fingerprint);
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a stored fingerprint.
+     *
+     * @param packed the packed bytes
+     * @return the fingerprint
+     */
+    public static int[] unpack(byte[] packed) {
+        int[] fingerprint = new int[packed.length / Integer.BYTES];
+        ByteBuffer.wrap(packed).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(fingerprint);
+        return fingerprint;
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private static int subFingerprint(double[][] chroma, double[] level, int f) {
+        double[] now = chroma[f];
+        double[] before = chroma[f - CHANGE_DISTANCE];
+        int bits = 0;
+        int bit = 0;
+
+        for (int i = 0; i < PITCH_CLASSES; i++) {
+            if (now[i] > now[(i + 1) % PITCH_CLASSES]) bits |= 1 << bit;
+            bit++;
+        }
+        for (int i = 0; i < PITCH_CLASSES; i++) {
+            if (now[i] > now[(i + 4) % PITCH_CLASSES]) bits |= 1 << bit;
+            bit++;
+        }
+
+        // Change over time of each tritone pair, and of the overall level
+        for (int i = 0; i < PITCH_CLASSES / 2; i++) {
+            if (now[i] + now[i + 6] > before[i] + before[i + 6]) bits |= 1 << bit;
+            bit++;
+        }
+        if (level[f] > level[f - CHANGE_DISTANCE]) bits |= 1 << bit;
+        bit++;
+        if (level[f] > level[f - 2 * CHANGE_DISTANCE]) bits |= 1 << bit;
+        return bits;
+    }
+
+    /**
+     * Maps every FFT bin to its pitch class (0 = A), or -1 if it is outside the analysed range.
+     */
+    private static int[] pitchClassPerBin(int sampleRate) {
+        int[] pitchClass = new int[FRAME_SIZE / 2 + 1];
+        double binHz = (double) sampleRate / FRAME_SIZE;
+        for (int k = 0; k < pitchClass.length; k++) {
+            double hz = k * binHz;
+            if (hz < MIN_FREQUENCY || hz > MAX_FREQUENCY) {
+                pitchClass[k] = -1;
+            } else {
+                long semitone = Math.round(PITCH_CLASSES * Math.log(hz / 440) / Math.log(2));
+                pitchClass[k] = (int) Math.floorMod(semitone, PITCH_CLASSES);
+            }
+        }
+        return pitchClass;
+    }
+
+    private static double[] hammingWindow(int size) {
+        double[] window = new double[size];
+        for (int i = 0; i < size; i++) {
+            window[i] = 0.54 - 0.46 * Math.cos(2 * Math.PI * i / (size - 1));
+        }
+        return window;
+    }
+}
@@ -0,0 +1,107 @@
+package com.groovify.audio;
+
+/**
+ * Decoded audio of one song, reduced to what the analysis stages need.
+ * <p>
+ * Samples are mono, in the range [-1, 1], and resampled to at most
+ * {@link AudioDecoder#ANALYSIS_RATE} so that songs are analysed at the same rate with a
+ * bounded amount of memory. Properties that depend on the original signal, such as
+ * the sample peak and loudness, are measured during decoding before the signal is
+ * reduced.
+ * </p>
+ */
+public final class DecodedAudio {
+
+    private final float[] samples;
+    private final int sampleRate;
+    private final int sourceSampleRate;
+    private final int channels;
+    private final float peak;
+    private final double loudness;
+    private final double durationSeconds;
+
+    /**
+     * Creates decoded audio.
+     *
+     * @param samples          mono samples at {@code sampleRate}
+     * @param sampleRate       the rate of {@code samples}
+     * @param sourceSampleRate the sample rate of the original file
+     * @param channels         the channel count of the original file
+     * @param peak             the largest absolute sample value of the original signal
+     * @param loudness         the integrated loudness of the original signal in LUFS
+     * @param durationSeconds  the duration of the whole file, including any part not kept in {@code samples}
+     */
+    public DecodedAudio(float[] samples, int sampleRate, int sourceSampleRate, int channels,
+                        float peak, double loudness, double durationSeconds) {
+        this.samples = samples;
+        this.sampleRate = sampleRate;
+        this.sourceSampleRate = sourceSampleRate;
+        this.channels = channels;
+        this.peak = peak;
+        this.loudness = loudness;
+        this.durationSeconds = durationSeconds;
+    }
+
+    /**
+     * Returns the mono analysis samples. The array is shared, not copied.
+     *
+     * @return the samples
+     */
+    public float[] getSamples() {
+        return samples;
+    }
+
+    /**
+     * Returns the sample rate of {@link #getSamples()}.
+     *
+     * @return the rate in Hz
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Returns the sample rate of the original file.
+     *
+     * @return the rate in Hz
+     */
+    public int getSourceSampleRate() {
+        return sourceSampleRate;
+    }
+
+    /**
+     * Returns the number of channels of the original file.
+     *
+     * @return 1 for mono, 2 for stereo
+     */
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * Returns the largest absolute sample value of the original signal.
+     *
+     * @return the peak, where 1.0 is full scale
+     */
+    public float getPeak() {
+        return peak;
+    }
+
+    /**
+     * Returns the integrated loudness of the original signal, measured as in ITU-R BS.1770.
+     *
+     * @return the loudness in LUFS, or {@link Double#NEGATIVE_INFINITY} if the file is silent
+     */
+    public double getLoudness() {
+        return loudness;
+    }
+
+    /**
+     * Returns the duration of the whole file.
+     *
+     * @return the duration in seconds
+     */
+    public double getDurationSeconds() {
+        return durationSeconds;
+    }
+}
@@ -0,0 +1,81 @@
+package com.groovify.audio;
+
+import java.util.Collection;
+
+/**
+ * Similarity between feature vectors, standardised over a set of songs.
+ * <p>
+ * The raw features have very different units (BPM, dB, Hz, cepstral coefficients), so
+ * every dimension is converted to a z-score using the mean and standard deviation of
+ * the vectors the space was built from before comparing with cosine similarity.
+ * </p>
+ */
+public final class FeatureSpace {
+
+    private final double[] mean = new double[FeatureVectors.DIMENSIONS];
+    private final double[] deviation = new double[FeatureVectors.DIMENSIONS];
+
+    /**
+     * Builds the space from a set of vectors.
+     *
+     * @param vectors the vectors whose statistics define the space
+     */
+    public FeatureSpace(Collection<float[]> vectors) {
+        int n = Math.max(1, vectors.size());
+        for (float[] v : vectors) {
+            for (int i = 0; i < mean.length; i++) mean[i] += v[i];
+        }
+        for (int i = 0; i < mean.length; i++) mean[i] /= n;
+
+        for (float[] v : vectors) {
+            for (int i = 0; i < mean.length; i++) {
+                double d = v[i] - mean[i];
+                deviation[i] += d * d;
+            }
+        }
+        for (int i = 0; i < deviation.length; i++) {
+            double sd = Math.sqrt(deviation[i] / n);
+            deviation[i] = sd > 1e-9 ? sd : 1.0;
+        }
+    }
+
+    /**
+     * Returns the cosine similarity of two vectors after standardisation.
+     *
+     * @param a the first vector
+     * @param b the second vector
+     * @return a value from -1 (opposite) to 1 (identical direction)
+     */
+    public double similarity(float[] a, float[] b) {
+        double dot = 0, normA = 0, normB = 0;
+        for (int i = 0; i < mean.length; i++) {
+            double za = (a[i] - mean[i]) / deviation[i];
+            double zb = (b[i] - mean[i]) / deviation[i];
+            dot += za * zb;
+            normA += za * za;
+            normB += zb * zb;
+        }
+        if (normA == 0 || normB == 0) {
+            return 0;
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+
+    /**
+     * Returns the element-wise mean of a set of vectors, for use as a profile.
+     *
+     * @param vectors the vectors to average
+     * @return the mean vector, or null if {@code vectors} is empty
+     */
+    public static float[] centroid(Collection<float[]> vectors) {
+        if (vectors.isEmpty()) {
+            return null;
+        }
+        float[] sum = new float[FeatureVectors.DIMENSIONS];
+        for (float[] v : vectors) {
+            for (int i = 0; i < sum.length; i++) sum[i] += v[i];
+        }
+        for (int i = 0; i < sum.length; i++) sum[i] /= vectors.size();
+        return sum;
+    }
+}
@@ -0,0 +1,69 @@
+package com.groovify.audio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Layout and binary encoding of the per-song audio feature vector.
+ * <p>
+ * A vector holds {@link #DIMENSIONS} floats in the order given by the index constants
+ * and is stored as little-endian 32-bit floats, {@link #PACKED_BYTES} bytes per song.
+ * </p>
+ */
+public final class FeatureVectors {
+
+    /** Number of MFCC coefficients in the vector. */
+    public static final int MFCC_COUNT = 13;
+
+    /** Estimated tempo in beats per minute. */
+    public static final int TEMPO = 0;
+    /** Mean frame energy in dBFS. */
+    public static final int ENERGY = 1;
+    /** Mean spectral centroid in Hz. */
+    public static final int CENTROID = 2;
+    /** Mean 85% spectral rolloff in Hz. */
+    public static final int ROLLOFF = 3;
+    /** First of {@link #MFCC_COUNT} mean MFCC coefficients. */
+    public static final int MFCC = 4;
+
+    /** Number of values in a vector. */
+    public static final int DIMENSIONS = MFCC + MFCC_COUNT;
+
+    /** Size of a packed vector. */
+    public static final int PACKED_BYTES = DIMENSIONS * Float.BYTES;
+
+    private FeatureVectors() {
+    }
+
+    /**
+     * Encodes a vector for storage.
+     *
+     * @param vector the feature values
+     * @return the packed bytes
+     */
+    public static byte[] pack(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (float value : vector) {
+            buffer.putFloat(value);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a stored vector.
+     *
+     * @param packed the packed bytes, or null
+     * @return the feature values, or null if {@code packed} is null or not a complete vector
+     */
+    public static float[] unpack(byte[] packed) {
+        if (packed == null || packed.length != PACKED_BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(packed).order(ByteOrder.LITTLE_ENDIAN);
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = buffer.getFloat();
+        }
+        return vector;
+    }
+}
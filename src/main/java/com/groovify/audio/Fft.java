@@ -0,0 +1,98 @@
+package com.groovify.audio;
+
+/**
+ * In-place radix-2 fast Fourier transform of a fixed size.
+ * <p>
+ * Twiddle factors and the bit-reversal table are computed once per instance, so one
+ * instance can be shared by all threads analysing frames of the same size.
+ * </p>
+ */
+public final class Fft {
+
+    private final int size;
+    private final double[] cos;
+    private final double[] sin;
+    private final int[] reversed;
+
+    /**
+     * Creates a transform for frames of the given size.
+     *
+     * @param size the frame size; must be a power of two
+     */
+    public Fft(int size) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("FFT size must be a power of two: " + size);
+        }
+        this.size = size;
+        this.cos = new double[size / 2];
+        this.sin = new double[size / 2];
+        for (int i = 0; i < size / 2; i++) {
+            cos[i] = Math.cos(-2 * Math.PI * i / size);
+            sin[i] = Math.sin(-2 * Math.PI * i / size);
+        }
+
+        int bits = Integer.numberOfTrailingZeros(size);
+        this.reversed = new int[size];
+        for (int i = 0; i < size; i++) {
+            reversed[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+    }
+
+    /**
+     * Returns the frame size.
+     *
+     * @return the number of points
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Transforms the complex signal in place.
+     *
+     * @param re real parts, of length {@link #size()}
+     * @param im imaginary parts, of length {@link #size()}
+     */
+    public void transform(double[] re, double[] im) {
+        for (int i = 0; i < size; i++) {
+            int j = reversed[i];
+            if (j > i) {
+                double t = re[i]; re[i] = re[j]; re[j] = t;
+                t = im[i]; im[i] = im[j]; im[j] = t;
+            }
+        }
+
+        for (int half = 1; half < size; half <<= 1) {
+            int stride = size / (half * 2);
+            for (int start = 0; start < size; start += half * 2) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[k * stride];
+                    double wi = sin[k * stride];
+                    int a = start + k;
+                    int b = a + half;
+                    double tr = re[b] * wr - im[b] * wi;
+                    double ti = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the magnitude spectrum of a real frame.
+     *
+     * @param frame     the real samples, of length {@link #size()}; not modified
+     * @param magnitude receives {@code size / 2 + 1} magnitudes, from DC to Nyquist
+     */
+    public void magnitudes(double[] frame, double[] magnitude) {
+        double[] re = frame.clone();
+        double[] im = new double[size];
+        transform(re, im);
+        for (int k = 0; k <= size / 2; k++) {
+            magnitude[k] = Math.sqrt(re[k] * re[k] + im[k] * im[k]);
+        }
+    }
+}
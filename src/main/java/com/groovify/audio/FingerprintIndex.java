@@ -0,0 +1,220 @@
+package com.groovify.audio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from fingerprint lookup keys to the songs and positions
+ * where they occur.
+ * <p>
+ * Only the first frame of each run of equal keys is indexed: held chords repeat the
+ * same key for many frames, while the frames where the key changes line up between
+ * copies of a recording. A lookup reads the postings of the query's keys and counts
+ * votes per (song, alignment); recordings that share a stretch of audio collect many
+ * votes at one alignment, so only a handful of candidates need to be compared in full,
+ * however large the library is.
+ * </p>
+ * <p>
+ * Removed songs are skipped by lookups at once, and their postings are purged in one
+ * pass over the index once removed songs make up an eighth of it, or as soon as a
+ * removed song is added again, so its old fingerprint cannot vote for it.
+ * </p>
+ * <p>
+ * The index is safe for concurrent use.
+ * </p>
+ */
+public final class FingerprintIndex {
+
+    /**
+     * A song that shares keys with a query at a consistent alignment.
+     *
+     * @param songId the matching song
+     * @param offset the position in the song's fingerprint of the query's first frame
+     * @param votes  the number of query keys found at that alignment
+     */
+    public record Candidate(long songId, int offset, int votes) {
+    }
+
+    // Postings pack the song ID into the high bits and the frame position into the low bits
+    private static final int POSITION_BITS = 24;
+    private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+
+    // Postings are purged once removed songs reach this fraction (1/n) of the indexed songs
+    private static final int PURGE_RATIO = 8;
+
+    private final Map<Integer, Postings> postings = new HashMap<>();
+    private final Set<Long> indexed = new HashSet<>();
+    private final Set<Long> removed = new HashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a song's fingerprint to the index.
+     *
+     * @param songId      the song
+     * @param fingerprint the song's fingerprint
+     */
+    public void add(long songId, int[] fingerprint) {
+        lock.writeLock().lock();
+        try {
+            if (removed.contains(songId)) {
+                purgeRemoved();
+            }
+            int previous = -1;
+            int limit = (int) Math.min(fingerprint.length, POSITION_MASK + 1);
+            for (int position = 0; position < limit; position++) {
+                int key = ChromaFingerprinter.key(fingerprint[position]);
+                if (key == previous) continue;
+                previous = key;
+
+                postings.computeIfAbsent(key, k -> new Postings()).add((songId << POSITION_BITS) | position);
+            }
+            indexed.add(songId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a song from lookup results. Its postings are skipped by {@link #candidates}
+     * from now on, and purged with those of other removed songs once there are enough.
+     *
+     * @param songId the song to remove
+     */
+    public void remove(long songId) {
+        lock.writeLock().lock();
+        try {
+            if (indexed.contains(songId) && removed.add(songId) && removed.size() * PURGE_RATIO >= indexed.size()) {
+                purgeRemoved();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a song's fingerprint is in the index and not removed.
+     *
+     * @param songId the song
+     * @return true if lookups can return the song
+     */
+    public boolean contains(long songId) {
+        lock.readLock().lock();
+        try {
+            return indexed.contains(songId) && !removed.contains(songId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of fingerprints in the index, not counting removed songs.
+     *
+     * @return the song count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return indexed.size() - removed.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds songs that share keys with a fingerprint, best first. Alignments within a
+     * few frames of each other are counted together, since encoders can shift where
+     * keys change by a frame or two; the returned offset is the start of that range.
+     *
+     * @param fingerprint the query fingerprint
+     * @param minVotes    the fewest votes a candidate needs
+     * @param limit       the maximum number of candidates
+     * @return the candidates, at most one per song
+     */
+    public List<Candidate> candidates(int[] fingerprint, int minVotes, int limit) {
+        Map<Long, Integer> votes = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int previous = -1;
+            for (int position = 0; position < fingerprint.length; position++) {
+                int key = ChromaFingerprinter.key(fingerprint[position]);
+                if (key == previous) continue;
+                previous = key;
+
+                Postings list = postings.get(key);
+                if (list == null) continue;
+                for (int i = 0; i < list.size; i++) {
+                    long songId = list.items[i] >>> POSITION_BITS;
+                    if (removed.contains(songId)) continue;
+                    int offset = (int) (list.items[i] & POSITION_MASK) - position;
+                    // Buckets of 4 frames; offset + 2^24 keeps the bucket non-negative
+                    long bucket = (songId << (POSITION_BITS + 1)) | ((offset + (1L << POSITION_BITS)) >> 2);
+                    votes.merge(bucket, 1, Integer::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<Long, Candidate> best = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : votes.entrySet()) {
+            long bucket = entry.getKey();
+            // Neighbouring buckets catch alignments that straddle a bucket boundary
+            int total = entry.getValue() + votes.getOrDefault(bucket + 1, 0);
+            if (total < minVotes) continue;
+
+            long songId = bucket >>> (POSITION_BITS + 1);
+            int offset = (int) (((bucket & ((1L << (POSITION_BITS + 1)) - 1)) << 2) - (1L << POSITION_BITS));
+            Candidate current = best.get(songId);
+            if (current == null || total > current.votes()) {
+                best.put(songId, new Candidate(songId, offset, total));
+            }
+        }
+
+        List<Candidate> result = new ArrayList<>(best.values());
+        result.sort(Comparator.comparingInt(Candidate::votes).reversed());
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    /**
+     * Drops the postings of every removed song in one pass over the index. Must be called
+     * with the write lock held.
+     */
+    private void purgeRemoved() {
+        Iterator<Postings> lists = postings.values().iterator();
+        while (lists.hasNext()) {
+            Postings list = lists.next();
+            int kept = 0;
+            for (int i = 0; i < list.size; i++) {
+                if (!removed.contains(list.items[i] >>> POSITION_BITS)) list.items[kept++] = list.items[i];
+            }
+            list.size = kept;
+            if (kept == 0) lists.remove();
+        }
+        indexed.removeAll(removed);
+        removed.clear();
+    }
+
+    /**
+     * Growable list of packed postings for one key.
+     */
+    private static final class Postings {
+        private long[] items = new long[4];
+        private int size;
+
+        private void add(long posting) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = posting;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.groovify.audio;
+
+import java.util.Arrays;
+
+/**
+ * Integrated loudness meter following ITU-R BS.1770.
+ * <p>
+ * Each channel is K-weighted (a high shelf around 1.7 kHz followed by a 38 Hz
+ * high-pass) and its mean square is accumulated in 100 ms steps. When the measurement
+ * is read, 400 ms blocks with 75% overlap are built from those steps and gated: blocks
+ * below -70 LUFS are ignored, then blocks more than 10 LU below the loudness of the
+ * remaining ones. The meter works at the file's own sample rate and keeps only one
+ * value per 100 ms, so whole songs can be measured while they are decoded.
+ * </p>
+ */
+public final class LoudnessMeter {
+
+    private static final double ABSOLUTE_GATE_LUFS = -70;
+    private static final double RELATIVE_GATE_LU = -10;
+    private static final int STEPS_PER_BLOCK = 4;
+
+    private final int channels;
+    private final int stepLength;
+
+    // K-weighting filter coefficients, shared by all channels
+    private final double shelfB0, shelfB1, shelfB2, shelfA1, shelfA2;
+    private final double passA1, passA2;
+
+    // Filter state per channel: two delay elements per biquad
+    private final double[] shelfZ1, shelfZ2, passZ1, passZ2;
+
+    private double stepSum;
+    private int stepCount;
+    private double[] steps = new double[1024];
+    private int stepTotal;
+
+    /**
+     * Creates a meter for audio with the given format.
+     *
+     * @param sampleRate the sample rate in Hz
+     * @param channels   the number of interleaved channels
+     */
+    public LoudnessMeter(int sampleRate, int channels) {
+        this.channels = channels;
+        this.stepLength = Math.max(1, Math.round(sampleRate / 10f));
+
+        double k = Math.tan(Math.PI * 1681.974450955533 / sampleRate);
+        double q = 0.7071752369554196;
+        double vh = Math.pow(10, 3.999843853973347 / 20);
+        double vb = Math.pow(vh, 0.4996667741545416);
+        double a0 = 1 + k / q + k * k;
+        shelfB0 = (vh + vb * k / q + k * k) / a0;
+        shelfB1 = 2 * (k * k - vh) / a0;
+        shelfB2 = (vh - vb * k / q + k * k) / a0;
+        shelfA1 = 2 * (k * k - 1) / a0;
+        shelfA2 = (1 - k / q + k * k) / a0;
+
+        k = Math.tan(Math.PI * 38.13547087602444 / sampleRate);
+        q = 0.5003270373238773;
+        a0 = 1 + k / q + k * k;
+        passA1 = 2 * (k * k - 1) / a0;
+        passA2 = (1 - k / q + k * k) / a0;
+
+        shelfZ1 = new double[channels];
+        shelfZ2 = new double[channels];
+        passZ1 = new double[channels];
+        passZ2 = new double[channels];
+    }
+
+    /**
+     * Adds one sample of one channel. Samples must be added in interleaved order, and a
+     * multichannel sample frame is complete once its last channel has been added.
+     *
+     * @param channel the channel index
+     * @param value   the sample value, where 1.0 is full scale
+     */
+    public void add(int channel, double value) {
+        // Direct form II transposed biquads
+        double shelved = shelfB0 * value + shelfZ1[channel];
+        shelfZ1[channel] = shelfB1 * value - shelfA1 * shelved + shelfZ2[channel];
+        shelfZ2[channel] = shelfB2 * value - shelfA2 * shelved;
+
+        double weighted = shelved + passZ1[channel];
+        passZ1[channel] = -2 * shelved - passA1 * weighted + passZ2[channel];
+        passZ2[channel] = shelved - passA2 * weighted;
+
+        stepSum += weighted * weighted;
+        if (channel == channels - 1 && ++stepCount == stepLength) {
+            if (stepTotal == steps.length) {
+                steps = Arrays.copyOf(steps, steps.length * 2);
+            }
+            steps[stepTotal++] = stepSum / stepLength;
+            stepSum = 0;
+            stepCount = 0;
+        }
+    }
+
+    /**
+     * Returns the gated integrated loudness of everything added so far. An incomplete
+     * final 100 ms step is not included.
+     *
+     * @return the loudness in LUFS, or {@link Double#NEGATIVE_INFINITY} if the audio is
+     *         silent or shorter than one block
+     */
+    public double integratedLoudness() {
+        int blocks = stepTotal - STEPS_PER_BLOCK + 1;
+        if (blocks <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        double[] power = new double[blocks];
+        double window = 0;
+        for (int i = 0; i < stepTotal; i++) {
+            window += steps[i];
+            if (i >= STEPS_PER_BLOCK) window -= steps[i - STEPS_PER_BLOCK];
+            if (i >= STEPS_PER_BLOCK - 1) power[i - STEPS_PER_BLOCK + 1] = window / STEPS_PER_BLOCK;
+        }
+
+        double absoluteGate = toPower(ABSOLUTE_GATE_LUFS);
+        double relativeGate = toPower(toLoudness(meanAbove(power, absoluteGate)) + RELATIVE_GATE_LU);
+        return toLoudness(meanAbove(power, Math.max(absoluteGate, relativeGate)));
+    }
+
+    private static double meanAbove(double[] power, double gate) {
+        double sum = 0;
+        int count = 0;
+        for (double p : power) {
+            if (p > gate) {
+                sum += p;
+                count++;
+            }
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    private static double toLoudness(double power) {
+        return power > 0 ? -0.691 + 10 * Math.log10(power) : Double.NEGATIVE_INFINITY;
+    }
+
+    private static double toPower(double loudness) {
+        return Math.pow(10, (loudness + 0.691) / 10);
+    }
+}
@@ -0,0 +1,51 @@
+package com.groovify.audio;
+
+/**
+ * Converts a song's measured loudness into the gain applied during playback, in the
+ * style of ReplayGain 2.0.
+ * <p>
+ * Every song is moved to {@link #TARGET_LUFS}, but boosts are capped so that the
+ * song's sample peak never exceeds full scale, and both boosts and cuts are limited to
+ * keep badly measured files from becoming inaudible or harsh.
+ * </p>
+ */
+public final class PlaybackGain {
+
+    /** Loudness every song is normalized to. */
+    public static final double TARGET_LUFS = -18;
+
+    private static final double MAX_BOOST_DB = 12;
+    private static final double MAX_CUT_DB = -24;
+
+    private PlaybackGain() {
+    }
+
+    /**
+     * Returns the gain for a song in decibels.
+     *
+     * @param loudness the song's integrated loudness in LUFS, or null if unknown
+     * @param peak     the song's sample peak where 1.0 is full scale, or null if unknown
+     * @return the gain in dB, or 0 if the loudness is unknown
+     */
+    public static double decibels(Float loudness, Float peak) {
+        if (loudness == null || !Float.isFinite(loudness)) {
+            return 0;
+        }
+        double gain = TARGET_LUFS - loudness;
+        if (peak != null && peak > 0) {
+            gain = Math.min(gain, -20 * Math.log10(peak));
+        }
+        return Math.max(MAX_CUT_DB, Math.min(MAX_BOOST_DB, gain));
+    }
+
+    /**
+     * Returns the gain for a song as a linear factor, as used by a Web Audio gain node.
+     *
+     * @param loudness the song's integrated loudness in LUFS, or null if unknown
+     * @param peak     the song's sample peak where 1.0 is full scale, or null if unknown
+     * @return the gain factor, or 1.0 if the loudness is unknown
+     */
+    public static double linear(Float loudness, Float peak) {
+        return Math.pow(10, decibels(loudness, peak) / 20);
+    }
+}
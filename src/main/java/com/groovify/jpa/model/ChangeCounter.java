@@ -0,0 +1,46 @@
+package com.groovify.jpa.model;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version number of a table, or of the part of it a cache depends on, used to let
+ * in-memory copies and caches tell cheaply whether they are still current.
+ * {@link GenreListener} counts every genre change; the song search service counts only
+ * changes to what songs are found by.
+ * <p>
+ * A change is counted as soon as it is written, so that reads later in the same
+ * transaction see it, and again when the transaction completes, so that other
+ * transactions reload once the change is committed (or rolled back).
+ * </p>
+ */
+public final class ChangeCounter {
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Returns the current version.
+     *
+     * @return the version
+     */
+    public long get() {
+        return version.get();
+    }
+
+    /**
+     * Records a change.
+     */
+    public void increment() {
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+}
@@ -9,9 +9,11 @@ import java.util.Objects;
  * <p>
  * Maps to the "Genre" table in the database. Each genre has a unique name
  * and can be associated with multiple clients (users) via a many-to-many relationship.
+ * Changes are counted by {@link GenreListener} for the in-memory genre lookup.
  */
 @Entity
 @Table(name = "Genre")
+@EntityListeners(GenreListener.class)
 public class Genre {
 
     @Id
@@ -0,0 +1,36 @@
+package com.groovify.jpa.model;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that counts changes to the genre table, so that in-memory copies
+ * of it can tell cheaply whether they are still current.
+ */
+public class GenreListener {
+
+    private static final ChangeCounter VERSION = new ChangeCounter();
+
+    /**
+     * Returns the current version of the genre table. The value changes whenever a genre
+     * is added, renamed or removed, and again when that transaction completes.
+     *
+     * @return the version
+     */
+    public static long version() {
+        return VERSION.get();
+    }
+
+    /**
+     * Records that a genre was written.
+     *
+     * @param genre the changed genre
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void genreChanged(Genre genre) {
+        VERSION.increment();
+    }
+}
@@ -0,0 +1,275 @@
+package com.groovify.jpa.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entity representing one unit of work in the shared song import queue.
+ * <p>
+ * Maps to the "ImportTask" table in the database. Each task covers one MP3 file
+ * inside a genre folder of the music directory. Nodes claim pending tasks, a batch
+ * at a time, with row-level locks so that every file is imported by exactly one
+ * node, even when several nodes boot with the startup import enabled.
+ */
+@Entity
+@Table(name = "ImportTask")
+public class ImportTask {
+
+    /**
+     * Lifecycle states of an import task.
+     */
+    public enum Status {
+        /** Waiting to be claimed by a node. */
+        PENDING,
+        /** Claimed by a node and currently being imported. */
+        CLAIMED,
+        /** The task's file has been processed. */
+        DONE,
+        /** Processing failed; the task may be retried until its attempts run out. */
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue
+    @Column(name = "ID")
+    private Long id;
+
+    /**
+     * Stable key identifying the file (genre folder plus a digest of its filename).
+     * The unique constraint prevents two nodes from enqueuing the same file twice.
+     */
+    @Column(name = "UnitKey", nullable = false, unique = true)
+    private String unitKey;
+
+    /** Name of the genre folder, relative to the configured music directory. */
+    @Column(name = "Folder", nullable = false)
+    private String folder;
+
+    /** Newline-separated filenames belonging to this task; the queue enqueues one file per task. */
+    @Lob
+    @Column(name = "Filenames", nullable = false)
+    private String filenames;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "Status", nullable = false)
+    private Status status = Status.PENDING;
+
+    /** Identifier of the node currently holding the task, if any. */
+    @Column(name = "ClaimedBy")
+    private String claimedBy;
+
+    @Column(name = "ClaimedAt")
+    private Instant claimedAt;
+
+    @Column(name = "CompletedAt")
+    private Instant completedAt;
+
+    @Column(name = "Attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "LastError")
+    private String lastError;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public ImportTask() {}
+
+    /**
+     * Constructs a pending import task for files in a genre folder.
+     *
+     * @param unitKey   the unique key identifying the task
+     * @param folder    the genre folder name
+     * @param filenames the newline-separated filenames of the task
+     */
+    public ImportTask(String unitKey, String folder, String filenames) {
+        this.unitKey = unitKey;
+        this.folder = folder;
+        this.filenames = filenames;
+    }
+
+    // ------------------ Getters ------------------
+
+    /**
+     * Returns the unique identifier for this task.
+     *
+     * @return the task's database ID
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the unique key identifying the task.
+     *
+     * @return the unit key
+     */
+    public String getUnitKey() {
+        return unitKey;
+    }
+
+    /**
+     * Returns the genre folder the task belongs to.
+     *
+     * @return the folder name
+     */
+    public String getFolder() {
+        return folder;
+    }
+
+    /**
+     * Returns the newline-separated filenames of this task.
+     *
+     * @return the filenames
+     */
+    public String getFilenames() {
+        return filenames;
+    }
+
+    /**
+     * Returns the current status of the task.
+     *
+     * @return the task status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the identifier of the node that last claimed the task.
+     *
+     * @return the node identifier, or {@code null} if never claimed
+     */
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    /**
+     * Returns the time at which the task was last claimed.
+     *
+     * @return the claim time, or {@code null} if never claimed
+     */
+    public Instant getClaimedAt() {
+        return claimedAt;
+    }
+
+    /**
+     * Returns the time at which the task finished.
+     *
+     * @return the completion time, or {@code null} if not finished
+     */
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    /**
+     * Returns how many times the task has been claimed.
+     *
+     * @return the number of attempts
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Returns the error message recorded by the last failed attempt.
+     *
+     * @return the last error, or {@code null} if none
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    // ------------------ Setters ------------------
+
+    /**
+     * Sets the unique identifier for this task.
+     *
+     * @param id the task ID
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Sets the status of the task.
+     *
+     * @param status the new status
+     */
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    /**
+     * Sets the identifier of the node holding the task.
+     *
+     * @param claimedBy the node identifier
+     */
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    /**
+     * Sets the time at which the task was claimed.
+     *
+     * @param claimedAt the claim time
+     */
+    public void setClaimedAt(Instant claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+
+    /**
+     * Sets the time at which the task finished.
+     *
+     * @param completedAt the completion time
+     */
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    /**
+     * Sets the number of attempts made on this task.
+     *
+     * @param attempts the attempt count
+     */
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * Sets the error message of the last failed attempt.
+     *
+     * @param lastError the error message
+     */
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    // ------------------ Object Overrides ------------------
+
+    /**
+     * Compares this task to another object for equality.
+     * <p>
+     * Two tasks are considered equal if they have the same non-null database ID.
+     *
+     * @param o the object to compare with
+     * @return {@code true} if both objects represent the same task; {@code false} otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ImportTask)) return false;
+        return id != null && id.equals(((ImportTask) o).id);
+    }
+
+    /**
+     * Returns a constant hash code for this entity.
+     *
+     * @return a constant integer hash code
+     */
+    @Override
+    public int hashCode() {
+        return 31;
+    }
+}
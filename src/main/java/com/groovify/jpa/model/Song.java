@@ -2,6 +2,8 @@ package com.groovify.jpa.model;
 
 import jakarta.persistence.*;
 
+import java.time.Instant;
+
 /**
  * Entity representing a Song in the system.
  * <p>
@@ -9,7 +11,7 @@ import jakarta.persistence.*;
  * artist, and an optional reference to a genre.
  */
 @Entity
-@Table(name = "Song")
+@Table(name = "Song", indexes = @Index(name = "IX_Song_Filename", columnList = "Filename"))
 public class Song {
 
     @Id
@@ -17,6 +19,14 @@ public class Song {
     @Column(name = "ID")
     private Long id;
 
+    /**
+     * Filename of the song's .mp3 file.
+     * <p>
+     * Not declared unique: {@code ddl-auto=update} cannot add the constraint to a table
+     * that already holds duplicate filenames. Concurrent imports are kept apart by the
+     * import queue instead, whose per-file unit key is unique. The column is indexed
+     * for the existence checks every import makes.
+     */
     @Column(name = "Filename")
     private String filename;
 
@@ -35,6 +45,99 @@ public class Song {
     @JoinColumn(name = "GenreID")
     private Genre genre;
 
+    /** Size of the .mp3 file in bytes, recorded by the fast import pass. */
+    @Column(name = "FileSize")
+    private Long fileSize;
+
+    /** Hex-encoded SHA-256 digest of the file contents, filled in by enrichment. */
+    @Column(name = "ContentHash", length = 64)
+    private String contentHash;
+
+    /** Playback length in seconds, filled in by enrichment. */
+    @Column(name = "DurationSeconds")
+    private Integer durationSeconds;
+
+    /** Bitrate in kbps, filled in by enrichment. */
+    @Column(name = "Bitrate")
+    private Integer bitrate;
+
+    /**
+     * Packed audio feature vector (tempo, energy, spectral shape, MFCCs), filled in by
+     * enrichment. See {@link com.groovify.audio.FeatureVectors} for the layout.
+     */
+    @Column(name = "FeatureVector", length = 128)
+    private byte[] featureVector;
+
+    /** Integrated loudness in LUFS (ITU-R BS.1770), filled in by enrichment. */
+    @Column(name = "Loudness")
+    private Float loudness;
+
+    /** Largest absolute sample value, where 1.0 is full scale, filled in by enrichment. */
+    @Column(name = "Peak")
+    private Float peak;
+
+    /**
+     * ID of the song this one is an acoustic copy of (a re-encode or trimmed version of
+     * the same recording), found by fingerprinting during enrichment. Duplicates are
+     * left out of recommendations.
+     */
+    @Column(name = "DuplicateOfID")
+    private Long duplicateOf;
+
+    /**
+     * Content hash of the cover art embedded in the song's ID3 tag, identifying its
+     * stored thumbnails. {@code null} when the song has no embedded artwork.
+     */
+    @Column(name = "ArtworkHash", length = 64)
+    private String artworkHash;
+
+    /**
+     * Version of the enrichment pipeline this song was last processed with.
+     * <p>
+     * {@code null} means the song has only been registered by the fast import pass.
+     */
+    @Column(name = "EnrichmentVersion")
+    private Integer enrichmentVersion;
+
+    /** Time at which enrichment last ran for this song and wrote its results. */
+    @Column(name = "EnrichedAt")
+    private Instant enrichedAt;
+
+    /**
+     * Number of enrichment runs in a row in which a stage failed for this song. The song
+     * stays pending while it is below the configured number of attempts.
+     * <p>
+     * {@code null} once a run completes, or the song is given up on.
+     */
+    @Column(name = "EnrichmentFailures")
+    private Integer enrichmentFailures;
+
+    /**
+     * Time at which a node claimed this song for enrichment, so that other nodes leave
+     * it alone while it is being decoded.
+     * <p>
+     * {@code null} while no node is enriching the song.
+     */
+    @Column(name = "EnrichmentClaimedAt")
+    private Instant enrichmentClaimedAt;
+
+    /**
+     * Time at which the reconciliation pass found this song's file missing from disk.
+     * Songs with a value are tombstoned: kept for playlists and history but hidden
+     * from listings, search, and recommendations until the file reappears.
+     */
+    @Column(name = "MissingSince")
+    private Instant missingSince;
+
+    /**
+     * Time at which the reconciliation pass last tombstoned or restored this song, so
+     * that nodes sharing the database can update their search indexes to match.
+     * <p>
+     * {@code null} if the song's availability never changed.
+     */
+    @Column(name = "AvailabilityChangedAt")
+    private Instant availabilityChangedAt;
+
     /**
      * Default constructor required by JPA.
      * <p>
@@ -113,6 +216,150 @@ public class Song {
         return genre;
     }
 
+    /**
+     * Returns the size of the song's file in bytes.
+     *
+     * @return the file size, or {@code null} if unknown
+     */
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Returns the hex-encoded SHA-256 digest of the song's file.
+     *
+     * @return the content hash, or {@code null} if not yet computed
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Returns the playback length of the song in seconds.
+     *
+     * @return the duration, or {@code null} if not yet computed
+     */
+    public Integer getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * Returns the bitrate of the song in kbps.
+     *
+     * @return the bitrate, or {@code null} if not yet computed
+     */
+    public Integer getBitrate() {
+        return bitrate;
+    }
+
+    /**
+     * Returns the packed audio feature vector of the song.
+     *
+     * @return the packed vector, or {@code null} if not yet computed
+     */
+    public byte[] getFeatureVector() {
+        return featureVector;
+    }
+
+    /**
+     * Returns the integrated loudness of the song.
+     *
+     * @return the loudness in LUFS, or {@code null} if not yet measured or the song is silent
+     */
+    public Float getLoudness() {
+        return loudness;
+    }
+
+    /**
+     * Returns the sample peak of the song.
+     *
+     * @return the peak where 1.0 is full scale, or {@code null} if not yet measured
+     */
+    public Float getPeak() {
+        return peak;
+    }
+
+    /**
+     * Returns the ID of the song this one duplicates.
+     *
+     * @return the original song's ID, or {@code null} if this song is not a known duplicate
+     */
+    public Long getDuplicateOf() {
+        return duplicateOf;
+    }
+
+    /**
+     * Returns the content hash of the song's cover art.
+     *
+     * @return the artwork hash, or {@code null} if the song has no embedded artwork
+     */
+    public String getArtworkHash() {
+        return artworkHash;
+    }
+
+    /**
+     * Returns the enrichment pipeline version this song was processed with.
+     *
+     * @return the enrichment version, or {@code null} if never enriched
+     */
+    public Integer getEnrichmentVersion() {
+        return enrichmentVersion;
+    }
+
+    /**
+     * Returns the time at which enrichment last completed for this song.
+     *
+     * @return the enrichment time, or {@code null} if never enriched
+     */
+    public Instant getEnrichedAt() {
+        return enrichedAt;
+    }
+
+    /**
+     * Returns the number of enrichment runs in a row in which a stage failed.
+     *
+     * @return the failure count, or {@code null} if the last run completed
+     */
+    public Integer getEnrichmentFailures() {
+        return enrichmentFailures;
+    }
+
+    /**
+     * Returns the time at which a node claimed this song for enrichment.
+     *
+     * @return the claim time, or {@code null} if no node is enriching the song
+     */
+    public Instant getEnrichmentClaimedAt() {
+        return enrichmentClaimedAt;
+    }
+
+    /**
+     * Returns the time at which this song's file was found missing.
+     *
+     * @return the time the file went missing, or {@code null} if the song is available
+     */
+    public Instant getMissingSince() {
+        return missingSince;
+    }
+
+    /**
+     * Returns whether this song's file was present at the last reconciliation.
+     *
+     * @return true unless the song has been tombstoned
+     */
+    public boolean isAvailable() {
+        return missingSince == null;
+    }
+
+    /**
+     * Returns the time at which this song was last tombstoned or restored.
+     *
+     * @return the time of the change, or {@code null} if its availability never changed
+     */
+    public Instant getAvailabilityChangedAt() {
+        return availabilityChangedAt;
+    }
+
     // ------------------ Setters ------------------
 
     /**
@@ -155,6 +402,96 @@ public class Song {
      */
     public void SetFilename(String filename) {this.filename = filename;}
 
+    /**
+     * Set the size of the song's file.
+     * @param fileSize File size in bytes
+     */
+    public void setFileSize(Long fileSize) {this.fileSize = fileSize;}
+
+    /**
+     * Set the SHA-256 digest of the song's file.
+     * @param contentHash Hex-encoded content hash
+     */
+    public void setContentHash(String contentHash) {this.contentHash = contentHash;}
+
+    /**
+     * Set the playback length of the song.
+     * @param durationSeconds Duration in seconds
+     */
+    public void setDurationSeconds(Integer durationSeconds) {this.durationSeconds = durationSeconds;}
+
+    /**
+     * Set the bitrate of the song.
+     * @param bitrate Bitrate in kbps
+     */
+    public void setBitrate(Integer bitrate) {this.bitrate = bitrate;}
+
+    /**
+     * Set the packed audio feature vector of the song.
+     * @param featureVector Packed feature vector
+     */
+    public void setFeatureVector(byte[] featureVector) {this.featureVector = featureVector;}
+
+    /**
+     * Set the integrated loudness of the song.
+     * @param loudness Loudness in LUFS
+     */
+    public void setLoudness(Float loudness) {this.loudness = loudness;}
+
+    /**
+     * Set the sample peak of the song.
+     * @param peak Peak where 1.0 is full scale
+     */
+    public void setPeak(Float peak) {this.peak = peak;}
+
+    /**
+     * Set the ID of the song this one duplicates.
+     * @param duplicateOf Original song ID, or {@code null} if unique
+     */
+    public void setDuplicateOf(Long duplicateOf) {this.duplicateOf = duplicateOf;}
+
+    /**
+     * Set the content hash of the song's cover art.
+     * @param artworkHash Artwork hash
+     */
+    public void setArtworkHash(String artworkHash) {this.artworkHash = artworkHash;}
+
+    /**
+     * Set the enrichment pipeline version this song was processed with.
+     * @param enrichmentVersion Enrichment version
+     */
+    public void setEnrichmentVersion(Integer enrichmentVersion) {this.enrichmentVersion = enrichmentVersion;}
+
+    /**
+     * Set the time at which enrichment completed.
+     * @param enrichedAt Enrichment time
+     */
+    public void setEnrichedAt(Instant enrichedAt) {this.enrichedAt = enrichedAt;}
+
+    /**
+     * Set the number of enrichment runs in a row in which a stage failed.
+     * @param enrichmentFailures Failure count
+     */
+    public void setEnrichmentFailures(Integer enrichmentFailures) {this.enrichmentFailures = enrichmentFailures;}
+
+    /**
+     * Set the time at which a node claimed this song for enrichment.
+     * @param enrichmentClaimedAt Claim time, or {@code null} if unclaimed
+     */
+    public void setEnrichmentClaimedAt(Instant enrichmentClaimedAt) {this.enrichmentClaimedAt = enrichmentClaimedAt;}
+
+    /**
+     * Set the time at which this song's file was found missing.
+     * @param missingSince Time the file went missing, or {@code null} if available
+     */
+    public void setMissingSince(Instant missingSince) {this.missingSince = missingSince;}
+
+    /**
+     * Set the time at which this song was last tombstoned or restored.
+     * @param availabilityChangedAt Time of the change
+     */
+    public void setAvailabilityChangedAt(Instant availabilityChangedAt) {this.availabilityChangedAt = availabilityChangedAt;}
+
     // ------------------ Object Overrides ------------------
 
     /**
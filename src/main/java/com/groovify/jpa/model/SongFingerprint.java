@@ -0,0 +1,92 @@
+package com.groovify.jpa.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entity holding the acoustic fingerprint of one song.
+ * <p>
+ * Maps to the "SongFingerprint" table in the database. Fingerprints are a few
+ * kilobytes each, so they are kept out of the {@link Song} table; song listings never
+ * load them. They are read when the in-memory fingerprint index is built and when a
+ * possible duplicate is verified.
+ */
+@Entity
+@Table(name = "SongFingerprint")
+public class SongFingerprint {
+
+    /** ID of the song this fingerprint belongs to. */
+    @Id
+    @Column(name = "SongID")
+    private Long songId;
+
+    /** Packed sub-fingerprints, see {@link com.groovify.audio.ChromaFingerprinter#pack(int[])}. */
+    @Lob
+    @Column(name = "Data", nullable = false)
+    private byte[] data;
+
+    /**
+     * Time at which the fingerprint was last written, so that nodes can pick up the
+     * fingerprints stored by other nodes since they last looked.
+     */
+    @Column(name = "StoredAt")
+    private Instant storedAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public SongFingerprint() {}
+
+    /**
+     * Constructs a fingerprint for a song.
+     *
+     * @param songId the ID of the song
+     * @param data   the packed fingerprint
+     */
+    public SongFingerprint(Long songId, byte[] data) {
+        this.songId = songId;
+        this.data = data;
+        this.storedAt = Instant.now();
+    }
+
+    // ------------------ Getters ------------------
+
+    /**
+     * Returns the ID of the song this fingerprint belongs to.
+     *
+     * @return the song ID
+     */
+    public Long getSongId() {
+        return songId;
+    }
+
+    /**
+     * Returns the packed fingerprint.
+     *
+     * @return the packed sub-fingerprints
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Returns the time at which the fingerprint was last written.
+     *
+     * @return the write time, or {@code null} for fingerprints stored before it was recorded
+     */
+    public Instant getStoredAt() {
+        return storedAt;
+    }
+
+    // ------------------ Setters ------------------
+
+    /**
+     * Set the packed fingerprint.
+     * @param data Packed sub-fingerprints
+     */
+    public void setData(byte[] data) {
+        this.data = data;
+        this.storedAt = Instant.now();
+    }
+}
@@ -2,14 +2,17 @@ package com.groovify.jpa.repo;
 
 import com.groovify.jpa.model.Genre;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repository interface for accessing {@link Genre} entities.
  * <p>
  * Extends {@link JpaRepository} to provide standard CRUD operations.
- * Adds a method to find a genre by its name.
+ * Adds methods to find a genre by its name and to look up many names at once.
  */
 public interface GenreRepo extends JpaRepository<Genre, Long> {
 
@@ -20,4 +23,13 @@ public interface GenreRepo extends JpaRepository<Genre, Long> {
      * @return an Optional containing the Genre if found, otherwise empty
      */
     Optional<Genre> findByName(String name);
+
+    /**
+     * Returns which of the given names already exist as genres, in a single query.
+     *
+     * @param names the genre names to look up
+     * @return the subset of {@code names} that are stored as genres
+     */
+    @Query("SELECT g.name FROM Genre g WHERE g.name IN :names")
+    Set<String> findExistingNames(Collection<String> names);
 }
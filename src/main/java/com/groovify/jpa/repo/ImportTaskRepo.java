@@ -0,0 +1,96 @@
+package com.groovify.jpa.repo;
+
+import com.groovify.jpa.model.ImportTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for accessing {@link ImportTask} entities.
+ * <p>
+ * Extends {@link JpaRepository} to provide standard CRUD operations.
+ * Adds the row-level claiming query used to distribute import work across nodes,
+ * and the conditional updates that keep a node from overwriting another node's claim.
+ */
+public interface ImportTaskRepo extends JpaRepository<ImportTask, Long> {
+
+    /**
+     * Lists the unit keys already enqueued for a genre folder.
+     *
+     * @param folder the genre folder name
+     * @return the unit keys of the folder's tasks
+     */
+    @Query("SELECT t.unitKey FROM ImportTask t WHERE t.folder = :folder")
+    List<String> findUnitKeysByFolder(String folder);
+
+    /**
+     * Locks and returns the next tasks that may be claimed by this node.
+     * <p>
+     * A task is claimable when it is pending, when its claim has expired (the node
+     * holding it presumably died), or when it failed; expired and failed tasks only
+     * while they still have attempts left, so a task that keeps killing its node is
+     * eventually left alone. Rows locked by other nodes are skipped rather than waited
+     * on, so concurrent workers never block each other or receive the same task. Must
+     * be called inside a transaction; the locks are held until that transaction ends.
+     * <p>
+     * Written as a native query because {@code FOR UPDATE SKIP LOCKED} is supported
+     * by both MySQL 8 and the embedded H2 database used in tests.
+     *
+     * @param staleBefore claims older than this instant are considered abandoned
+     * @param maxAttempts expired and failed tasks with fewer attempts than this are retried
+     * @param limit       the maximum number of tasks to lock
+     * @return the locked tasks in ID order; empty if no task is currently claimable
+     */
+    @Query(value = "SELECT * FROM import_task " +
+            "WHERE status = 'PENDING' " +
+            "OR (status = 'CLAIMED' AND claimed_at < :staleBefore AND attempts < :maxAttempts) " +
+            "OR (status = 'FAILED' AND attempts < :maxAttempts) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<ImportTask> lockClaimable(Instant staleBefore, int maxAttempts, int limit);
+
+    /**
+     * Records the outcome of a claimed task, but only while the claim is still the
+     * caller's. A claim that expired and was taken over by another node has a new
+     * holder or attempt count, and is left for that node to finish.
+     *
+     * @param id          the ID of the task
+     * @param claimedBy   the node that claimed the task
+     * @param attempts    the attempt count the claim was made with
+     * @param status      the final status, {@code DONE} or {@code FAILED}
+     * @param completedAt the completion time, or null if the task failed
+     * @param lastError   the error of a failed attempt, or null
+     * @return 1 if the outcome was recorded, 0 if the claim had been lost
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ImportTask t SET t.status = :status, t.completedAt = :completedAt, t.lastError = :lastError " +
+            "WHERE t.id = :id AND t.claimedBy = :claimedBy AND t.attempts = :attempts")
+    int finishClaim(Long id, String claimedBy, int attempts, ImportTask.Status status,
+                    Instant completedAt, String lastError);
+
+    /**
+     * Deletes the tasks that finished before the given time. Their songs are in the
+     * catalog by then, so the library scan does not enqueue them again.
+     *
+     * @param status the status of the tasks to delete
+     * @param before tasks completed before this instant are deleted
+     * @return the number of tasks deleted
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ImportTask t WHERE t.status = :status AND t.completedAt < :before")
+    int deleteCompletedBefore(ImportTask.Status status, Instant before);
+
+    /**
+     * Counts the tasks that are in the given status.
+     *
+     * @param status the status to count
+     * @return the number of tasks in that status
+     */
+    long countByStatus(ImportTask.Status status);
+}
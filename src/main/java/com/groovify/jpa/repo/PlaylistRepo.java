@@ -1,7 +1,9 @@
 package com.groovify.jpa.repo;
 
 import com.groovify.jpa.model.Playlist;
+import com.groovify.web.dto.PlaylistOption;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 /**
@@ -30,4 +32,27 @@ public interface PlaylistRepo extends JpaRepository<Playlist, Long> {
      * @return a list of {@link Playlist} objects associated with the given client ID
      */
     List<Playlist> findByClientID(Long clientID);
+
+    /**
+     * Finds the IDs of every song in any of a client's playlists, in one query.
+     *
+     * @param clientID the ID of the client whose playlists should be read
+     * @return the distinct song IDs
+     */
+    @Query("SELECT DISTINCT s.id FROM Playlist p JOIN p.songs s WHERE p.clientID = :clientID")
+    List<Long> findSongIdsByClientID(Long clientID);
+
+    /**
+     * Reads a client's playlists as add-to-playlist choices, each telling whether it
+     * already contains the given song, in one query.
+     *
+     * @param clientID the ID of the client whose playlists should be retrieved
+     * @param songId   the ID of the song being added
+     * @return the client's playlists as {@link PlaylistOption} rows, oldest first
+     */
+    @Query("SELECT new com.groovify.web.dto.PlaylistOption(p.id, p.name, " +
+            "CASE WHEN EXISTS (SELECT s.id FROM Playlist q JOIN q.songs s WHERE q.id = p.id AND s.id = :songId) " +
+            "THEN true ELSE false END) " +
+            "FROM Playlist p WHERE p.clientID = :clientID ORDER BY p.id")
+    List<PlaylistOption> findOptionsByClientID(Long clientID, Long songId);
 }
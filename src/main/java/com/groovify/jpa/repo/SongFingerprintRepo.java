@@ -0,0 +1,39 @@
+package com.groovify.jpa.repo;
+
+import com.groovify.jpa.model.SongFingerprint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for accessing {@link SongFingerprint} entities.
+ * <p>
+ * Extends {@link JpaRepository} to provide standard CRUD operations.
+ * Adds keyset-paged reads used to load every fingerprint into the index, and the
+ * fingerprints stored since a given time, without holding them all in one result set.
+ */
+public interface SongFingerprintRepo extends JpaRepository<SongFingerprint, Long> {
+
+    /**
+     * Returns fingerprints of songs with an ID greater than the given one, in ID order.
+     *
+     * @param songId   the last song ID already read
+     * @param pageable the page size
+     * @return the next fingerprints
+     */
+    List<SongFingerprint> findBySongIdGreaterThanOrderBySongIdAsc(Long songId, Pageable pageable);
+
+    /**
+     * Returns fingerprints stored at or after the given time, of songs with an ID
+     * greater than the given one, in ID order.
+     *
+     * @param storedAt the earliest write time
+     * @param songId   the last song ID already read
+     * @param pageable the page size
+     * @return the next fingerprints
+     */
+    List<SongFingerprint> findByStoredAtGreaterThanEqualAndSongIdGreaterThanOrderBySongIdAsc(
+            Instant storedAt, Long songId, Pageable pageable);
+}
@@ -1,16 +1,27 @@
 package com.groovify.jpa.repo;
 
 import com.groovify.jpa.model.Song;
+import com.groovify.web.dto.SongView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repository interface for accessing {@link Song} entities.
  * <p>
  * Extends {@link JpaRepository} to provide standard CRUD operations.
- * Adds methods to check for existing songs and search by title or genre.
+ * Adds methods to check for existing songs, search by genre, load the search index, and
+ * read song lists as {@link SongView} rows with their genre name joined in.
+ * Listing and search methods only return available songs, i.e. songs that have
+ * not been tombstoned because their file disappeared.
  */
 public interface SongRepo extends JpaRepository<Song, Long> {
 
@@ -23,30 +34,308 @@ public interface SongRepo extends JpaRepository<Song, Long> {
     boolean existsByFilename(String filename);
 
     /**
-     * Finds songs whose titles contain the given string (case-insensitive).
+     * Lists the filenames of the songs registered in a genre, available or not.
      *
-     * @param title the title substring to search for
-     * @return a list of songs matching the title
+     * @param genreName the name of the genre
+     * @return the filenames of the genre's songs
      */
-    List<Song> findByTitleContainingIgnoreCase(String title);
+    @Query("SELECT s.filename FROM Song s WHERE s.genre.name = :genreName")
+    List<String> findFilenamesByGenreName(String genreName);
 
     /**
-     * Finds songs belonging to a specific genre by its ID.
+     * Finds all songs whose files were present at the last reconciliation.
+     *
+     * @return a list of available songs
+     */
+    List<Song> findByMissingSinceIsNull();
+
+    /**
+     * Reads one page of available songs as views, in ascending ID order after the given
+     * ID, with their genre names joined in.
+     * <p>
+     * Pages are keyed on the primary key, so every page is one index range scan however
+     * far the user has scrolled, and only one page is ever held in memory.
+     *
+     * @param afterId  only IDs greater than this are returned
+     * @param pageable limits the number of rows returned
+     * @return the next page of song views in ID order
+     */
+    @Query("SELECT new com.groovify.web.dto.SongView(s.id, s.title, s.artist, g.name, s.filename, " +
+            "s.loudness, s.peak, s.artworkHash) FROM Song s LEFT JOIN s.genre g " +
+            "WHERE s.missingSince IS NULL AND s.id > :afterId ORDER BY s.id")
+    List<SongView> findAvailableViewsAfter(Long afterId, Pageable pageable);
+
+    /**
+     * Reads the given songs as views, with their genre names joined in.
+     *
+     * @param ids the IDs of the songs
+     * @return the views of the songs that exist, in no particular order
+     */
+    @Query("SELECT new com.groovify.web.dto.SongView(s.id, s.title, s.artist, g.name, s.filename, " +
+            "s.loudness, s.peak, s.artworkHash) FROM Song s LEFT JOIN s.genre g WHERE s.id IN :ids")
+    List<SongView> findViewsByIdIn(Collection<Long> ids);
+
+    /**
+     * Reads the given songs as views in one query, keeping the order of the IDs.
+     * Songs that no longer exist are left out.
+     *
+     * @param ids the IDs of the songs, in display order
+     * @return the views of the songs, in the order of the IDs
+     */
+    default List<SongView> findViewsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, SongView> views = new HashMap<>();
+        for (SongView view : findViewsByIdIn(ids)) views.put(view.id(), view);
+        return ids.stream().map(views::get).filter(view -> view != null).toList();
+    }
+
+    /**
+     * Reads the songs of a playlist as views, with their genre names joined in, in
+     * ascending song ID order. The playlist's join table keeps no position, so the order
+     * is fixed here rather than left to the join plan.
+     *
+     * @param playlistId the ID of the playlist
+     * @return the views of the playlist's songs in ID order
+     */
+    @Query("SELECT new com.groovify.web.dto.SongView(s.id, s.title, s.artist, g.name, s.filename, " +
+            "s.loudness, s.peak, s.artworkHash) FROM Playlist p JOIN p.songs s LEFT JOIN s.genre g " +
+            "WHERE p.id = :playlistId ORDER BY s.id")
+    List<SongView> findViewsByPlaylistId(Long playlistId);
+
+    /**
+     * Finds available songs belonging to a specific genre by its ID.
      *
      * @param genreId the ID of the genre
      * @return a list of songs for the given genre
      */
-    List<Song> findByGenreId(Long genreId);
+    List<Song> findByGenreIdAndMissingSinceIsNull(Long genreId);
+
+    /**
+     * Finds available songs belonging to any of the given genres.
+     * <p>
+     * Genre searches resolve the genre name to IDs in memory first, so this is a lookup on
+     * the indexed genre foreign key rather than a join on the genre name.
+     *
+     * @param genreIds the IDs of the genres
+     * @return a list of songs in those genres
+     */
+    List<Song> findByGenreIdInAndMissingSinceIsNull(Collection<Long> genreIds);
+
+    /**
+     * Finds one page of available songs belonging to any of the given genres, in
+     * ascending ID order after the given ID.
+     *
+     * @param genreIds the IDs of the genres
+     * @param afterId  only IDs greater than this are returned
+     * @param pageable limits the number of songs returned
+     * @return the page of songs in those genres
+     */
+    @Query("SELECT s FROM Song s WHERE s.genre.id IN :genreIds AND s.missingSince IS NULL " +
+            "AND s.id > :afterId ORDER BY s.id")
+    List<Song> findByGenreIdInAfter(Collection<Long> genreIds, Long afterId, Pageable pageable);
+
+    /**
+     * Counts the available songs belonging to any of the given genres.
+     *
+     * @param genreIds the IDs of the genres
+     * @return the number of songs in those genres
+     */
+    long countByGenreIdInAndMissingSinceIsNull(Collection<Long> genreIds);
 
     /**
-     * Finds songs whose genre names contain the given string (case-insensitive).
+     * Finds the IDs of available songs that have not been processed by the given
+     * enrichment pipeline version, in ascending ID order after the given ID.
      * <p>
-     * Uses a JPQL query to join Song and Genre entities for the search.
+     * Used by the background enrichment queue to walk pending songs page by page.
+     * Tombstoned songs are left out, since their files cannot be read; they are
+     * pending again once reconciliation finds their files.
+     *
+     * @param afterId  only IDs greater than this are returned
+     * @param version  the current enrichment pipeline version
+     * @param pageable limits the number of IDs returned
+     * @return the IDs of songs awaiting enrichment
+     */
+    @Query("SELECT s.id FROM Song s WHERE s.id > :afterId AND s.missingSince IS NULL " +
+            "AND (s.enrichmentVersion IS NULL OR s.enrichmentVersion < :version) ORDER BY s.id")
+    List<Long> findIdsPendingEnrichment(Long afterId, int version, Pageable pageable);
+
+    /**
+     * Minimal view of a song used to build the in-memory search index.
+     */
+    interface SongText {
+        Long getId();
+        String getTitle();
+        String getArtist();
+        String getGenreName();
+        Instant getMissingSince();
+        Instant getEnrichedAt();
+        Instant getAvailabilityChangedAt();
+    }
+
+    /**
+     * Finds the searchable text of songs in ascending ID order, starting after the given ID.
+     * <p>
+     * Used to load the search index page by page without materializing whole entities.
+     *
+     * @param afterId  only IDs greater than this are returned
+     * @param pageable limits the number of rows returned
+     * @return the next page of song text in ID order
+     */
+    @Query("SELECT s.id AS id, s.title AS title, s.artist AS artist, g.name AS genreName, " +
+            "s.missingSince AS missingSince, s.enrichedAt AS enrichedAt, " +
+            "s.availabilityChangedAt AS availabilityChangedAt " +
+            "FROM Song s LEFT JOIN s.genre g WHERE s.id > :afterId ORDER BY s.id")
+    List<SongText> findTextAfter(Long afterId, Pageable pageable);
+
+    /**
+     * Finds the searchable text of the given songs, in no particular order.
+     *
+     * @param ids the song IDs
+     * @return the text of the songs that exist
+     */
+    @Query("SELECT s.id AS id, s.title AS title, s.artist AS artist, g.name AS genreName, " +
+            "s.missingSince AS missingSince, s.enrichedAt AS enrichedAt, " +
+            "s.availabilityChangedAt AS availabilityChangedAt " +
+            "FROM Song s LEFT JOIN s.genre g WHERE s.id IN :ids")
+    List<SongText> findTextByIds(Collection<Long> ids);
+
+    /**
+     * Finds the searchable text of songs enriched, tombstoned or restored at or after the
+     * given time, in ascending ID order, starting after the given ID.
+     * <p>
+     * Used to pick up songs re-tagged, tombstoned or restored by other nodes sharing the
+     * database.
+     *
+     * @param since    the earliest change of interest
+     * @param afterId  the last ID of the previous page, or 0 for the first page
+     * @param pageable the page size
+     * @return the text of the next songs changed since then
+     */
+    @Query("SELECT s.id AS id, s.title AS title, s.artist AS artist, g.name AS genreName, " +
+            "s.missingSince AS missingSince, s.enrichedAt AS enrichedAt, " +
+            "s.availabilityChangedAt AS availabilityChangedAt " +
+            "FROM Song s LEFT JOIN s.genre g WHERE (s.enrichedAt >= :since OR s.availabilityChangedAt >= :since) " +
+            "AND s.id > :afterId ORDER BY s.id")
+    List<SongText> findTextChangedSince(Instant since, Long afterId, Pageable pageable);
+
+    /**
+     * Minimal view of a song used to build the feature space for recommendations.
+     */
+    interface SongFeatures {
+        Long getId();
+        byte[] getFeatureVector();
+        Instant getMissingSince();
+        Long getDuplicateOf();
+    }
+
+    /**
+     * Finds the packed audio feature vectors of every analysed song.
+     *
+     * @return the analysed songs' vectors, with what decides whether they are recommended
+     */
+    @Query("SELECT s.id AS id, s.featureVector AS featureVector, s.missingSince AS missingSince, " +
+            "s.duplicateOf AS duplicateOf FROM Song s WHERE s.featureVector IS NOT NULL")
+    List<SongFeatures> findFeatureVectors();
+
+    /**
+     * Minimal view of a song used when comparing the catalog with the files on disk.
+     */
+    interface SongFile {
+        Long getId();
+        String getFilename();
+        Instant getMissingSince();
+    }
+
+    /**
+     * Finds the songs of one genre ordered by filename, starting after the given filename.
+     * <p>
+     * Used by the reconciliation pass to walk a genre page by page with constant memory.
+     *
+     * @param genreId       the ID of the genre
+     * @param afterFilename only filenames sorting after this are returned
+     * @param pageable      limits the number of rows returned
+     * @return the next page of songs in filename order
+     */
+    @Query("SELECT s.id AS id, s.filename AS filename, s.missingSince AS missingSince FROM Song s " +
+            "WHERE s.genre.id = :genreId AND s.filename > :afterFilename ORDER BY s.filename")
+    List<SongFile> findFilesByGenreAfter(Long genreId, String afterFilename, Pageable pageable);
+
+    /**
+     * Writes the columns filled in by enrichment, and only those.
+     * <p>
+     * Enrichment holds a song for seconds while it decodes the file. Saving the whole
+     * entity afterwards would write back the availability read at the start, undoing a
+     * tombstone or restore made by reconciliation in the meantime. The song's enrichment
+     * claim is released in the same update.
+     *
+     * @param song the enriched song
+     * @return the number of songs updated; 0 if the song was deleted meanwhile
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Song s SET s.title = :#{#song.title}, s.artist = :#{#song.artist}, " +
+            "s.fileSize = :#{#song.fileSize}, s.contentHash = :#{#song.contentHash}, " +
+            "s.durationSeconds = :#{#song.durationSeconds}, s.bitrate = :#{#song.bitrate}, " +
+            "s.featureVector = :#{#song.featureVector}, s.loudness = :#{#song.loudness}, " +
+            "s.peak = :#{#song.peak}, s.duplicateOf = :#{#song.duplicateOf}, " +
+            "s.artworkHash = :#{#song.artworkHash}, s.enrichmentVersion = :#{#song.enrichmentVersion}, " +
+            "s.enrichedAt = :#{#song.enrichedAt}, s.enrichmentFailures = :#{#song.enrichmentFailures}, " +
+            "s.enrichmentClaimedAt = NULL " +
+            "WHERE s.id = :#{#song.id}")
+    int saveEnrichment(Song song);
+
+    /**
+     * Claims a song for enrichment by this node, unless another node holds a claim
+     * made after the given time. The check and the claim are one conditional update,
+     * so of several nodes racing for the same song exactly one succeeds.
+     *
+     * @param id          the ID of the song
+     * @param claimedAt   the time of the claim
+     * @param staleBefore claims older than this are considered abandoned
+     * @return 1 if the song was claimed, 0 if another node holds it or it was deleted
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Song s SET s.enrichmentClaimedAt = :claimedAt WHERE s.id = :id " +
+            "AND (s.enrichmentClaimedAt IS NULL OR s.enrichmentClaimedAt < :staleBefore)")
+    int claimEnrichment(Long id, Instant claimedAt, Instant staleBefore);
+
+    /**
+     * Releases a song claimed for enrichment without writing any results.
+     *
+     * @param id the ID of the song
+     * @return the number of songs updated
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Song s SET s.enrichmentClaimedAt = NULL WHERE s.id = :id")
+    int releaseEnrichment(Long id);
+
+    /**
+     * Tombstones the given songs, leaving songs that are already tombstoned unchanged.
+     *
+     * @param ids          the IDs of the songs whose files are missing
+     * @param missingSince the time the files were found missing
+     * @param changedAt    the time of the change, for other nodes' search refreshes
+     * @return the number of songs tombstoned
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Song s SET s.missingSince = :missingSince, s.availabilityChangedAt = :changedAt " +
+            "WHERE s.id IN :ids AND s.missingSince IS NULL")
+    int markMissing(Collection<Long> ids, Instant missingSince, Instant changedAt);
+
+    /**
+     * Makes the given songs available again after their files reappeared.
      *
-     * @param genre the genre substring to search for
-     * @return a list of songs matching the genre name
+     * @param ids       the IDs of the songs whose files are present
+     * @param changedAt the time of the change, for other nodes' search refreshes
+     * @return the number of songs restored
      */
-    @Query("SELECT s FROM Song s JOIN Genre g ON s.genre.id = g.id " +
-            "WHERE LOWER(g.name) LIKE LOWER(CONCAT('%', :genre, '%'))")
-    List<Song> findByGenreNameContainingIgnoreCase(String genre);
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Song s SET s.missingSince = NULL, s.availabilityChangedAt = :changedAt WHERE s.id IN :ids")
+    int markAvailable(Collection<Long> ids, Instant changedAt);
 }
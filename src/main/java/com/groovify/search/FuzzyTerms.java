@@ -0,0 +1,172 @@
+package com.groovify.search;
+
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Edit-distance matching of query terms against a sorted term dictionary, for searches
+ * that tolerate typos.
+ * <p>
+ * A dictionary lookup walks the sorted terms as if they were a trie, keeping one row of
+ * the Levenshtein table per character of the current term; this is the Levenshtein
+ * automaton of the query term run over the dictionary. Rows shared with the previous
+ * term are reused, and as soon as a row has no cell within the edit budget, no term with
+ * that prefix can match, so the walk jumps straight past all of them. Only the terms
+ * close to the query and their immediate neighbourhood are visited, not the whole
+ * dictionary.
+ * </p>
+ * <p>
+ * Swapping two adjacent letters, the most common typo, counts as one edit (the
+ * optimal string alignment variant of the distance).
+ * </p>
+ */
+public final class FuzzyTerms {
+
+    private FuzzyTerms() {
+    }
+
+    /**
+     * Returns the number of edits a query term may be away from a match: none for very
+     * short terms, where any edit changes the meaning, one for short terms and two
+     * otherwise.
+     *
+     * @param term the query term
+     * @return the allowed edit distance
+     */
+    public static int maxEdits(String term) {
+        int length = term.codePointCount(0, term.length());
+        return length <= 2 ? 0 : length <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Computes the edit distance between two terms, giving up once it exceeds a bound.
+     *
+     * @param a   the first term
+     * @param b   the second term
+     * @param max the largest distance of interest
+     * @return the distance, or {@code max + 1} if it is larger than {@code max}
+     */
+    public static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] twoBack = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], twoBack[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] swap = twoBack;
+            twoBack = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * Checks whether every query term is within its edit budget of some term of the text.
+     *
+     * @param queryTerms the normalized query terms
+     * @param text       the text to check; may be null
+     * @return true if all query terms have a close match, false otherwise or if there are no query terms
+     */
+    public static boolean matchesAll(List<String> queryTerms, String text) {
+        if (queryTerms.isEmpty()) {
+            return false;
+        }
+        List<String> terms = SearchText.terms(text);
+        for (String queryTerm : queryTerms) {
+            int max = maxEdits(queryTerm);
+            boolean found = false;
+            for (String term : terms) {
+                if (distance(queryTerm, term, max) <= max) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the dictionary terms within an edit distance of a query term.
+     *
+     * @param dictionary the sorted terms to search
+     * @param term       the query term
+     * @param maxEdits   the largest edit distance accepted
+     * @param matches    receives each matching term and its distance, in dictionary order
+     */
+    public static void expand(NavigableMap<String, ?> dictionary, String term, int maxEdits, ObjIntConsumer<String> matches) {
+        int width = term.length() + 1;
+        int[][] rows = new int[term.length() + maxEdits + 2][];
+        rows[0] = new int[width];
+        for (int j = 0; j < width; j++) rows[0][j] = j;
+
+        String previous = "";
+        int validDepth = 0;
+        String key = dictionary.isEmpty() ? null : dictionary.firstKey();
+        while (key != null) {
+            int depth = Math.min(commonPrefix(previous, key), validDepth);
+            boolean dead = false;
+            while (depth < key.length()) {
+                // Rows deeper than the term plus the budget can never come back within it
+                if (depth + 1 >= rows.length) {
+                    dead = true;
+                    break;
+                }
+                int[] above = rows[depth];
+                int[] row = rows[depth + 1] != null ? rows[depth + 1] : (rows[depth + 1] = new int[width]);
+                char c = key.charAt(depth);
+                row[0] = depth + 1;
+                int rowMin = row[0];
+                for (int j = 1; j < width; j++) {
+                    int cost = term.charAt(j - 1) == c ? 0 : 1;
+                    row[j] = Math.min(Math.min(row[j - 1] + 1, above[j] + 1), above[j - 1] + cost);
+                    if (depth > 0 && j > 1 && term.charAt(j - 1) == key.charAt(depth - 1) && term.charAt(j - 2) == c) {
+                        row[j] = Math.min(row[j], rows[depth - 1][j - 2] + 1);
+                    }
+                    rowMin = Math.min(rowMin, row[j]);
+                }
+                depth++;
+                if (rowMin > maxEdits) {
+                    dead = true;
+                    break;
+                }
+            }
+
+            previous = key;
+            validDepth = depth;
+            if (dead) {
+                // Every term sharing this prefix is out of reach
+                key = dictionary.higherKey(key.substring(0, depth) + Character.MAX_VALUE);
+                continue;
+            }
+            int distance = rows[depth][width - 1];
+            if (distance <= maxEdits) {
+                matches.accept(key, distance);
+            }
+            key = dictionary.higherKey(key);
+        }
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+}
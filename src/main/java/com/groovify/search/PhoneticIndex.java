@@ -0,0 +1,212 @@
+package com.groovify.search;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of how words sound, for finding names the user spelled the way they
+ * heard them.
+ * <p>
+ * Every word of a document's {@link SearchText#normalize normalized} text is reduced to
+ * its Double Metaphone codes: a primary code for the most likely pronunciation and an
+ * alternate one for names of other origins. Each code keeps the set of documents with a
+ * word producing it, so a query word is answered with one or two map lookups however
+ * large the index is. Query words without letters produce no code and are ignored.
+ * </p>
+ * <p>
+ * The index is safe for concurrent use.
+ * </p>
+ */
+public final class PhoneticIndex {
+
+    /**
+     * A document sounding like a query.
+     *
+     * @param key   the document's identifier
+     * @param score one per query word matching on its primary code, half per word matching
+     *              only on an alternate code
+     */
+    public record Hit(long key, double score) {
+    }
+
+    // Score of a query word whose pronunciation only matches through an alternate code
+    private static final double ALTERNATE_SCORE = 0.5;
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparingLong(Hit::key);
+
+    private static final DoubleMetaphone ENCODER = new DoubleMetaphone();
+
+    private final Map<String, Set<Long>> primary = new HashMap<>();
+    private final Map<String, Set<Long>> any = new HashMap<>();
+    private final Map<Long, List<Codes>> codesOf = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The primary and alternate code of one word; the alternate equals the primary when
+     * the word has a single likely pronunciation.
+     */
+    private record Codes(String primary, String alternate) {
+    }
+
+    /**
+     * Adds a document to the index, replacing any text indexed for it before.
+     *
+     * @param key  the document's identifier, such as a song ID
+     * @param text the document's text; may be null
+     */
+    public void put(long key, String text) {
+        List<Codes> codes = encode(text);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(key);
+            if (codes.isEmpty()) return;
+            codesOf.put(key, codes);
+            for (Codes word : codes) {
+                primary.computeIfAbsent(word.primary(), c -> new HashSet<>()).add(key);
+                any.computeIfAbsent(word.primary(), c -> new HashSet<>()).add(key);
+                any.computeIfAbsent(word.alternate(), c -> new HashSet<>()).add(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document from the index. Removing a document that is not indexed does
+     * nothing.
+     *
+     * @param key the document to remove
+     */
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of documents with at least one encodable word.
+     *
+     * @return the document count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return codesOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the documents that, for every query word, have a word sharing one of its codes.
+     *
+     * @param query the query text
+     * @return the matching documents, best first; empty if no query word can be encoded
+     */
+    public List<Hit> search(String query) {
+        List<Codes> queryCodes = encode(query);
+        if (queryCodes.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (Codes word : queryCodes) {
+                Set<Long> candidates = new HashSet<>(any.getOrDefault(word.primary(), Set.of()));
+                candidates.addAll(any.getOrDefault(word.alternate(), Set.of()));
+                Set<Long> primaryMatches = primary.getOrDefault(word.primary(), Set.of());
+
+                Map<Long, Double> wordScores = new HashMap<>();
+                for (long key : candidates) {
+                    if (scores != null && !scores.containsKey(key)) continue;
+                    double score = primaryMatches.contains(key) ? 1.0 : ALTERNATE_SCORE;
+                    wordScores.put(key, scores == null ? score : scores.get(key) + score);
+                }
+                scores = wordScores;
+                if (scores.isEmpty()) break;
+            }
+
+            List<Hit> hits = new ArrayList<>(scores.size());
+            scores.forEach((key, score) -> hits.add(new Hit(key, score)));
+            hits.sort(RANKING);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tells whether text sounds like a query by the rules of {@link #search}, without an index.
+     *
+     * @param query the query text
+     * @param text  the text to check; may be null
+     * @return whether every encodable query word shares a code with a word of the text
+     */
+    public static boolean matches(String query, String text) {
+        List<Codes> queryCodes = encode(query);
+        if (queryCodes.isEmpty()) {
+            return false;
+        }
+        Set<String> textCodes = new HashSet<>();
+        for (Codes word : encode(text)) {
+            textCodes.add(word.primary());
+            textCodes.add(word.alternate());
+        }
+        for (Codes word : queryCodes) {
+            if (!textCodes.contains(word.primary()) && !textCodes.contains(word.alternate())) return false;
+        }
+        return true;
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Encodes each distinct term of the text, skipping terms without letters to encode.
+     */
+    private static List<Codes> encode(String text) {
+        Set<Codes> codes = new LinkedHashSet<>();
+        for (String term : SearchText.terms(text)) {
+            String primaryCode = ENCODER.doubleMetaphone(term, false);
+            if (primaryCode == null || primaryCode.isEmpty()) continue;
+            String alternateCode = ENCODER.doubleMetaphone(term, true);
+            codes.add(new Codes(primaryCode,
+                    alternateCode == null || alternateCode.isEmpty() ? primaryCode : alternateCode));
+        }
+        return new ArrayList<>(codes);
+    }
+
+    private void removeDocument(long key) {
+        List<Codes> old = codesOf.remove(key);
+        if (old == null) return;
+        for (Codes word : old) {
+            removePosting(primary, word.primary(), key);
+            removePosting(any, word.primary(), key);
+            removePosting(any, word.alternate(), key);
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Long>> postings, String code, long key) {
+        Set<Long> keys = postings.get(code);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            postings.remove(code);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.groovify.search;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of computed results, for answers that are expensive to compute and
+ * asked for again and again.
+ * <p>
+ * Every entry is tagged with the version of the data it was computed from. A lookup
+ * passes the current version, and entries computed from an older one are treated as
+ * absent, so a change to the data invalidates the whole cache in constant time without
+ * touching it. Entries also expire after a fixed time, and the least recently used
+ * entries are dropped once the cache is full.
+ * </p>
+ * <p>
+ * Concurrent lookups of the same missing key share one computation: the first caller
+ * computes the value and the others wait for it, so a burst of identical requests does
+ * the work once.
+ * </p>
+ * <p>
+ * The cache is safe for concurrent use.
+ * </p>
+ *
+ * @param <K> the key type, which must implement {@code equals} and {@code hashCode}
+ * @param <V> the value type; values are shared between callers and must not be modified
+ */
+public final class ResultCache<K, V> {
+
+    private record Entry<V>(V value, long version, long expiresAt) {
+    }
+
+    private record Flight<V>(long version, CompletableFuture<V> result) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final Map<K, Flight<V>> inFlight = new HashMap<>();
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxEntries the most entries kept; 0 disables caching, though concurrent
+     *                   identical lookups still share one computation
+     * @param ttl        how long an entry may be served after it was computed
+     */
+    public ResultCache(int maxEntries, Duration ttl) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.ttlNanos = ttl.toNanos();
+        // Access order, so the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > ResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for a key, computing it if it is absent, expired, or was
+     * computed from another version of the data.
+     *
+     * @param key     the key
+     * @param version the current version of the data the value is computed from
+     * @param loader  computes the value; runs in the calling thread
+     * @return the value
+     */
+    public V get(K key, long version, Supplier<V> loader) {
+        Flight<V> flight;
+        boolean leader = false;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.version() == version && System.nanoTime() - entry.expiresAt() < 0) {
+                    hits++;
+                    return entry.value();
+                }
+                entries.remove(key);
+            }
+            misses++;
+
+            flight = inFlight.get(key);
+            if (flight == null || flight.version() != version) {
+                flight = new Flight<>(version, new CompletableFuture<>());
+                inFlight.put(key, flight);
+                leader = true;
+            }
+        }
+
+        if (!leader) {
+            try {
+                return flight.result().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                if (e.getCause() instanceof Error cause) throw cause;
+                throw e;
+            }
+        }
+
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                inFlight.remove(key, flight);
+            }
+            flight.result().completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (this) {
+            inFlight.remove(key, flight);
+            if (maxEntries > 0) {
+                entries.put(key, new Entry<>(value, version, System.nanoTime() + ttlNanos));
+            }
+        }
+        flight.result().complete(value);
+        return value;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of entries, including ones that have expired or are outdated but
+     * have not been looked up since.
+     *
+     * @return the entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the hit count
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to compute or wait for a value.
+     *
+     * @return the miss count
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+}
@@ -0,0 +1,10 @@
+package com.groovify.search;
+
+/**
+ * The song fields covered by the in-memory search indexes.
+ */
+public enum SearchField {
+    TITLE,
+    ARTIST,
+    GENRE
+}
@@ -0,0 +1,82 @@
+package com.groovify.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Normalizes song text and queries into the terms stored in the search indexes.
+ * <p>
+ * The same rules are applied when a song is indexed and when a query is parsed, so a
+ * query matches exactly the songs whose text produces matching terms, whatever accents,
+ * case or punctuation either was written with. The indexes keep only normalized text,
+ * so each song's text is normalized once when it is indexed rather than on every search.
+ * </p>
+ */
+public final class SearchText {
+
+    private SearchText() {
+    }
+
+    /**
+     * Normalizes text for comparison: compatibility-decomposed (NFKD) with the diacritics
+     * that decomposition splits off dropped, case-folded, and with runs of anything other
+     * than letters and digits collapsed to a single space. "Beyoncé", "BEYONCE" and
+     * "beyonce" all normalize to "beyonce", and ligatures and full-width forms to their
+     * plain letters.
+     *
+     * @param text the text to normalize; may be null
+     * @return the normalized text, empty if there is none
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        // Most song text is plain ASCII, which decomposition would leave unchanged
+        String decomposed = isAscii(text) ? text : Normalizer.normalize(text, Normalizer.Form.NFKD);
+
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean separator = false;
+        for (int i = 0; i < decomposed.length(); ) {
+            int codePoint = decomposed.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.getType(codePoint) == Character.NON_SPACING_MARK) {
+                // A diacritic split off its letter: drop it without breaking the word
+                continue;
+            }
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (separator && !normalized.isEmpty()) normalized.append(' ');
+                separator = false;
+                // Upper then lower case folds letters with several lower-case forms, such as final sigma
+                normalized.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint)));
+            } else {
+                separator = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Splits text into its distinct normalized terms, in order of first appearance.
+     *
+     * @param text the text to split; may be null
+     * @return the terms, empty if the text has no letters or digits
+     */
+    public static List<String> terms(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>(List.of(normalized.split(" ")));
+        return new ArrayList<>(terms);
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+}
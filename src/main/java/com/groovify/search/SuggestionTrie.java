@@ -0,0 +1,377 @@
+package com.groovify.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable radix trie answering "best completions of this prefix" for search-as-you-type.
+ * <p>
+ * Every suggestion is stored under its normalized text and under the text from each later
+ * word onwards, so "roll" completes "Rock And Roll". Nodes are kept in flat arrays with
+ * edge labels in one shared character pool, and every node stores the
+ * {@link #MAX_SUGGESTIONS} heaviest suggestions below it, so a lookup walks at most the
+ * prefix's length and copies an already sorted list, whatever the size of the catalog.
+ * </p>
+ * <p>
+ * A trie cannot change once built. Callers build a new one with a {@link Builder} and
+ * swap the reference, so readers never see a half-built trie and need no locking.
+ * </p>
+ */
+public final class SuggestionTrie {
+
+    /**
+     * A completion offered for a prefix.
+     *
+     * @param text   the text as it appears in the catalog
+     * @param field  what the text is: a title, artist or genre
+     * @param weight how many songs the text stands for
+     */
+    public record Suggestion(String text, SearchField field, int weight) {
+    }
+
+    /** Most suggestions kept per node, and so per lookup. */
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Keys are cut to this many characters; longer prefixes are checked against the text
+    private static final int MAX_KEY_LENGTH = 48;
+
+    private static final Comparator<Suggestion> BEST_FIRST = Comparator
+            .comparingInt(Suggestion::weight).reversed()
+            .thenComparingInt(s -> s.text().length())
+            .thenComparing(Suggestion::text);
+
+    private final Suggestion[] suggestions;
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelLength;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] topStart;
+    private final int[] topCount;
+    private final int[] top;
+
+    private SuggestionTrie(Suggestion[] suggestions, Build build) {
+        this.suggestions = suggestions;
+        this.labels = Arrays.copyOf(build.labels, build.labelSize);
+        this.labelStart = Arrays.copyOf(build.labelStart, build.nodes);
+        this.labelLength = Arrays.copyOf(build.labelLength, build.nodes);
+        this.firstChild = Arrays.copyOf(build.firstChild, build.nodes);
+        this.childCount = Arrays.copyOf(build.childCount, build.nodes);
+        this.topStart = Arrays.copyOf(build.topStart, build.nodes);
+        this.topCount = Arrays.copyOf(build.topCount, build.nodes);
+        this.top = Arrays.copyOf(build.top, build.topSize);
+    }
+
+    /**
+     * Creates a builder for a new trie.
+     *
+     * @return an empty builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns an empty trie.
+     *
+     * @return a trie with no suggestions
+     */
+    public static SuggestionTrie empty() {
+        return builder().build();
+    }
+
+    /**
+     * Returns the number of distinct suggestions in the trie.
+     *
+     * @return the suggestion count
+     */
+    public int size() {
+        return suggestions.length;
+    }
+
+    /**
+     * Returns the best completions of a prefix: heaviest first, then shortest.
+     *
+     * @param prefix the text typed so far; it is normalized like indexed text
+     * @param limit  the maximum number of completions, at most {@link #MAX_SUGGESTIONS}
+     * @return the completions; empty if the prefix has no letters or digits
+     */
+    public List<Suggestion> complete(String prefix, int limit) {
+        String normalized = SearchText.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0 || suggestions.length == 0) {
+            return List.of();
+        }
+        String key = normalized.length() > MAX_KEY_LENGTH ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+
+        int node = 0;
+        int matched = 0;
+        while (matched < key.length()) {
+            int child = findChild(node, key.charAt(matched));
+            if (child < 0) {
+                return List.of();
+            }
+            int length = Math.min(labelLength[child], key.length() - matched);
+            for (int i = 0; i < length; i++) {
+                if (labels[labelStart[child] + i] != key.charAt(matched + i)) {
+                    return List.of();
+                }
+            }
+            matched += length;
+            node = child;
+        }
+
+        List<Suggestion> result = new ArrayList<>(Math.min(limit, topCount[node]));
+        for (int i = 0; i < topCount[node] && result.size() < limit; i++) {
+            Suggestion suggestion = suggestions[top[topStart[node] + i]];
+            // A cut key only proves the first characters match
+            if (key.length() == normalized.length() || SearchText.normalize(suggestion.text()).contains(normalized)) {
+                result.add(suggestion);
+            }
+        }
+        return result;
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Binary search for the child whose label starts with the given character.
+     */
+    private int findChild(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char label = labels[labelStart[middle]];
+            if (label < c) low = middle + 1;
+            else if (label > c) high = middle - 1;
+            else return middle;
+        }
+        return -1;
+    }
+
+    /**
+     * Collects suggestions and builds an immutable {@link SuggestionTrie}. Adding the same
+     * normalized text for the same field more than once adds up the weights.
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> index = new HashMap<>();
+        private final List<String> texts = new ArrayList<>();
+        private final List<SearchField> fields = new ArrayList<>();
+        private final List<Integer> weights = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a suggestion, or adds to the weight of an equal one.
+         *
+         * @param text   the text to suggest; blank text is ignored
+         * @param field  what the text is
+         * @param weight how many songs the text stands for
+         * @return this builder
+         */
+        public Builder add(String text, SearchField field, int weight) {
+            if (text == null || SearchText.normalize(text).isEmpty()) {
+                return this;
+            }
+            String id = field.ordinal() + ":" + SearchText.normalize(text);
+            Integer existing = index.get(id);
+            if (existing != null) {
+                weights.set(existing, weights.get(existing) + weight);
+            } else {
+                index.put(id, texts.size());
+                texts.add(text.trim());
+                fields.add(field);
+                weights.add(weight);
+            }
+            return this;
+        }
+
+        /**
+         * Builds the trie.
+         *
+         * @return the immutable trie
+         */
+        public SuggestionTrie build() {
+            Suggestion[] suggestions = new Suggestion[texts.size()];
+            for (int i = 0; i < suggestions.length; i++) {
+                suggestions[i] = new Suggestion(texts.get(i), fields.get(i), weights.get(i));
+            }
+
+            // One key per word start of each suggestion
+            List<Key> keyList = new ArrayList<>();
+            for (int i = 0; i < suggestions.length; i++) {
+                String normalized = SearchText.normalize(suggestions[i].text());
+                Set<String> keys = new LinkedHashSet<>();
+                for (int start = 0; start < normalized.length(); start = normalized.indexOf(' ', start) + 1) {
+                    String key = normalized.substring(start);
+                    keys.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+                    if (normalized.indexOf(' ', start) < 0) break;
+                }
+                for (String key : keys) keyList.add(new Key(key, i));
+            }
+
+            Key[] sorted = keyList.toArray(new Key[0]);
+            Arrays.sort(sorted);
+            String[] keys = new String[sorted.length];
+            int[] owners = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                keys[i] = sorted[i].text();
+                owners[i] = sorted[i].owner();
+            }
+
+            Build build = new Build(suggestions, keys, owners);
+            build.newNode(0, 0);
+            build.fill(0, 0, keys.length, 0);
+            return new SuggestionTrie(suggestions, build);
+        }
+    }
+
+    /**
+     * A lookup key and the suggestion it leads to.
+     */
+    private record Key(String text, int owner) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            return text.compareTo(other.text);
+        }
+    }
+
+    /**
+     * Growable arrays used while building a trie.
+     */
+    private static final class Build {
+        private final String[] keys;
+        private final int[] owners;
+
+        // Position of each suggestion in best-first order, and the suggestion at each position
+        private final int[] rank;
+        private final int[] byRank;
+
+        private char[] labels = new char[64];
+        private int labelSize;
+        private int[] labelStart = new int[16];
+        private int[] labelLength = new int[16];
+        private int[] firstChild = new int[16];
+        private int[] childCount = new int[16];
+        private int[] topStart = new int[16];
+        private int[] topCount = new int[16];
+        private int nodes;
+        private int[] top = new int[64];
+        private int topSize;
+
+        private Build(Suggestion[] suggestions, String[] keys, int[] owners) {
+            this.keys = keys;
+            this.owners = owners;
+
+            Integer[] order = new Integer[suggestions.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparing(i -> suggestions[i], BEST_FIRST));
+            rank = new int[order.length];
+            byRank = new int[order.length];
+            for (int r = 0; r < order.length; r++) {
+                rank[order[r]] = r;
+                byRank[r] = order[r];
+            }
+        }
+
+        private int newNode(int start, int length) {
+            if (nodes == labelStart.length) {
+                int capacity = nodes * 2;
+                labelStart = Arrays.copyOf(labelStart, capacity);
+                labelLength = Arrays.copyOf(labelLength, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                childCount = Arrays.copyOf(childCount, capacity);
+                topStart = Arrays.copyOf(topStart, capacity);
+                topCount = Arrays.copyOf(topCount, capacity);
+            }
+            labelStart[nodes] = start;
+            labelLength[nodes] = length;
+            return nodes++;
+        }
+
+        /**
+         * Builds the subtree of a node for the sorted keys in {@code [low, high)}, which all
+         * share their first {@code depth} characters, and stores its best suggestions.
+         *
+         * @return the ranks of the node's best suggestions, best first
+         */
+        private int[] fill(int node, int low, int high, int depth) {
+            int[] candidates = new int[MAX_SUGGESTIONS];
+            int candidateCount = 0;
+            // Shorter keys sort first, so keys ending at this node come before the children
+            while (low < high && keys[low].length() == depth) {
+                if (candidateCount == candidates.length) candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                candidates[candidateCount++] = rank[owners[low++]];
+            }
+
+            // Allocate the children together so they can be found by binary search
+            List<int[]> groups = new ArrayList<>();
+            for (int start = low; start < high; ) {
+                char c = keys[start].charAt(depth);
+                int end = start + 1;
+                while (end < high && keys[end].charAt(depth) == c) end++;
+                groups.add(new int[]{start, end});
+                start = end;
+            }
+            firstChild[node] = nodes;
+            childCount[node] = groups.size();
+            int[] children = new int[groups.size()];
+            int[] childDepth = new int[groups.size()];
+            for (int g = 0; g < groups.size(); g++) {
+                String first = keys[groups.get(g)[0]];
+                String last = keys[groups.get(g)[1] - 1];
+                int common = depth + 1;
+                while (common < first.length() && common < last.length() && first.charAt(common) == last.charAt(common)) {
+                    common++;
+                }
+                children[g] = newNode(appendLabel(first, depth, common), common - depth);
+                childDepth[g] = common;
+            }
+            for (int g = 0; g < groups.size(); g++) {
+                int[] childBest = fill(children[g], groups.get(g)[0], groups.get(g)[1], childDepth[g]);
+                if (candidateCount + childBest.length > candidates.length) {
+                    candidates = Arrays.copyOf(candidates, Math.max(candidates.length * 2, candidateCount + childBest.length));
+                }
+                System.arraycopy(childBest, 0, candidates, candidateCount, childBest.length);
+                candidateCount += childBest.length;
+            }
+
+            // Ranks are unique per suggestion, so sorting them orders and groups duplicates
+            Arrays.sort(candidates, 0, candidateCount);
+            int[] best = new int[Math.min(candidateCount, MAX_SUGGESTIONS)];
+            int count = 0;
+            for (int i = 0; i < candidateCount && count < best.length; i++) {
+                if (count == 0 || candidates[i] != best[count - 1]) best[count++] = candidates[i];
+            }
+            best = Arrays.copyOf(best, count);
+
+            if (topSize + count > top.length) {
+                top = Arrays.copyOf(top, Math.max(top.length * 2, topSize + count));
+            }
+            topStart[node] = topSize;
+            topCount[node] = count;
+            for (int r : best) top[topSize++] = byRank[r];
+            return best;
+        }
+
+        private int appendLabel(String key, int from, int to) {
+            if (labelSize + (to - from) > labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(labels.length * 2, labelSize + (to - from)));
+            }
+            int start = labelSize;
+            key.getChars(from, to, labels, labelSize);
+            labelSize += to - from;
+            return start;
+        }
+    }
+}
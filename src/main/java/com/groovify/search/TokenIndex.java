@@ -0,0 +1,433 @@
+package com.groovify.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory inverted index from the normalized terms of song fields to the songs that
+ * contain them.
+ * <p>
+ * Each field keeps its terms in sorted order, so the songs containing any term that
+ * starts with a query term are found with one range lookup; a query matches a song when
+ * every query term is a prefix of one of the song's terms. Matches are ranked by how
+ * much of the field the query covers: whole-term matches score higher than prefix
+ * matches, and the score is divided by the square root of the field's term count so
+ * that short, exact titles come first. Typo-tolerant searches instead match whole
+ * terms within a small edit distance, found by walking the same sorted terms with
+ * {@link FuzzyTerms}.
+ * </p>
+ * <p>
+ * Searches across several fields are ranked with BM25 instead: each field keeps its
+ * document count and total term count, so a match in a rare term, or in a field shorter
+ * than that field's average, scores higher. Field scores are weighted by per-field
+ * boosts and summed, and only the best results are kept, in a bounded heap.
+ * </p>
+ * <p>
+ * Postings are sorted arrays of song IDs. The index is safe for concurrent use; many
+ * searches can run at once while updates wait for exclusive access.
+ * </p>
+ */
+public final class TokenIndex {
+
+    /**
+     * A song that matches a query.
+     *
+     * @param songId the matching song
+     * @param score  the relevance of the match; higher is better
+     */
+    public record Hit(long songId, double score) {
+    }
+
+    // Score of a query term that is only a prefix of the song's term, relative to a whole-term match
+    private static final double PREFIX_SCORE = 0.5;
+
+    // Score lost per edit between a fuzzy query term and the song's term
+    private static final double EDIT_PENALTY = 0.3;
+
+    // BM25 term frequency saturation and length normalization; fields hold each term once,
+    // so K1 only scales the length effect
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Best match first, ties broken by ID so results are stable
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparingLong(Hit::songId);
+
+    private final Map<SearchField, NavigableMap<String, Postings>> terms = new EnumMap<>(SearchField.class);
+    private final Map<SearchField, FieldStats> fieldStats = new EnumMap<>(SearchField.class);
+    private final Map<Long, Map<SearchField, List<String>>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates an empty index.
+     */
+    public TokenIndex() {
+        for (SearchField field : SearchField.values()) {
+            terms.put(field, new TreeMap<>());
+            fieldStats.put(field, new FieldStats());
+        }
+    }
+
+    /**
+     * Adds a song to the index, replacing any terms indexed for it before.
+     *
+     * @param songId the song
+     * @param fields the song's text per field; missing or null fields have no terms
+     */
+    public void put(long songId, Map<SearchField, String> fields) {
+        Map<SearchField, List<String>> document = new EnumMap<>(SearchField.class);
+        for (Map.Entry<SearchField, String> field : fields.entrySet()) {
+            document.put(field.getKey(), SearchText.terms(field.getValue()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(songId);
+            documents.put(songId, document);
+            for (Map.Entry<SearchField, List<String>> field : document.entrySet()) {
+                NavigableMap<String, Postings> fieldTerms = terms.get(field.getKey());
+                for (String term : field.getValue()) {
+                    fieldTerms.computeIfAbsent(term, t -> new Postings()).add(songId);
+                }
+                fieldStats.get(field.getKey()).add(field.getValue().size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a song from the index.
+     *
+     * @param songId the song to remove
+     */
+    public void remove(long songId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(songId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of songs in the index.
+     *
+     * @return the song count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the songs whose field contains, for every query term, a term starting with it.
+     *
+     * @param queryTerms the normalized query terms
+     * @param field      the field to search
+     * @return the matching songs, best first; empty if there are no query terms
+     */
+    public List<Hit> search(List<String> queryTerms, SearchField field) {
+        return sorted(scoreMatches(queryTerms, field));
+    }
+
+    /**
+     * Scores the songs {@link #search} finds without ranking them, for callers that keep
+     * only the best few.
+     *
+     * @param queryTerms the normalized query terms
+     * @param field      the field to search
+     * @return the score of each matching song; empty if there are no query terms
+     */
+    public Map<Long, Double> scoreMatches(List<String> queryTerms, SearchField field) {
+        return match(queryTerms, field, (queryTerm, fieldTerms, termScores) -> {
+            for (Map.Entry<String, Postings> entry
+                    : fieldTerms.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+                double score = entry.getKey().length() == queryTerm.length() ? 1.0 : PREFIX_SCORE;
+                termScores.accept(entry.getValue(), score);
+            }
+        });
+    }
+
+    /**
+     * Finds the songs whose field contains, for every query term, a term within
+     * {@link FuzzyTerms#maxEdits} edits of it. Each edit lowers the score of a match.
+     *
+     * @param queryTerms the normalized query terms
+     * @param field      the field to search
+     * @return the matching songs, best first; empty if there are no query terms
+     */
+    public List<Hit> searchFuzzy(List<String> queryTerms, SearchField field) {
+        return sorted(scoreFuzzyMatches(queryTerms, field));
+    }
+
+    /**
+     * Scores the songs {@link #searchFuzzy} finds without ranking them, for callers that
+     * keep only the best few.
+     *
+     * @param queryTerms the normalized query terms
+     * @param field      the field to search
+     * @return the score of each matching song; empty if there are no query terms
+     */
+    public Map<Long, Double> scoreFuzzyMatches(List<String> queryTerms, SearchField field) {
+        return match(queryTerms, field, (queryTerm, fieldTerms, termScores) ->
+                FuzzyTerms.expand(fieldTerms, queryTerm, FuzzyTerms.maxEdits(queryTerm), (term, edits) ->
+                        termScores.accept(fieldTerms.get(term), 1.0 - EDIT_PENALTY * edits)));
+    }
+
+    /**
+     * Finds the songs where every query term starts a term of at least one of the given
+     * fields, ranked by BM25. For each query term and field, the best matching song term
+     * counts, a prefix match at {@link #PREFIX_SCORE} of a whole-term match; the field
+     * scores are multiplied by the field's boost and summed over fields and query terms.
+     *
+     * @param queryTerms the normalized query terms
+     * @param boosts     the fields to search, with the weight of each
+     * @param limit      the maximum number of songs to return
+     * @return the best matching songs, best first; empty if there are no query terms
+     */
+    public List<Hit> searchRanked(List<String> queryTerms, Map<SearchField, Double> boosts, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return top(scoreRanked(queryTerms, boosts), limit);
+    }
+
+    /**
+     * Scores the songs {@link #searchRanked} finds without selecting the best, for callers
+     * that select their own page of the ranking.
+     *
+     * @param queryTerms the normalized query terms
+     * @param boosts     the fields to search, with the weight of each
+     * @return the BM25 score of each matching song; empty if there are no query terms
+     */
+    public Map<Long, Double> scoreRanked(List<String> queryTerms, Map<SearchField, Double> boosts) {
+        if (queryTerms.isEmpty()) {
+            return Map.of();
+        }
+        List<String> ordered = new ArrayList<>(queryTerms);
+        ordered.sort(Comparator.comparingInt(String::length).reversed());
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String queryTerm : ordered) {
+                Map<Long, Double> previous = scores;
+                Map<Long, Double> termScores = new HashMap<>();
+                for (Map.Entry<SearchField, Double> boost : boosts.entrySet()) {
+                    Map<Long, Double> fieldScores = scoreField(queryTerm, boost.getKey(), boost.getValue(), previous);
+                    fieldScores.forEach((songId, score) -> termScores.merge(songId, score, Double::sum));
+                }
+                if (previous != null) {
+                    termScores.replaceAll((songId, score) -> score + previous.get(songId));
+                }
+                scores = termScores;
+                if (scores.isEmpty()) break;
+            }
+            return scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Finds the posting lists a single query term matches, with the score of each.
+     */
+    @FunctionalInterface
+    private interface TermMatcher {
+        void match(String queryTerm, NavigableMap<String, Postings> fieldTerms, BiConsumer<Postings, Double> termScores);
+    }
+
+    /**
+     * Scores the songs matching every query term, dividing each score by the square root
+     * of the field's term count. Takes the read lock itself.
+     */
+    private Map<Long, Double> match(List<String> queryTerms, SearchField field, TermMatcher matcher) {
+        if (queryTerms.isEmpty()) {
+            return Map.of();
+        }
+        // Longer terms have shorter posting ranges, so start with them to keep the candidate set small
+        List<String> ordered = new ArrayList<>(queryTerms);
+        ordered.sort(Comparator.comparingInt(String::length).reversed());
+
+        Map<Long, Double> scores = null;
+        lock.readLock().lock();
+        try {
+            NavigableMap<String, Postings> fieldTerms = terms.get(field);
+            for (String queryTerm : ordered) {
+                Map<Long, Double> previous = scores;
+                Map<Long, Double> termScores = new HashMap<>();
+                matcher.match(queryTerm, fieldTerms, (postings, score) -> {
+                    for (int i = 0; i < postings.size; i++) {
+                        long songId = postings.ids[i];
+                        if (previous == null || previous.containsKey(songId)) {
+                            termScores.merge(songId, score, Math::max);
+                        }
+                    }
+                });
+                if (previous != null) {
+                    termScores.replaceAll((songId, score) -> score + previous.get(songId));
+                }
+                scores = termScores;
+                if (scores.isEmpty()) break;
+            }
+
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                int length = documents.get(entry.getKey()).getOrDefault(field, List.of()).size();
+                entry.setValue(entry.getValue() / Math.sqrt(Math.max(1, length)));
+            }
+            return scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks every scored song, best first.
+     */
+    private static List<Hit> sorted(Map<Long, Double> scores) {
+        List<Hit> hits = new ArrayList<>(scores.size());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            hits.add(new Hit(entry.getKey(), entry.getValue()));
+        }
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    /**
+     * Scores one query term against one field with BM25, keeping only songs still in the
+     * running. Must be called with the read lock held.
+     */
+    private Map<Long, Double> scoreField(String queryTerm, SearchField field, double boost, Map<Long, Double> candidates) {
+        Map<Long, Double> fieldScores = new HashMap<>();
+        FieldStats stats = fieldStats.get(field);
+        if (stats.documents == 0) {
+            return fieldScores;
+        }
+        double averageLength = (double) stats.terms / stats.documents;
+
+        for (Map.Entry<String, Postings> entry
+                : terms.get(field).subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+            Postings postings = entry.getValue();
+            double idf = Math.log(1 + (stats.documents - postings.size + 0.5) / (postings.size + 0.5));
+            double weight = boost * idf * (entry.getKey().length() == queryTerm.length() ? 1.0 : PREFIX_SCORE);
+            for (int i = 0; i < postings.size; i++) {
+                long songId = postings.ids[i];
+                if (candidates != null && !candidates.containsKey(songId)) continue;
+                int length = documents.get(songId).get(field).size();
+                double score = weight * (K1 + 1) / (1 + K1 * (1 - B + B * length / averageLength));
+                fieldScores.merge(songId, score, Math::max);
+            }
+        }
+        return fieldScores;
+    }
+
+    /**
+     * Selects the best scores with a heap bounded to {@code limit} entries, whose head is
+     * the worst hit kept so far, so selection costs O(n log limit) instead of a full sort.
+     */
+    private static List<Hit> top(Map<Long, Double> scores, int limit) {
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Math.min(limit, scores.size()) + 1, RANKING.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            Hit hit = new Hit(entry.getKey(), entry.getValue());
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (RANKING.compare(hit, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    /**
+     * Removes a song's postings. Must be called with the write lock held.
+     */
+    private void removeDocument(long songId) {
+        Map<SearchField, List<String>> previous = documents.remove(songId);
+        if (previous == null) {
+            return;
+        }
+        for (Map.Entry<SearchField, List<String>> field : previous.entrySet()) {
+            fieldStats.get(field.getKey()).remove(field.getValue().size());
+            NavigableMap<String, Postings> fieldTerms = terms.get(field.getKey());
+            for (String term : field.getValue()) {
+                Postings postings = fieldTerms.get(term);
+                if (postings != null && postings.remove(songId) && postings.size == 0) {
+                    fieldTerms.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of songs with terms in a field and their total number of terms in it,
+     * the collection statistics BM25 needs. Updated with the write lock held.
+     */
+    private static final class FieldStats {
+        private int documents;
+        private long terms;
+
+        private void add(int termCount) {
+            if (termCount == 0) return;
+            documents++;
+            terms += termCount;
+        }
+
+        private void remove(int termCount) {
+            if (termCount == 0) return;
+            documents--;
+            terms -= termCount;
+        }
+    }
+
+    /**
+     * Sorted, growable array of the IDs of the songs containing one term.
+     */
+    private static final class Postings {
+        private long[] ids = new long[2];
+        private int size;
+
+        private void add(long songId) {
+            // IDs are assigned in increasing order, so new songs usually append
+            int position = size > 0 && ids[size - 1] < songId ? size : Arrays.binarySearch(ids, 0, size, songId);
+            if (position >= 0 && position < size) return;
+            int insert = position >= 0 ? position : -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+            ids[insert] = songId;
+            size++;
+        }
+
+        private boolean remove(long songId) {
+            int position = Arrays.binarySearch(ids, 0, size, songId);
+            if (position < 0) return false;
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.groovify.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory trigram index for substring search over normalized text.
+ * <p>
+ * Every run of three characters of a field's {@link SearchText#normalize normalized}
+ * text is a trigram, and each trigram keeps a posting list of the documents containing
+ * it. A query of three or more characters can only occur in documents that contain all
+ * of its trigrams, so intersecting those postings (shortest first) yields a small
+ * candidate set, which is then checked against the stored text. Text is padded with two
+ * end markers so that shorter queries are the start of some trigram; their candidates
+ * are the union of one range of the sorted trigram dictionary.
+ * </p>
+ * <p>
+ * Documents are numbered densely in the order they are added, and postings are stored as
+ * variable-length deltas between those numbers, usually one byte per entry. Re-adding a
+ * document gives it a new number and marks the old one dead; dead numbers are dropped by
+ * rebuilding the postings once they outnumber the live ones.
+ * </p>
+ * <p>
+ * The index is safe for concurrent use.
+ * </p>
+ */
+public final class TrigramIndex {
+
+    /**
+     * A document whose text contains a query.
+     *
+     * @param key      the document's identifier
+     * @param position where the query first occurs in the document's normalized text
+     * @param length   the length of the document's normalized text
+     */
+    public record Match(long key, int position, int length) {
+    }
+
+    private static final char END = '\u0003';
+    private static final int MIN_COMPACT_DEAD = 1024;
+
+    private final Map<SearchField, NavigableMap<Long, Postings>> trigrams = new EnumMap<>(SearchField.class);
+    private final Map<Long, Integer> docOf = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Per document number: the key it was added under and its normalized text per field
+    private long[] keys = new long[64];
+    private final List<Map<SearchField, String>> texts = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private int dead;
+
+    /**
+     * Creates an empty index.
+     */
+    public TrigramIndex() {
+        for (SearchField field : SearchField.values()) {
+            trigrams.put(field, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Adds a document to the index, replacing any text indexed for it before.
+     *
+     * @param key    the document's identifier, such as a song ID
+     * @param fields the document's text per field; missing or null fields are empty
+     */
+    public void put(long key, Map<SearchField, String> fields) {
+        Map<SearchField, String> normalized = new EnumMap<>(SearchField.class);
+        for (Map.Entry<SearchField, String> field : fields.entrySet()) {
+            normalized.put(field.getKey(), SearchText.normalize(field.getValue()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(key);
+            addDocument(key, normalized);
+            if (dead > MIN_COMPACT_DEAD && dead > live.cardinality()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document from the index.
+     *
+     * @param key the document to remove
+     */
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of documents in the index.
+     *
+     * @return the document count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the documents whose normalized field text contains the normalized query.
+     *
+     * @param query the query text; it is normalized the same way as indexed text
+     * @param field the field to search
+     * @return the matching documents, in the order they were added; empty if the query
+     *         has no letters or digits
+     */
+    public List<Match> search(String query, SearchField field) {
+        List<Match> results = new ArrayList<>();
+        search(query, field, results::add);
+        return results;
+    }
+
+    /**
+     * Hands each document whose normalized field text contains the normalized query to a
+     * consumer, without collecting them, for callers that keep only some of the matches.
+     * The consumer runs with the read lock held and must not update the index.
+     *
+     * @param query   the query text; it is normalized the same way as indexed text
+     * @param field   the field to search
+     * @param results receives the matching documents, in the order they were added
+     */
+    public void search(String query, SearchField field, Consumer<Match> results) {
+        String normalized = SearchText.normalize(query);
+        if (normalized.isEmpty()) {
+            return;
+        }
+
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Postings> fieldTrigrams = trigrams.get(field);
+            if (normalized.length() < 3) {
+                // Every occurrence of a short query starts some trigram, thanks to the end padding
+                BitSet candidates = new BitSet();
+                long low = packPrefix(normalized);
+                long high = low | (normalized.length() == 1 ? 0xFFFFFFFFL : 0xFFFFL);
+                for (Postings postings : fieldTrigrams.subMap(low, true, high, true).values()) {
+                    postings.addTo(candidates);
+                }
+                candidates.and(live);
+                for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+                    addIfContains(results, doc, field, normalized);
+                }
+                return;
+            }
+
+            Set<Long> queryTrigrams = trigramsOf(normalized, false);
+            List<Postings> lists = new ArrayList<>(queryTrigrams.size());
+            for (long trigram : queryTrigrams) {
+                Postings postings = fieldTrigrams.get(trigram);
+                if (postings == null) return;
+                lists.add(postings);
+            }
+            lists.sort(Comparator.comparingInt(p -> p.count));
+
+            int[] candidates = lists.get(0).toArray();
+            int size = candidates.length;
+            for (int i = 1; i < lists.size() && size > 0; i++) {
+                size = lists.get(i).retain(candidates, size);
+            }
+            for (int i = 0; i < size; i++) {
+                if (live.get(candidates[i])) addIfContains(results, candidates[i], field, normalized);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Verifies a candidate against its stored text and records where the query occurs.
+     */
+    private void addIfContains(Consumer<Match> results, int doc, SearchField field, String normalized) {
+        String text = texts.get(doc).getOrDefault(field, "");
+        int position = text.indexOf(normalized);
+        if (position >= 0) {
+            results.accept(new Match(keys[doc], position, text.length()));
+        }
+    }
+
+    /**
+     * Appends a document under the next document number. Must be called with the write lock held.
+     */
+    private void addDocument(long key, Map<SearchField, String> normalized) {
+        int doc = texts.size();
+        if (doc == keys.length) {
+            keys = Arrays.copyOf(keys, doc * 2);
+        }
+        keys[doc] = key;
+        texts.add(normalized);
+        live.set(doc);
+        docOf.put(key, doc);
+
+        for (Map.Entry<SearchField, String> field : normalized.entrySet()) {
+            NavigableMap<Long, Postings> fieldTrigrams = trigrams.get(field.getKey());
+            for (long trigram : trigramsOf(field.getValue(), true)) {
+                fieldTrigrams.computeIfAbsent(trigram, t -> new Postings()).add(doc);
+            }
+        }
+    }
+
+    /**
+     * Marks a document's number dead. Must be called with the write lock held.
+     */
+    private void removeDocument(long key) {
+        Integer doc = docOf.remove(key);
+        if (doc != null) {
+            live.clear(doc);
+            texts.set(doc, Map.of());
+            dead++;
+        }
+    }
+
+    /**
+     * Renumbers the live documents and rebuilds all postings without the dead ones.
+     * Must be called with the write lock held.
+     */
+    private void compact() {
+        long[] oldKeys = keys;
+        List<Map<SearchField, String>> oldTexts = new ArrayList<>(texts);
+        BitSet oldLive = (BitSet) live.clone();
+
+        for (NavigableMap<Long, Postings> fieldTrigrams : trigrams.values()) fieldTrigrams.clear();
+        docOf.clear();
+        texts.clear();
+        live.clear();
+        keys = new long[Math.max(64, oldLive.cardinality())];
+        dead = 0;
+
+        for (int doc = oldLive.nextSetBit(0); doc >= 0; doc = oldLive.nextSetBit(doc + 1)) {
+            addDocument(oldKeys[doc], oldTexts.get(doc));
+        }
+    }
+
+    /**
+     * Returns the distinct trigrams of normalized text, optionally padded with end markers.
+     */
+    private static Set<Long> trigramsOf(String text, boolean pad) {
+        Set<Long> result = new HashSet<>();
+        if (text.isEmpty()) {
+            return result;
+        }
+        String padded = pad ? text + END + END : text;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(pack(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2)));
+        }
+        return result;
+    }
+
+    /**
+     * Packs three UTF-16 units into a key that sorts like the string they form.
+     */
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /**
+     * Packs a one- or two-character query as the lowest trigram key it can start.
+     */
+    private static long packPrefix(String prefix) {
+        return prefix.length() == 1 ? pack(prefix.charAt(0), '\0', '\0') : pack(prefix.charAt(0), prefix.charAt(1), '\0');
+    }
+
+    /**
+     * Ascending document numbers containing one trigram, stored as variable-length
+     * deltas: seven bits per byte, with the high bit set on all but the last byte.
+     */
+    private static final class Postings {
+        private byte[] bytes = new byte[4];
+        private int length;
+        private int count;
+        private int last = -1;
+
+        private void add(int doc) {
+            if (doc == last) return;
+            int delta = doc - last;
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+            }
+            while (delta >= 0x80) {
+                bytes[length++] = (byte) (delta | 0x80);
+                delta >>>= 7;
+            }
+            bytes[length++] = (byte) delta;
+            last = doc;
+            count++;
+        }
+
+        private int[] toArray() {
+            int[] docs = new int[count];
+            int position = 0;
+            int doc = -1;
+            for (int i = 0; i < count; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[position++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += delta;
+                docs[i] = doc;
+            }
+            return docs;
+        }
+
+        private void addTo(BitSet docs) {
+            for (int doc : toArray()) docs.set(doc);
+        }
+
+        /**
+         * Keeps only the first {@code size} candidates that also appear in this list.
+         *
+         * @return the number of candidates kept, moved to the front of the array
+         */
+        private int retain(int[] candidates, int size) {
+            int kept = 0;
+            int c = 0;
+            int position = 0;
+            int doc = -1;
+            for (int i = 0; i < count && c < size; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[position++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += delta;
+                while (c < size && candidates[c] < doc) c++;
+                if (c < size && candidates[c] == doc) candidates[kept++] = candidates[c++];
+            }
+            return kept;
+        }
+    }
+}
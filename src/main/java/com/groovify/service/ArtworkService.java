@@ -0,0 +1,37 @@
+package com.groovify.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Service interface for song cover art.
+ * <p>
+ * Cover images are stored content-addressed: each distinct image is identified by the
+ * SHA-256 hash of its original bytes, and is kept only as a few downscaled JPEG
+ * thumbnails. Songs from the same album share one set of thumbnails, and a stored
+ * thumbnail never changes, so it can be cached by clients indefinitely.
+ */
+public interface ArtworkService {
+
+    /** Edge lengths, in pixels, of the square thumbnails generated for every image. */
+    List<Integer> THUMBNAIL_SIZES = List.of(160, 320, 640);
+
+    /**
+     * Stores an image, generating its thumbnails unless an identical image was stored before.
+     *
+     * @param image the encoded image (JPEG, PNG, GIF, or BMP)
+     * @return the content hash identifying the image
+     * @throws IOException if the image cannot be decoded or the thumbnails cannot be written
+     */
+    String storeArtwork(byte[] image) throws IOException;
+
+    /**
+     * Returns the file of a stored thumbnail.
+     *
+     * @param hash the content hash of the image
+     * @param size one of {@link #THUMBNAIL_SIZES}
+     * @return the thumbnail file, or null if the hash or size is invalid or no such thumbnail exists
+     */
+    Path findThumbnail(String hash, int size);
+}
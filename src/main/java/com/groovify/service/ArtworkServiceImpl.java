@@ -0,0 +1,208 @@
+package com.groovify.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of {@link ArtworkService} that writes thumbnails to a directory on disk.
+ * <p>
+ * Thumbnails live at {@code <artwork.directory>/<first two hash characters>/<hash>-<size>.jpg}.
+ * Each image is centre-cropped to a square and reduced by repeated halving before the
+ * final resize, which keeps bilinear scaling sharp without an expensive filter. Images
+ * smaller than a thumbnail size are not enlarged. Files are written under a temporary
+ * name and moved into place, so a thumbnail is never served half-written.
+ * </p>
+ */
+@Service
+public class ArtworkServiceImpl implements ArtworkService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArtworkServiceImpl.class);
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    // Refuse images whose decoded pixels would take an unreasonable amount of memory
+    private static final long MAX_PIXELS = 40_000_000L;
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    /**
+     * Directory holding the generated thumbnails (configurable in application.properties).
+     */
+    @Value("${artwork.directory:data/artwork}")
+    String artworkDirectory;
+
+    /**
+     * Decodes the image, then writes each thumbnail size that does not exist yet.
+     *
+     * @param image the encoded image
+     * @return the content hash identifying the image
+     * @throws IOException if the image cannot be decoded or the thumbnails cannot be written
+     */
+    @Override
+    public String storeArtwork(byte[] image) throws IOException {
+        if (image == null || image.length == 0) {
+            throw new IOException("No image data");
+        }
+        String hash = sha256(image);
+        if (THUMBNAIL_SIZES.stream().allMatch(size -> Files.isRegularFile(thumbnailPath(hash, size)))) {
+            log.debug("Artwork {} already stored", hash);
+            return hash;
+        }
+
+        BufferedImage square = cropToSquare(decode(image));
+        Path folder = thumbnailPath(hash, THUMBNAIL_SIZES.get(0)).getParent();
+        Files.createDirectories(folder);
+        for (int size : THUMBNAIL_SIZES) {
+            Path target = thumbnailPath(hash, size);
+            if (Files.isRegularFile(target)) continue;
+
+            Path temp = Files.createTempFile(folder, hash, ".part");
+            try {
+                writeJpeg(scale(square, Math.min(size, square.getWidth())), temp);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        log.info("Stored artwork {} ({}x{} source)", hash, square.getWidth(), square.getHeight());
+        return hash;
+    }
+
+    /**
+     * Returns the file of a stored thumbnail.
+     *
+     * @param hash the content hash of the image
+     * @param size one of {@link #THUMBNAIL_SIZES}
+     * @return the thumbnail file, or null if the hash or size is invalid or no such thumbnail exists
+     */
+    @Override
+    public Path findThumbnail(String hash, int size) {
+        if (hash == null || !HASH.matcher(hash).matches() || !THUMBNAIL_SIZES.contains(size)) {
+            return null;
+        }
+        Path path = thumbnailPath(hash, size);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private Path thumbnailPath(String hash, int size) {
+        return Paths.get(artworkDirectory, hash.substring(0, 2), hash + "-" + size + ".jpg");
+    }
+
+    /**
+     * Decodes an image after checking its dimensions, so oversized images are rejected
+     * before their pixels are allocated.
+     */
+    private static BufferedImage decode(byte[] image) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels <= 0 || pixels > MAX_PIXELS) {
+                    throw new IOException("Image too large: " + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Cuts the largest centred square out of the image and converts it to opaque RGB.
+     */
+    private static BufferedImage cropToSquare(BufferedImage source) {
+        int edge = Math.min(source.getWidth(), source.getHeight());
+        int x = (source.getWidth() - edge) / 2;
+        int y = (source.getHeight() - edge) / 2;
+
+        BufferedImage square = new BufferedImage(edge, edge, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = square.createGraphics();
+        try {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, edge, edge);
+            g.drawImage(source, 0, 0, edge, edge, x, y, x + edge, y + edge, null);
+        } finally {
+            g.dispose();
+        }
+        return square;
+    }
+
+    /**
+     * Scales a square image down to the given edge length.
+     */
+    private static BufferedImage scale(BufferedImage image, int size) {
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= size) {
+            current = resize(current, current.getWidth() / 2);
+        }
+        return current.getWidth() == size ? current : resize(current, size);
+    }
+
+    private static BufferedImage resize(BufferedImage image, int size) {
+        BufferedImage resized = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, size, size, null);
+        } finally {
+            g.dispose();
+        }
+        return resized;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
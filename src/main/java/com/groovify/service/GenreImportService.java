@@ -1,5 +1,6 @@
 package com.groovify.service;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -18,6 +19,16 @@ public interface GenreImportService {
      */
     void importGenres(List<String> genreNames);
 
+    /**
+     * Inserts every genre name that does not exist yet, using one lookup query
+     * and one batched insert regardless of how many names are given.
+     * Names are trimmed; null, empty, and duplicate names are ignored.
+     *
+     * @param genreNames the genre names to insert if missing
+     * @return the number of genres that were newly inserted
+     */
+    int upsertGenres(Collection<String> genreNames);
+
     /**
      * Checks if a genre with the given name already exists.
      *
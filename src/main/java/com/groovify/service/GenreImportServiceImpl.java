@@ -4,16 +4,21 @@ import com.groovify.jpa.model.Genre;
 import com.groovify.jpa.repo.GenreRepo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service implementation for importing and managing music genres in the database.
  * <p>
  * This service provides methods to:
  * <ul>
- *     <li>Import a list of genres</li>
+ *     <li>Import a list of genres in one set-based upsert</li>
  *     <li>Check for the existence of a genre</li>
  *     <li>Save individual genres</li>
  * </ul>
@@ -21,6 +26,12 @@ import java.util.List;
  * from names before saving.
  * </p>
  * <p>
+ * Bulk imports look up all requested names in one query and insert the missing
+ * ones in one batch. The unique constraint on {@code Genre.Name} remains the final
+ * guard: if another node inserts the same genre in between, the batch falls back
+ * to inserting names one at a time and skipping those that now exist.
+ * </p>
+ * <p>
  * Logging is performed for important events, such as skipped duplicates, null names,
  * and successful saves.
  * </p>
@@ -84,9 +95,13 @@ public class GenreImportServiceImpl implements GenreImportService {
             return false;
         }
 
-        // Create and save a new Genre entity
-        Genre genre = new Genre(trimmed);
-        genreRepo.save(genre);
+        // Create and save a new Genre entity; the unique constraint catches concurrent inserts
+        try {
+            genreRepo.save(new Genre(trimmed));
+        } catch (DataIntegrityViolationException e) {
+            log.info("Genre '{}' was saved concurrently, skipping save", trimmed);
+            return false;
+        }
         log.info("Saved new genre '{}'", trimmed);
         return true;
     }
@@ -101,25 +116,57 @@ public class GenreImportServiceImpl implements GenreImportService {
     public void importGenres(List<String> genreNames) {
         if (genreNames == null || genreNames.isEmpty()) return;
 
-        for (String name : genreNames) {
-            if (name == null) {
-                log.debug("Skipping null genre name");
-                continue; // Skip null entries
-            }
+        upsertGenres(genreNames);
+    }
+
+    /**
+     * Inserts all missing genres from the given names with one lookup query and
+     * one batched insert.
+     *
+     * @param genreNames the genre names to insert if missing
+     * @return the number of genres that were newly inserted
+     */
+    @Override
+    public int upsertGenres(Collection<String> genreNames) {
+        if (genreNames == null || genreNames.isEmpty()) return 0;
 
-            // Trim whitespace-only names
-            String trimmed = name.trim();
-            if (trimmed.isEmpty()) {
-                log.debug("Skipping empty or whitespace-only genre name");
+        // Trim and de-duplicate while keeping the caller's order
+        Set<String> candidates = new LinkedHashSet<>();
+        for (String name : genreNames) {
+            if (name == null || name.trim().isEmpty()) {
+                log.debug("Skipping null or empty genre name");
                 continue;
             }
+            candidates.add(name.trim());
+        }
+        if (candidates.isEmpty()) return 0;
+
+        // One query for every name that is already stored
+        candidates.removeAll(genreRepo.findExistingNames(candidates));
+        if (candidates.isEmpty()) {
+            log.debug("All {} genres already exist, nothing to import", genreNames.size());
+            return 0;
+        }
+
+        List<Genre> missing = new ArrayList<>(candidates.size());
+        for (String name : candidates) {
+            missing.add(new Genre(name));
+        }
 
-            // Save genre only if it doesn't already exist
-            if (!genreExists(trimmed)) {
-                saveGenre(trimmed);
-            } else {
-                log.debug("Genre '{}' already exists, skipping import", trimmed);
+        try {
+            genreRepo.saveAll(missing);
+            log.info("Imported {} new genres: {}", missing.size(), candidates);
+            return missing.size();
+        } catch (DataIntegrityViolationException e) {
+            // Another node inserted some of these meanwhile; retry one by one
+            log.info("Concurrent genre insert detected, saving genres individually");
+            int saved = 0;
+            for (String name : candidates) {
+                if (saveGenre(name)) {
+                    saved++;
+                }
             }
+            return saved;
         }
     }
 }
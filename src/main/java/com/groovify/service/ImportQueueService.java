@@ -0,0 +1,27 @@
+package com.groovify.service;
+
+/**
+ * Service interface for the database-backed song import queue.
+ * <p>
+ * Splits the music directory into import units (one file within a genre folder
+ * each) and lets any number of nodes claim and process those units in batches.
+ * Each unit is processed by exactly one node, so a cluster that boots with the
+ * startup import enabled shares the work instead of repeating it.
+ */
+public interface ImportQueueService {
+
+    /**
+     * Scans the music directory and enqueues a task for every file that is not
+     * in the catalog and has not been enqueued before.
+     *
+     * @return the number of newly enqueued tasks
+     */
+    int enqueueLibrary();
+
+    /**
+     * Claims and processes tasks until no claimable task remains.
+     *
+     * @return the number of tasks processed by this node
+     */
+    int drain();
+}
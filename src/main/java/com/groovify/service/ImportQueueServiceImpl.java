@@ -0,0 +1,273 @@
+package com.groovify.service;
+
+import com.groovify.jpa.model.ImportTask;
+import com.groovify.jpa.repo.ImportTaskRepo;
+import com.groovify.jpa.repo.SongRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation of {@link ImportQueueService} backed by the {@code ImportTask} table.
+ * <p>
+ * Enqueuing is idempotent: every task holds a single file, identified by its genre
+ * folder and a digest of its filename, and a unique constraint on that key makes
+ * concurrent enqueues from several nodes collapse into a single task. The key of a
+ * file never depends on the other files in its folder, so adding a file enqueues that
+ * file alone. Files already in the catalog are not enqueued, which lets finished
+ * tasks be purged once their lease has passed.
+ * </p>
+ * <p>
+ * Claiming uses {@code SELECT ... FOR UPDATE SKIP LOCKED} in a short transaction and
+ * takes up to a batch of tasks at a time, so nodes never wait on each other and never
+ * receive the same task. A claim that is not completed within the lease period is
+ * treated as abandoned and may be claimed again by another node; the outcome of a
+ * task is only recorded while the claim is still held, so a node that outlived its
+ * lease cannot overwrite the claim of the node that took over.
+ * </p>
+ */
+@Service
+public class ImportQueueServiceImpl implements ImportQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportQueueServiceImpl.class);
+
+    // Longest error message kept on a failed task
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final ImportTaskRepo importTaskRepo;
+    private final SongRepo songRepo;
+    private final SongImportService songImportService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Path to the root music directory (configurable in application.properties).
+     * Defaults to {@code src/main/resources/static/songs}.
+     */
+    @Value("${music.directory:src/main/resources/static/songs}")
+    String musicDirectory;
+
+    /** Maximum number of tasks, one file each, claimed and imported together. */
+    @Value("${groovify.import.queue.batch-size:100}")
+    int batchSize;
+
+    /** How long a node may hold a task before other nodes consider it abandoned. */
+    @Value("${groovify.import.queue.lease:PT15M}")
+    Duration lease;
+
+    /** Number of times a failing task is attempted before it is left alone. */
+    @Value("${groovify.import.queue.max-attempts:3}")
+    int maxAttempts;
+
+    /** Identifier recorded on claimed tasks; defaults to the JVM's pid@host name. */
+    @Value("${groovify.node.id:}")
+    String nodeId;
+
+    /**
+     * Constructs an {@code ImportQueueServiceImpl} with its required collaborators.
+     *
+     * @param importTaskRepo      repository for {@link ImportTask} entities
+     * @param songRepo            repository used to leave files already in the catalog out
+     * @param songImportService   service that imports the files of a claimed task
+     * @param transactionTemplate template used to keep each claim in its own short transaction
+     */
+    public ImportQueueServiceImpl(ImportTaskRepo importTaskRepo,
+                                  SongRepo songRepo,
+                                  SongImportService songImportService,
+                                  TransactionTemplate transactionTemplate) {
+        this.importTaskRepo = importTaskRepo;
+        this.songRepo = songRepo;
+        this.songImportService = songImportService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Scans every genre folder of the music directory and enqueues one task per MP3
+     * file that is neither in the catalog nor enqueued already.
+     *
+     * @return the number of newly enqueued tasks
+     */
+    @Override
+    public int enqueueLibrary() {
+        File songsRoot = new File(musicDirectory);
+        File[] genreFolders = songsRoot.listFiles(File::isDirectory);
+        if (genreFolders == null) {
+            log.error("Music directory not found or invalid: '{}'", songsRoot.getAbsolutePath());
+            return 0;
+        }
+
+        int enqueued = 0;
+        for (File genreFolder : genreFolders) {
+            String[] names = genreFolder.list((dir, name) -> name.toLowerCase().endsWith(".mp3"));
+            if (names == null || names.length == 0) {
+                log.debug("No MP3 files found in '{}'", genreFolder.getAbsolutePath());
+                continue;
+            }
+            Arrays.sort(names);
+
+            String folder = genreFolder.getName();
+            Set<String> imported = new HashSet<>(songRepo.findFilenamesByGenreName(folder));
+            Set<String> enqueuedKeys = new HashSet<>(importTaskRepo.findUnitKeysByFolder(folder));
+            for (String name : names) {
+                if (!imported.contains(name) && !enqueuedKeys.contains(unitKey(folder, name))
+                        && enqueueFile(folder, name)) {
+                    enqueued++;
+                }
+            }
+        }
+
+        log.info("Enqueued {} new import tasks from '{}'", enqueued, songsRoot.getAbsolutePath());
+        return enqueued;
+    }
+
+    /**
+     * Repeatedly claims the next batch of available tasks and imports their files
+     * until the queue has nothing left for this node, then purges tasks that finished
+     * more than a lease ago.
+     *
+     * @return the number of tasks processed by this node
+     */
+    @Override
+    public int drain() {
+        String node = resolveNodeId();
+        int processed = 0;
+
+        List<ImportTask> tasks;
+        while (!(tasks = claimNext(node)).isEmpty()) {
+            processTasks(node, tasks);
+            processed += tasks.size();
+        }
+
+        int purged = importTaskRepo.deleteCompletedBefore(ImportTask.Status.DONE, Instant.now().minus(lease));
+        log.info("Node '{}' processed {} import tasks and purged {} finished ones", node, processed, purged);
+        return processed;
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Inserts a task for one file. A unique-key violation means another node
+     * enqueued it first, which is fine.
+     */
+    private boolean enqueueFile(String folder, String filename) {
+        String unitKey = unitKey(folder, filename);
+        try {
+            importTaskRepo.save(new ImportTask(unitKey, folder, filename));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Import task '{}' was enqueued concurrently by another node", unitKey);
+            return false;
+        }
+    }
+
+    /**
+     * Builds the key of a file's task: its folder and a digest of its filename, which
+     * stays short however long the filename is.
+     */
+    private static String unitKey(String folder, String filename) {
+        return folder + ":" + sha1(filename);
+    }
+
+    /**
+     * Locks the next claimable tasks and marks them as claimed by this node, all in
+     * one short transaction so the row locks are released immediately.
+     */
+    private List<ImportTask> claimNext(String node) {
+        Instant staleBefore = Instant.now().minus(lease);
+
+        return transactionTemplate.execute(status -> {
+            List<ImportTask> tasks = importTaskRepo.lockClaimable(staleBefore, maxAttempts, Math.max(1, batchSize));
+            Instant now = Instant.now();
+            for (ImportTask task : tasks) {
+                task.setStatus(ImportTask.Status.CLAIMED);
+                task.setClaimedBy(node);
+                task.setClaimedAt(now);
+                task.setAttempts(task.getAttempts() + 1);
+            }
+            return importTaskRepo.saveAllAndFlush(tasks);
+        });
+    }
+
+    /**
+     * Imports the files of the claimed tasks, one genre folder at a time, and records
+     * the outcome of each task.
+     */
+    private void processTasks(String node, List<ImportTask> tasks) {
+        Map<String, List<ImportTask>> byFolder = new LinkedHashMap<>();
+        for (ImportTask task : tasks) {
+            byFolder.computeIfAbsent(task.getFolder(), folder -> new ArrayList<>()).add(task);
+        }
+
+        for (Map.Entry<String, List<ImportTask>> entry : byFolder.entrySet()) {
+            List<ImportTask> folderTasks = entry.getValue();
+            List<String> filenames = new ArrayList<>();
+            for (ImportTask task : folderTasks) {
+                filenames.addAll(List.of(task.getFilenames().split("\n")));
+            }
+            File genreFolder = new File(musicDirectory, entry.getKey());
+
+            ImportTask.Status outcome;
+            String error = null;
+            try {
+                int imported = songImportService.importFiles(genreFolder, filenames);
+                outcome = ImportTask.Status.DONE;
+                log.info("{} import tasks in '{}' done: {} of {} files imported",
+                        folderTasks.size(), entry.getKey(), imported, filenames.size());
+            } catch (Exception e) {
+                outcome = ImportTask.Status.FAILED;
+                String message = String.valueOf(e.getMessage());
+                error = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+                log.error("{} import tasks in '{}' failed", folderTasks.size(), entry.getKey(), e);
+            }
+
+            Instant completedAt = outcome == ImportTask.Status.DONE ? Instant.now() : null;
+            for (ImportTask task : folderTasks) {
+                if (importTaskRepo.finishClaim(task.getId(), node, task.getAttempts(), outcome, completedAt, error) == 0) {
+                    log.warn("Import task '{}' was taken over by another node before it finished", task.getUnitKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the configured node identifier, or the JVM's pid@host name if none is set.
+     */
+    private String resolveNodeId() {
+        if (nodeId != null && !nodeId.isBlank()) {
+            return nodeId.trim();
+        }
+        return ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    /**
+     * Computes the hex-encoded SHA-1 digest of a string.
+     */
+    private static String sha1(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
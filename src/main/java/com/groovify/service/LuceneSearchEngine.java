@@ -0,0 +1,490 @@
+package com.groovify.service;
+
+import com.groovify.jpa.repo.SongRepo;
+import com.groovify.search.FuzzyTerms;
+import com.groovify.search.SearchField;
+import com.groovify.search.SearchText;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.NGramTokenizer;
+import org.apache.lucene.document.BinaryDocValuesField;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link SongSearchEngine} backed by an on-disk Lucene index, enabled with
+ * {@code groovify.search.engine=lucene}.
+ * <p>
+ * The index survives restarts. Changed songs are written to the index as they change and
+ * become searchable at the next search, through a near-real-time reader; they are
+ * committed to disk on a fixed interval. Every commit records the highest song ID loaded
+ * from the song table and a re-index watermark: the start of the commit before it, since
+ * a song enriched while a commit runs may be written to the index just after it. At the
+ * next start, songs after that ID and songs enriched since the watermark are indexed
+ * again, so songs re-tagged before a crash are not left under their old text. The
+ * search service still reads every song's text at startup for its own in-memory
+ * indexes; what the on-disk index saves is analyzing and writing every document again.
+ * </p>
+ * <p>
+ * Each song is one document. Titles and artists are indexed twice: as whole words for
+ * ranking, fuzzy and all-field searches, and as character n-grams of up to three
+ * characters for substring searches. All text is normalized with {@link SearchText}
+ * before it is indexed or searched, the same way as for the in-memory engine.
+ * </p>
+ * <p>
+ * Searches stream every hit through a collector into a heap bounded by the page size.
+ * The song ID and the normalized title and artist, which substring matches are
+ * confirmed and ranked on, are read from doc values rather than stored fields, so a
+ * broad query neither loads a document per hit nor sorts the whole ranking. An index
+ * written before the doc values were added is re-indexed in full at the next start.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "groovify.search.engine", havingValue = "lucene")
+public class LuceneSearchEngine implements SongSearchEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(LuceneSearchEngine.class);
+
+    private static final String ID = "id";
+    private static final String ID_VALUE = "id_value";
+    private static final String GRAMS_SUFFIX = "_grams";
+    private static final String TEXT_SUFFIX = "_text";
+    private static final String LOADED_THROUGH = "loadedThrough";
+    private static final String INDEXED_AS_OF = "indexedAsOf";
+
+    // Layout of the documents; an index committed with another layout is re-indexed in full
+    private static final String FORMAT = "format";
+    private static final String CURRENT_FORMAT = "2";
+    private static final int MAX_GRAM = 3;
+
+    // Fuzzy queries expand each query word to at most this many index words
+    private static final int MAX_EXPANSIONS = 50;
+
+    // Score of a query word that only starts a word of the field; a whole word scores 1
+    private static final float PREFIX_SCORE = 0.5f;
+
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final AtomicBoolean stale = new AtomicBoolean();
+    private volatile long loadedThrough;
+    private volatile long batchMax;
+    private volatile Instant indexedAsOf;
+    private Instant lastCommitStart = Instant.now();
+
+    /**
+     * Opens the index, creating it if it does not exist yet.
+     *
+     * @param indexDirectory the directory holding the index
+     * @throws IOException if the index cannot be opened
+     */
+    public LuceneSearchEngine(@Value("${groovify.search.lucene.directory:data/search-index}") String indexDirectory)
+            throws IOException {
+        directory = FSDirectory.open(Paths.get(indexDirectory));
+        if (DirectoryReader.indexExists(directory)) {
+            Map<String, String> committed = SegmentInfos.readLatestCommit(directory).getUserData();
+            if (CURRENT_FORMAT.equals(committed.get(FORMAT))) {
+                String through = committed.get(LOADED_THROUGH);
+                String asOf = committed.get(INDEXED_AS_OF);
+                loadedThrough = through == null ? 0 : Long.parseLong(through);
+                indexedAsOf = asOf == null ? null : Instant.parse(asOf);
+            } else {
+                log.info("Search index in {} has an older document layout; every song will be indexed again", indexDirectory);
+            }
+        }
+        batchMax = loadedThrough;
+
+        IndexWriterConfig config = new IndexWriterConfig(analyzer())
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        writer = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(writer, null);
+        log.info("Opened search index in {} with {} songs, loaded through song {}, re-indexed as of {}",
+                indexDirectory, writer.getDocStats().numDocs, loadedThrough, indexedAsOf);
+    }
+
+    /**
+     * Returns the highest song ID loaded from the song table by the last commit.
+     *
+     * @return the highest committed song ID, or 0 for a new index
+     */
+    @Override
+    public long indexedThrough() {
+        return loadedThrough;
+    }
+
+    /**
+     * Returns the re-index watermark of the last commit: songs enriched from then on may
+     * have been written to the index after it.
+     *
+     * @return the watermark, or null for a new index
+     */
+    @Override
+    public Instant indexedAsOf() {
+        return indexedAsOf;
+    }
+
+    /**
+     * Writes a song's document, replacing the previous one. The song is searchable from
+     * the next search on, and durable from the next commit.
+     *
+     * @param songId the song
+     * @param title  the song's title, or null
+     * @param artist the song's artist, or null
+     * @param genre  the song's genre name, or null
+     */
+    @Override
+    public void put(long songId, String title, String artist, String genre) {
+        Document document = new Document();
+        document.add(new StringField(ID, Long.toString(songId), Field.Store.YES));
+        document.add(new NumericDocValuesField(ID_VALUE, songId));
+        addText(document, SearchField.TITLE, title, true);
+        addText(document, SearchField.ARTIST, artist, true);
+        addText(document, SearchField.GENRE, genre, false);
+        try {
+            writer.updateDocument(new Term(ID, Long.toString(songId)), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not index song " + songId, e);
+        }
+        stale.set(true);
+    }
+
+    /**
+     * Deletes a song's document. Searches stop finding it from the next search on, and
+     * the deletion is durable from the next commit.
+     *
+     * @param songId the song
+     */
+    @Override
+    public void remove(long songId) {
+        try {
+            writer.deleteDocuments(new Term(ID, Long.toString(songId)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not remove song " + songId + " from the index", e);
+        }
+        stale.set(true);
+    }
+
+    /**
+     * Writes a batch of songs on several threads; the index writer accepts documents
+     * concurrently, so a full rebuild uses every core.
+     *
+     * @param songs the songs' text, in ascending ID order
+     */
+    @Override
+    public void putAll(List<SongRepo.SongText> songs) {
+        songs.parallelStream().forEach(song ->
+                put(song.getId(), song.getTitle(), song.getArtist(), song.getGenreName()));
+        if (!songs.isEmpty()) {
+            batchMax = Math.max(batchMax, songs.get(songs.size() - 1).getId());
+        }
+    }
+
+    /**
+     * Commits the index together with the highest song ID loaded and the start of the
+     * previous commit, so the next start resumes after the one and re-indexes songs
+     * enriched since the other. The first commit of a run uses the time the index was
+     * opened, before any song of this run was written.
+     */
+    @Override
+    public synchronized void flush() {
+        try {
+            Instant start = Instant.now();
+            long through = batchMax;
+            Instant asOf = lastCommitStart;
+            writer.setLiveCommitData(Map.of(
+                    FORMAT, CURRENT_FORMAT,
+                    LOADED_THROUGH, Long.toString(through),
+                    INDEXED_AS_OF, asOf.toString()).entrySet());
+            writer.commit();
+            loadedThrough = through;
+            indexedAsOf = asOf;
+            lastCommitStart = start;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not commit the search index", e);
+        }
+    }
+
+    /**
+     * Commits songs re-indexed since the last commit. Searches see them before this; the
+     * commit only makes them survive a restart.
+     */
+    @Scheduled(fixedDelayString = "${groovify.search.lucene.commit-interval:PT30S}")
+    public void commitChanges() {
+        if (writer.isOpen() && writer.hasUncommittedChanges()) {
+            flush();
+        }
+    }
+
+    /**
+     * Commits outstanding changes and closes the index when the application shuts down.
+     *
+     * @throws IOException if the index cannot be closed
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        commitChanges();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Returns the number of songs indexed, including changes not yet committed.
+     *
+     * @return the song count
+     */
+    @Override
+    public int size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Finds substring matches by requiring every n-gram of the query, then confirms each
+     * candidate against its stored text: n-grams can all occur without occurring in order.
+     * Songs whose field words are or start with the query words score higher.
+     *
+     * @param query the query text
+     * @param field the field to search
+     * @param after the last match of the previous page, or null for the first page
+     * @param limit the maximum number of matches
+     * @return the best matches after the cursor
+     */
+    @Override
+    public MatchPage findSubstring(String query, SearchField field, Match after, int limit) {
+        String normalized = SearchText.normalize(query);
+        if (normalized.isEmpty()) {
+            return MatchPage.EMPTY;
+        }
+        String name = fieldName(field);
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (String gram : grams(normalized)) {
+            builder.add(new TermQuery(new Term(name + GRAMS_SUFFIX, gram)), BooleanClause.Occur.FILTER);
+        }
+        for (String term : SearchText.terms(normalized)) {
+            builder.add(new ConstantScoreQuery(new TermQuery(new Term(name, term))), BooleanClause.Occur.SHOULD);
+            builder.add(new BoostQuery(new ConstantScoreQuery(new PrefixQuery(new Term(name, term))), PREFIX_SCORE),
+                    BooleanClause.Occur.SHOULD);
+        }
+
+        return search(builder.build(), after, limit, name + TEXT_SUFFIX, normalized);
+    }
+
+    /**
+     * Finds typo-tolerant matches with a fuzzy query per query word, each allowed
+     * {@link FuzzyTerms#maxEdits} edits.
+     *
+     * @param query the query text
+     * @param field the field to search
+     * @param after the last match of the previous page, or null for the first page
+     * @param limit the maximum number of matches
+     * @return the best matches after the cursor
+     */
+    @Override
+    public MatchPage findFuzzy(String query, SearchField field, Match after, int limit) {
+        List<String> terms = SearchText.terms(query);
+        if (terms.isEmpty()) {
+            return MatchPage.EMPTY;
+        }
+        String name = fieldName(field);
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (String term : terms) {
+            int maxEdits = FuzzyTerms.maxEdits(term);
+            Query termQuery = maxEdits == 0
+                    ? new TermQuery(new Term(name, term))
+                    : new FuzzyQuery(new Term(name, term), maxEdits, 0, MAX_EXPANSIONS, true);
+            builder.add(termQuery, BooleanClause.Occur.MUST);
+        }
+        return search(builder.build(), after, limit, null, null);
+    }
+
+    /**
+     * Ranks matches across all fields with Lucene's BM25 similarity. Every query word must
+     * be or start a word of some field; matches are weighted by the same field boosts as
+     * in the in-memory engine, and prefix matches count half.
+     *
+     * @param query the query text
+     * @param after the last match of the previous page, or null for the first page
+     * @param limit the maximum number of matches
+     * @return the best matches after the cursor
+     */
+    @Override
+    public MatchPage findAllFields(String query, Match after, int limit) {
+        List<String> terms = SearchText.terms(query);
+        if (terms.isEmpty()) {
+            return MatchPage.EMPTY;
+        }
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder fields = new BooleanQuery.Builder();
+            for (Map.Entry<SearchField, Double> boost : MemorySearchEngine.FIELD_BOOSTS.entrySet()) {
+                Term fieldTerm = new Term(fieldName(boost.getKey()), term);
+                float weight = boost.getValue().floatValue();
+                fields.add(new BoostQuery(new TermQuery(fieldTerm), weight), BooleanClause.Occur.SHOULD);
+                fields.add(new BoostQuery(new PrefixQuery(fieldTerm), weight * PREFIX_SCORE), BooleanClause.Occur.SHOULD);
+            }
+            builder.add(fields.build(), BooleanClause.Occur.MUST);
+        }
+        return search(builder.build(), after, limit, null, null);
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Runs a query against the latest reader, refreshing it first if songs were written
+     * since it was opened, and keeps the page of hits after the cursor. With a text field,
+     * each hit is confirmed to contain the normalized query, and ranked by where it
+     * occurs and how long the text is.
+     */
+    private MatchPage search(Query query, Match after, int limit, String textField, String normalized) {
+        try {
+            if (stale.getAndSet(false)) {
+                searcherManager.maybeRefreshBlocking();
+            }
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopMatches top = new TopMatches(after, limit);
+                searcher.search(query, new SimpleCollector() {
+                    private Scorable scorer;
+                    private NumericDocValues ids;
+                    private BinaryDocValues texts;
+
+                    @Override
+                    protected void doSetNextReader(LeafReaderContext context) throws IOException {
+                        ids = DocValues.getNumeric(context.reader(), ID_VALUE);
+                        texts = textField == null ? null : DocValues.getBinary(context.reader(), textField);
+                    }
+
+                    @Override
+                    public void setScorer(Scorable scorer) {
+                        this.scorer = scorer;
+                    }
+
+                    @Override
+                    public ScoreMode scoreMode() {
+                        return ScoreMode.COMPLETE;
+                    }
+
+                    @Override
+                    public void collect(int doc) throws IOException {
+                        if (!ids.advanceExact(doc)) return;
+                        int position = 0;
+                        int length = 0;
+                        if (texts != null) {
+                            if (!texts.advanceExact(doc)) return;
+                            String text = texts.binaryValue().utf8ToString();
+                            position = text.indexOf(normalized);
+                            if (position < 0) return;
+                            length = text.length();
+                        }
+                        top.add(new Match(ids.longValue(), scorer.score(), position, length));
+                    }
+                });
+                return top.page();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not search the search index", e);
+        }
+    }
+
+    private static void addText(Document document, SearchField field, String text, boolean withGrams) {
+        String normalized = SearchText.normalize(text);
+        String name = fieldName(field);
+        document.add(new TextField(name, normalized, Field.Store.YES));
+        if (withGrams) {
+            document.add(new TextField(name + GRAMS_SUFFIX, normalized, Field.Store.NO));
+            document.add(new BinaryDocValuesField(name + TEXT_SUFFIX, new BytesRef(normalized)));
+        }
+    }
+
+    private static String fieldName(SearchField field) {
+        return field.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits normalized text into the n-grams the index must all contain for the text to
+     * occur: the text itself when it is no longer than {@link #MAX_GRAM} characters,
+     * otherwise every overlapping trigram.
+     */
+    private static Set<String> grams(String normalized) {
+        int[] codePoints = normalized.codePoints().toArray();
+        if (codePoints.length <= MAX_GRAM) {
+            return Set.of(normalized);
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + MAX_GRAM <= codePoints.length; i++) {
+            grams.add(new String(codePoints, i, MAX_GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Splits word fields on the spaces left by normalization, and n-gram fields into every
+     * run of one to {@link #MAX_GRAM} characters, spaces included, so a query spanning
+     * two words still matches.
+     */
+    private static Analyzer analyzer() {
+        Analyzer grams = new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                return new TokenStreamComponents(new NGramTokenizer(1, MAX_GRAM));
+            }
+        };
+        return new PerFieldAnalyzerWrapper(new WhitespaceAnalyzer(), Map.of(
+                fieldName(SearchField.TITLE) + GRAMS_SUFFIX, grams,
+                fieldName(SearchField.ARTIST) + GRAMS_SUFFIX, grams));
+    }
+}
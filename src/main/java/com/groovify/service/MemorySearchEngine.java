@@ -0,0 +1,149 @@
+package com.groovify.service;
+
+import com.groovify.search.SearchField;
+import com.groovify.search.SearchText;
+import com.groovify.search.TokenIndex;
+import com.groovify.search.TrigramIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Default {@link SongSearchEngine}, holding its indexes on the heap: a
+ * {@link TrigramIndex} over titles and artists that finds substring matches, and a
+ * {@link TokenIndex} over titles, artists and genres that ranks whole-word matches above
+ * matches inside a word, serves typo-tolerant searches from its term dictionary, and
+ * ranks searches across all fields with BM25.
+ * <p>
+ * Nothing is kept between runs, so the indexes are loaded from the song table at every
+ * start.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "groovify.search.engine", havingValue = "memory", matchIfMissing = true)
+public class MemorySearchEngine implements SongSearchEngine {
+
+    // Weight of a match in each field when searching all fields: the title says most about a song
+    static final Map<SearchField, Double> FIELD_BOOSTS = new EnumMap<>(Map.of(
+            SearchField.TITLE, 3.0,
+            SearchField.ARTIST, 2.0,
+            SearchField.GENRE, 1.0));
+
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+    private final TokenIndex tokenIndex = new TokenIndex();
+
+    /**
+     * Returns 0: the indexes start empty at every run.
+     *
+     * @return 0
+     */
+    @Override
+    public long indexedThrough() {
+        return 0;
+    }
+
+    /**
+     * Indexes a song's title and artist in both indexes, and its genre in the token index
+     * only; genre searches go by genre ID instead.
+     *
+     * @param songId the song
+     * @param title  the song's title, or null
+     * @param artist the song's artist, or null
+     * @param genre  the song's genre name, or null
+     */
+    @Override
+    public void put(long songId, String title, String artist, String genre) {
+        Map<SearchField, String> fields = new EnumMap<>(SearchField.class);
+        fields.put(SearchField.TITLE, title);
+        fields.put(SearchField.ARTIST, artist);
+        trigramIndex.put(songId, fields);
+
+        Map<SearchField, String> withGenre = new EnumMap<>(fields);
+        withGenre.put(SearchField.GENRE, genre);
+        tokenIndex.put(songId, withGenre);
+    }
+
+    /**
+     * Removes a song from both indexes.
+     *
+     * @param songId the song
+     */
+    @Override
+    public void remove(long songId) {
+        trigramIndex.remove(songId);
+        tokenIndex.remove(songId);
+    }
+
+    /**
+     * Returns the number of songs indexed.
+     *
+     * @return the song count
+     */
+    @Override
+    public int size() {
+        return trigramIndex.size();
+    }
+
+    /**
+     * Finds substring matches with the trigram index and ranks them: songs whose field
+     * words match the query words first, then by where the query occurs and how long the
+     * text is. Matches are streamed from the index into a bounded heap, so only the page
+     * is ever sorted.
+     *
+     * @param query the query text
+     * @param field the field to search
+     * @param after the last match of the previous page, or null for the first page
+     * @param limit the maximum number of matches
+     * @return the best matches after the cursor
+     */
+    @Override
+    public MatchPage findSubstring(String query, SearchField field, Match after, int limit) {
+        Map<Long, Double> wordScores = tokenIndex.scoreMatches(SearchText.terms(query), field);
+        TopMatches top = new TopMatches(after, limit);
+        trigramIndex.search(query, field, match ->
+                top.add(new Match(match.key(), wordScores.getOrDefault(match.key(), 0.0), match.position(), match.length())));
+        return top.page();
+    }
+
+    /**
+     * Finds typo-tolerant matches by walking the token index's term dictionary, closest first.
+     *
+     * @param query the query text
+     * @param field the field to search
+     * @param after the last match of the previous page, or null for the first page
+     * @param limit the maximum number of matches
+     * @return the best matches after the cursor
+     */
+    @Override
+    public MatchPage findFuzzy(String query, SearchField field, Match after, int limit) {
+        return top(tokenIndex.scoreFuzzyMatches(SearchText.terms(query), field), after, limit);
+    }
+
+    /**
+     * Ranks matches across all fields with the token index's BM25 scores.
+     *
+     * @param query the query text
+     * @param after the last match of the previous page, or null for the first page
+     * @param limit the maximum number of matches
+     * @return the best matches after the cursor
+     */
+    @Override
+    public MatchPage findAllFields(String query, Match after, int limit) {
+        return top(tokenIndex.scoreRanked(SearchText.terms(query), FIELD_BOOSTS), after, limit);
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Selects the page of scored songs after the cursor.
+     */
+    private static MatchPage top(Map<Long, Double> scores, Match after, int limit) {
+        TopMatches top = new TopMatches(after, limit);
+        scores.forEach((songId, score) -> top.add(new Match(songId, score, 0, 0)));
+        return top.page();
+    }
+}
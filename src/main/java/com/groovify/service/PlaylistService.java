@@ -2,6 +2,7 @@ package com.groovify.service;
 
 import com.groovify.jpa.model.Playlist;
 import com.groovify.jpa.model.Song;
+import com.groovify.web.dto.PlaylistOption;
 import java.util.List;
 
 /**
@@ -30,6 +31,16 @@ public interface PlaylistService {
      */
     List<Playlist> getPlaylistsByClientId(Long id);
 
+    /**
+     * Retrieves a client's playlists as choices for adding a song, each telling whether
+     * the song is already in it.
+     *
+     * @param clientId the ID of the client
+     * @param songId   the ID of the song being added
+     * @return a list of {@link PlaylistOption} objects for the client's playlists
+     */
+    List<PlaylistOption> getPlaylistOptions(Long clientId, Long songId);
+
     /**
      * Retrieves a single playlist by its unique identifier.
      *
@@ -5,6 +5,7 @@ import com.groovify.jpa.model.Song;
 import com.groovify.jpa.repo.ClientRepo;
 import com.groovify.jpa.repo.PlaylistRepo;
 import com.groovify.jpa.repo.SongRepo;
+import com.groovify.web.dto.PlaylistOption;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +65,20 @@ public class PlaylistServiceImpl implements PlaylistService {
         return playlistRepo.findByClientID(clientID);
     }
 
+    /**
+     * Retrieves a client's playlists as choices for adding a song, reading the
+     * playlists and whether each contains the song in one query.
+     *
+     * @param clientId the ID of the client
+     * @param songId   the ID of the song being added
+     * @return a list of {@link PlaylistOption} objects for the client's playlists
+     */
+    @Override
+    public List<PlaylistOption> getPlaylistOptions(Long clientId, Long songId) {
+        log.debug("Getting playlist options for User {} and Song {}", clientId, songId);
+        return playlistRepo.findOptionsByClientID(clientId, songId);
+    }
+
     /**
      * Retrieves all songs contained within a specific playlist.
      *
@@ -1,23 +1,43 @@
 package com.groovify.service;
 
+import com.groovify.audio.FeatureSpace;
+import com.groovify.audio.FeatureVectors;
+import com.groovify.jpa.model.ChangeCounter;
 import com.groovify.jpa.model.Client;
 import com.groovify.jpa.model.Genre;
 import com.groovify.jpa.model.Song;
+import com.groovify.jpa.repo.PlaylistRepo;
 import com.groovify.jpa.repo.SongRepo;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * Service responsible for generating song recommendations for users.
  * <p>
- * Recommendations are currently generated randomly based on user-preferred genres
- * or from the full song database as a fallback.
+ * Recommendations are drawn from one of the user's preferred genres, or from the full
+ * song database as a fallback. When the user's playlists contain analysed songs, the
+ * candidates are ranked by how closely their audio feature vectors match the average
+ * of those songs (the user's taste profile); otherwise they are chosen randomly.
+ * Songs identified as copies of another recording are never recommended.
+ * <p>
+ * The unpacked feature vectors and the feature space standardised over them are shared
+ * by all requests. They are rebuilt when songs are enriched, added, tombstoned or
+ * restored, and after a maximum age, so vectors written by other nodes are picked up too.
+ * </p>
  */
 @Service
 public class RecommendationService {
@@ -25,23 +45,46 @@ public class RecommendationService {
     private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
 
     private final SongRepo songRepo;
+    private final PlaylistRepo playlistRepo;
+    private final SongSearchService songSearchService;
     private final Random random = new Random();
 
+    // Feature vectors of the library, rebuilt when songs are enriched or the catalog changes
+    private final ChangeCounter featureChanges = new ChangeCounter();
+    private volatile FeatureLibrary library;
+
+    /** Longest time the shared feature vectors are used before they are read again. */
+    @Value("${groovify.recommendations.feature-cache-ttl:PT5M}")
+    Duration featureCacheTtl;
+
     /**
-     * Constructs a RecommendationService with the given SongRepo.
+     * Constructs a RecommendationService with the given repositories.
      *
-     * @param songRepo repository for accessing Song entities
+     * @param songRepo          repository for accessing Song entities
+     * @param playlistRepo      repository for reading the user's playlists
+     * @param songSearchService search service, whose version changes with the catalog
      */
-    public RecommendationService(SongRepo songRepo) {
+    public RecommendationService(SongRepo songRepo, PlaylistRepo playlistRepo, SongSearchService songSearchService) {
         this.songRepo = songRepo;
+        this.playlistRepo = playlistRepo;
+        this.songSearchService = songSearchService;
+    }
+
+    /**
+     * Records that songs' feature vectors or duplicate marks changed, so the shared
+     * feature space is rebuilt before the next recommendation.
+     */
+    public void featuresChanged() {
+        featureChanges.increment();
     }
 
     /**
      * Generates a temporary recommended songs list for the given user.
      * <ul>
-     *     <li>If the user has preferred genres, randomly chooses one of them and returns up to 5 random songs from it.</li>
-     *     <li>If fewer than 5 songs exist in the chosen genre, fills the remaining slots with random songs from the full database.</li>
-     *     <li>If no preferred genres exist or genre has no songs, returns up to 5 random songs from the entire database.</li>
+     *     <li>If the user has preferred genres, randomly chooses one of them and returns up to 5 songs from it.</li>
+     *     <li>If fewer than 5 songs exist in the chosen genre, fills the remaining slots with songs from the full database.</li>
+     *     <li>If no preferred genres exist or genre has no songs, returns up to 5 songs from the entire database.</li>
+     *     <li>Songs are picked by similarity to the user's taste profile when one exists, and randomly otherwise.</li>
      *     <li>Ensures that the total number of recommended songs does not exceed the total number of songs in the database.</li>
      * </ul>
      *
@@ -49,7 +92,21 @@ public class RecommendationService {
      * @return a list of up to 5 recommended songs
      */
     public List<Song> getRecommendedSongs(Client user) {
-        log.debug("Generating recommended songs for user '{}'", user.getName());
+        List<Long> genreIds = user.getGenres() == null ? List.of()
+                : user.getGenres().stream().map(Genre::getId).toList();
+        return getRecommendedSongs(user.getId(), genreIds);
+    }
+
+    /**
+     * Generates a temporary recommended songs list for a user given by ID, as
+     * {@link #getRecommendedSongs(Client)} does, without loading the user.
+     *
+     * @param userId   the ID of the user, or null for a user without playlists
+     * @param genreIds the IDs of the user's preferred genres
+     * @return a list of up to 5 recommended songs
+     */
+    public List<Song> getRecommendedSongs(Long userId, List<Long> genreIds) {
+        log.debug("Generating recommended songs for user {}", userId);
 
         List<Song> allSongs = getAllSongs();
         if (allSongs.isEmpty()) {
@@ -58,83 +115,96 @@ public class RecommendationService {
         }
 
         int maxRecommendations = Math.min(5, allSongs.size());
+        TasteProfile profile = buildTasteProfile(userId);
 
-        if (userHasPreferredGenres(user)) {
-            Genre chosenGenre = pickRandomGenre(user);
-            List<Song> recommended = getSongsFromGenre(chosenGenre, maxRecommendations);
+        if (genreIds != null && !genreIds.isEmpty()) {
+            Long chosenGenreId = pickRandomGenre(genreIds);
+            List<Song> recommended = getSongsFromGenre(chosenGenreId, maxRecommendations, profile);
 
             int remaining = maxRecommendations - recommended.size();
             if (remaining > 0) {
-                recommended.addAll(getRandomSongsExcluding(allSongs, recommended, remaining));
+                recommended.addAll(getSongsExcluding(allSongs, recommended, remaining, profile));
             }
 
-            log.info("Returning {} recommended songs ({} from genre '{}')",
-                    recommended.size(), recommended.size() - remaining, chosenGenre.getName());
+            log.info("Returning {} recommended songs ({} from genre {})",
+                    recommended.size(), recommended.size() - remaining, chosenGenreId);
             return recommended;
         }
 
         // Fallback
+        if (profile != null) {
+            return profile.rank(allSongs, maxRecommendations);
+        }
         return getRandomSongs(allSongs, maxRecommendations);
     }
 
     /**
-     * Fetches all songs from the repository.
+     * Fetches all available songs from the repository, leaving out known duplicates.
      *
-     * @return a list of all songs in the database
+     * @return a list of all songs whose files are present and that are not copies of another song
      */
     private List<Song> getAllSongs() {
-        return songRepo.findAll();
+        return withoutDuplicates(songRepo.findByMissingSinceIsNull());
     }
 
     /**
-     * Checks whether the user has any preferred genres.
+     * Removes songs that fingerprinting identified as copies of another song, so the
+     * same recording is not recommended twice.
      *
-     * @param user the user to check
-     * @return true if the user has preferred genres, false otherwise
+     * @param songs the songs to filter
+     * @return the songs that are not duplicates
      */
-    private boolean userHasPreferredGenres(Client user) {
-        List<Genre> genres = user.getGenres();
-        return genres != null && !genres.isEmpty();
+    private List<Song> withoutDuplicates(List<Song> songs) {
+        return songs.stream()
+                .filter(song -> song.getDuplicateOf() == null)
+                .collect(Collectors.toList());
     }
 
     /**
      * Picks a random genre from the user's preferred genres.
      *
-     * @param user the user whose genres are considered
-     * @return a randomly chosen genre
+     * @param genreIds the IDs of the user's preferred genres
+     * @return the ID of a randomly chosen genre
      */
-    private Genre pickRandomGenre(Client user) {
-        List<Genre> genres = user.getGenres();
-        Genre chosenGenre = genres.get(random.nextInt(genres.size()));
-        log.debug("Chosen genre '{}' (ID: {}) for recommendations", chosenGenre.getName(), chosenGenre.getId());
-        return chosenGenre;
+    private Long pickRandomGenre(List<Long> genreIds) {
+        Long chosenGenreId = genreIds.get(random.nextInt(genreIds.size()));
+        log.debug("Chosen genre {} for recommendations", chosenGenreId);
+        return chosenGenreId;
     }
 
     /**
-     * Returns a list of songs from the specified genre, shuffled and limited to the given number.
+     * Returns a list of songs from the specified genre, limited to the given number.
      *
-     * @param genre the genre from which to fetch songs
-     * @param limit the maximum number of songs to return
+     * @param genreId the ID of the genre from which to fetch songs
+     * @param limit   the maximum number of songs to return
+     * @param profile the user's taste profile, or null to pick randomly
      * @return a list of songs from the genre
      */
-    private List<Song> getSongsFromGenre(Genre genre, int limit) {
-        List<Song> songs = songRepo.findByGenreId(genre.getId());
+    private List<Song> getSongsFromGenre(Long genreId, int limit, TasteProfile profile) {
+        List<Song> songs = withoutDuplicates(songRepo.findByGenreIdAndMissingSinceIsNull(genreId));
+        if (profile != null) {
+            return profile.rank(songs, limit);
+        }
         Collections.shuffle(songs);
         return songs.stream().limit(limit).collect(Collectors.toList());
     }
 
     /**
-     * Returns a list of random songs from the full song list, excluding those in the provided exclusion list.
+     * Returns a list of songs from the full song list, excluding those in the provided exclusion list.
      *
      * @param allSongs the list of all available songs
      * @param exclude  the list of songs to exclude
      * @param limit    the maximum number of songs to return
-     * @return a list of random songs excluding the specified songs
+     * @param profile  the user's taste profile, or null to pick randomly
+     * @return a list of songs excluding the specified songs
      */
-    private List<Song> getRandomSongsExcluding(List<Song> allSongs, List<Song> exclude, int limit) {
+    private List<Song> getSongsExcluding(List<Song> allSongs, List<Song> exclude, int limit, TasteProfile profile) {
         List<Song> remaining = allSongs.stream()
                 .filter(song -> !exclude.contains(song))
                 .collect(Collectors.toList());
+        if (profile != null) {
+            return profile.rank(remaining, limit);
+        }
         Collections.shuffle(remaining);
         return remaining.stream().limit(limit).collect(Collectors.toList());
     }
@@ -150,4 +220,125 @@ public class RecommendationService {
         Collections.shuffle(songs);
         return songs.stream().limit(limit).collect(Collectors.toList());
     }
+
+    /**
+     * Builds the user's taste profile from the analysed songs in their playlists, read
+     * as song IDs in one query and looked up in the shared feature vectors.
+     *
+     * @param userId the ID of the user whose playlists are considered, or null
+     * @return the profile, or null if none of the user's playlist songs have been analysed
+     */
+    private TasteProfile buildTasteProfile(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+
+        Set<Long> playlistSongIds = new HashSet<>(playlistRepo.findSongIdsByClientID(userId));
+        if (playlistSongIds.isEmpty()) {
+            return null;
+        }
+        FeatureLibrary features = featureLibrary();
+        List<float[]> likedVectors = new ArrayList<>();
+        for (Long songId : playlistSongIds) {
+            float[] vector = features.vectors().get(songId);
+            if (vector != null) likedVectors.add(vector);
+        }
+        if (likedVectors.isEmpty()) {
+            return null;
+        }
+
+        log.debug("Built taste profile for user {} from {} analysed songs", userId, likedVectors.size());
+        return new TasteProfile(features.space(), FeatureSpace.centroid(likedVectors),
+                features.vectors(), playlistSongIds);
+    }
+
+    /**
+     * Returns the shared feature vectors, reading them again if songs were enriched or
+     * the catalog changed since they were read, or if they are older than the maximum
+     * age. The space is standardised over the songs that can be recommended; vectors of
+     * missing and duplicate songs are kept for the playlists that contain them.
+     *
+     * @return the current feature library
+     */
+    private FeatureLibrary featureLibrary() {
+        long version = featureChanges.get() + songSearchService.version();
+        long now = System.currentTimeMillis();
+        FeatureLibrary current = library;
+        if (current != null && current.version() == version && now - current.loadedAt() < featureCacheTtl.toMillis()) {
+            return current;
+        }
+
+        Map<Long, float[]> vectors = new HashMap<>();
+        List<float[]> recommendable = new ArrayList<>();
+        for (SongRepo.SongFeatures song : songRepo.findFeatureVectors()) {
+            float[] vector = FeatureVectors.unpack(song.getFeatureVector());
+            if (vector == null) continue;
+            vectors.put(song.getId(), vector);
+            if (song.getMissingSince() == null && song.getDuplicateOf() == null) recommendable.add(vector);
+        }
+
+        current = new FeatureLibrary(version, now, vectors, new FeatureSpace(recommendable));
+        library = current;
+        log.debug("Loaded {} feature vectors for recommendations", vectors.size());
+        return current;
+    }
+
+    /**
+     * Unpacked feature vectors of every analysed song by song ID, and the feature space
+     * standardised over the recommendable ones, as of a catalog version.
+     */
+    private record FeatureLibrary(long version, long loadedAt, Map<Long, float[]> vectors, FeatureSpace space) {
+    }
+
+    /**
+     * A user's taste profile: the average feature vector of their playlist songs, in a
+     * feature space standardised over the whole library.
+     */
+    private final class TasteProfile {
+
+        private final FeatureSpace space;
+        private final float[] centroid;
+        private final Map<Long, float[]> vectors;
+        private final Set<Long> playlistSongIds;
+
+        private TasteProfile(FeatureSpace space, float[] centroid, Map<Long, float[]> vectors, Set<Long> playlistSongIds) {
+            this.space = space;
+            this.centroid = centroid;
+            this.vectors = vectors;
+            this.playlistSongIds = playlistSongIds;
+        }
+
+        /**
+         * Orders songs for recommendation and returns the best ones. Songs the user has not
+         * added to a playlist come first, most similar first; songs that have not been
+         * analysed yet follow in random order.
+         *
+         * @param songs the candidate songs
+         * @param limit the maximum number of songs to return
+         * @return the chosen songs
+         */
+        private List<Song> rank(List<Song> songs, int limit) {
+            List<Song> analysed = new ArrayList<>();
+            List<Song> unanalysed = new ArrayList<>();
+            Map<Long, Double> similarity = new HashMap<>();
+            for (Song song : songs) {
+                float[] vector = vectors.get(song.getId());
+                if (vector == null) {
+                    unanalysed.add(song);
+                } else {
+                    similarity.put(song.getId(), space.similarity(centroid, vector));
+                    analysed.add(song);
+                }
+            }
+
+            analysed.sort(Comparator
+                    .comparing((Song song) -> playlistSongIds.contains(song.getId()))
+                    .thenComparing(song -> similarity.get(song.getId()), Comparator.reverseOrder()));
+            Collections.shuffle(unanalysed, random);
+
+            List<Song> ranked = new ArrayList<>(analysed);
+            ranked.addAll(unanalysed);
+            return ranked.stream().limit(limit).collect(Collectors.toList());
+        }
+    }
 }
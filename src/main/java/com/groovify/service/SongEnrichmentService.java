@@ -0,0 +1,35 @@
+package com.groovify.service;
+
+/**
+ * Service interface for the deferred, low-priority song enrichment queue.
+ * <p>
+ * The fast import pass only registers each song's filename, genre, and file size so
+ * that new songs appear in the catalog right away. Everything that requires reading
+ * or analysing the file (tag parsing, hashing, duration, and similar work) is done
+ * afterwards by this service on a small pool of background threads.
+ */
+public interface SongEnrichmentService {
+
+    /**
+     * Schedules enrichment of every song that has not yet been processed by the
+     * current pipeline version. Returns immediately; the work runs in the background.
+     * Calling this while a run is already in progress has no effect.
+     */
+    void enqueuePending();
+
+    /**
+     * Enriches pending songs on the calling thread.
+     *
+     * @param limit the maximum number of songs to enrich
+     * @return the number of songs that were enriched
+     */
+    int enrichPending(int limit);
+
+    /**
+     * Runs every pending enrichment stage for a single song on the calling thread.
+     *
+     * @param songId the ID of the song to enrich
+     * @return true if the song was found and processed, false otherwise
+     */
+    boolean enrichSong(Long songId);
+}
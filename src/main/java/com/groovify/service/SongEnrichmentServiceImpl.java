@@ -0,0 +1,344 @@
+package com.groovify.service;
+
+import com.groovify.jpa.model.Song;
+import com.groovify.jpa.repo.SongRepo;
+import com.groovify.service.enrichment.SongEnrichmentContext;
+import com.groovify.service.enrichment.SongEnrichmentStage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of {@link SongEnrichmentService} that runs the registered
+ * {@link SongEnrichmentStage}s on a dedicated, budgeted thread pool.
+ * <p>
+ * The pool is kept deliberately small and separate from the servlet request threads:
+ * it has a fixed number of low-priority daemon threads, and each worker pauses
+ * between songs so that background file reads leave disk and CPU headroom for
+ * page requests. Both limits are configurable.
+ * </p>
+ * <p>
+ * Pending songs are found by comparing each song's stored enrichment version with
+ * {@link #ENRICHMENT_VERSION}, walking the table in ID order so memory use stays
+ * constant regardless of how many songs are waiting.
+ * </p>
+ * <p>
+ * Every node runs enrichment, so a song is claimed before it is decoded: a conditional
+ * update stamps its claim time unless another node's claim is younger than the
+ * enrichment lease, and writing the results releases the claim. Nodes walking the
+ * same pending songs thus split them instead of each decoding every file.
+ * </p>
+ */
+@Service
+public class SongEnrichmentServiceImpl implements SongEnrichmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(SongEnrichmentServiceImpl.class);
+
+    /**
+     * Version of the enrichment pipeline. Increase it when a stage is added so that
+     * previously enriched songs are revisited by the new stage.
+     */
+    static final int ENRICHMENT_VERSION = 5;
+
+    // Number of pending song IDs fetched per query
+    private static final int PAGE_SIZE = 100;
+
+    private final SongRepo songRepo;
+    private final List<SongEnrichmentStage> stages;
+    private final SongSearchService songSearchService;
+    private final RecommendationService recommendationService;
+
+    // Shared cursor over pending song IDs for the workers of the current run
+    private final Deque<Long> pendingIds = new ArrayDeque<>();
+    private long cursor;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean rerunRequested = new AtomicBoolean(false);
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+
+    private ExecutorService executor;
+
+    /**
+     * Path to the root music directory (configurable in application.properties).
+     * Defaults to {@code src/main/resources/static/songs}.
+     */
+    @Value("${music.directory:src/main/resources/static/songs}")
+    String musicDirectory;
+
+    /** Whether background enrichment runs at all. */
+    @Value("${groovify.enrichment.enabled:true}")
+    boolean enabled;
+
+    /** Number of background enrichment threads (the CPU budget). */
+    @Value("${groovify.enrichment.threads:1}")
+    int threads;
+
+    /** Pause each worker takes after every song (the I/O budget). */
+    @Value("${groovify.enrichment.pause:PT0.2S}")
+    Duration pause;
+
+    /** Runs with a failing stage after which a song is stamped anyway and not retried. */
+    @Value("${groovify.enrichment.max-attempts:3}")
+    int maxAttempts;
+
+    /** How long a node may hold a song before other nodes consider its claim abandoned. */
+    @Value("${groovify.enrichment.lease:PT10M}")
+    Duration lease;
+
+    /**
+     * Constructs a {@code SongEnrichmentServiceImpl}.
+     *
+     * @param songRepo          repository for accessing {@link Song} entities
+     * @param stages            all enrichment stages, in {@code @Order} order
+     * @param songSearchService     search index, refreshed with the title and artist read from tags
+     * @param recommendationService recommendations, told to re-read the feature vectors
+     */
+    public SongEnrichmentServiceImpl(SongRepo songRepo, List<SongEnrichmentStage> stages,
+                                     SongSearchService songSearchService, RecommendationService recommendationService) {
+        this.songRepo = songRepo;
+        this.stages = stages;
+        this.songSearchService = songSearchService;
+        this.recommendationService = recommendationService;
+    }
+
+    /**
+     * Creates the background thread pool once the configuration has been injected.
+     * Threads are low-priority daemons so they never delay request handling or shutdown.
+     */
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "song-enrichment-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        log.info("Song enrichment {} with {} thread(s) and {} pause per song",
+                enabled ? "enabled" : "disabled", Math.max(1, threads), pause);
+    }
+
+    /**
+     * Stops the background threads when the application shuts down.
+     */
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Resumes enrichment of songs left pending by earlier runs (or just registered by
+     * the startup import) once the application is ready to serve requests.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        enqueuePending();
+    }
+
+    /**
+     * Starts one worker per configured thread. Workers share a cursor over the pending
+     * song IDs and stop when no pending songs remain. If a run is already in progress,
+     * a follow-up run is requested so that songs registered meanwhile are not missed.
+     */
+    @Override
+    public void enqueuePending() {
+        if (!enabled) {
+            log.debug("Song enrichment disabled, not scheduling pending songs");
+            return;
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            rerunRequested.set(true);
+            return;
+        }
+
+        synchronized (pendingIds) {
+            pendingIds.clear();
+            cursor = 0;
+        }
+
+        int workers = Math.max(1, threads);
+        activeWorkers.set(workers);
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::runWorker);
+        }
+        log.info("Scheduled background enrichment of pending songs");
+    }
+
+    /**
+     * Enriches pending songs on the calling thread, in ID order.
+     *
+     * @param limit the maximum number of songs to enrich
+     * @return the number of songs that were enriched
+     */
+    @Override
+    public int enrichPending(int limit) {
+        int enriched = 0;
+        long after = 0;
+
+        while (enriched < limit) {
+            List<Long> ids = songRepo.findIdsPendingEnrichment(after, ENRICHMENT_VERSION,
+                    PageRequest.of(0, Math.min(PAGE_SIZE, limit - enriched)));
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (Long id : ids) {
+                if (enrichSong(id)) {
+                    enriched++;
+                }
+                after = id;
+            }
+        }
+
+        return enriched;
+    }
+
+    /**
+     * Runs every stage that still has work for the song, then stamps the song with
+     * the current pipeline version. A failing stage is logged and skipped so that one
+     * unreadable tag does not prevent the remaining stages from running, but the song is
+     * then left unstamped and its failure counted, so the next run retries the stages
+     * that are still pending; after {@code groovify.enrichment.max-attempts} failing
+     * runs it is stamped anyway. Only the enrichment columns are written back, so a song
+     * tombstoned or restored while it was being decoded keeps its new availability.
+     * <p>
+     * A song claimed by another node is left to that node. A song whose file is gone is
+     * released unstamped, so it is enriched once the file is back; reconciliation
+     * tombstones it in the meantime, which takes it out of the pending songs.
+     *
+     * @param songId the ID of the song to enrich
+     * @return true if the song was found and processed, false otherwise
+     */
+    @Override
+    public boolean enrichSong(Long songId) {
+        if (songId == null) {
+            log.error("Null song id provided for enrichment");
+            return false;
+        }
+
+        Instant now = Instant.now();
+        if (songRepo.claimEnrichment(songId, now, now.minus(lease)) == 0) {
+            log.debug("Song {} not found or claimed by another node, skipping enrichment", songId);
+            return false;
+        }
+
+        Song song = songRepo.findById(songId).orElse(null);
+        if (song == null || song.getGenre() == null) {
+            log.warn("Song {} not found or has no genre, skipping enrichment", songId);
+            songRepo.releaseEnrichment(songId);
+            return false;
+        }
+
+        Path file = Paths.get(musicDirectory, song.getGenre().getName(), song.getFilename());
+        if (!Files.isRegularFile(file)) {
+            log.warn("File '{}' for song {} not found, leaving it pending until the file is back", file, songId);
+            songRepo.releaseEnrichment(songId);
+            return false;
+        }
+
+        SongEnrichmentContext context = new SongEnrichmentContext(file);
+        boolean failed = false;
+        for (SongEnrichmentStage stage : stages) {
+            if (!stage.isPending(song)) {
+                continue;
+            }
+            try {
+                stage.enrich(song, context);
+            } catch (Exception e) {
+                failed = true;
+                log.error("Enrichment stage '{}' failed for '{}': {}", stage.name(), song.getFilename(), e.getMessage());
+            }
+        }
+
+        int failures = !failed ? 0 : song.getEnrichmentFailures() == null ? 1 : song.getEnrichmentFailures() + 1;
+        if (failures == 0 || failures >= maxAttempts) {
+            if (failures > 0) {
+                log.warn("Giving up on failing enrichment stages for '{}' after {} attempts", song.getFilename(), failures);
+            }
+            song.setEnrichmentVersion(ENRICHMENT_VERSION);
+            song.setEnrichmentFailures(null);
+        } else {
+            song.setEnrichmentFailures(failures);
+        }
+        song.setEnrichedAt(Instant.now());
+        if (songRepo.saveEnrichment(song) == 0) {
+            log.warn("Song {} was deleted during enrichment", songId);
+            return false;
+        }
+        songSearchService.indexSong(song);
+        recommendationService.featuresChanged();
+        log.debug("Enriched song {} ('{}')", songId, song.getFilename());
+        return true;
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Body of a background worker: enrich songs until the shared cursor is exhausted,
+     * pausing after each one to stay within the I/O budget.
+     */
+    private void runWorker() {
+        try {
+            Long id;
+            while ((id = nextPendingId()) != null && !Thread.currentThread().isInterrupted()) {
+                try {
+                    enrichSong(id);
+                } catch (Exception e) {
+                    log.error("Background enrichment of song {} failed", id, e);
+                }
+                if (!pause.isZero()) {
+                    Thread.sleep(pause.toMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (activeWorkers.decrementAndGet() == 0) {
+                running.set(false);
+                log.info("Background enrichment run finished");
+                if (rerunRequested.getAndSet(false)) {
+                    enqueuePending();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the next pending song ID for this run, refilling the shared buffer from
+     * the database when it runs dry.
+     */
+    private Long nextPendingId() {
+        synchronized (pendingIds) {
+            if (pendingIds.isEmpty()) {
+                List<Long> ids = songRepo.findIdsPendingEnrichment(cursor, ENRICHMENT_VERSION, PageRequest.of(0, PAGE_SIZE));
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                pendingIds.addAll(ids);
+                cursor = ids.get(ids.size() - 1);
+            }
+            return pendingIds.poll();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.groovify.service;
+
+import java.util.List;
+
+/**
+ * Service interface for finding songs that are copies of the same recording.
+ * <p>
+ * Songs are compared by acoustic fingerprint rather than by file contents, so
+ * re-encodes at another bitrate and trimmed copies are recognised as duplicates.
+ */
+public interface SongFingerprintService {
+
+    /**
+     * A song whose fingerprint matches a query.
+     *
+     * @param songId       the matching song
+     * @param offset       the frame in the matching song where the query starts; negative if the query starts earlier
+     * @param bitErrorRate the fraction of differing fingerprint bits over the overlap, 0 for identical audio
+     */
+    record FingerprintMatch(Long songId, int offset, double bitErrorRate) {
+    }
+
+    /**
+     * Finds indexed songs that share a stretch of audio with a fingerprint.
+     *
+     * @param fingerprint the query fingerprint
+     * @return the matches, closest first
+     */
+    List<FingerprintMatch> findMatches(int[] fingerprint);
+
+    /**
+     * Stores and indexes a song's fingerprint, and looks for an earlier copy of the
+     * same recording.
+     *
+     * @param songId      the song the fingerprint belongs to
+     * @param fingerprint the song's fingerprint
+     * @return the ID of the original song this one duplicates, or null if it is unique
+     */
+    Long registerFingerprint(Long songId, int[] fingerprint);
+
+    /**
+     * Checks whether a fingerprint has been stored for a song.
+     *
+     * @param songId the song to check
+     * @return true if the song has a fingerprint, false otherwise
+     */
+    boolean hasFingerprint(Long songId);
+}
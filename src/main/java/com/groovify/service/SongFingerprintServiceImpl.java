@@ -0,0 +1,229 @@
+package com.groovify.service;
+
+import com.groovify.audio.ChromaFingerprinter;
+import com.groovify.audio.FingerprintIndex;
+import com.groovify.jpa.model.Song;
+import com.groovify.jpa.model.SongFingerprint;
+import com.groovify.jpa.repo.SongFingerprintRepo;
+import com.groovify.jpa.repo.SongRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Implementation of {@link SongFingerprintService} backed by an in-memory
+ * {@link FingerprintIndex}.
+ * <p>
+ * Fingerprints are stored in the database and loaded into the index on first use.
+ * A lookup asks the index for the few songs that share many keys with the query at a
+ * consistent alignment, then compares each of them bit by bit around that alignment.
+ * Candidates whose stored fingerprint no longer exists (deleted songs, rolled-back
+ * transactions) are removed from the index as they are found.
+ * </p>
+ * <p>
+ * Other nodes sharing the database fingerprint songs too, so the index is refreshed
+ * on a fixed interval with the fingerprints stored since the start of the refresh
+ * before last, as the search index is. Songs already in the index are not added
+ * again: candidates are verified against their stored fingerprint anyway.
+ * </p>
+ */
+@Service
+public class SongFingerprintServiceImpl implements SongFingerprintService {
+
+    private static final Logger log = LoggerFactory.getLogger(SongFingerprintServiceImpl.class);
+
+    // Fingerprint frames are about an eighth of a second apart; copies must share at least ~10 s
+    private static final int MIN_OVERLAP_FRAMES = 80;
+
+    // Copies of a recording differ in under 10% of bits; unrelated songs in about 45%
+    private static final double MAX_BIT_ERROR_RATE = 0.15;
+
+    private static final int MIN_VOTES = 10;
+    private static final int MAX_CANDIDATES = 10;
+    private static final int LOAD_PAGE_SIZE = 200;
+
+    private final SongFingerprintRepo fingerprintRepo;
+    private final SongRepo songRepo;
+    private final FingerprintIndex index = new FingerprintIndex();
+    private volatile boolean loaded;
+
+    // Where the next refresh looks for fingerprints stored by other nodes
+    private volatile Instant refreshSince;
+    private volatile Instant lastRefreshStart;
+
+    /**
+     * Constructs a {@code SongFingerprintServiceImpl}.
+     *
+     * @param fingerprintRepo repository for stored fingerprints
+     * @param songRepo        repository for resolving the original of a duplicate
+     */
+    public SongFingerprintServiceImpl(SongFingerprintRepo fingerprintRepo, SongRepo songRepo) {
+        this.fingerprintRepo = fingerprintRepo;
+        this.songRepo = songRepo;
+    }
+
+    /**
+     * Finds indexed songs sharing audio with the fingerprint, verifying each index
+     * candidate against its stored fingerprint.
+     *
+     * @param fingerprint the query fingerprint
+     * @return the verified matches, closest first; empty if the fingerprint is too short
+     */
+    @Override
+    public List<FingerprintMatch> findMatches(int[] fingerprint) {
+        List<FingerprintMatch> matches = new ArrayList<>();
+        if (fingerprint == null || fingerprint.length < MIN_OVERLAP_FRAMES) {
+            return matches;
+        }
+        ensureLoaded();
+
+        boolean stale = true;
+        while (stale) {
+            stale = false;
+            matches.clear();
+            for (FingerprintIndex.Candidate candidate : index.candidates(fingerprint, MIN_VOTES, MAX_CANDIDATES)) {
+                SongFingerprint stored = fingerprintRepo.findById(candidate.songId()).orElse(null);
+                if (stored == null) {
+                    // Song deleted since it was indexed; drop it and look again so it cannot crowd out live songs
+                    index.remove(candidate.songId());
+                    stale = true;
+                    continue;
+                }
+                FingerprintMatch match = verify(fingerprint, candidate, ChromaFingerprinter.unpack(stored.getData()));
+                if (match != null) matches.add(match);
+            }
+        }
+        matches.sort(Comparator.comparingDouble(FingerprintMatch::bitErrorRate));
+        return matches;
+    }
+
+    /**
+     * Looks for an earlier copy of the song, then stores and indexes its fingerprint.
+     * If the closest match is itself a duplicate, its original is returned so that
+     * duplicates always point at the first copy.
+     *
+     * @param songId      the song the fingerprint belongs to
+     * @param fingerprint the song's fingerprint
+     * @return the ID of the original song, or null if no copy was found
+     */
+    @Override
+    public Long registerFingerprint(Long songId, int[] fingerprint) {
+        ensureLoaded();
+
+        Long original = null;
+        for (FingerprintMatch match : findMatches(fingerprint)) {
+            if (match.songId().equals(songId)) continue;
+            Song song = songRepo.findById(match.songId()).orElse(null);
+            if (song == null) continue;
+            original = song.getDuplicateOf() != null ? song.getDuplicateOf() : song.getId();
+            log.info("Song {} matches song {} (bit error rate {}), recording it as a duplicate of {}",
+                    songId, match.songId(), String.format("%.3f", match.bitErrorRate()), original);
+            break;
+        }
+
+        fingerprintRepo.save(new SongFingerprint(songId, ChromaFingerprinter.pack(fingerprint)));
+        index.add(songId, fingerprint);
+        return original;
+    }
+
+    /**
+     * Checks whether a fingerprint has been stored for a song.
+     *
+     * @param songId the song to check
+     * @return true if the song has a fingerprint, false otherwise
+     */
+    @Override
+    public boolean hasFingerprint(Long songId) {
+        return songId != null && fingerprintRepo.existsById(songId);
+    }
+
+    /**
+     * Indexes the fingerprints other nodes stored since the start of the refresh before
+     * last. A fingerprint stored while a refresh runs may be committed just after it
+     * reads, so each refresh reaches back one interval further.
+     */
+    @Scheduled(fixedDelayString = "${groovify.fingerprint.refresh-interval:PT1M}")
+    public void refresh() {
+        if (!loaded) {
+            return;
+        }
+        Instant start = Instant.now();
+        int added = 0;
+        long after = 0;
+        List<SongFingerprint> page;
+        do {
+            page = fingerprintRepo.findByStoredAtGreaterThanEqualAndSongIdGreaterThanOrderBySongIdAsc(
+                    refreshSince, after, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (SongFingerprint stored : page) {
+                if (!index.contains(stored.getSongId())) {
+                    index.add(stored.getSongId(), ChromaFingerprinter.unpack(stored.getData()));
+                    added++;
+                }
+                after = stored.getSongId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        refreshSince = lastRefreshStart;
+        lastRefreshStart = start;
+        log.debug("Refreshed the duplicate index with {} fingerprints from other nodes", added);
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Compares the query with a candidate at alignments around the one the index found.
+     *
+     * @return the best match, or null if no alignment is close enough
+     */
+    private FingerprintMatch verify(int[] fingerprint, FingerprintIndex.Candidate candidate, int[] stored) {
+        FingerprintMatch best = null;
+        // The index reports the start of a range of about eight frames
+        for (int offset = candidate.offset() - 2; offset <= candidate.offset() + 9; offset++) {
+            if (ChromaFingerprinter.overlap(fingerprint, stored, offset) < MIN_OVERLAP_FRAMES) continue;
+            double errorRate = ChromaFingerprinter.bitErrorRate(fingerprint, stored, offset);
+            if (errorRate <= MAX_BIT_ERROR_RATE && (best == null || errorRate < best.bitErrorRate())) {
+                best = new FingerprintMatch(candidate.songId(), offset, errorRate);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Loads every stored fingerprint into the index the first time it is needed.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            Instant start = Instant.now();
+            long after = 0;
+            int count = 0;
+            List<SongFingerprint> page;
+            do {
+                page = fingerprintRepo.findBySongIdGreaterThanOrderBySongIdAsc(after, PageRequest.of(0, LOAD_PAGE_SIZE));
+                for (SongFingerprint stored : page) {
+                    index.add(stored.getSongId(), ChromaFingerprinter.unpack(stored.getData()));
+                    after = stored.getSongId();
+                    count++;
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+            log.info("Loaded {} song fingerprints into the duplicate index", count);
+            refreshSince = start;
+            lastRefreshStart = start;
+            loaded = true;
+        }
+    }
+}
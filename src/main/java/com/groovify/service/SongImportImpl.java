@@ -4,13 +4,27 @@ import com.groovify.jpa.model.Song;
 import com.groovify.jpa.model.Genre;
 import com.groovify.jpa.repo.SongRepo;
 import com.groovify.jpa.repo.GenreRepo;
-import com.mpatric.mp3agic.Mp3File;
+import com.groovify.util.ArchiveReader;
+import com.groovify.util.Mp3StreamWriter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -20,14 +34,38 @@ import java.util.Random;
  * Each subfolder in the configured music directory represents a genre.
  * MP3 files within those subfolders are imported into the database,
  * assigned a random artist, and linked to the corresponding genre.
+ * <p>
+ * This is the fast import pass: it only registers the filename, genre, and file size
+ * so songs show up in the catalog immediately. Reading tags, hashing, and other work
+ * that needs the file contents is left to {@link SongEnrichmentService}.
+ * <p>
+ * ZIP and TAR archives in the music directory are imported by streaming through them
+ * once: each MP3 entry is validated, hashed, and copied into its genre folder in the
+ * same pass, so no temporary extraction directory is needed. Genres named by archive
+ * entries are created as the entries are imported, since an archive may bring songs
+ * for a genre that no folder holds songs for yet.
+ * <p>
+ * Every node runs the archive import at startup, so a node claims an archive before
+ * streaming it by renaming it with the {@code .importing} suffix; the rename succeeds
+ * for exactly one node. The claim is renewed while the archive is read, and a claim
+ * left untouched for longer than the archive lease (its node presumably died) is
+ * released so another node can take the archive over.
  */
 @Service
 public class SongImportImpl implements SongImportService {
 
     private static final Logger log = LoggerFactory.getLogger(SongImportImpl.class);
 
+    // Suffix given to archives once all of their songs have been imported
+    private static final String IMPORTED_SUFFIX = ".imported";
+
+    // Suffix given to archives while a node is importing them
+    private static final String CLAIMED_SUFFIX = ".importing";
+
     private final SongService songService;
     private final GenreRepo genreRepository;
+    private final GenreImportService genreImportService;
+    private final SongEnrichmentService songEnrichmentService;
     private final Random random = new Random();
 
     /**
@@ -37,6 +75,10 @@ public class SongImportImpl implements SongImportService {
     @Value("${music.directory:src/main/resources/static/songs}")
     String musicDirectory;
 
+    /** How long an archive claim may go unrenewed before other nodes consider it abandoned. */
+    @Value("${groovify.import.archive.lease:PT1H}")
+    Duration archiveLease;
+
     // Predefined lists used to generate random artist names
     private static final List<String> FIRST_NAMES = List.of(
             "Liam", "Olivia", "Noah", "Emma", "Oliver",
@@ -55,10 +97,16 @@ public class SongImportImpl implements SongImportService {
      *
      * @param songService  repository for accessing {@link Song} entities
      * @param genreRepository repository for accessing {@link Genre} entities
+     * @param genreImportService service for creating genres brought by archives
+     * @param songEnrichmentService service that completes imported songs in the background
      */
-    public SongImportImpl(SongService songService, GenreRepo genreRepository) {
+    public SongImportImpl(SongService songService, GenreRepo genreRepository,
+                          GenreImportService genreImportService,
+                          SongEnrichmentService songEnrichmentService) {
         this.songService = songService;
         this.genreRepository = genreRepository;
+        this.genreImportService = genreImportService;
+        this.songEnrichmentService = songEnrichmentService;
     }
 
     /**
@@ -159,40 +207,130 @@ public class SongImportImpl implements SongImportService {
      * Processes an individual MP3 file:
      * <ul>
      *     <li>Skips files already in the database.</li>
-     *     <li>Attempts to read MP3 metadata.</li>
-     *     <li>Creates and saves a {@link Song} entity.</li>
+     *     <li>Creates and saves a {@link Song} entity with its file size.</li>
      * </ul>
      *
      * @param file  the MP3 file to import
      * @param genre the genre to associate with the song
+     * @return true if the song was newly imported, false if skipped or failed
      */
-    private void processSongFile(File file, Genre genre) {
+    private boolean processSongFile(File file, Genre genre) {
         // Skip if song already exists
         if (songService.searchSongByFilename(file.getName())) {
             log.debug("Skipping '{}': already exists in database.", file.getName());
-            return;
+            return false;
         }
 
         try {
-            // Parse MP3 file (could later be used for metadata extraction)
-            new Mp3File(file);
-
-            // Derive song details
+            // Derive song details without opening the file; tags are read during enrichment
             String title = formatTitle(file.getName());
             String artist = generateRandomArtist();
 
             // Build and save song entity
             Song song = new Song(file.getName(), title, artist);
             song.setGenre(genre);
-            songService.addSong(song);
+            song.setFileSize(file.length());
+            if (!songService.addSong(song)) {
+                return false;
+            }
 
             log.info("Imported '{}': Title='{}', Artist='{}', Genre='{}'",
                     file.getName(), title, artist, genre.getName());
+            return true;
         } catch (Exception e) {
-            log.error("Failed to read MP3 file '{}': {}", file.getName(), e.getMessage(), e);
+            log.error("Failed to import MP3 file '{}': {}", file.getName(), e.getMessage(), e);
+            return false;
         }
     }
 
+    /**
+     * Imports a batch of MP3 files from a single genre folder.
+     * <p>
+     * Used by the shared import queue, where each node processes the batches it
+     * has claimed instead of scanning the entire music directory.
+     *
+     * @param genreFolder the folder representing the genre
+     * @param filenames   the names of the MP3 files in the folder to import
+     * @return the number of songs that were newly imported
+     */
+    @Override
+    public int importFiles(File genreFolder, List<String> filenames) {
+        String genreName = genreFolder.getName();
+        Genre genre = genreRepository.findByName(genreName).orElse(null);
+
+        if (genre == null) {
+            log.warn("Genre '{}' not found in database — skipping {} files", genreName, filenames.size());
+            return 0;
+        }
+
+        int imported = 0;
+        for (String filename : filenames) {
+            File file = new File(genreFolder, filename);
+            if (!file.isFile()) {
+                log.warn("Skipping '{}': file no longer exists", file.getAbsolutePath());
+                continue;
+            }
+            if (processSongFile(file, genre)) {
+                imported++;
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * Lists the genre folders of the music directory that contain MP3 files,
+     * so genres can be created from the library instead of a fixed list.
+     *
+     * @return the sorted folder names; empty if the music directory is invalid
+     */
+    @Override
+    public List<String> discoverGenreNames() {
+        File[] genreFolders = getGenreFolders(new File(musicDirectory));
+        if (genreFolders == null) {
+            log.warn("Music directory not found or invalid: '{}'", new File(musicDirectory).getAbsolutePath());
+            return List.of();
+        }
+
+        List<String> names = new ArrayList<>();
+        for (File genreFolder : genreFolders) {
+            String[] mp3Files = genreFolder.list((dir, name) -> name.toLowerCase().endsWith(".mp3"));
+            if (mp3Files != null && mp3Files.length > 0) {
+                names.add(genreFolder.getName());
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Imports every archive in the music directory and in its genre folders.
+     * Archives in the root take the genre from each entry's parent folder; archives
+     * inside a genre folder default to that genre. Genres that do not exist yet are
+     * created, so an archive for a new genre, or in a folder without songs, imports.
+     * Archives claimed by another node are left to that node.
+     *
+     * @return the number of songs that were newly imported
+     */
+    @Override
+    public int importArchives() {
+        File songsRoot = new File(musicDirectory);
+        File[] genreFolders = getGenreFolders(songsRoot);
+        if (genreFolders == null) {
+            log.error("Music directory not found or invalid: '{}'", songsRoot.getAbsolutePath());
+            return 0;
+        }
+
+        int imported = importArchivesIn(songsRoot.toPath(), songsRoot, null);
+        for (File genreFolder : genreFolders) {
+            imported += importArchivesIn(songsRoot.toPath(), genreFolder, genreFolder.getName());
+        }
+
+        if (imported > 0) {
+            songEnrichmentService.enqueuePending();
+        }
+        return imported;
+    }
+
     /**
      * Generates a random artist name using a random first and last name.
      */
@@ -209,9 +347,247 @@ public class SongImportImpl implements SongImportService {
      *     <li>Adding spaces before capital letters</li>
      * </ul>
      */
-    private String formatTitle(String filename) {
+    static String formatTitle(String filename) {
         return filename.replace(".mp3", "")
                 .replaceAll("(?<!^)(?=[A-Z])", " ")
                 .trim();
     }
+
+    /**
+     * Releases abandoned claims in a folder, then claims and imports each of its archives.
+     */
+    private int importArchivesIn(Path songsRoot, File folder, String defaultGenre) {
+        releaseStaleClaims(folder);
+
+        int imported = 0;
+        for (File archive : listArchives(folder)) {
+            Path claimed = claimArchive(archive);
+            if (claimed != null) {
+                imported += importArchive(songsRoot, claimed, archive.getName(), defaultGenre);
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * Lists the archive files directly inside a folder.
+     */
+    private File[] listArchives(File folder) {
+        File[] archives = folder.listFiles(file -> file.isFile() && ArchiveReader.isArchive(file.getName()));
+        return archives == null ? new File[0] : archives;
+    }
+
+    /**
+     * Claims an archive for this node by renaming it with the {@code .importing} suffix.
+     * The rename fails for every node but one, since the archive is gone once claimed.
+     *
+     * @return the claimed archive, or null if another node claimed it first
+     */
+    private Path claimArchive(File archive) {
+        Path source = archive.toPath();
+        Path claimed = source.resolveSibling(archive.getName() + CLAIMED_SUFFIX);
+        try {
+            Files.move(source, claimed);
+        } catch (NoSuchFileException | FileAlreadyExistsException e) {
+            log.debug("Archive '{}' is being imported by another node", archive.getName());
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not claim archive '{}': {}", archive.getName(), e.getMessage());
+            return null;
+        }
+        renewClaim(claimed);
+        return claimed;
+    }
+
+    /**
+     * Stamps a claimed archive with the current time, so other nodes see the claim is alive.
+     */
+    private void renewClaim(Path claimed) {
+        try {
+            Files.setLastModifiedTime(claimed, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.debug("Could not renew claim on '{}': {}", claimed.getFileName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Returns claimed archives whose claim has not been renewed within the lease to
+     * their original name, so they are claimed again like any new archive.
+     */
+    private void releaseStaleClaims(File folder) {
+        File[] claims = folder.listFiles(file -> file.isFile() && file.getName().endsWith(CLAIMED_SUFFIX));
+        if (claims == null) {
+            return;
+        }
+
+        long staleBefore = Instant.now().minus(archiveLease).toEpochMilli();
+        for (File claim : claims) {
+            if (claim.lastModified() >= staleBefore) {
+                continue;
+            }
+            String name = claim.getName().substring(0, claim.getName().length() - CLAIMED_SUFFIX.length());
+            log.warn("Releasing abandoned claim on archive '{}'", name);
+            renameArchive(claim.toPath(), name);
+        }
+    }
+
+    /**
+     * Streams through one claimed archive and imports its MP3 entries. The archive is
+     * renamed with the {@code .imported} suffix if no MP3 entry failed; entries that are
+     * skipped because they can never be imported do not hold it back. Otherwise the
+     * archive is released under its original name, so it is retried on the next import.
+     *
+     * @param songsRoot    the root of the song store
+     * @param claimed      the archive, renamed while this node imports it
+     * @param name         the archive's original name, which gives its format
+     * @param defaultGenre the genre for entries without a folder, or null
+     * @return the number of songs that were newly imported
+     */
+    private int importArchive(Path songsRoot, Path claimed, String name, String defaultGenre) {
+        int imported = 0;
+        boolean complete = true;
+        long renewEvery = Math.max(1, archiveLease.toMillis() / 4);
+        long renewedAt = System.currentTimeMillis();
+
+        try (ArchiveReader reader = ArchiveReader.open(claimed, name)) {
+            String entryName;
+            while ((entryName = reader.nextEntry()) != null) {
+                if (System.currentTimeMillis() - renewedAt >= renewEvery) {
+                    renewClaim(claimed);
+                    renewedAt = System.currentTimeMillis();
+                }
+
+                String filename = entryName.substring(entryName.lastIndexOf('/') + 1);
+                if (!filename.toLowerCase().endsWith(".mp3")) {
+                    continue;
+                }
+
+                int slash = entryName.lastIndexOf('/');
+                String folder = slash > 0 ? entryName.substring(entryName.lastIndexOf('/', slash - 1) + 1, slash) : null;
+                String genreName = defaultGenre != null ? defaultGenre : folder;
+
+                switch (importArchiveEntry(songsRoot, genreName, filename, reader.entryStream())) {
+                    case IMPORTED -> imported++;
+                    case FAILED -> complete = false;
+                    default -> { }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read archive '{}': {}", name, e.getMessage());
+            complete = false;
+        }
+
+        log.info("Imported {} songs from archive '{}'", imported, name);
+        renameArchive(claimed, complete ? name + IMPORTED_SUFFIX : name);
+        return imported;
+    }
+
+    /**
+     * Outcome of importing a single archive entry. Entries that can never be imported,
+     * such as data that is not MP3 audio, are {@code SKIPPED}; {@code FAILED} is kept for
+     * errors a later attempt may not hit, and keeps the archive around for a retry.
+     */
+    private enum EntryResult { IMPORTED, SKIPPED, FAILED }
+
+    /**
+     * Validates, hashes, and copies one MP3 entry into its genre folder in a single pass,
+     * then registers it as a song. The copy is written to a {@code .part} file next to
+     * its destination and moved into place only after it has been fully written.
+     */
+    private EntryResult importArchiveEntry(Path songsRoot, String genreName, String filename, InputStream data) {
+        if (genreName == null || !isSafeName(genreName) || !isSafeName(filename)) {
+            log.warn("Skipping archive entry '{}': no valid genre folder", filename);
+            return EntryResult.SKIPPED;
+        }
+
+        Genre genre = findOrCreateGenre(genreName);
+        if (genre == null) {
+            log.warn("Genre '{}' could not be created — skipping archive entry '{}'", genreName, filename);
+            return EntryResult.FAILED;
+        }
+
+        Path target = songsRoot.resolve(genreName).resolve(filename);
+        if (songService.searchSongByFilename(filename) || Files.exists(target)) {
+            log.debug("Skipping archive entry '{}': already exists.", filename);
+            return EntryResult.SKIPPED;
+        }
+
+        Path part = target.resolveSibling(filename + ".part");
+        try {
+            Files.createDirectories(target.getParent());
+            Mp3StreamWriter writer = new Mp3StreamWriter(Long.MAX_VALUE);
+
+            try (OutputStream out = Files.newOutputStream(part)) {
+                writer.copy(data, out);
+            }
+            writer.finish();
+
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+
+            Song song = new Song(filename, formatTitle(filename), generateRandomArtist());
+            song.setGenre(genre);
+            song.setFileSize(writer.getSize());
+            song.setContentHash(writer.getSha256());
+            if (!songService.addSong(song)) {
+                return EntryResult.FAILED;
+            }
+
+            log.info("Imported '{}' from archive: Genre='{}', Size={} bytes", filename, genreName, writer.getSize());
+            return EntryResult.IMPORTED;
+        } catch (Mp3StreamWriter.InvalidMp3Exception e) {
+            log.warn("Skipping archive entry '{}': {}", filename, e.getMessage());
+            deletePartFile(part);
+            return EntryResult.SKIPPED;
+        } catch (Exception e) {
+            log.error("Failed to import archive entry '{}': {}", filename, e.getMessage());
+            deletePartFile(part);
+            return EntryResult.FAILED;
+        }
+    }
+
+    /**
+     * Looks up the genre of an archive entry, creating it first if the archive is the
+     * first to bring songs for it.
+     */
+    private Genre findOrCreateGenre(String genreName) {
+        Genre genre = genreRepository.findByName(genreName).orElse(null);
+        if (genre != null) {
+            return genre;
+        }
+        if (genreImportService.upsertGenres(List.of(genreName)) > 0) {
+            log.info("Created genre '{}' for archive entries", genreName);
+        }
+        return genreRepository.findByName(genreName).orElse(null);
+    }
+
+    /**
+     * Removes a partially written copy.
+     */
+    private void deletePartFile(Path part) {
+        try {
+            Files.deleteIfExists(part);
+        } catch (IOException e) {
+            log.debug("Could not delete partial file '{}': {}", part, e.getMessage());
+        }
+    }
+
+    /**
+     * Rejects path segments that could escape the music directory.
+     */
+    private boolean isSafeName(String name) {
+        return !name.isBlank() && !name.equals(".") && !name.equals("..")
+                && !name.contains("/") && !name.contains("\\");
+    }
+
+    /**
+     * Renames a claimed archive, either to mark it imported or to release it for a retry.
+     * An existing file of that name is never replaced.
+     */
+    private void renameArchive(Path claimed, String name) {
+        try {
+            Files.move(claimed, claimed.resolveSibling(name));
+        } catch (IOException e) {
+            log.warn("Could not rename archive '{}' to '{}': {}", claimed.getFileName(), name, e.getMessage());
+        }
+    }
 }
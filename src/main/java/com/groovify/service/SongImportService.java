@@ -1,5 +1,8 @@
 package com.groovify.service;
 
+import java.io.File;
+import java.util.List;
+
 /**
  * Service interface responsible for importing songs from a file system or other sources.
  * <p>
@@ -13,4 +16,33 @@ public interface SongImportService {
      * <p>
      */
     boolean importSongs();
+
+    /**
+     * Imports a specific batch of MP3 files from a single genre folder.
+     * <p>
+     * The folder name identifies the genre. Files that are already in the
+     * database, missing on disk, or unreadable are skipped.
+     *
+     * @param genreFolder the folder representing the genre
+     * @param filenames   the names of the MP3 files in the folder to import
+     * @return the number of songs that were newly imported
+     */
+    int importFiles(File genreFolder, List<String> filenames);
+
+    /**
+     * Lists the genre names implied by the music directory: the name of every
+     * subfolder that contains at least one MP3 file.
+     *
+     * @return the discovered genre names, sorted; empty if the directory is invalid
+     */
+    List<String> discoverGenreNames();
+
+    /**
+     * Imports the MP3 entries of every ZIP or TAR archive found in the music directory
+     * or its genre folders, streaming through each archive once without extracting it.
+     * Fully imported archives are renamed with an {@code .imported} suffix.
+     *
+     * @return the number of songs that were newly imported
+     */
+    int importArchives();
 }
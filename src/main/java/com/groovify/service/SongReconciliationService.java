@@ -0,0 +1,28 @@
+package com.groovify.service;
+
+/**
+ * Service interface for reconciling the song catalog with the files on disk.
+ * <p>
+ * Songs whose MP3 file has disappeared are tombstoned rather than deleted, so
+ * playlists keep their entries and the song comes back if the file is restored.
+ */
+public interface SongReconciliationService {
+
+    /**
+     * Outcome of one reconciliation pass.
+     *
+     * @param checked  the number of songs compared with the disk
+     * @param missing  the number of songs newly tombstoned
+     * @param restored the number of tombstoned songs whose files reappeared
+     */
+    record ReconciliationResult(long checked, int missing, int restored) {
+    }
+
+    /**
+     * Compares every song with the files in its genre folder, tombstoning songs whose
+     * file is gone and restoring tombstoned songs whose file is back.
+     *
+     * @return a summary of the changes made
+     */
+    ReconciliationResult reconcile();
+}
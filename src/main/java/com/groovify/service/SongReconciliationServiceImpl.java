@@ -0,0 +1,226 @@
+package com.groovify.service;
+
+import com.groovify.jpa.model.Genre;
+import com.groovify.jpa.repo.GenreRepo;
+import com.groovify.jpa.repo.SongRepo;
+import com.groovify.jpa.repo.SongRepo.SongFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link SongReconciliationService} that merge-joins the catalog
+ * against the music directory one genre at a time.
+ * <p>
+ * For each genre, songs are read from the database in filename order, one keyset page
+ * at a time, while the sorted MP3 names of the genre folder are walked alongside them.
+ * Memory use is bounded by one page of songs and the file names of a single folder, no
+ * matter how large the catalog is. Changes are written in batches of bulk updates,
+ * and each batch is passed to the {@link SongSearchService} so suggestions and cached
+ * searches follow it.
+ * </p>
+ * <p>
+ * The database and the file system may not sort names identically (for example with a
+ * case-insensitive collation). A song that the merge does not match is therefore
+ * checked on disk directly before it is tombstoned, so ordering differences can only
+ * cost an extra file check, never a wrongly hidden song.
+ * </p>
+ * <p>
+ * The pass is idempotent, so it is safe for several nodes to run it at the same time.
+ * </p>
+ */
+@Service
+public class SongReconciliationServiceImpl implements SongReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(SongReconciliationServiceImpl.class);
+
+    private final SongRepo songRepo;
+    private final GenreRepo genreRepo;
+    private final SongSearchService songSearchService;
+
+    /**
+     * Path to the root music directory (configurable in application.properties).
+     * Defaults to {@code src/main/resources/static/songs}.
+     */
+    @Value("${music.directory:src/main/resources/static/songs}")
+    String musicDirectory;
+
+    /** Whether the scheduled reconciliation runs. */
+    @Value("${groovify.reconcile.enabled:true}")
+    boolean enabled;
+
+    /** Number of songs read per page and updated per batch. */
+    @Value("${groovify.reconcile.batch-size:500}")
+    int batchSize;
+
+    /**
+     * Constructs a {@code SongReconciliationServiceImpl}.
+     *
+     * @param songRepo  repository for reading and tombstoning songs
+     * @param genreRepo repository for listing the genres to reconcile
+     * @param songSearchService search index, told when songs are tombstoned or restored
+     */
+    public SongReconciliationServiceImpl(SongRepo songRepo, GenreRepo genreRepo, SongSearchService songSearchService) {
+        this.songRepo = songRepo;
+        this.genreRepo = genreRepo;
+        this.songSearchService = songSearchService;
+    }
+
+    /**
+     * Runs the reconciliation on the configured schedule (nightly by default).
+     */
+    @Scheduled(cron = "${groovify.reconcile.cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        if (!enabled) {
+            log.debug("Song reconciliation disabled, skipping scheduled run");
+            return;
+        }
+        reconcile();
+    }
+
+    /**
+     * Reconciles every genre with its folder in the music directory.
+     *
+     * @return a summary of the changes made
+     */
+    @Override
+    public ReconciliationResult reconcile() {
+        Path songsRoot = Paths.get(musicDirectory);
+        if (!Files.isDirectory(songsRoot)) {
+            // An unmounted or misconfigured store must not tombstone the whole catalog
+            log.error("Music directory not found or invalid: '{}', skipping reconciliation", songsRoot.toAbsolutePath());
+            return new ReconciliationResult(0, 0, 0);
+        }
+
+        Instant now = Instant.now();
+        long checked = 0;
+        int missing = 0;
+        int restored = 0;
+
+        for (Genre genre : genreRepo.findAll()) {
+            GenreResult result = reconcileGenre(songsRoot.resolve(genre.getName()), genre.getId(), now);
+            checked += result.checked;
+            missing += result.missing;
+            restored += result.restored;
+        }
+
+        log.info("Reconciliation checked {} songs: {} newly missing, {} restored", checked, missing, restored);
+        return new ReconciliationResult(checked, missing, restored);
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Counts for one genre.
+     */
+    private static final class GenreResult {
+        private long checked;
+        private int missing;
+        private int restored;
+    }
+
+    /**
+     * Merge-joins one genre's songs, in filename order, with the sorted file listing
+     * of its folder.
+     */
+    private GenreResult reconcileGenre(Path folder, Long genreId, Instant now) {
+        GenreResult result = new GenreResult();
+        List<Long> missingIds = new ArrayList<>();
+        List<Long> restoredIds = new ArrayList<>();
+
+        Iterator<String> files = listMp3Files(folder).iterator();
+        String file = files.hasNext() ? files.next() : null;
+        String after = "";
+
+        List<SongFile> page;
+        while (!(page = songRepo.findFilesByGenreAfter(genreId, after, PageRequest.of(0, batchSize))).isEmpty()) {
+            for (SongFile song : page) {
+                String filename = song.getFilename();
+
+                // Advance the file cursor to the first name not before this song
+                while (file != null && file.compareTo(filename) < 0) {
+                    file = files.hasNext() ? files.next() : null;
+                }
+
+                boolean present = filename.equals(file) || Files.isRegularFile(folder.resolve(filename));
+                if (!present && song.getMissingSince() == null) {
+                    missingIds.add(song.getId());
+                } else if (present && song.getMissingSince() != null) {
+                    restoredIds.add(song.getId());
+                }
+                result.checked++;
+            }
+            after = page.get(page.size() - 1).getFilename();
+
+            if (missingIds.size() >= batchSize) {
+                result.missing += flushMissing(missingIds, now);
+            }
+            if (restoredIds.size() >= batchSize) {
+                result.restored += flushRestored(restoredIds);
+            }
+        }
+
+        result.missing += flushMissing(missingIds, now);
+        result.restored += flushRestored(restoredIds);
+        return result;
+    }
+
+    /**
+     * Returns the sorted MP3 names in a folder, or an empty list if it does not exist.
+     */
+    private List<String> listMp3Files(Path folder) {
+        if (!Files.isDirectory(folder)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> entries = Files.list(folder)) {
+            return entries.map(path -> path.getFileName().toString())
+                    .filter(name -> name.toLowerCase().endsWith(".mp3"))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            // Treat an unreadable folder like a mismatch: every song is checked individually
+            log.warn("Could not list '{}': {}", folder, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Tombstones a batch of songs and clears the batch.
+     */
+    private int flushMissing(List<Long> ids, Instant now) {
+        if (ids.isEmpty()) return 0;
+        int updated = songRepo.markMissing(ids, now, Instant.now());
+        songSearchService.songsMissing(ids);
+        log.info("Marked {} songs as missing", updated);
+        ids.clear();
+        return updated;
+    }
+
+    /**
+     * Restores a batch of songs and clears the batch.
+     */
+    private int flushRestored(List<Long> ids) {
+        if (ids.isEmpty()) return 0;
+        int updated = songRepo.markAvailable(ids, Instant.now());
+        songSearchService.songsRestored(ids);
+        log.info("Restored {} songs whose files reappeared", updated);
+        ids.clear();
+        return updated;
+    }
+}
@@ -0,0 +1,159 @@
+package com.groovify.service;
+
+import com.groovify.jpa.repo.SongRepo;
+import com.groovify.search.SearchField;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Index that finds and ranks songs by their title, artist and genre, behind
+ * {@link SongSearchServiceImpl}.
+ * <p>
+ * An engine only answers with song IDs and ranking keys, one page at a time: every
+ * search returns the best matches ranked after a cursor match, selected with a heap
+ * bounded by the page size, so a broad query does not sort or return the whole
+ * ranking. Loading the songs, checking them against the database and suggestions stay
+ * in the search service, so
+ * engines can be swapped without changing what searches return. The engine is chosen
+ * with the {@code groovify.search.engine} property: {@code memory} (the default) keeps
+ * the indexes on the heap and reloads them at every start, {@code lucene} keeps an
+ * on-disk Lucene index that survives restarts, so only new and recently enriched songs
+ * are indexed again.
+ * </p>
+ * <p>
+ * Implementations must be safe for concurrent use.
+ * </p>
+ */
+public interface SongSearchEngine {
+
+    /**
+     * A song matching a query, with its place in the ranking.
+     *
+     * @param songId   the matching song
+     * @param score    the relevance of the match; higher is better
+     * @param position where the query first occurs in the normalized field text, or 0 if
+     *                 the search does not match substrings
+     * @param length   the length of the normalized field text, or 0 if the search does
+     *                 not match substrings
+     */
+    record Match(long songId, double score, int position, int length) {
+
+        /** Ranking order: higher score first, then an earlier match in a shorter text, then lower song ID. */
+        public static final Comparator<Match> ORDER = Comparator.comparingDouble((Match m) -> -m.score())
+                .thenComparingInt(Match::position)
+                .thenComparingInt(Match::length)
+                .thenComparingLong(Match::songId);
+    }
+
+    /**
+     * One page of a ranking.
+     *
+     * @param matches the best matches after the cursor, in {@link Match#ORDER}
+     * @param total   the number of matches in the whole ranking, before the cursor too
+     */
+    record MatchPage(List<Match> matches, int total) {
+
+        /** The page of a search that matched nothing. */
+        public static final MatchPage EMPTY = new MatchPage(List.of(), 0);
+    }
+
+    /**
+     * Returns the highest song ID already indexed by a previous run, for engines that
+     * keep their index between runs. At startup only songs after it, and songs changed
+     * since {@link #indexedAsOf()}, are indexed; songs changed later are re-indexed as
+     * they change.
+     *
+     * @return the highest persisted song ID, or 0 if the engine starts empty
+     */
+    long indexedThrough();
+
+    /**
+     * Returns the time from which songs re-indexed by a previous run may not have been
+     * persisted. Songs enriched at or after it, which is when their title and artist can
+     * change, are indexed again at startup.
+     *
+     * @return the re-index watermark, or null if every enriched song must be indexed again
+     */
+    default Instant indexedAsOf() {
+        return null;
+    }
+
+    /**
+     * Adds a song, or replaces what was indexed for it before.
+     *
+     * @param songId the song
+     * @param title  the song's title, or null
+     * @param artist the song's artist, or null
+     * @param genre  the song's genre name, or null
+     */
+    void put(long songId, String title, String artist, String genre);
+
+    /**
+     * Removes a song, so that searches no longer find it. Removing a song that is not
+     * indexed does nothing.
+     *
+     * @param songId the song
+     */
+    void remove(long songId);
+
+    /**
+     * Adds a batch of songs, as read when the index is loaded.
+     *
+     * @param songs the songs' text
+     */
+    default void putAll(List<SongRepo.SongText> songs) {
+        for (SongRepo.SongText song : songs) {
+            put(song.getId(), song.getTitle(), song.getArtist(), song.getGenreName());
+        }
+    }
+
+    /**
+     * Makes the songs indexed so far durable, for engines that keep their index between
+     * runs. Called once the index has been loaded.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Returns the number of songs indexed.
+     *
+     * @return the song count
+     */
+    int size();
+
+    /**
+     * Finds the songs whose field contains the query as a substring of its normalized text.
+     *
+     * @param query the query text
+     * @param field {@link SearchField#TITLE} or {@link SearchField#ARTIST}
+     * @param after the last match of the previous page, or null for the first page
+     * @param limit the maximum number of matches
+     * @return the best matches after the cursor; whole-word matches score higher
+     */
+    MatchPage findSubstring(String query, SearchField field, Match after, int limit);
+
+    /**
+     * Finds the songs whose field has, for every query word, a word within
+     * {@link com.groovify.search.FuzzyTerms#maxEdits} edits of it.
+     *
+     * @param query the query text
+     * @param field {@link SearchField#TITLE} or {@link SearchField#ARTIST}
+     * @param after the last match of the previous page, or null for the first page
+     * @param limit the maximum number of matches
+     * @return the best matches after the cursor; closer matches score higher
+     */
+    MatchPage findFuzzy(String query, SearchField field, Match after, int limit);
+
+    /**
+     * Finds the songs where every query word starts a word of the title, artist or genre,
+     * ranked with BM25 and field boosts.
+     *
+     * @param query the query text
+     * @param after the last match of the previous page, or null for the first page
+     * @param limit the maximum number of matches
+     * @return the best matches after the cursor
+     */
+    MatchPage findAllFields(String query, Match after, int limit);
+}
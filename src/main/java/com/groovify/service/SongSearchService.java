@@ -0,0 +1,144 @@
+package com.groovify.service;
+
+import com.groovify.jpa.model.Song;
+import com.groovify.search.SearchField;
+import com.groovify.search.SuggestionTrie;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service interface for the in-memory song search index.
+ * <p>
+ * The index is built from the catalog at startup and kept current as songs are
+ * added or their tags are read, so searches and search-as-you-type completions
+ * never scan the song table.
+ */
+public interface SongSearchService {
+
+    /**
+     * Searches song titles for the query as a substring, ignoring case and punctuation.
+     *
+     * @param query the search query string
+     * @return the first available matching songs, best match first; use {@link #search} for more
+     */
+    List<Song> searchByTitle(String query);
+
+    /**
+     * Searches song artists for the query as a substring, ignoring case and punctuation.
+     *
+     * @param query the search query string
+     * @return the first available matching songs, best match first; use {@link #search} for more
+     */
+    List<Song> searchByArtist(String query);
+
+    /**
+     * Searches song titles tolerating typos: every query word must be within one or two
+     * edits (depending on its length) of a title word.
+     *
+     * @param query the search query string
+     * @return the first available matching songs, closest match first; use {@link #search} for more
+     */
+    List<Song> searchByTitleFuzzy(String query);
+
+    /**
+     * Searches song artists tolerating typos, like {@link #searchByTitleFuzzy}.
+     *
+     * @param query the search query string
+     * @return the first available matching songs, closest match first; use {@link #search} for more
+     */
+    List<Song> searchByArtistFuzzy(String query);
+
+    /**
+     * Returns one page of a title or artist search, without loading the songs of other pages.
+     *
+     * @param query  the search query string
+     * @param field  the field to search
+     * @param fuzzy  whether to tolerate typos instead of matching substrings
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs, the cursor of the next page and an estimate of all matches
+     */
+    SongService.SongPage search(String query, SearchField field, boolean fuzzy, String cursor, int size);
+
+    /**
+     * Returns one page of songs whose artist sounds like the query, however it is spelled.
+     *
+     * @param query  the artist as the user spelled it
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs, the cursor of the next page and an estimate of all matches
+     */
+    SongService.SongPage searchSoundsLike(String query, String cursor, int size);
+
+    /**
+     * Searches titles, artists and genres at once, ranking songs by how well all their
+     * fields together match the query.
+     *
+     * @param query the search query string
+     * @param limit the maximum number of songs to return
+     * @return the matching songs, best match first
+     */
+    List<Song> searchAllFields(String query, int limit);
+
+    /**
+     * Returns one page of a search across titles, artists and genres, ranked like
+     * {@link #searchAllFields(String, int)}, without loading the songs of other pages.
+     *
+     * @param query  the search query string
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs, the cursor of the next page and an estimate of all matches
+     */
+    SongService.SongPage searchAllFields(String query, String cursor, int size);
+
+    /**
+     * Finds the genres whose names contain the query, ignoring case.
+     *
+     * @param query the genre name or part of it
+     * @return the IDs of the matching genres; empty if the query is blank
+     */
+    List<Long> findGenreIds(String query);
+
+    /**
+     * Completes a prefix with the titles, artists and genres it starts (or starts a word of).
+     *
+     * @param prefix the text typed so far
+     * @param limit  the maximum number of completions
+     * @return the completions, most songs first
+     */
+    List<SuggestionTrie.Suggestion> suggest(String prefix, int limit);
+
+    /**
+     * Adds a song to the index, or re-indexes it after its title or artist changed.
+     *
+     * @param song the song, which must have an ID
+     */
+    void indexSong(Song song);
+
+    /**
+     * Returns the version of what songs are found by: their title, artist, genre and
+     * availability. It changes when any of these change, and not when other columns such
+     * as measurements or artwork are written, so cached search results stay valid
+     * while songs are enriched.
+     *
+     * @return the version
+     */
+    long version();
+
+    /**
+     * Records that songs were tombstoned by a bulk update, which does not go through
+     * {@link #indexSong}: they are no longer suggested or found.
+     *
+     * @param songIds the tombstoned songs
+     */
+    void songsMissing(Collection<Long> songIds);
+
+    /**
+     * Records that tombstoned songs were made available again by a bulk update: they are
+     * suggested and found again.
+     *
+     * @param songIds the restored songs
+     */
+    void songsRestored(Collection<Long> songIds);
+}
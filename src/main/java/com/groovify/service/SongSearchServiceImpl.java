@@ -0,0 +1,688 @@
+package com.groovify.service;
+
+import com.groovify.jpa.model.ChangeCounter;
+import com.groovify.jpa.model.Genre;
+import com.groovify.jpa.model.GenreListener;
+import com.groovify.jpa.model.Song;
+import com.groovify.jpa.repo.GenreRepo;
+import com.groovify.jpa.repo.SongRepo;
+import com.groovify.search.FuzzyTerms;
+import com.groovify.search.PhoneticIndex;
+import com.groovify.search.SearchField;
+import com.groovify.search.SearchText;
+import com.groovify.search.SuggestionTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of {@link SongSearchService} that finds and ranks songs with a
+ * {@link SongSearchEngine}, in-memory indexes by default (see {@link MemorySearchEngine}),
+ * and artists that sound like the query with an in-memory {@link PhoneticIndex}.
+ * Completions come from an immutable {@link SuggestionTrie} of titles, artists and genres,
+ * and genre searches resolve the genre name against an in-memory copy of the genre table.
+ * <p>
+ * The engine is loaded from the song table in ID order when the application is ready
+ * (or on first use, whichever comes first) and updated whenever a song is added or
+ * re-tagged. A search asks only the engine to find and rank matching song IDs, then
+ * loads those songs by primary key and checks each against its stored text, dropping
+ * songs that have gone missing, were rolled back, or changed since they were indexed.
+ * </p>
+ * <p>
+ * Songs added or re-tagged by this application are indexed as it writes them. Other
+ * nodes sharing the database write songs too, so the indexes are also refreshed on a
+ * fixed interval: songs after the highest ID read so far, and songs enriched, tombstoned
+ * or restored since the start of the refresh before last, are read and indexed.
+ * Tombstoned songs are removed from the engine and the phonetic index rather than
+ * filtered out of every search, and put back when they are restored.
+ * </p>
+ * <p>
+ * The suggestion trie cannot be updated in place. Changes mark it stale, and the next
+ * completion request after the rebuild interval builds a replacement from the in-memory
+ * catalog and swaps it in; only one request rebuilds at a time, and all others keep
+ * answering from the previous trie meanwhile.
+ * </p>
+ * <p>
+ * A {@link #version() version} counts changes to what songs are found by, for caches
+ * of search results. Re-indexing a song whose title, artist, genre and availability
+ * are unchanged, as enrichment does for every song it measures, does not count.
+ * </p>
+ * <p>
+ * Searches are paged: the engine returns only the best matches ranked after the cursor,
+ * so neither the engine nor this service ever holds or sorts every match of a broad
+ * query. The searches without a cursor return the first {@value #UNPAGED_LIMIT} songs.
+ * </p>
+ */
+@Service
+public class SongSearchServiceImpl implements SongSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SongSearchServiceImpl.class);
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    /** Most songs returned by the searches that take no cursor. */
+    static final int UNPAGED_LIMIT = 500;
+
+    private final SongRepo songRepo;
+    private final GenreRepo genreRepo;
+    private final SongSearchEngine engine;
+    private final PhoneticIndex phoneticIndex = new PhoneticIndex();
+    private volatile boolean loaded;
+    private volatile GenreNames genreNames = new GenreNames(-1, new long[0], new String[0]);
+    private final ChangeCounter version = new ChangeCounter();
+
+    // Highest song ID read from the song table, and where the next refresh looks for enriched songs
+    private volatile long readThrough;
+    private volatile Instant refreshSince;
+    private volatile Instant lastRefreshStart;
+
+    // Text of every available song, the source the suggestion trie is rebuilt from
+    private final Map<Long, CatalogEntry> catalog = new ConcurrentHashMap<>();
+    private volatile SuggestionTrie suggestions = SuggestionTrie.empty();
+    private final AtomicBoolean suggestionsStale = new AtomicBoolean(true);
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile long lastRebuild;
+
+    /** Shortest time between two rebuilds of the suggestion trie. */
+    @Value("${groovify.search.suggest.rebuild-interval:PT10S}")
+    Duration rebuildInterval;
+
+    /**
+     * Constructs a {@code SongSearchServiceImpl}.
+     *
+     * @param songRepo  repository for loading the catalog and the matching songs
+     * @param genreRepo repository for loading the genre names
+     * @param engine    the index that finds and ranks matching songs
+     */
+    public SongSearchServiceImpl(SongRepo songRepo, GenreRepo genreRepo, SongSearchEngine engine) {
+        this.songRepo = songRepo;
+        this.genreRepo = genreRepo;
+        this.engine = engine;
+    }
+
+    /**
+     * Builds the indexes and the suggestion trie once the application is ready, so the
+     * first search does not pay for them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureLoaded();
+        rebuildSuggestions();
+    }
+
+    /**
+     * Searches song titles for the query as a substring, ignoring case and punctuation.
+     * Songs whose title words match the query words rank first, then songs where the
+     * query appears earlier and in a shorter title.
+     *
+     * @param query the search query string
+     * @return the first {@value #UNPAGED_LIMIT} available matching songs, best match first;
+     *         empty if the query has no letters or digits
+     */
+    @Override
+    public List<Song> searchByTitle(String query) {
+        return search(query, SearchField.TITLE, false, null, UNPAGED_LIMIT).songs();
+    }
+
+    /**
+     * Searches song artists for the query as a substring, ranked like title searches.
+     *
+     * @param query the search query string
+     * @return the first {@value #UNPAGED_LIMIT} available matching songs, best match first;
+     *         empty if the query has no letters or digits
+     */
+    @Override
+    public List<Song> searchByArtist(String query) {
+        return search(query, SearchField.ARTIST, false, null, UNPAGED_LIMIT).songs();
+    }
+
+    /**
+     * Searches song titles tolerating typos. Every query word must be within
+     * {@link FuzzyTerms#maxEdits} edits of a title word; candidates come from the engine's
+     * term dictionary, never from scanning songs.
+     *
+     * @param query the search query string
+     * @return the first {@value #UNPAGED_LIMIT} available matching songs, closest match first;
+     *         empty if the query has no words
+     */
+    @Override
+    public List<Song> searchByTitleFuzzy(String query) {
+        return search(query, SearchField.TITLE, true, null, UNPAGED_LIMIT).songs();
+    }
+
+    /**
+     * Searches song artists tolerating typos, like {@link #searchByTitleFuzzy}.
+     *
+     * @param query the search query string
+     * @return the first {@value #UNPAGED_LIMIT} available matching songs, closest match first;
+     *         empty if the query has no words
+     */
+    @Override
+    public List<Song> searchByArtistFuzzy(String query) {
+        return search(query, SearchField.ARTIST, true, null, UNPAGED_LIMIT).songs();
+    }
+
+    /**
+     * Returns one page of a title or artist search. The matches are found and ranked by
+     * the engine alone, which returns only the page after the cursor; only the songs on
+     * the page are loaded and verified, so neither the memory held nor the songs loaded
+     * grow with the number of matches. The cursor is the ranking key of the last match
+     * examined, so pages stay consistent while songs are added.
+     *
+     * @param query  the search query string
+     * @param field  the field to search, {@link SearchField#TITLE} or {@link SearchField#ARTIST}
+     * @param fuzzy  whether to tolerate typos instead of matching substrings
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page; its total is the number of indexed matches, an estimate since
+     *         songs that went missing are only dropped as pages reach them
+     */
+    @Override
+    public SongService.SongPage search(String query, SearchField field, boolean fuzzy, String cursor, int size) {
+        if (SearchText.normalize(query).isEmpty() || size <= 0) {
+            return new SongService.SongPage(List.of(), null, 0);
+        }
+        ensureLoaded();
+
+        BiFunction<SongSearchEngine.Match, Integer, SongSearchEngine.MatchPage> find = (after, limit) -> {
+            SongSearchEngine.MatchPage matches = fuzzy
+                    ? engine.findFuzzy(query, field, after, limit)
+                    : engine.findSubstring(query, field, after, limit);
+            log.debug("{} index matched {} songs for '{}'{}", field, matches.total(), query, fuzzy ? " (fuzzy)" : "");
+            return matches;
+        };
+
+        List<String> terms = SearchText.terms(query);
+        String normalized = SearchText.normalize(query);
+        Function<Song, String> text = field == SearchField.ARTIST ? Song::getArtist : Song::getTitle;
+        return page(find, cursor, size, song -> fuzzy
+                ? FuzzyTerms.matchesAll(terms, text.apply(song))
+                : SearchText.normalize(text.apply(song)).contains(normalized));
+    }
+
+    /**
+     * Returns one page of songs whose artist sounds like the query, for names the user
+     * spelled the way they heard them. Every query word must share a Double Metaphone
+     * code with a word of the artist; the codes are computed as songs are indexed and
+     * kept in a {@link PhoneticIndex}, so a query costs a few map lookups instead of
+     * retrying spelling variants against the song table. Songs matching on the primary
+     * pronunciation rank first. Pages work like {@link #search}.
+     *
+     * @param query  the artist as the user spelled it
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page; its total is the number of indexed matches
+     */
+    @Override
+    public SongService.SongPage searchSoundsLike(String query, String cursor, int size) {
+        if (SearchText.normalize(query).isEmpty() || size <= 0) {
+            return new SongService.SongPage(List.of(), null, 0);
+        }
+        ensureLoaded();
+
+        BiFunction<SongSearchEngine.Match, Integer, SongSearchEngine.MatchPage> find = (after, limit) -> {
+            TopMatches top = new TopMatches(after, limit);
+            for (PhoneticIndex.Hit hit : phoneticIndex.search(query)) {
+                top.add(new SongSearchEngine.Match(hit.key(), hit.score(), 0, 0));
+            }
+            SongSearchEngine.MatchPage matches = top.page();
+            log.debug("Phonetic index matched {} songs for '{}'", matches.total(), query);
+            return matches;
+        };
+        return page(find, cursor, size, song -> PhoneticIndex.matches(query, song.getArtist()));
+    }
+
+    /**
+     * Searches titles, artists and genres at once. Every query word must start a word of
+     * one of the fields; the engine ranks songs with BM25, with title matches weighted
+     * above artist matches and those above genre matches, and only the best
+     * {@code limit} are loaded from the database, with further matches read in place of
+     * songs that went missing.
+     *
+     * @param query the search query string
+     * @param limit the maximum number of songs to return
+     * @return the available matching songs, best match first; empty if the query has no words
+     */
+    @Override
+    public List<Song> searchAllFields(String query, int limit) {
+        return searchAllFields(query, null, limit).songs();
+    }
+
+    /**
+     * Returns one page of a search across titles, artists and genres. The cursor is the
+     * last match of the previous page, so each page is selected from the BM25 ranking
+     * afresh with a heap bounded to the page size.
+     *
+     * @param query  the search query string
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs, the cursor of the next page and an estimate of all matches
+     */
+    @Override
+    public SongService.SongPage searchAllFields(String query, String cursor, int size) {
+        List<String> terms = SearchText.terms(query);
+        if (terms.isEmpty() || size <= 0) {
+            return new SongService.SongPage(List.of(), null, 0);
+        }
+        ensureLoaded();
+
+        BiFunction<SongSearchEngine.Match, Integer, SongSearchEngine.MatchPage> find = (after, batch) -> {
+            SongSearchEngine.MatchPage matches = engine.findAllFields(query, after, batch);
+            log.debug("Ranked {} songs across all fields for '{}'", matches.total(), query);
+            return matches;
+        };
+        return page(find, cursor, size, song -> matchesAllFields(terms, song));
+    }
+
+    /**
+     * Finds the genres whose names contain the query, ignoring case, accents and
+     * punctuation like the other searches, from an in-memory
+     * copy of the genre table. The table is small and rarely changes, so the copy is
+     * reloaded whole whenever {@link GenreListener} reports a change, and a genre search
+     * becomes a lookup by genre ID instead of a join that lowercases every genre name.
+     *
+     * @param query the genre name or part of it
+     * @return the IDs of the matching genres, in ID order; empty if the query has no letters or digits
+     */
+    @Override
+    public List<Long> findGenreIds(String query) {
+        String needle = SearchText.normalize(query);
+        if (needle.isEmpty()) {
+            return List.of();
+        }
+
+        GenreNames current = genreNames;
+        long version = GenreListener.version();
+        if (current.version() != version) {
+            current = loadGenreNames(version);
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < current.ids().length; i++) {
+            if (current.names()[i].contains(needle)) ids.add(current.ids()[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Completes a prefix from the suggestion trie, rebuilding the trie first if the
+     * catalog changed and no other request is already rebuilding it.
+     *
+     * @param prefix the text typed so far
+     * @param limit  the maximum number of completions
+     * @return the completions, most songs first; empty if the prefix has no letters or digits
+     */
+    @Override
+    public List<SuggestionTrie.Suggestion> suggest(String prefix, int limit) {
+        if (SearchText.normalize(prefix).isEmpty()) {
+            return List.of();
+        }
+        ensureLoaded();
+
+        if (suggestionsStale.get() && System.currentTimeMillis() - lastRebuild >= rebuildInterval.toMillis()
+                && rebuildLock.tryLock()) {
+            try {
+                if (suggestionsStale.get()) rebuildSuggestions();
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+        return suggestions.complete(prefix, Math.min(limit, SuggestionTrie.MAX_SUGGESTIONS));
+    }
+
+    /**
+     * Adds or re-indexes a song's title, artist and genre in the engine. If any of them
+     * or the song's availability changed, marks the suggestion trie stale and counts a
+     * new {@link #version()}.
+     *
+     * @param song the song, which must have an ID
+     */
+    @Override
+    public void indexSong(Song song) {
+        if (song == null || song.getId() == null) {
+            log.error("Cannot index a song without an id");
+            return;
+        }
+        String genre = song.getGenre() != null ? song.getGenre().getName() : null;
+        index(song.getId(), song.getTitle(), song.getArtist(), genre, song.getMissingSince() == null);
+    }
+
+    /**
+     * Indexes songs written by other nodes sharing the database: songs after the highest
+     * ID read so far, and songs enriched, tombstoned or restored since the start of the
+     * refresh before last. A song changed while a refresh runs may be committed just after
+     * it reads, so each refresh reaches back one interval further. Songs whose text and
+     * availability are unchanged are not counted as changes.
+     */
+    @Scheduled(fixedDelayString = "${groovify.search.refresh-interval:PT1M}")
+    public void refresh() {
+        if (!loaded) {
+            return;
+        }
+        Instant start = Instant.now();
+        int added = 0;
+        List<SongRepo.SongText> page;
+        do {
+            page = songRepo.findTextAfter(readThrough, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (SongRepo.SongText song : page) {
+                index(song);
+                readThrough = song.getId();
+            }
+            added += page.size();
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        int changed = 0;
+        long after = 0;
+        do {
+            page = songRepo.findTextChangedSince(refreshSince, after, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (SongRepo.SongText song : page) {
+                index(song);
+                after = song.getId();
+            }
+            changed += page.size();
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        refreshSince = lastRefreshStart;
+        lastRefreshStart = start;
+        log.debug("Refreshed the search index with {} new and {} changed songs", added, changed);
+    }
+
+    /**
+     * Returns the version of what songs are found by.
+     *
+     * @return the version
+     */
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Removes tombstoned songs from the engine, the phonetic index and the suggestion
+     * catalog, marks the suggestion trie stale and counts a new {@link #version()}, so
+     * searches stop finding and ranking them.
+     *
+     * @param songIds the tombstoned songs
+     */
+    @Override
+    public void songsMissing(Collection<Long> songIds) {
+        for (Long songId : songIds) {
+            engine.remove(songId);
+            phoneticIndex.remove(songId);
+            catalog.remove(songId);
+        }
+        suggestionsStale.set(true);
+        version.increment();
+    }
+
+    /**
+     * Re-indexes restored songs in the engine, the phonetic index and the suggestion
+     * catalog, reading their text from the song table, marks the suggestion trie stale
+     * and counts a new {@link #version()}. Before the catalog is loaded there is nothing
+     * to update: loading reads the restored songs as available, and re-indexes them by
+     * their {@link Song#getAvailabilityChangedAt() change time}.
+     *
+     * @param songIds the restored songs
+     */
+    @Override
+    public void songsRestored(Collection<Long> songIds) {
+        if (loaded && !songIds.isEmpty()) {
+            for (SongRepo.SongText song : songRepo.findTextByIds(songIds)) {
+                if (song.getMissingSince() == null) {
+                    index(song);
+                }
+            }
+        }
+        suggestionsStale.set(true);
+        version.increment();
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private void index(SongRepo.SongText song) {
+        index(song.getId(), song.getTitle(), song.getArtist(), song.getGenreName(), song.getMissingSince() == null);
+    }
+
+    /**
+     * Writes an available song's text to the engine, the phonetic index and the
+     * suggestion catalog, or removes a tombstoned song from all three. Counts a change
+     * only if what the song is found by differs from the catalog.
+     */
+    private void index(long songId, String title, String artist, String genre, boolean available) {
+        if (available) {
+            engine.put(songId, title, artist, genre);
+            phoneticIndex.put(songId, artist);
+        } else {
+            engine.remove(songId);
+            phoneticIndex.remove(songId);
+        }
+
+        CatalogEntry entry = available ? new CatalogEntry(title, artist, genre) : null;
+        CatalogEntry previous = entry != null ? catalog.put(songId, entry) : catalog.remove(songId);
+        if (!loaded || !Objects.equals(previous, entry)) {
+            suggestionsStale.set(true);
+            version.increment();
+        }
+    }
+
+    /**
+     * Tells whether a song was enriched, and so possibly re-tagged, or tombstoned or
+     * restored at or after the engine's re-index watermark; without a watermark every
+     * such song counts.
+     */
+    private static boolean changedSince(SongRepo.SongText song, Instant indexedAsOf) {
+        return changedSince(song.getEnrichedAt(), indexedAsOf)
+                || changedSince(song.getAvailabilityChangedAt(), indexedAsOf);
+    }
+
+    private static boolean changedSince(Instant changedAt, Instant indexedAsOf) {
+        return changedAt != null && (indexedAsOf == null || !changedAt.isBefore(indexedAsOf));
+    }
+
+    /**
+     * The searchable text of one available song.
+     */
+    private record CatalogEntry(String title, String artist, String genre) {
+    }
+
+    /**
+     * Encodes a match's place in the ranking as a page cursor.
+     */
+    private static String encodeCursor(SongSearchEngine.Match match) {
+        return Long.toHexString(Double.doubleToLongBits(match.score())) + "." + match.position() + "."
+                + match.length() + "." + match.songId();
+    }
+
+    /**
+     * Decodes a page cursor into the place in the ranking it stands for.
+     */
+    private static SongSearchEngine.Match decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = cursor.split("\\.");
+        try {
+            if (parts.length == 4) {
+                return new SongSearchEngine.Match(Long.parseLong(parts[3]),
+                        Double.longBitsToDouble(Long.parseUnsignedLong(parts[0], 16)),
+                        Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the warning below
+        }
+        log.warn("Ignoring malformed search cursor '{}'", cursor);
+        return null;
+    }
+
+    /**
+     * Normalized genre names, by ID, as of a version of the genre table.
+     */
+    private record GenreNames(long version, long[] ids, String[] names) {
+    }
+
+    /**
+     * Reads the genre table into a new {@link GenreNames}. The version is read before the
+     * table, so a change made meanwhile causes another reload on the next lookup.
+     */
+    private GenreNames loadGenreNames(long version) {
+        List<Genre> genres = new ArrayList<>(genreRepo.findAll());
+        genres.sort(Comparator.comparing(Genre::getId));
+        long[] ids = new long[genres.size()];
+        String[] names = new String[genres.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = genres.get(i).getId();
+            names[i] = SearchText.normalize(genres.get(i).getName());
+        }
+        GenreNames loaded = new GenreNames(version, ids, names);
+        genreNames = loaded;
+        log.debug("Loaded {} genre names for genre search", ids.length);
+        return loaded;
+    }
+
+    /**
+     * Loads the page of ranked matches after the cursor, dropping songs that went missing,
+     * were rolled back, or no longer match, and asking the engine for the matches after
+     * the last one examined until the page is full. Matches whose song no longer exists
+     * are removed from the engine, so later searches neither rank nor count them. Each request asks for one match more
+     * than it needs, to tell whether another page follows.
+     */
+    private SongService.SongPage page(BiFunction<SongSearchEngine.Match, Integer, SongSearchEngine.MatchPage> find,
+                                      String cursor, int size, Predicate<Song> stillMatches) {
+        SongSearchEngine.Match after = decodeCursor(cursor);
+        List<Song> songs = new ArrayList<>();
+        int total = 0;
+        boolean more = true;
+        while (songs.size() < size && more) {
+            int wanted = size - songs.size();
+            SongSearchEngine.MatchPage batch = find.apply(after, (int) Math.min(Integer.MAX_VALUE, (long) wanted + 1));
+            total = batch.total();
+            more = batch.matches().size() > wanted;
+            List<SongSearchEngine.Match> examined = more ? batch.matches().subList(0, wanted) : batch.matches();
+            if (examined.isEmpty()) {
+                break;
+            }
+
+            List<Long> ids = new ArrayList<>(examined.size());
+            for (SongSearchEngine.Match match : examined) ids.add(match.songId());
+            Map<Long, Song> loaded = new HashMap<>();
+            for (Song song : songRepo.findAllById(ids)) loaded.put(song.getId(), song);
+
+            for (SongSearchEngine.Match match : examined) {
+                Song song = loaded.get(match.songId());
+                if (song == null) {
+                    engine.remove(match.songId());
+                    phoneticIndex.remove(match.songId());
+                } else if (song.getMissingSince() == null && stillMatches.test(song)) {
+                    songs.add(song);
+                }
+            }
+            after = examined.get(examined.size() - 1);
+        }
+
+        String nextCursor = more && after != null ? encodeCursor(after) : null;
+        return new SongService.SongPage(songs, nextCursor, total);
+    }
+
+    /**
+     * Tells whether every query term starts a term of the song's title, artist or genre,
+     * the condition {@link SongSearchEngine#findAllFields} matched the song on.
+     */
+    private static boolean matchesAllFields(List<String> queryTerms, Song song) {
+        List<String> songTerms = new ArrayList<>(SearchText.terms(song.getTitle()));
+        songTerms.addAll(SearchText.terms(song.getArtist()));
+        if (song.getGenre() != null) {
+            songTerms.addAll(SearchText.terms(song.getGenre().getName()));
+        }
+        for (String queryTerm : queryTerms) {
+            if (songTerms.stream().noneMatch(term -> term.startsWith(queryTerm))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Builds a new suggestion trie from the catalog and swaps it in. Titles count once
+     * per song, artists and genres once per song they appear on.
+     */
+    private void rebuildSuggestions() {
+        suggestionsStale.set(false);
+        long start = System.currentTimeMillis();
+        SuggestionTrie.Builder builder = SuggestionTrie.builder();
+        for (CatalogEntry entry : catalog.values()) {
+            builder.add(entry.title(), SearchField.TITLE, 1)
+                    .add(entry.artist(), SearchField.ARTIST, 1)
+                    .add(entry.genre(), SearchField.GENRE, 1);
+        }
+        suggestions = builder.build();
+        lastRebuild = System.currentTimeMillis();
+        log.debug("Rebuilt suggestion trie with {} entries in {} ms", suggestions.size(), lastRebuild - start);
+    }
+
+    /**
+     * Loads every song's text into the engine, the phonetic index and the suggestion
+     * catalog the first time they are needed. The song table is read whole either way;
+     * songs the engine kept from a previous run are only left out of the engine, unless
+     * they were enriched, tombstoned or restored after its re-index watermark. Missing
+     * songs are left out, and removed from an engine that kept them from a previous run;
+     * restoring them re-indexes them.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            long indexedThrough = engine.indexedThrough();
+            Instant indexedAsOf = engine.indexedAsOf();
+            Instant start = Instant.now();
+            long after = 0;
+            List<SongRepo.SongText> page;
+            do {
+                page = songRepo.findTextAfter(after, PageRequest.of(0, LOAD_PAGE_SIZE));
+                List<SongRepo.SongText> unindexed = new ArrayList<>(page.size());
+                for (SongRepo.SongText song : page) {
+                    if (song.getMissingSince() != null) {
+                        if (song.getId() <= indexedThrough) engine.remove(song.getId());
+                    } else {
+                        if (song.getId() > indexedThrough || changedSince(song, indexedAsOf)) unindexed.add(song);
+                        phoneticIndex.put(song.getId(), song.getArtist());
+                        catalog.put(song.getId(), new CatalogEntry(song.getTitle(), song.getArtist(), song.getGenreName()));
+                    }
+                    after = song.getId();
+                }
+                engine.putAll(unindexed);
+            } while (page.size() == LOAD_PAGE_SIZE);
+            engine.flush();
+            readThrough = after;
+            refreshSince = start;
+            lastRefreshStart = start;
+            suggestionsStale.set(true);
+            log.info("Loaded {} songs into the search index", engine.size());
+            loaded = true;
+        }
+    }
+}
@@ -1,20 +1,34 @@
 package com.groovify.service;
 
 import com.groovify.jpa.model.Song;
+import com.groovify.search.SuggestionTrie;
 
 import java.util.List;
 
 /**
  * Service interface for managing and searching songs.
  * <p>
- * Provides methods to fetch all songs and perform searches by title or genre.
+ * Provides methods to fetch all songs, perform searches by title, artist or genre,
+ * and suggest completions while the user types.
  */
 public interface SongService {
 
     /**
-     * Retrieves all songs in the system.
+     * One page of search results.
      *
-     * @return a list of all Song entities
+     * @param songs         the songs on this page, best first
+     * @param nextCursor    the cursor of the following page, or null if this is the last page
+     * @param totalEstimate the number of matching songs; may include a few songs that are
+     *                      filtered out when their page is loaded
+     */
+    record SongPage(List<Song> songs, String nextCursor, long totalEstimate) {
+    }
+
+    /**
+     * Retrieves all available songs in the system, excluding songs whose files
+     * have gone missing.
+     *
+     * @return a list of all available Song entities
      */
     List<Song> getAllSongs();
 
@@ -25,6 +39,25 @@ public interface SongService {
      */
     Song getSongById(Long songId);
 
+    /**
+     * Searches for songs by title, artist and genre at once.
+     *
+     * @param query the search query string
+     * @param limit the maximum number of songs to return
+     * @return the best matching songs, best match first
+     */
+    List<Song> searchSongs(String query, int limit);
+
+    /**
+     * Returns one page of a search by title, artist and genre at once.
+     *
+     * @param query  the search query string
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs, best match first
+     */
+    SongPage searchSongs(String query, String cursor, int size);
+
     /**
      * Searches for songs by their title.
      *
@@ -33,6 +66,71 @@ public interface SongService {
      */
     List<Song> searchSongsByTitle(String query);
 
+    /**
+     * Searches for songs by their artist.
+     *
+     * @param query the search query string
+     * @return a list of songs whose artists match the query
+     */
+    List<Song> searchSongsByArtist(String query);
+
+    /**
+     * Searches for songs by title, tolerating one or two typos per word.
+     *
+     * @param query the search query string
+     * @return a list of songs whose titles closely match the query
+     */
+    List<Song> searchSongsByTitleFuzzy(String query);
+
+    /**
+     * Searches for songs by artist, tolerating one or two typos per word.
+     *
+     * @param query the search query string
+     * @return a list of songs whose artists closely match the query
+     */
+    List<Song> searchSongsByArtistFuzzy(String query);
+
+    /**
+     * Returns one page of a title search.
+     *
+     * @param query  the search query string
+     * @param fuzzy  whether to tolerate typos instead of matching substrings
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs whose titles match the query
+     */
+    SongPage searchSongsByTitle(String query, boolean fuzzy, String cursor, int size);
+
+    /**
+     * Returns one page of an artist search.
+     *
+     * @param query  the search query string
+     * @param fuzzy  whether to tolerate typos instead of matching substrings
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs whose artists match the query
+     */
+    SongPage searchSongsByArtist(String query, boolean fuzzy, String cursor, int size);
+
+    /**
+     * Returns one page of songs whose artist sounds like the query.
+     *
+     * @param query  the artist as the user spelled it
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs whose artists sound like the query
+     */
+    SongPage searchSongsByArtistSoundsLike(String query, String cursor, int size);
+
+    /**
+     * Suggests titles, artists and genres that complete what the user has typed so far.
+     *
+     * @param prefix the text typed so far
+     * @param limit  the maximum number of suggestions
+     * @return the suggestions, best first
+     */
+    List<SuggestionTrie.Suggestion> suggest(String prefix, int limit);
+
     /**
      * Searches for songs by genre.
      *
@@ -41,6 +139,16 @@ public interface SongService {
      */
     List<Song> searchSongsByGenre(String genre);
 
+    /**
+     * Returns one page of a genre search, in the order the songs were added.
+     *
+     * @param genre  the name of the genre to search for
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs belonging to the specified genre
+     */
+    SongPage searchSongsByGenre(String genre, String cursor, int size);
+
     /**
      * Checks if filename is in database
      * @param filename to search
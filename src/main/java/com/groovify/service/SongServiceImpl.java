@@ -1,12 +1,21 @@
 package com.groovify.service;
 
+import com.groovify.jpa.model.GenreListener;
 import com.groovify.jpa.model.Song;
 import com.groovify.jpa.repo.SongRepo;
+import com.groovify.search.ResultCache;
+import com.groovify.search.SearchField;
+import com.groovify.search.SearchText;
+import com.groovify.search.SuggestionTrie;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Implementation of {@link SongService} for managing and searching songs.
@@ -15,7 +24,10 @@ import java.util.List;
  * <ul>
  *     <li>Fetch all songs in the system</li>
  *     <li>Fetch a song by its ID</li>
- *     <li>Search songs by title or genre</li>
+ *     <li>Search songs by title or artist, exactly or tolerating typos, by how the artist
+ *     sounds, or by all fields at once (through {@link SongSearchService}), or by genre</li>
+ *     <li>Suggest completions for search-as-you-type</li>
+ *     <li>Cache search results until the catalog changes</li>
  *     <li>Add a new song to the repository</li>
  * </ul>
  * This service interacts directly with {@link SongRepo} for database operations
@@ -30,24 +42,48 @@ public class SongServiceImpl implements SongService {
     // Repository for Song entity database access
     private final SongRepo songRepo;
 
+    // In-memory indexes serving title and artist searches and suggestions
+    private final SongSearchService songSearchService;
+
+    // Recent search results, valid until what songs are found by or the genre table changes
+    private final ResultCache<SearchKey, SongPage> searchCache;
+
+    // Page size recorded in the cache key of searches that return every match
+    private static final int ALL = -1;
+
+    /**
+     * Cache key of a search: the query as the search sees it, so that queries differing
+     * only in case or punctuation share an entry, plus everything else the result depends on.
+     */
+    private record SearchKey(String type, String query, boolean fuzzy, String cursor, int size) {
+    }
+
     /**
      * Constructs a SongServiceImpl with the given SongRepo.
      *
-     * @param songRepo repository for accessing Song entities
+     * @param songRepo          repository for accessing Song entities
+     * @param songSearchService in-memory indexes used for title and artist searches
+     * @param cacheEntries      the most search results kept in the cache; 0 disables it
+     * @param cacheTtl          how long a cached search result may be served
      */
-    public SongServiceImpl(SongRepo songRepo) {
+    public SongServiceImpl(SongRepo songRepo, SongSearchService songSearchService,
+                           @Value("${groovify.search.cache.max-entries:1000}") int cacheEntries,
+                           @Value("${groovify.search.cache.ttl:PT5M}") Duration cacheTtl) {
         this.songRepo = songRepo;
+        this.songSearchService = songSearchService;
+        this.searchCache = new ResultCache<>(cacheEntries, cacheTtl);
     }
 
     /**
-     * Retrieves all songs in the system.
+     * Retrieves all available songs in the system, excluding songs whose files
+     * have gone missing.
      *
-     * @return a list of all Song entities
+     * @return a list of all available Song entities
      */
     @Override
     public List<Song> getAllSongs() {
         log.debug("Fetching all songs");
-        return songRepo.findAll();
+        return songRepo.findByMissingSinceIsNull();
     }
 
     /**
@@ -69,10 +105,50 @@ public class SongServiceImpl implements SongService {
     }
 
     /**
-     * Searches for songs whose title contains the given query string (case-insensitive).
+     * Searches for songs by title, artist and genre at once, ranked with BM25 so that a
+     * query mixing an artist and a title word finds the song in one search.
      *
      * @param query the search query string
-     * @return a list of songs matching the title query, or empty list if query is blank
+     * @param limit the maximum number of songs to return
+     * @return the best matching songs, best match first, or empty list if query is blank
+     */
+    @Override
+    public List<Song> searchSongs(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            log.debug("Empty or null query provided, returning empty list");
+            return List.of();
+        }
+
+        return searchSongs(query, null, limit).songs();
+    }
+
+    /**
+     * Returns one page of a search by title, artist and genre at once, ranked like
+     * {@link #searchSongs(String, int)}.
+     *
+     * @param query  the search query string
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs matching the query across all fields
+     */
+    @Override
+    public SongPage searchSongs(String query, String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            log.debug("Empty or null query provided, returning empty page");
+            return new SongPage(List.of(), null, 0);
+        }
+
+        log.debug("Searching songs by title, artist and genre matching '{}', cursor {}", query, cursor);
+        return cached("all", SearchText.normalize(query), false, cursor, size,
+                () -> songSearchService.searchAllFields(query, cursor, size));
+    }
+
+    /**
+     * Searches for songs whose title contains the given query string (case-insensitive),
+     * using the in-memory search indexes instead of scanning the song table.
+     *
+     * @param query the search query string
+     * @return the first songs matching the title query, best match first, or empty list if query is blank
      */
     @Override
     public List<Song> searchSongsByTitle(String query) {
@@ -83,11 +159,147 @@ public class SongServiceImpl implements SongService {
         }
 
         log.debug("Searching songs by title containing '{}'", query);
-        return songRepo.findByTitleContainingIgnoreCase(query);
+        return cached("title", SearchText.normalize(query), false, null, ALL,
+                () -> new SongPage(songSearchService.searchByTitle(query), null, 0)).songs();
+    }
+
+    /**
+     * Searches for songs whose artist contains the given query string (case-insensitive),
+     * using the in-memory search indexes.
+     *
+     * @param query the search query string
+     * @return the first songs matching the artist query, best match first, or empty list if query is blank
+     */
+    @Override
+    public List<Song> searchSongsByArtist(String query) {
+        if (query == null || query.isBlank()) {
+            log.debug("Empty or null artist query provided, returning empty list");
+            return List.of();
+        }
+
+        log.debug("Searching songs by artist containing '{}'", query);
+        return cached("artist", SearchText.normalize(query), false, null, ALL,
+                () -> new SongPage(songSearchService.searchByArtist(query), null, 0)).songs();
+    }
+
+    /**
+     * Searches for songs whose title words are within a few typos of the query words.
+     *
+     * @param query the search query string
+     * @return the first closely matching songs, best match first, or empty list if query is blank
+     */
+    @Override
+    public List<Song> searchSongsByTitleFuzzy(String query) {
+        if (query == null || query.isBlank()) {
+            log.debug("Empty or null fuzzy title query provided, returning empty list");
+            return List.of();
+        }
+
+        log.debug("Searching songs by title close to '{}'", query);
+        return cached("title", SearchText.normalize(query), true, null, ALL,
+                () -> new SongPage(songSearchService.searchByTitleFuzzy(query), null, 0)).songs();
+    }
+
+    /**
+     * Searches for songs whose artist words are within a few typos of the query words.
+     *
+     * @param query the search query string
+     * @return the first closely matching songs, best match first, or empty list if query is blank
+     */
+    @Override
+    public List<Song> searchSongsByArtistFuzzy(String query) {
+        if (query == null || query.isBlank()) {
+            log.debug("Empty or null fuzzy artist query provided, returning empty list");
+            return List.of();
+        }
+
+        log.debug("Searching songs by artist close to '{}'", query);
+        return cached("artist", SearchText.normalize(query), true, null, ALL,
+                () -> new SongPage(songSearchService.searchByArtistFuzzy(query), null, 0)).songs();
+    }
+
+    /**
+     * Returns one page of a title search, ranked like {@link #searchSongsByTitle(String)}.
+     *
+     * @param query  the search query string
+     * @param fuzzy  whether to tolerate typos instead of matching substrings
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs whose titles match the query
+     */
+    @Override
+    public SongPage searchSongsByTitle(String query, boolean fuzzy, String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            log.debug("Empty or null title query provided, returning empty page");
+            return new SongPage(List.of(), null, 0);
+        }
+
+        log.debug("Searching songs by title {} '{}', cursor {}", fuzzy ? "close to" : "containing", query, cursor);
+        return cached("title", SearchText.normalize(query), fuzzy, cursor, size,
+                () -> songSearchService.search(query, SearchField.TITLE, fuzzy, cursor, size));
+    }
+
+    /**
+     * Returns one page of an artist search, ranked like {@link #searchSongsByArtist(String)}.
+     *
+     * @param query  the search query string
+     * @param fuzzy  whether to tolerate typos instead of matching substrings
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs whose artists match the query
+     */
+    @Override
+    public SongPage searchSongsByArtist(String query, boolean fuzzy, String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            log.debug("Empty or null artist query provided, returning empty page");
+            return new SongPage(List.of(), null, 0);
+        }
+
+        log.debug("Searching songs by artist {} '{}', cursor {}", fuzzy ? "close to" : "containing", query, cursor);
+        return cached("artist", SearchText.normalize(query), fuzzy, cursor, size,
+                () -> songSearchService.search(query, SearchField.ARTIST, fuzzy, cursor, size));
+    }
+
+    /**
+     * Returns one page of songs whose artist sounds like the query, for artist names the
+     * user spelled the way they heard them.
+     *
+     * @param query  the artist as the user spelled it
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs whose artists sound like the query
+     */
+    @Override
+    public SongPage searchSongsByArtistSoundsLike(String query, String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            log.debug("Empty or null sounds-like query provided, returning empty page");
+            return new SongPage(List.of(), null, 0);
+        }
+
+        log.debug("Searching songs by artist sounding like '{}', cursor {}", query, cursor);
+        return cached("sounds-like", SearchText.normalize(query), false, cursor, size,
+                () -> songSearchService.searchSoundsLike(query, cursor, size));
+    }
+
+    /**
+     * Suggests titles, artists and genres starting with the given prefix.
+     *
+     * @param prefix the text typed so far
+     * @param limit  the maximum number of suggestions
+     * @return the suggestions, best first, or empty list if the prefix is blank
+     */
+    @Override
+    public List<SuggestionTrie.Suggestion> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        return songSearchService.suggest(prefix, limit);
     }
 
     /**
      * Searches for songs whose genre contains the given query string (case-insensitive).
+     * The genre name is resolved to genre IDs in memory, and the songs are then looked
+     * up by genre ID.
      *
      * @param genre the genre name to search for
      * @return a list of songs matching the genre query, or empty list if genre is blank
@@ -101,7 +313,46 @@ public class SongServiceImpl implements SongService {
         }
 
         log.debug("Searching songs by genre containing '{}'", genre);
-        return songRepo.findByGenreNameContainingIgnoreCase(genre);
+        return cached("genre", SearchText.normalize(genre), false, null, ALL, () -> {
+            List<Long> genreIds = songSearchService.findGenreIds(genre);
+            List<Song> songs = genreIds.isEmpty() ? List.of() : songRepo.findByGenreIdInAndMissingSinceIsNull(genreIds);
+            return new SongPage(songs, null, songs.size());
+        }).songs();
+    }
+
+    /**
+     * Returns one page of a genre search. Pages are keyed on the song ID, so each page is
+     * a single indexed range scan however deep the user scrolls; the cursor is the ID of
+     * the last song on the previous page.
+     *
+     * @param genre  the name of the genre to search for
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of songs on the page
+     * @return the page of songs belonging to the specified genre
+     */
+    @Override
+    public SongPage searchSongsByGenre(String genre, String cursor, int size) {
+        if (genre == null || genre.isBlank() || size <= 0) {
+            log.debug("Empty or null genre query provided, returning empty page");
+            return new SongPage(List.of(), null, 0);
+        }
+
+        long afterId = genreCursor(cursor);
+        log.debug("Searching songs by genre containing '{}' after ID {}", genre, afterId);
+        return cached("genre", SearchText.normalize(genre), false, String.valueOf(afterId), size, () -> {
+            List<Long> genreIds = songSearchService.findGenreIds(genre);
+            if (genreIds.isEmpty()) {
+                return new SongPage(List.of(), null, 0);
+            }
+            // Fetch one extra song to learn whether another page follows
+            List<Song> songs = songRepo.findByGenreIdInAfter(genreIds, afterId, PageRequest.of(0, size + 1));
+            String nextCursor = null;
+            if (songs.size() > size) {
+                songs = songs.subList(0, size);
+                nextCursor = String.valueOf(songs.get(size - 1).getId());
+            }
+            return new SongPage(songs, nextCursor, songRepo.countByGenreIdInAndMissingSinceIsNull(genreIds));
+        });
     }
 
     /**
@@ -172,6 +423,39 @@ public class SongServiceImpl implements SongService {
         log.debug("Saving song {} into database", song);
         // Save song entity using repository
         songRepo.save(song);
+        songSearchService.indexSong(song);
         return true;
     }
+
+    /**
+     * Reads the song ID in a genre search cursor; a missing or malformed cursor starts
+     * at the first page.
+     */
+    private static long genreCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed genre search cursor '{}'", cursor);
+            return 0;
+        }
+    }
+
+    /**
+     * Answers a search from the cache, or runs it and caches the result. Entries are
+     * tagged with the search version of the songs and the version of the genre table, so
+     * any import, re-tag, reconciliation or genre change invalidates every cached search
+     * at once. Enrichment writing measurements or artwork does not: pages are rendered
+     * from views read by song ID, not from the cached entities.
+     */
+    private SongPage cached(String type, String query, boolean fuzzy, String cursor, int size, Supplier<SongPage> search) {
+        long version = songSearchService.version() + GenreListener.version();
+        return searchCache.get(new SearchKey(type, query, fuzzy, cursor, size), version, () -> {
+            SongPage page = search.get();
+            // Cached lists are shared between requests, so they must not be modifiable
+            return new SongPage(List.copyOf(page.songs()), page.nextCursor(), page.totalEstimate());
+        });
+    }
 }
@@ -0,0 +1,80 @@
+package com.groovify.service;
+
+import com.groovify.jpa.model.Song;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * Service interface for uploading MP3 files into the song store.
+ * <p>
+ * Upload data is streamed straight to its place in the music directory, hashed and
+ * validated as it passes through, and registered with the same rules as imported
+ * songs. Large files can be sent as a resumable sequence of chunks.
+ * </p>
+ * <p>
+ * Invalid input is reported with {@link IllegalArgumentException}, conflicts with
+ * existing songs or out-of-order chunks with {@link IllegalStateException}, unknown
+ * uploads with {@link NoSuchElementException}, and rejected file contents with
+ * {@link com.groovify.util.Mp3StreamWriter.InvalidMp3Exception}.
+ * </p>
+ */
+public interface SongUploadService {
+
+    /**
+     * Progress of a resumable upload.
+     *
+     * @param uploadId the upload's identifier
+     * @param received the number of bytes stored so far, which is the next expected offset
+     * @param size     the total size of the file
+     */
+    record UploadStatus(String uploadId, long received, long size) {
+    }
+
+    /**
+     * Stores and registers one MP3 file sent in a single stream.
+     *
+     * @param genreName the genre the song belongs to
+     * @param filename  the MP3 file name
+     * @param data      the file contents; not closed by this method
+     * @return the registered song
+     * @throws IOException if the data is not a valid MP3 file or cannot be stored
+     */
+    Song upload(String genreName, String filename, InputStream data) throws IOException;
+
+    /**
+     * Starts a resumable upload.
+     *
+     * @param username  the user starting the upload; only they may send its chunks
+     * @param genreName the genre the song belongs to
+     * @param filename  the MP3 file name
+     * @param size      the total file size in bytes
+     * @return the status of the new upload
+     * @throws IOException if the upload cannot be prepared on disk
+     */
+    UploadStatus startUpload(String username, String genreName, String filename, long size) throws IOException;
+
+    /**
+     * Returns the progress of a resumable upload, so a client can resume after an
+     * interruption.
+     *
+     * @param username the user who started the upload
+     * @param uploadId the upload's identifier
+     * @return the upload status
+     */
+    UploadStatus getStatus(String username, String uploadId);
+
+    /**
+     * Appends the next chunk of a resumable upload. When the last byte arrives the
+     * file is moved into place and the song is registered.
+     *
+     * @param username the user who started the upload
+     * @param uploadId the upload's identifier
+     * @param offset   the position of the chunk's first byte; must equal the bytes received so far
+     * @param data     the chunk contents; not closed by this method
+     * @return the registered song once the upload is complete, or null if more data is expected
+     * @throws IOException if the data is not a valid MP3 file or cannot be stored
+     */
+    Song appendChunk(String username, String uploadId, long offset, InputStream data) throws IOException;
+}
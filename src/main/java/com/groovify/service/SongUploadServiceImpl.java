@@ -0,0 +1,349 @@
+package com.groovify.service;
+
+import com.groovify.jpa.model.Genre;
+import com.groovify.jpa.model.Song;
+import com.groovify.jpa.repo.GenreRepo;
+import com.groovify.util.Mp3StreamWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of {@link SongUploadService} that writes uploads directly into the
+ * genre folders of the music directory.
+ * <p>
+ * Every upload is written to a {@code .part} file next to its final location through
+ * an {@link Mp3StreamWriter}, which hashes and validates the bytes in the same pass,
+ * and is moved into place only once it is complete. Nothing is buffered in memory
+ * beyond the writer's fixed-size buffer.
+ * </p>
+ * <p>
+ * Resumable uploads keep their progress in memory, keyed by a random upload ID, so a
+ * client has to resume against the node that started the upload. Abandoned uploads
+ * are discarded after the configured session timeout.
+ * </p>
+ */
+@Service
+public class SongUploadServiceImpl implements SongUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(SongUploadServiceImpl.class);
+
+    // Artist recorded until enrichment reads the real one from the file's tags
+    private static final String UNKNOWN_ARTIST = "Unknown Artist";
+
+    private final SongService songService;
+    private final GenreRepo genreRepo;
+    private final SongEnrichmentService songEnrichmentService;
+
+    // Resumable uploads in progress, by upload ID
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Path to the root music directory (configurable in application.properties).
+     * Defaults to {@code src/main/resources/static/songs}.
+     */
+    @Value("${music.directory:src/main/resources/static/songs}")
+    String musicDirectory;
+
+    /** Largest accepted MP3 file. */
+    @Value("${groovify.upload.max-size:200MB}")
+    DataSize maxSize;
+
+    /** How long a resumable upload may sit idle before it is discarded. */
+    @Value("${groovify.upload.session-timeout:PT24H}")
+    Duration sessionTimeout;
+
+    /**
+     * Constructs a {@code SongUploadServiceImpl} with its required collaborators.
+     *
+     * @param songService           service used to register uploaded songs
+     * @param genreRepo             repository for looking up the upload's genre
+     * @param songEnrichmentService service that completes uploaded songs in the background
+     */
+    public SongUploadServiceImpl(SongService songService, GenreRepo genreRepo,
+                                 SongEnrichmentService songEnrichmentService) {
+        this.songService = songService;
+        this.genreRepo = genreRepo;
+        this.songEnrichmentService = songEnrichmentService;
+    }
+
+    /**
+     * Streams a complete file into a part file, then moves it into place and registers it.
+     *
+     * @param genreName the genre the song belongs to
+     * @param filename  the MP3 file name
+     * @param data      the file contents
+     * @return the registered song
+     * @throws IOException if the data is not a valid MP3 file or cannot be stored
+     */
+    @Override
+    public Song upload(String genreName, String filename, InputStream data) throws IOException {
+        Genre genre = resolveGenre(genreName);
+        Path target = resolveTarget(genre, filename);
+        Path part = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+
+        Mp3StreamWriter writer = new Mp3StreamWriter(maxSize.toBytes());
+        try {
+            try (OutputStream out = Files.newOutputStream(part)) {
+                writer.copy(data, out);
+            }
+            writer.finish();
+        } catch (IOException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+
+        return register(genre, target, part, writer);
+    }
+
+    /**
+     * Validates the upload's destination and creates an empty part file for it.
+     *
+     * @param username  the user starting the upload
+     * @param genreName the genre the song belongs to
+     * @param filename  the MP3 file name
+     * @param size      the total file size in bytes
+     * @return the status of the new upload
+     * @throws IOException if the part file cannot be created
+     */
+    @Override
+    public UploadStatus startUpload(String username, String genreName, String filename, long size) throws IOException {
+        if (size <= 0 || size > maxSize.toBytes()) {
+            throw new IllegalArgumentException("File size must be between 1 and " + maxSize.toBytes() + " bytes");
+        }
+        discardExpiredSessions();
+
+        Genre genre = resolveGenre(genreName);
+        Path target = resolveTarget(genre, filename);
+        String uploadId = UUID.randomUUID().toString();
+        Path part = target.resolveSibling(target.getFileName() + "." + uploadId + ".part");
+        Files.createFile(part);
+
+        sessions.put(uploadId, new UploadSession(username, genre, target, part, size));
+        log.info("User '{}' started upload {} of '{}' ({} bytes)", username, uploadId, filename, size);
+        return new UploadStatus(uploadId, 0, size);
+    }
+
+    /**
+     * Returns the number of bytes stored so far for the user's upload.
+     *
+     * @param username the user who started the upload
+     * @param uploadId the upload's identifier
+     * @return the upload status
+     */
+    @Override
+    public UploadStatus getStatus(String username, String uploadId) {
+        UploadSession session = findSession(username, uploadId);
+        synchronized (session) {
+            return new UploadStatus(uploadId, session.writer.getSize(), session.size);
+        }
+    }
+
+    /**
+     * Appends a chunk at the current offset. If a previous chunk was cut off, any bytes
+     * beyond the last successfully hashed position are truncated first, so the part
+     * file always matches the running digest.
+     *
+     * @param username the user who started the upload
+     * @param uploadId the upload's identifier
+     * @param offset   the position of the chunk's first byte
+     * @param data     the chunk contents
+     * @return the registered song once the upload is complete, or null if more data is expected
+     * @throws IOException if the data is not a valid MP3 file or cannot be stored
+     */
+    @Override
+    public Song appendChunk(String username, String uploadId, long offset, InputStream data) throws IOException {
+        UploadSession session = findSession(username, uploadId);
+
+        synchronized (session) {
+            long received = session.writer.getSize();
+            if (offset != received) {
+                throw new IllegalStateException("Expected chunk at offset " + received + " but got " + offset);
+            }
+
+            try (FileChannel channel = FileChannel.open(session.part, StandardOpenOption.WRITE)) {
+                channel.truncate(received);
+                channel.position(received);
+                session.writer.copy(data, Channels.newOutputStream(channel));
+            } catch (Mp3StreamWriter.InvalidMp3Exception e) {
+                discard(uploadId, session);
+                throw e;
+            } finally {
+                session.lastActivity = Instant.now();
+            }
+
+            if (session.writer.getSize() < session.size) {
+                return null;
+            }
+
+            sessions.remove(uploadId);
+            try {
+                session.writer.finish();
+            } catch (Mp3StreamWriter.InvalidMp3Exception e) {
+                Files.deleteIfExists(session.part);
+                throw e;
+            }
+            return register(session.genre, session.target, session.part, session.writer);
+        }
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Looks up the upload's genre.
+     */
+    private Genre resolveGenre(String genreName) {
+        if (genreName == null || genreName.isBlank()) {
+            throw new IllegalArgumentException("Genre is required");
+        }
+        return genreRepo.findByName(genreName.trim())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown genre '" + genreName + "'"));
+    }
+
+    /**
+     * Checks the file name and returns the song's final location in its genre folder.
+     */
+    private Path resolveTarget(Genre genre, String filename) throws IOException {
+        if (filename == null || filename.isBlank() || !filename.endsWith(".mp3")
+                || filename.contains("/") || filename.contains("\\") || filename.startsWith(".")) {
+            throw new IllegalArgumentException("Invalid MP3 file name '" + filename + "'");
+        }
+
+        Path target = Paths.get(musicDirectory, genre.getName(), filename);
+        if (songService.searchSongByFilename(filename) || Files.exists(target)) {
+            throw new IllegalStateException("Song '" + filename + "' already exists");
+        }
+        Files.createDirectories(target.getParent());
+        return target;
+    }
+
+    /**
+     * Moves a completed part file into place and registers the song, undoing the move
+     * if the song is rejected. The target is only ever created, never replaced, so of
+     * two uploads of the same name finishing at once, one fails and neither deletes the
+     * other's file.
+     */
+    private Song register(Genre genre, Path target, Path part, Mp3StreamWriter writer) throws IOException {
+        try {
+            claimTarget(target, part);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(part);
+            throw new IllegalStateException("Song '" + target.getFileName() + "' already exists");
+        }
+
+        String filename = target.getFileName().toString();
+        Song song = new Song(filename, SongImportImpl.formatTitle(filename), UNKNOWN_ARTIST);
+        song.setGenre(genre);
+        song.setFileSize(writer.getSize());
+        song.setContentHash(writer.getSha256());
+        if (!songService.addSong(song)) {
+            Files.deleteIfExists(target);
+            throw new IllegalStateException("Song '" + filename + "' could not be registered");
+        }
+
+        log.info("Uploaded '{}': Genre='{}', Size={} bytes", filename, genre.getName(), writer.getSize());
+        songEnrichmentService.enqueuePending();
+        return song;
+    }
+
+    /**
+     * Puts a part file in place under its target name, failing if the target exists.
+     * A hard link is created and fails atomically if the name is taken; file systems
+     * without hard links fall back to a move without replacing, whose existence check
+     * is not atomic with the rename.
+     *
+     * @throws FileAlreadyExistsException if the target already exists
+     */
+    private static void claimTarget(Path target, Path part) throws IOException {
+        try {
+            Files.createLink(target, part);
+        } catch (FileAlreadyExistsException e) {
+            throw e;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.move(part, target);
+            return;
+        }
+        Files.deleteIfExists(part);
+    }
+
+    /**
+     * Returns the user's upload, hiding uploads that belong to someone else.
+     */
+    private UploadSession findSession(String username, String uploadId) {
+        UploadSession session = uploadId == null ? null : sessions.get(uploadId);
+        if (session == null || !session.owner.equals(username)) {
+            throw new NoSuchElementException("Upload '" + uploadId + "' not found");
+        }
+        return session;
+    }
+
+    /**
+     * Removes uploads that have been idle longer than the session timeout.
+     */
+    private void discardExpiredSessions() {
+        Instant cutoff = Instant.now().minus(sessionTimeout);
+        sessions.forEach((uploadId, session) -> {
+            if (session.lastActivity.isBefore(cutoff)) {
+                log.info("Discarding abandoned upload {} of '{}'", uploadId, session.target.getFileName());
+                discard(uploadId, session);
+            }
+        });
+    }
+
+    /**
+     * Forgets an upload and deletes its part file.
+     */
+    private void discard(String uploadId, UploadSession session) {
+        sessions.remove(uploadId);
+        try {
+            Files.deleteIfExists(session.part);
+        } catch (IOException e) {
+            log.warn("Could not delete part file '{}': {}", session.part, e.getMessage());
+        }
+    }
+
+    /**
+     * State of one resumable upload. Guarded by its own monitor.
+     */
+    private static final class UploadSession {
+
+        private final String owner;
+        private final Genre genre;
+        private final Path target;
+        private final Path part;
+        private final long size;
+        private final Mp3StreamWriter writer;
+        private volatile Instant lastActivity = Instant.now();
+
+        private UploadSession(String owner, Genre genre, Path target, Path part, long size) {
+            this.owner = owner;
+            this.genre = genre;
+            this.target = target;
+            this.part = part;
+            this.size = size;
+            this.writer = new Mp3StreamWriter(size);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.groovify.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Selects one page of a ranking from matches offered in any order: the best
+ * {@code limit} matches ranked after a cursor, in {@link SongSearchEngine.Match#ORDER}.
+ * <p>
+ * Matches are kept in a heap bounded to {@code limit} entries whose head is the worst
+ * match kept so far, so a page costs O(n log limit) and holds at most {@code limit}
+ * matches however many are offered. Every offered match is counted, for the total of
+ * the whole ranking.
+ * </p>
+ * <p>
+ * Not safe for concurrent use; each search makes its own.
+ * </p>
+ */
+final class TopMatches {
+
+    private final SongSearchEngine.Match after;
+    private final int limit;
+    private final PriorityQueue<SongSearchEngine.Match> heap;
+    private int total;
+
+    /**
+     * Creates an empty selection.
+     *
+     * @param after the last match of the previous page, or null for the first page
+     * @param limit the maximum number of matches on the page
+     */
+    TopMatches(SongSearchEngine.Match after, int limit) {
+        this.after = after;
+        this.limit = Math.max(0, limit);
+        this.heap = new PriorityQueue<>(Math.min(this.limit, 1024) + 1, SongSearchEngine.Match.ORDER.reversed());
+    }
+
+    /**
+     * Counts a match, and keeps it if it ranks after the cursor and among the best so far.
+     *
+     * @param match the match
+     */
+    void add(SongSearchEngine.Match match) {
+        total++;
+        if (limit == 0 || (after != null && SongSearchEngine.Match.ORDER.compare(match, after) <= 0)) {
+            return;
+        }
+        if (heap.size() < limit) {
+            heap.add(match);
+        } else if (SongSearchEngine.Match.ORDER.compare(match, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(match);
+        }
+    }
+
+    /**
+     * Returns the matches kept, best first, with the number of matches offered.
+     *
+     * @return the page
+     */
+    SongSearchEngine.MatchPage page() {
+        List<SongSearchEngine.Match> matches = new ArrayList<>(heap);
+        matches.sort(SongSearchEngine.Match.ORDER);
+        return new SongSearchEngine.MatchPage(matches, total);
+    }
+}
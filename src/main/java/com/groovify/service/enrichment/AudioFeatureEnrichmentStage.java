@@ -0,0 +1,62 @@
+package com.groovify.service.enrichment;
+
+import com.groovify.audio.AudioFeatureExtractor;
+import com.groovify.audio.FeatureVectors;
+import com.groovify.jpa.model.Song;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enrichment stage that decodes a song and stores its audio feature vector.
+ * <p>
+ * This is the most expensive stage, so it runs last; the analysis itself is spread
+ * over the {@link AudioFeatureExtractor}'s bounded thread pool.
+ */
+@Component
+@Order(30)
+public class AudioFeatureEnrichmentStage implements SongEnrichmentStage {
+
+    private final AudioFeatureExtractor extractor;
+
+    /**
+     * Constructs the stage.
+     *
+     * @param extractor computes feature vectors from decoded audio
+     */
+    public AudioFeatureEnrichmentStage(AudioFeatureExtractor extractor) {
+        this.extractor = extractor;
+    }
+
+    /**
+     * Returns the name of this stage.
+     *
+     * @return the stage name
+     */
+    @Override
+    public String name() {
+        return "audio-features";
+    }
+
+    /**
+     * Checks whether the song's feature vector has not been computed yet.
+     *
+     * @param song the song to check
+     * @return true if the stage should run, false otherwise
+     */
+    @Override
+    public boolean isPending(Song song) {
+        return song.getFeatureVector() == null;
+    }
+
+    /**
+     * Decodes the song's audio and records its packed feature vector.
+     *
+     * @param song    the song to update
+     * @param context the enrichment context providing the decoded audio
+     * @throws Exception if the file cannot be decoded
+     */
+    @Override
+    public void enrich(Song song, SongEnrichmentContext context) throws Exception {
+        song.setFeatureVector(FeatureVectors.pack(extractor.extract(context.getDecodedAudio())));
+    }
+}
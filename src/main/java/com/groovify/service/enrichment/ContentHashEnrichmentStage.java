@@ -0,0 +1,67 @@
+package com.groovify.service.enrichment;
+
+import com.groovify.jpa.model.Song;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Enrichment stage that computes the SHA-256 digest and size of a song's file.
+ */
+@Component
+@Order(20)
+public class ContentHashEnrichmentStage implements SongEnrichmentStage {
+
+    // Read buffer used while hashing
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Returns the name of this stage.
+     *
+     * @return the stage name
+     */
+    @Override
+    public String name() {
+        return "content-hash";
+    }
+
+    /**
+     * Checks whether the song's content hash has not been computed yet.
+     *
+     * @param song the song to check
+     * @return true if the stage should run, false otherwise
+     */
+    @Override
+    public boolean isPending(Song song) {
+        return song.getContentHash() == null;
+    }
+
+    /**
+     * Streams the song's file through SHA-256 and records the digest and file size.
+     *
+     * @param song    the song to update
+     * @param context the enrichment context providing the song's file
+     * @throws Exception if the file cannot be read or parsed
+     */
+    @Override
+    public void enrich(Song song, SongEnrichmentContext context) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+
+        try (InputStream in = Files.newInputStream(context.getFile())) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                size += read;
+            }
+        }
+
+        song.setContentHash(HexFormat.of().formatHex(digest.digest()));
+        song.setFileSize(size);
+    }
+}
@@ -0,0 +1,72 @@
+package com.groovify.service.enrichment;
+
+import com.groovify.jpa.model.Song;
+import com.groovify.service.ArtworkService;
+import com.mpatric.mp3agic.ID3v2;
+import com.mpatric.mp3agic.Mp3File;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enrichment stage that extracts the cover art (APIC frame) from a song's ID3v2 tag
+ * and stores it as thumbnails.
+ */
+@Component
+@Order(15)
+public class CoverArtEnrichmentStage implements SongEnrichmentStage {
+
+    private static final Logger log = LoggerFactory.getLogger(CoverArtEnrichmentStage.class);
+
+    private final ArtworkService artworkService;
+
+    /**
+     * Constructs the stage.
+     *
+     * @param artworkService stores images as content-addressed thumbnails
+     */
+    public CoverArtEnrichmentStage(ArtworkService artworkService) {
+        this.artworkService = artworkService;
+    }
+
+    /**
+     * Returns the name of this stage.
+     *
+     * @return the stage name
+     */
+    @Override
+    public String name() {
+        return "cover-art";
+    }
+
+    /**
+     * Checks whether the song has no stored artwork yet.
+     *
+     * @param song the song to check
+     * @return true if the stage should run, false otherwise
+     */
+    @Override
+    public boolean isPending(Song song) {
+        return song.getArtworkHash() == null;
+    }
+
+    /**
+     * Stores the embedded cover image, if the song's tag has one.
+     *
+     * @param song    the song to update
+     * @param context the enrichment context providing the parsed MP3 file
+     * @throws Exception if the file cannot be parsed or the image cannot be stored
+     */
+    @Override
+    public void enrich(Song song, SongEnrichmentContext context) throws Exception {
+        Mp3File mp3 = context.getMp3File();
+        ID3v2 tag = mp3.hasId3v2Tag() ? mp3.getId3v2Tag() : null;
+        byte[] image = tag != null ? tag.getAlbumImage() : null;
+        if (image == null || image.length == 0) {
+            log.debug("No cover art in '{}', keeping the genre image", song.getFilename());
+            return;
+        }
+        song.setArtworkHash(artworkService.storeArtwork(image));
+    }
+}
@@ -0,0 +1,61 @@
+package com.groovify.service.enrichment;
+
+import com.groovify.audio.ChromaFingerprinter;
+import com.groovify.jpa.model.Song;
+import com.groovify.service.SongFingerprintService;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enrichment stage that fingerprints a song's audio and records whether it is a copy
+ * of a song already in the library.
+ */
+@Component
+@Order(35)
+public class FingerprintEnrichmentStage implements SongEnrichmentStage {
+
+    private final SongFingerprintService fingerprintService;
+
+    /**
+     * Constructs the stage.
+     *
+     * @param fingerprintService stores fingerprints and finds earlier copies
+     */
+    public FingerprintEnrichmentStage(SongFingerprintService fingerprintService) {
+        this.fingerprintService = fingerprintService;
+    }
+
+    /**
+     * Returns the name of this stage.
+     *
+     * @return the stage name
+     */
+    @Override
+    public String name() {
+        return "fingerprint";
+    }
+
+    /**
+     * Checks whether the song has not been fingerprinted yet.
+     *
+     * @param song the song to check
+     * @return true if the stage should run, false otherwise
+     */
+    @Override
+    public boolean isPending(Song song) {
+        return !fingerprintService.hasFingerprint(song.getId());
+    }
+
+    /**
+     * Fingerprints the song's decoded audio and records the original it duplicates, if any.
+     *
+     * @param song    the song to update
+     * @param context the enrichment context providing the decoded audio
+     * @throws Exception if the file cannot be decoded
+     */
+    @Override
+    public void enrich(Song song, SongEnrichmentContext context) throws Exception {
+        int[] fingerprint = ChromaFingerprinter.fingerprint(context.getDecodedAudio());
+        song.setDuplicateOf(fingerprintService.registerFingerprint(song.getId(), fingerprint));
+    }
+}
@@ -0,0 +1,55 @@
+package com.groovify.service.enrichment;
+
+import com.groovify.audio.DecodedAudio;
+import com.groovify.jpa.model.Song;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enrichment stage that records a song's integrated loudness and sample peak, from
+ * which the playback gain is derived.
+ * <p>
+ * Both values are measured while the audio is decoded, so this stage shares the
+ * decoding work with {@link AudioFeatureEnrichmentStage}.
+ */
+@Component
+@Order(25)
+public class LoudnessEnrichmentStage implements SongEnrichmentStage {
+
+    /**
+     * Returns the name of this stage.
+     *
+     * @return the stage name
+     */
+    @Override
+    public String name() {
+        return "loudness";
+    }
+
+    /**
+     * Checks whether the song's loudness has not been measured yet. The peak is always
+     * recorded, while the loudness stays empty for silent songs.
+     *
+     * @param song the song to check
+     * @return true if the stage should run, false otherwise
+     */
+    @Override
+    public boolean isPending(Song song) {
+        return song.getPeak() == null;
+    }
+
+    /**
+     * Decodes the song's audio and records its loudness and peak.
+     *
+     * @param song    the song to update
+     * @param context the enrichment context providing the decoded audio
+     * @throws Exception if the file cannot be decoded
+     */
+    @Override
+    public void enrich(Song song, SongEnrichmentContext context) throws Exception {
+        DecodedAudio audio = context.getDecodedAudio();
+        double loudness = audio.getLoudness();
+        song.setLoudness(Double.isFinite(loudness) ? (float) loudness : null);
+        song.setPeak(audio.getPeak());
+    }
+}
@@ -0,0 +1,72 @@
+package com.groovify.service.enrichment;
+
+import com.groovify.jpa.model.Song;
+import com.mpatric.mp3agic.ID3v1;
+import com.mpatric.mp3agic.Mp3File;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enrichment stage that parses the MP3 frames and ID3 tags of a song.
+ * <p>
+ * Records the duration and bitrate, and replaces the filename-derived title and the
+ * generated artist with the values from the ID3 tags when the file carries them.
+ */
+@Component
+@Order(10)
+public class Mp3TagEnrichmentStage implements SongEnrichmentStage {
+
+    private static final Logger log = LoggerFactory.getLogger(Mp3TagEnrichmentStage.class);
+
+    /**
+     * Returns the name of this stage.
+     *
+     * @return the stage name
+     */
+    @Override
+    public String name() {
+        return "mp3-tags";
+    }
+
+    /**
+     * Checks whether the song's duration has not been recorded yet.
+     *
+     * @param song the song to check
+     * @return true if the stage should run, false otherwise
+     */
+    @Override
+    public boolean isPending(Song song) {
+        return song.getDurationSeconds() == null;
+    }
+
+    /**
+     * Reads duration, bitrate, title, and artist from the song's MP3 file.
+     *
+     * @param song    the song to update
+     * @param context the enrichment context providing the song's file
+     * @throws Exception if the file cannot be read or parsed
+     */
+    @Override
+    public void enrich(Song song, SongEnrichmentContext context) throws Exception {
+        Mp3File mp3 = context.getMp3File();
+
+        song.setDurationSeconds((int) mp3.getLengthInSeconds());
+        song.setBitrate(mp3.getBitrate());
+
+        // Prefer ID3v2 (richer, more common) and fall back to ID3v1
+        ID3v1 tag = mp3.hasId3v2Tag() ? mp3.getId3v2Tag() : mp3.hasId3v1Tag() ? mp3.getId3v1Tag() : null;
+        if (tag == null) {
+            log.debug("No ID3 tag in '{}', keeping derived title and artist", song.getFilename());
+            return;
+        }
+
+        if (tag.getTitle() != null && !tag.getTitle().isBlank()) {
+            song.setTitle(tag.getTitle().trim());
+        }
+        if (tag.getArtist() != null && !tag.getArtist().isBlank()) {
+            song.setArtist(tag.getArtist().trim());
+        }
+    }
+}
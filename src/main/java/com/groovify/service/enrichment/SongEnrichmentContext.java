@@ -0,0 +1,65 @@
+package com.groovify.service.enrichment;
+
+import com.groovify.audio.AudioDecoder;
+import com.groovify.audio.DecodedAudio;
+import com.mpatric.mp3agic.Mp3File;
+
+import java.nio.file.Path;
+
+/**
+ * Per-song state shared between the stages of one enrichment run.
+ * <p>
+ * Expensive intermediate results, such as the parsed MP3 structure and the decoded
+ * audio, are computed on first use and reused by later stages so each file is parsed
+ * and decoded only once.
+ */
+public class SongEnrichmentContext {
+
+    private final Path file;
+    private Mp3File mp3File;
+    private DecodedAudio decodedAudio;
+
+    /**
+     * Constructs a context for the given song file.
+     *
+     * @param file path to the song's .mp3 file
+     */
+    public SongEnrichmentContext(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the path to the song's .mp3 file.
+     *
+     * @return the file path
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the parsed MP3 file, parsing it on first access.
+     *
+     * @return the parsed MP3 file
+     * @throws Exception if the file cannot be read or is not a valid MP3
+     */
+    public Mp3File getMp3File() throws Exception {
+        if (mp3File == null) {
+            mp3File = new Mp3File(file.toFile());
+        }
+        return mp3File;
+    }
+
+    /**
+     * Returns the decoded audio used for analysis, decoding the file on first access.
+     *
+     * @return the decoded audio
+     * @throws Exception if the file cannot be read or contains no decodable audio
+     */
+    public DecodedAudio getDecodedAudio() throws Exception {
+        if (decodedAudio == null) {
+            decodedAudio = AudioDecoder.decode(file);
+        }
+        return decodedAudio;
+    }
+}
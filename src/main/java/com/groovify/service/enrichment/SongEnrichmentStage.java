@@ -0,0 +1,42 @@
+package com.groovify.service.enrichment;
+
+import com.groovify.jpa.model.Song;
+
+/**
+ * One step of the deferred song enrichment pipeline.
+ * <p>
+ * Stages perform the heavy per-song work that is kept out of the fast import pass,
+ * such as parsing tags or hashing file contents. Every Spring bean implementing this
+ * interface is picked up by the enrichment service and run in {@code @Order} order.
+ * Stages update the given {@link Song} in place; the service writes the enrichment
+ * columns back afterwards, so a stage that sets any other column must be added to
+ * {@link com.groovify.jpa.repo.SongRepo#saveEnrichment}.
+ */
+public interface SongEnrichmentStage {
+
+    /**
+     * Returns a short name for the stage, used in log messages.
+     *
+     * @return the stage name
+     */
+    String name();
+
+    /**
+     * Checks whether the stage still has work to do for the given song.
+     * Lets stages added later run on songs that were enriched before they existed
+     * without repeating the work of earlier stages.
+     *
+     * @param song the song to check
+     * @return true if the stage should run for the song, false otherwise
+     */
+    boolean isPending(Song song);
+
+    /**
+     * Enriches the song using its file.
+     *
+     * @param song    the song to update
+     * @param context access to the song's file and to data shared between stages
+     * @throws Exception if the file cannot be read or analysed
+     */
+    void enrich(Song song, SongEnrichmentContext context) throws Exception;
+}
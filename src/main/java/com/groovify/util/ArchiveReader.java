@@ -0,0 +1,307 @@
+package com.groovify.util;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Forward-only reader over the file entries of a ZIP, TAR, or gzip-compressed TAR archive.
+ * <p>
+ * Entries are read directly from the archive stream in a single pass, so nothing is
+ * ever extracted to a temporary directory. Directory entries and other non-file
+ * entries are skipped. Typical use:
+ * </p>
+ * <pre>
+ * try (ArchiveReader reader = ArchiveReader.open(path)) {
+ *     String name;
+ *     while ((name = reader.nextEntry()) != null) {
+ *         InputStream data = reader.entryStream();
+ *         ...
+ *     }
+ * }
+ * </pre>
+ */
+public abstract class ArchiveReader implements Closeable {
+
+    // Size of a TAR header and of the blocks file data is padded to
+    private static final int TAR_BLOCK = 512;
+
+    /**
+     * Checks whether a filename has an extension this reader understands.
+     *
+     * @param filename the name of the file
+     * @return true for .zip, .tar, .tar.gz, and .tgz files
+     */
+    public static boolean isArchive(String filename) {
+        String lower = filename.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".zip") || lower.endsWith(".tar")
+                || lower.endsWith(".tar.gz") || lower.endsWith(".tgz");
+    }
+
+    /**
+     * Opens an archive, choosing the format from the file extension.
+     *
+     * @param archive the archive file
+     * @return a reader positioned before the first entry
+     * @throws IOException if the file cannot be opened or has an unsupported extension
+     */
+    public static ArchiveReader open(Path archive) throws IOException {
+        return open(archive, archive.getFileName().toString());
+    }
+
+    /**
+     * Opens an archive stored under a different name, choosing the format from the
+     * extension of the name it was delivered with.
+     *
+     * @param archive  the archive file
+     * @param filename the name whose extension gives the archive format
+     * @return a reader positioned before the first entry
+     * @throws IOException if the file cannot be opened or the name has an unsupported extension
+     */
+    public static ArchiveReader open(Path archive, String filename) throws IOException {
+        String lower = filename.toLowerCase(Locale.ROOT);
+        InputStream in = new BufferedInputStream(Files.newInputStream(archive), 64 * 1024);
+        try {
+            if (lower.endsWith(".zip")) {
+                return new Zip(in);
+            }
+            if (lower.endsWith(".tar.gz") || lower.endsWith(".tgz")) {
+                return new Tar(new GZIPInputStream(in, 64 * 1024));
+            }
+            if (lower.endsWith(".tar")) {
+                return new Tar(in);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        in.close();
+        throw new IOException("Unsupported archive type: " + filename);
+    }
+
+    /**
+     * Advances to the next file entry, skipping whatever was left unread of the current one.
+     *
+     * @return the entry's path inside the archive, using '/' as separator, or null at the end
+     * @throws IOException if the archive is corrupt or cannot be read
+     */
+    public abstract String nextEntry() throws IOException;
+
+    /**
+     * Returns a stream over the current entry's contents. Closing it does not close
+     * the archive.
+     *
+     * @return the current entry's data
+     */
+    public abstract InputStream entryStream();
+
+    // -------------------------------------------------------
+    // FORMATS
+    // -------------------------------------------------------
+
+    /**
+     * ZIP archives, read with {@link ZipInputStream}.
+     */
+    private static final class Zip extends ArchiveReader {
+
+        private final ZipInputStream zip;
+
+        Zip(InputStream in) {
+            this.zip = new ZipInputStream(in, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String nextEntry() throws IOException {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    return entry.getName();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public InputStream entryStream() {
+            return new FilterInputStream(zip) {
+                @Override
+                public void close() {
+                    // The archive stays open for the next entry
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+
+    /**
+     * POSIX ustar archives, including GNU long names and PAX path records.
+     */
+    private static final class Tar extends ArchiveReader {
+
+        private final InputStream in;
+        private final byte[] header = new byte[TAR_BLOCK];
+
+        // Bytes of the current entry not yet consumed, and its padding to the next block
+        private long remaining;
+        private long padding;
+
+        Tar(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public String nextEntry() throws IOException {
+            skipFully(remaining + padding);
+            remaining = 0;
+            padding = 0;
+
+            String longName = null;
+            while (true) {
+                int read = in.readNBytes(header, 0, TAR_BLOCK);
+                if (read < TAR_BLOCK || isZeroBlock(header)) {
+                    return null;
+                }
+
+                String name = cString(header, 0, 100);
+                if ("ustar".equals(cString(header, 257, 6).trim())) {
+                    String prefix = cString(header, 345, 155);
+                    if (!prefix.isEmpty()) {
+                        name = prefix + "/" + name;
+                    }
+                }
+                long size = parseSize(header);
+                long pad = (TAR_BLOCK - size % TAR_BLOCK) % TAR_BLOCK;
+                char type = (char) header[156];
+
+                if (type == 'L' || type == 'x') {
+                    // Metadata entry describing the next header's name
+                    byte[] data = readData(size);
+                    skipFully(pad);
+                    longName = type == 'L' ? cString(data, 0, data.length) : paxPath(data, longName);
+                    continue;
+                }
+
+                if (type == '0' || type == '\0' || type == '7') {
+                    remaining = size;
+                    padding = pad;
+                    return longName != null ? longName : name;
+                }
+
+                // Directories, links, global headers and devices carry no file data we need
+                skipFully(size + pad);
+                longName = null;
+            }
+        }
+
+        @Override
+        public InputStream entryStream() {
+            return new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    if (remaining <= 0) return -1;
+                    int b = in.read();
+                    if (b < 0) throw new EOFException("Truncated TAR entry");
+                    remaining--;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (remaining <= 0) return -1;
+                    int n = in.read(b, off, (int) Math.min(len, remaining));
+                    if (n < 0) throw new EOFException("Truncated TAR entry");
+                    remaining -= n;
+                    return n;
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private byte[] readData(long size) throws IOException {
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException("TAR metadata entry too large");
+            }
+            byte[] data = in.readNBytes((int) size);
+            if (data.length < size) {
+                throw new EOFException("Truncated TAR metadata entry");
+            }
+            return data;
+        }
+
+        private void skipFully(long bytes) throws IOException {
+            while (bytes > 0) {
+                long skipped = in.skip(bytes);
+                if (skipped <= 0) {
+                    if (in.read() < 0) throw new EOFException("Truncated TAR archive");
+                    skipped = 1;
+                }
+                bytes -= skipped;
+            }
+        }
+
+        private static boolean isZeroBlock(byte[] block) {
+            for (byte b : block) {
+                if (b != 0) return false;
+            }
+            return true;
+        }
+
+        private static String cString(byte[] data, int offset, int length) {
+            int end = offset;
+            while (end < offset + length && data[end] != 0) end++;
+            return new String(data, offset, end - offset, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Parses the size field, which is octal text or, for very large entries, base-256.
+         */
+        private static long parseSize(byte[] header) throws IOException {
+            if ((header[124] & 0x80) != 0) {
+                long size = 0;
+                for (int i = 125; i < 136; i++) {
+                    size = (size << 8) | (header[i] & 0xFF);
+                }
+                return size;
+            }
+            String octal = cString(header, 124, 12).trim();
+            if (octal.isEmpty()) return 0;
+            try {
+                return Long.parseLong(octal, 8);
+            } catch (NumberFormatException e) {
+                throw new IOException("Corrupt TAR header size: '" + octal + "'");
+            }
+        }
+
+        /**
+         * Extracts the {@code path} record from PAX extended header data, if present.
+         */
+        private static String paxPath(byte[] data, String fallback) {
+            String records = new String(data, StandardCharsets.UTF_8);
+            for (String record : records.split("\n")) {
+                int space = record.indexOf(' ');
+                if (space > 0 && record.startsWith("path=", space + 1)) {
+                    return record.substring(space + 6);
+                }
+            }
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.groovify.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Copies MP3 data to output streams through a fixed-size buffer while hashing and
+ * validating it on the way through.
+ * <p>
+ * The SHA-256 digest, the byte count, and the header check are all updated from the
+ * same buffer that is written out, so the data is read exactly once and never held in
+ * memory as a whole. Data may arrive in several calls to {@link #copy(InputStream, OutputStream)},
+ * for example one per uploaded chunk; the header is checked as soon as its first
+ * bytes have been seen.
+ * </p>
+ */
+public class Mp3StreamWriter {
+
+    // Copy buffer size; the only memory used per stream
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Number of leading bytes needed to recognise an ID3 tag or MPEG frame header
+    private static final int HEADER_LENGTH = 3;
+
+    private final long maxBytes;
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] header = new byte[HEADER_LENGTH];
+
+    private long size;
+
+    /**
+     * Creates a writer for one MP3 file.
+     *
+     * @param maxBytes the largest accepted file size in bytes
+     */
+    public Mp3StreamWriter(long maxBytes) {
+        this.maxBytes = maxBytes;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Copies the stream to the output until it ends. Only bytes that were written
+     * successfully are counted and hashed, so after a failure {@link #getSize()} is
+     * the offset to resume from.
+     *
+     * @param in  the data to copy; not closed by this method
+     * @param out where the data is written; not closed by this method
+     * @return the number of bytes copied by this call
+     * @throws InvalidMp3Exception if the data does not start like an MP3 file or is too large
+     * @throws IOException         if reading or writing fails
+     */
+    public long copy(InputStream in, OutputStream out) throws IOException {
+        long copied = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (size + read > maxBytes) {
+                throw new InvalidMp3Exception("File exceeds the maximum size of " + maxBytes + " bytes");
+            }
+            checkHeader(buffer, read);
+            out.write(buffer, 0, read);
+            digest.update(buffer, 0, read);
+            size += read;
+            copied += read;
+        }
+        return copied;
+    }
+
+    /**
+     * Confirms that the complete file was long enough to carry an MP3 header.
+     *
+     * @throws InvalidMp3Exception if fewer bytes than a header were written
+     */
+    public void finish() throws InvalidMp3Exception {
+        if (size < HEADER_LENGTH) {
+            throw new InvalidMp3Exception("File is too short to be an MP3 file");
+        }
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return the byte count
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the hex-encoded SHA-256 digest of everything written. Call once, after
+     * {@link #finish()}.
+     *
+     * @return the 64-character digest
+     */
+    public String getSha256() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Collects the first bytes of the file and validates them once enough are present.
+     */
+    private void checkHeader(byte[] data, int length) throws InvalidMp3Exception {
+        if (size >= HEADER_LENGTH) {
+            return;
+        }
+        int needed = (int) Math.min(HEADER_LENGTH - size, length);
+        System.arraycopy(data, 0, header, (int) size, needed);
+        if (size + needed < HEADER_LENGTH) {
+            return;
+        }
+
+        boolean id3 = header[0] == 'I' && header[1] == 'D' && header[2] == '3';
+        boolean frameSync = (header[0] & 0xFF) == 0xFF && (header[1] & 0xE0) == 0xE0;
+        if (!id3 && !frameSync) {
+            throw new InvalidMp3Exception("Data does not start with an ID3 tag or MPEG frame header");
+        }
+    }
+
+    /**
+     * Thrown when copied data is rejected as an MP3 file.
+     */
+    public static class InvalidMp3Exception extends IOException {
+
+        /**
+         * Creates the exception with a description of why the data was rejected.
+         *
+         * @param message the reason
+         */
+        public InvalidMp3Exception(String message) {
+            super(message);
+        }
+    }
+}
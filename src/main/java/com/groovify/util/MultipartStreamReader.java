@@ -0,0 +1,298 @@
+package com.groovify.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Forward-only reader for {@code multipart/form-data} request bodies.
+ * <p>
+ * Parts are exposed one at a time as streams that end at the next boundary, so a
+ * file part can be copied straight to its destination. Only a fixed-size buffer is
+ * held in memory, and nothing is spooled to temporary files.
+ * </p>
+ */
+public class MultipartStreamReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Upper bound on the size of one part's header block
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=(\"?)([^\";]+)\\1");
+    private static final Pattern DISPOSITION_PARAM = Pattern.compile("(\\w+)=\"([^\"]*)\"");
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    private boolean started;
+    private boolean finished;
+    private boolean partEnded = true;
+
+    private String name;
+    private String filename;
+
+    /**
+     * Creates a reader for a request body.
+     *
+     * @param in          the request body
+     * @param contentType the request's {@code Content-Type} header, carrying the boundary
+     * @throws IllegalArgumentException if the content type has no boundary
+     */
+    public MultipartStreamReader(InputStream in, String contentType) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + extractBoundary(contentType)).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Extracts the boundary parameter from a multipart content type.
+     *
+     * @param contentType the {@code Content-Type} header value
+     * @return the boundary
+     * @throws IllegalArgumentException if the header is missing or has no boundary
+     */
+    public static String extractBoundary(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            throw new IllegalArgumentException("Not a multipart request");
+        }
+        Matcher matcher = BOUNDARY.matcher(contentType);
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("Multipart request has no boundary");
+        }
+        return matcher.group(2);
+    }
+
+    /**
+     * Moves to the next part, discarding whatever was left unread of the current one.
+     *
+     * @return true if another part is available, false at the end of the body
+     * @throws IOException if the body is malformed or cannot be read
+     */
+    public boolean nextPart() throws IOException {
+        if (finished) {
+            return false;
+        }
+
+        if (!started) {
+            skipPreamble();
+            started = true;
+        } else {
+            InputStream rest = partStream();
+            while (rest.skip(BUFFER_SIZE) > 0 || rest.read() != -1) {
+                // Drain the unread part
+            }
+            pos += delimiter.length;
+        }
+
+        // After a delimiter comes "--" for the end of the body, or CRLF and the next headers
+        ensure(2);
+        if (limit - pos >= 2 && buffer[pos] == '-' && buffer[pos + 1] == '-') {
+            finished = true;
+            return false;
+        }
+        readLine();
+        readHeaders();
+        partEnded = false;
+        return true;
+    }
+
+    /**
+     * Returns the form field name of the current part.
+     *
+     * @return the {@code name} from the part's {@code Content-Disposition}, or null
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the original filename of the current part.
+     *
+     * @return the {@code filename} from the part's {@code Content-Disposition}, or null for plain fields
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * Returns a stream over the current part's body that ends at the next boundary.
+     * Closing it has no effect on the reader.
+     *
+     * @return the part body
+     */
+    public InputStream partStream() {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (partEnded) return -1;
+                if (len == 0) return 0;
+
+                while (true) {
+                    int match = indexOfDelimiter();
+                    int available = match >= 0 ? match - pos : (limit - pos) - (delimiter.length - 1);
+                    if (available > 0) {
+                        int n = Math.min(len, available);
+                        System.arraycopy(buffer, pos, b, off, n);
+                        pos += n;
+                        return n;
+                    }
+                    if (match >= 0) {
+                        partEnded = true;
+                        return -1;
+                    }
+                    if (eof) {
+                        throw new EOFException("Multipart body ended without a closing boundary");
+                    }
+                    fill();
+                }
+            }
+        };
+    }
+
+    /**
+     * Reads the current part's body as a short text value, for plain form fields.
+     *
+     * @param maxBytes the largest accepted value size
+     * @return the value decoded as UTF-8
+     * @throws IOException if the value is too large or cannot be read
+     */
+    public String readValue(int maxBytes) throws IOException {
+        byte[] value = partStream().readNBytes(maxBytes + 1);
+        if (value.length > maxBytes) {
+            throw new IOException("Form field '" + name + "' is too large");
+        }
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Skips everything up to and including the first boundary line.
+     */
+    private void skipPreamble() throws IOException {
+        // The first boundary is not preceded by CRLF, so match it without that prefix
+        byte[] first = new byte[delimiter.length - 2];
+        System.arraycopy(delimiter, 2, first, 0, first.length);
+
+        while (true) {
+            ensure(first.length);
+            if (limit - pos < first.length) {
+                throw new EOFException("Multipart body has no boundary");
+            }
+            if (startsWith(first, pos)) {
+                pos += first.length;
+                return;
+            }
+            readLine();
+        }
+    }
+
+    /**
+     * Reads the part headers up to the blank line and keeps the disposition parameters.
+     */
+    private void readHeaders() throws IOException {
+        name = null;
+        filename = null;
+        int total = 0;
+
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            total += line.length();
+            if (total > MAX_HEADER_BYTES) {
+                throw new IOException("Multipart part headers are too large");
+            }
+            if (line.toLowerCase(Locale.ROOT).startsWith("content-disposition:")) {
+                Matcher matcher = DISPOSITION_PARAM.matcher(line);
+                while (matcher.find()) {
+                    if (matcher.group(1).equalsIgnoreCase("name")) name = matcher.group(2);
+                    if (matcher.group(1).equalsIgnoreCase("filename")) filename = matcher.group(2);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads one CRLF-terminated line, without the terminator.
+     */
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            ensure(1);
+            if (pos >= limit) {
+                throw new EOFException("Multipart body ended inside a header line");
+            }
+            byte b = buffer[pos++];
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            if (line.size() >= MAX_HEADER_BYTES) {
+                throw new IOException("Multipart header line is too long");
+            }
+            line.write(b);
+        }
+    }
+
+    /**
+     * Finds the delimiter in the buffered bytes, or returns -1.
+     */
+    private int indexOfDelimiter() {
+        for (int i = pos; i <= limit - delimiter.length; i++) {
+            if (buffer[i] == delimiter[0] && startsWith(delimiter, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean startsWith(byte[] prefix, int at) {
+        for (int j = 0; j < prefix.length; j++) {
+            if (buffer[at + j] != prefix[j]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Makes sure at least {@code count} bytes are buffered, unless the body ends first.
+     */
+    private void ensure(int count) throws IOException {
+        while (limit - pos < count && !eof) {
+            fill();
+        }
+    }
+
+    /**
+     * Moves unread bytes to the front of the buffer and reads more after them.
+     */
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read == -1) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+}
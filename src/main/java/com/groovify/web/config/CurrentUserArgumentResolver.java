@@ -0,0 +1,84 @@
+package com.groovify.web.config;
+
+import com.groovify.jpa.repo.ClientRepo;
+import com.groovify.web.dto.UserSummary;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link UserSummary} handler method parameters to the logged-in user's
+ * summary from the HTTP session, or to null if no user is logged in.
+ * <p>
+ * The summary is stored at login. A session that has a username but no summary, such as
+ * one started before summaries existed, gets its summary loaded once and stored, so
+ * later requests in it need no lookup either.
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(CurrentUserArgumentResolver.class);
+
+    private final ClientRepo clientRepo;
+
+    /**
+     * Constructs a CurrentUserArgumentResolver.
+     *
+     * @param clientRepo repository for loading a summary missing from the session
+     */
+    public CurrentUserArgumentResolver(ClientRepo clientRepo) {
+        this.clientRepo = clientRepo;
+    }
+
+    /**
+     * Tells whether a parameter asks for the logged-in user.
+     *
+     * @param parameter the handler method parameter
+     * @return true for {@link UserSummary} parameters
+     */
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return UserSummary.class.equals(parameter.getParameterType());
+    }
+
+    /**
+     * Returns the logged-in user's summary from the session.
+     *
+     * @param parameter     the handler method parameter
+     * @param mavContainer  the model and view container of the request
+     * @param webRequest    the current request
+     * @param binderFactory the data binder factory
+     * @return the summary, or null if no user is logged in
+     */
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        HttpSession session = request == null ? null : request.getSession(false);
+        if (session == null) {
+            return null;
+        }
+
+        if (session.getAttribute(UserSummary.SESSION_ATTRIBUTE) instanceof UserSummary summary) {
+            return summary;
+        }
+        String username = (String) session.getAttribute("username");
+        if (username == null) {
+            return null;
+        }
+
+        UserSummary summary = clientRepo.findByName(username).map(UserSummary::from).orElse(null);
+        if (summary == null) {
+            log.warn("Logged-in user '{}' not found in database", username);
+            return null;
+        }
+        session.setAttribute(UserSummary.SESSION_ATTRIBUTE, summary);
+        log.debug("Loaded session summary for user '{}'", username);
+        return summary;
+    }
+}
@@ -0,0 +1,39 @@
+package com.groovify.web.config;
+
+import com.groovify.jpa.repo.ClientRepo;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Spring MVC configuration for the web layer.
+ * <p>
+ * Registers {@link CurrentUserArgumentResolver}, so controllers can take the logged-in
+ * user as a {@link com.groovify.web.dto.UserSummary} parameter.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ClientRepo clientRepo;
+
+    /**
+     * Constructs a WebConfig.
+     *
+     * @param clientRepo repository used by the argument resolver
+     */
+    public WebConfig(ClientRepo clientRepo) {
+        this.clientRepo = clientRepo;
+    }
+
+    /**
+     * Adds the resolver for {@link com.groovify.web.dto.UserSummary} parameters.
+     *
+     * @param resolvers the resolvers to add to
+     */
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new CurrentUserArgumentResolver(clientRepo));
+    }
+}
@@ -0,0 +1,66 @@
+package com.groovify.web.controller;
+
+import com.groovify.service.ArtworkService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Controller serving cover art thumbnails.
+ * <p>
+ * Thumbnails are addressed by the hash of the source image, so the content behind a
+ * URL never changes. Responses are therefore marked {@code immutable} and cacheable
+ * for a year; browsers reuse them without revalidating. An ETag is sent as well, and
+ * Spring answers conditional requests carrying it with 304 Not Modified.
+ * </p>
+ */
+@Controller
+public class ArtworkController {
+
+    private static final Logger log = LoggerFactory.getLogger(ArtworkController.class);
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final ArtworkService artworkService;
+
+    /**
+     * Constructs an {@code ArtworkController}.
+     *
+     * @param artworkService service that locates stored thumbnails
+     */
+    public ArtworkController(ArtworkService artworkService) {
+        this.artworkService = artworkService;
+    }
+
+    /**
+     * Returns one thumbnail of a stored image.
+     *
+     * @param hash the content hash of the image
+     * @param size the thumbnail edge length in pixels
+     * @return the JPEG thumbnail, or 404 if it does not exist
+     */
+    @GetMapping("/artwork/{hash}/{size:\\d+}.jpg")
+    public ResponseEntity<Resource> thumbnail(@PathVariable String hash, @PathVariable int size) {
+        Path file = artworkService.findThumbnail(hash, size);
+        if (file == null) {
+            log.debug("Artwork {} at size {} not found", hash, size);
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(IMMUTABLE)
+                .eTag(hash + "-" + size)
+                .contentType(MediaType.IMAGE_JPEG)
+                .body(new FileSystemResource(file));
+    }
+}
@@ -2,6 +2,8 @@ package com.groovify.web.controller;
 
 import jakarta.servlet.http.HttpSession;
 import com.groovify.service.LoginService;
+import com.groovify.service.ProfileService;
+import com.groovify.web.dto.UserSummary;
 import com.groovify.web.form.LoginForm;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -32,13 +34,18 @@ public class LandingController {
     // Service responsible for validating login credentials
     private final LoginService loginService;
 
+    // Service used to load the logged-in user's summary for the session
+    private final ProfileService profileService;
+
     /**
-     * Constructs a LandingController with the provided LoginService.
+     * Constructs a LandingController with the provided services.
      *
-     * @param loginService the service used for validating user credentials
+     * @param loginService   the service used for validating user credentials
+     * @param profileService the service used for loading the logged-in user
      */
-    public LandingController(LoginService loginService) {
+    public LandingController(LoginService loginService, ProfileService profileService) {
         this.loginService = loginService;
+        this.profileService = profileService;
     }
 
     /**
@@ -101,6 +108,7 @@ public class LandingController {
 
         // --- Success: store session + redirect to home ---
         session.setAttribute("username", username);
+        storeUserSummary(session, username);
         log.info("User '{}' successfully logged in", username);
 
         return "redirect:/home";
@@ -134,4 +142,19 @@ public class LandingController {
 
         return "redirect:/";
     }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Stores the summary of the user who just logged in in the session, so pages can
+     * show the user without looking them up again.
+     */
+    private void storeUserSummary(HttpSession session, String username) {
+        profileService.getUserByUsername(username)
+                .map(UserSummary::from)
+                .ifPresentOrElse(summary -> session.setAttribute(UserSummary.SESSION_ATTRIBUTE, summary),
+                        () -> session.removeAttribute(UserSummary.SESSION_ATTRIBUTE));
+    }
 }
@@ -1,14 +1,12 @@
 package com.groovify.web.controller;
 
-import com.groovify.jpa.model.Client;
 import com.groovify.jpa.model.Playlist;
-import com.groovify.jpa.model.Song;
-import com.groovify.jpa.repo.ClientRepo;
-import com.groovify.jpa.repo.GenreRepo;
+import com.groovify.jpa.repo.SongRepo;
 import com.groovify.service.PlaylistService;
+import com.groovify.web.dto.PlaylistOption;
 import com.groovify.web.dto.SongView;
-import jakarta.servlet.http.HttpSession;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.groovify.web.dto.UserSummary;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -25,35 +23,34 @@ import java.util.List;
  * It ensures that only authenticated users can access their playlists.</p>
  *
  * <p>The controller communicates with {@link PlaylistService} for business logic,
- * and uses repositories such as {@link ClientRepo} and {@link GenreRepo} for
- * retrieving user and genre information.</p>
+ * and uses {@link SongRepo} for retrieving song information. The logged-in user is
+ * taken from the session as a {@link UserSummary}.</p>
  *
  * <p>All responses are mapped to Thymeleaf templates for rendering the user interface.</p>
  *
  * @author Nevin, Jace, Zack
  * @version 1.0
  * @see PlaylistService
- * @see ClientRepo
- * @see GenreRepo
+ * @see SongRepo
  */
 @Controller
 public class PlaylistsController {
 
-    private final ClientRepo clientRepo;
+    // Playlist choices change whenever a song is added, so browsers must revalidate them
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final PlaylistService playlistService;
-    private final GenreRepo genreRepo;
+    private final SongRepo songRepo;
 
     /**
      * Constructs a new {@code PlaylistsController} with the required dependencies.
      *
-     * @param clientRepo repository for retrieving {@link Client} data
      * @param playlistService service for managing playlists
-     * @param genreRepo repository for retrieving genre information
+     * @param songRepo repository for reading playlist songs as views
      */
-    public PlaylistsController(ClientRepo clientRepo, PlaylistService playlistService, GenreRepo genreRepo) {
-        this.clientRepo = clientRepo;
+    public PlaylistsController(PlaylistService playlistService, SongRepo songRepo) {
         this.playlistService = playlistService;
-        this.genreRepo = genreRepo;
+        this.songRepo = songRepo;
     }
 
     /**
@@ -63,25 +60,18 @@ public class PlaylistsController {
      * {@code playlists.html} template. If no user is logged in, the request
      * is redirected to the landing page.</p>
      *
-     * @param session the current HTTP session containing the logged-in user's username
+     * @param user the logged-in user, from the session
      * @param model the {@link Model} used to pass attributes to the view
      * @return the name of the Thymeleaf template to render, or a redirect string
      */
     @GetMapping("/playlists")
-    public String playlistsPage(HttpSession session, Model model) {
-        String username = (String) session.getAttribute("username");
-        if (username == null) {
-            return "redirect:/";
-        }
-
-        // Fetch full user object for topbar
-        Client user = clientRepo.findByName(username).orElse(null);
+    public String playlistsPage(UserSummary user, Model model) {
         if (user == null) {
-            return "redirect:";
+            return "redirect:/";
         }
 
         // Fetch all playlists for this user
-        List<Playlist> playlists = playlistService.getPlaylistsByClientId(user.getId());
+        List<Playlist> playlists = playlistService.getPlaylistsByClientId(user.id());
 
         model.addAttribute("user", user);
         model.addAttribute("pageTitle", "Playlists");
@@ -98,32 +88,22 @@ public class PlaylistsController {
      * or belongs to another user, redirects back to the playlists page.</p>
      *
      * @param playlistId the ID of the playlist to view
-     * @param session the current HTTP session containing the user's credentials
+     * @param user the logged-in user, from the session
      * @param model the {@link Model} for passing attributes to the view
      * @return the name of the view template to render, or a redirect instruction
      */
     @GetMapping("/playlists/{id}")
-    public String viewPlaylist(@PathVariable("id") Long playlistId, HttpSession session, Model model) {
-        String username = (String) session.getAttribute("username");
-        if (username == null) return "redirect:/";
-
-        Client user = clientRepo.findByName(username).orElse(null);
+    public String viewPlaylist(@PathVariable("id") Long playlistId, UserSummary user, Model model) {
         if (user == null) return "redirect:/";
 
         Playlist playlist = playlistService.getPlaylistById(playlistId);
 
-        if (playlist == null || !playlist.getClientID().equals(user.getId())) {
+        if (playlist == null || !playlist.getClientID().equals(user.id())) {
             return "redirect:/playlists";
         }
 
-        List<Song> songs = playlistService.getSongs(playlistId);
-
-        List<SongView> songList = songs.stream().map(song -> {
-            String genreName = genreRepo.findById(song.getGenre().getId())
-                    .map(genre -> genre.getName())
-                    .orElse("Unknown");
-            return new SongView(song.getId(), song.getTitle(), song.getArtist(), genreName, song.getFilename());
-        }).toList();
+        // Read the playlist's songs with their genre names in one query
+        List<SongView> songList = songRepo.findViewsByPlaylistId(playlistId);
 
         model.addAttribute("user", user);
         model.addAttribute("playlist", playlist);
@@ -141,21 +121,17 @@ public class PlaylistsController {
      * <p>Creates a new {@link Playlist} entity with the specified name and description,
      * associates it with the logged-in client, and persists it to the database.</p>
      *
-     * @param session the current HTTP session containing the logged-in user
+     * @param user the logged-in user, from the session
      * @param name the name of the new playlist
      * @param description an optional description of the playlist
      * @param model the {@link Model} used for view rendering
      * @return a redirect instruction back to the playlists page
      */
     @PostMapping("/playlists/create")
-    public String createPlaylist(HttpSession session,
+    public String createPlaylist(UserSummary user,
                                  @RequestParam("name") String name,
                                  @RequestParam(value = "description", required = false) String description,
                                  Model model) {
-        String username = (String) session.getAttribute("username");
-        if (username == null) return "redirect:/";
-
-        Client user = clientRepo.findByName(username).orElse(null);
         if (user == null) return "redirect:/";
 
         boolean hasError = false;
@@ -175,7 +151,7 @@ public class PlaylistsController {
 
         if (hasError) {
             // Re-populate the playlists list and user for the page
-            List<Playlist> playlists = playlistService.getPlaylistsByClientId(user.getId());
+            List<Playlist> playlists = playlistService.getPlaylistsByClientId(user.id());
             model.addAttribute("playlists", playlists);
             model.addAttribute("user", user);
             model.addAttribute("pageTitle", "Playlists");
@@ -186,7 +162,7 @@ public class PlaylistsController {
         Playlist playlist = new Playlist();
         playlist.setName(name);
         playlist.setDescription(description);
-        playlist.setClientID(user.getId());
+        playlist.setClientID(user.id());
         playlistService.savePlaylist(playlist);
 
         return "redirect:/playlists";
@@ -199,20 +175,16 @@ public class PlaylistsController {
      * Redirects to the playlists page after completion.</p>
      *
      * @param playlistId the ID of the playlist to delete
-     * @param session the current HTTP session containing user info
+     * @param user the logged-in user, from the session
      * @return a redirect instruction back to the playlists page
      */
 
     @PostMapping("/playlists/{playlistId}/delete")
-    public String deletePlaylist(@PathVariable Long playlistId, HttpSession session) {
-        String username = (String) session.getAttribute("username");
-        if (username == null) return "redirect:/";
-
-        Client user = clientRepo.findByName(username).orElse(null);
+    public String deletePlaylist(@PathVariable Long playlistId, UserSummary user) {
         if (user == null) return "redirect:/";
 
         Playlist playlist = playlistService.getPlaylistById(playlistId);
-        if (playlist == null || !playlist.getClientID().equals(user.getId())) {
+        if (playlist == null || !playlist.getClientID().equals(user.id())) {
             return "redirect:/playlists";
         }
 
@@ -220,6 +192,34 @@ public class PlaylistsController {
         return "redirect:/playlists";
     }
 
+    /**
+     * Handles GET requests for the choices of the add-to-playlist modal.
+     *
+     * <p>Returns the logged-in user's playlists, each telling whether it already contains
+     * the song, for the modal to show when it opens. Pages with song cards therefore do
+     * not read the playlists on every load. The response carries an ETag derived from
+     * its content and must be revalidated, so reopening the modal while nothing changed
+     * is answered with 304 Not Modified.</p>
+     *
+     * @param songId the ID of the song being added
+     * @param user the logged-in user, from the session
+     * @return the playlist choices as JSON, or 401 if no user is logged in
+     */
+    @GetMapping("/playlists/options")
+    @ResponseBody
+    public ResponseEntity<List<PlaylistOption>> playlistOptions(@RequestParam("songId") Long songId,
+                                                                UserSummary user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        List<PlaylistOption> options = playlistService.getPlaylistOptions(user.id(), songId);
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .eTag(user.id() + "-" + songId + "-" + Integer.toHexString(options.hashCode()))
+                .body(options);
+    }
+
     /**
      * Handles POST requests to add a song to a playlist.
      *
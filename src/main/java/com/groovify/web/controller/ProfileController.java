@@ -2,6 +2,7 @@ package com.groovify.web.controller;
 
 import com.groovify.jpa.model.Client;
 import com.groovify.service.ProfileServiceImpl;
+import com.groovify.web.dto.UserSummary;
 import com.groovify.web.form.ProfileUpdateForm;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.stereotype.Controller;
@@ -73,6 +74,10 @@ public class ProfileController {
 
         if (updated) {
             session.setAttribute("username", form.getName());
+            // Name, image and genres may have changed: refresh the summary pages show
+            profileService.getUserByUsername(form.getName())
+                    .map(UserSummary::from)
+                    .ifPresent(summary -> session.setAttribute(UserSummary.SESSION_ATTRIBUTE, summary));
             log.info("Profile updated successfully for '{}'", form.getName());
         } else {
             log.warn("Profile update failed for '{}'", username);
@@ -1,136 +1,246 @@
 package com.groovify.web.controller;
 
-import com.groovify.jpa.model.Client;
-import com.groovify.jpa.model.Playlist;
 import com.groovify.jpa.model.Song;
-import com.groovify.jpa.repo.ClientRepo;
-import com.groovify.jpa.repo.GenreRepo;
-import com.groovify.service.PlaylistService;
+import com.groovify.jpa.repo.SongRepo;
+import com.groovify.search.SuggestionTrie;
 import com.groovify.service.SongService;
 import com.groovify.web.dto.SongView;
-import jakarta.servlet.http.HttpSession;
+import com.groovify.web.dto.UserSummary;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
  * Controller responsible for handling song search functionality.
  * <p>
- * Provides endpoints for displaying the search page and search results
- * based on song title or genre. Converts search results into SongView
- * DTOs for display in the frontend.
+ * Provides endpoints for displaying the search page, search results
+ * based on song title, artist, genre or all three at once, or artists that sound like the query, further pages of those results
+ * for infinite scroll, and JSON completions for search-as-you-type. Converts search results into SongView DTOs for
+ * display in the frontend.
  */
 @Controller
 public class SearchController {
 
     private static final Logger log = LoggerFactory.getLogger(SearchController.class);
 
+    // Completions returned when the request does not ask for a number
+    private static final int DEFAULT_SUGGESTIONS = 8;
+
+    // Browsers may reuse a completion list briefly while the user edits the query
+    private static final Duration SUGGESTION_MAX_AGE = Duration.ofSeconds(30);
+
+    // Songs per page of search results
+    private static final int PAGE_SIZE = 24;
+
+    // Response header carrying the URL of the following page of results
+    private static final String NEXT_PAGE_HEADER = "X-Next-Page";
+
     private final SongService songService;
-    private final GenreRepo genreRepo;
-    private final ClientRepo clientRepo;
-    private final PlaylistService playlistService;
+    private final SongRepo songRepo;
 
     /**
      * Constructs a SearchController with required repositories and services.
      *
      * @param songService service for querying songs
-     * @param genreRepo   repository for accessing genre information
-     * @param clientRepo  repository for accessing client data
+     * @param songRepo    repository for reading the found songs as views
      */
-    public SearchController(SongService songService, GenreRepo genreRepo, ClientRepo clientRepo, PlaylistService playlistService) {
+    public SearchController(SongService songService, SongRepo songRepo) {
         this.songService = songService;
-        this.genreRepo = genreRepo;
-        this.clientRepo = clientRepo;
-        this.playlistService = playlistService;
+        this.songRepo = songRepo;
     }
 
     /**
      * Displays the search page.
      *
-     * @param session the HTTP session containing user information
-     * @param model   the Spring Model used to pass data to the view
+     * @param user  the logged-in user, from the session
+     * @param model the Spring Model used to pass data to the view
      * @return the search page view or redirect if user is not logged in
      */
     @GetMapping("/search")
-    public String searchPage(HttpSession session, Model model) {
-        String username = (String) session.getAttribute("username");
-
-        if (username == null) {
+    public String searchPage(UserSummary user, Model model) {
+        if (user == null) {
             log.warn("Access to search page denied: no user logged in");
             return "redirect:/";
         }
 
-        Client user = clientRepo.findByName(username).orElse(null);
-        log.info("User '{}' accessed search page", username);
-
-        List<Playlist> playlists = playlistService.getPlaylistsByClientId(user.getId());
+        log.info("User '{}' accessed search page", user.name());
 
         // Initialize empty song list
         model.addAttribute("user", user);
         model.addAttribute("songList", List.of());
         model.addAttribute("pageTitle", "Search");
-        model.addAttribute("playlists", playlists);
 
 
         return "search";
     }
 
     /**
-     * Displays search results for a given query.
+     * Displays search results for a given query. Title and artist searches without
+     * results fall back to close matches, so a typo still finds the song.
      *
      * @param query   the search term entered by the user
-     * @param type    the type of search: "title" or "genre" (default is "title")
-     * @param session the HTTP session containing user information
+     * @param type    the type of search: "all", "title", "artist", "sounds-like" or "genre" (default is "all")
+     * @param user    the logged-in user, from the session
      * @param model   the Spring Model used to pass data to the view
      * @return the search results view or redirect if user is not logged in
      */
     @GetMapping("/search/results")
     public String searchResults(
             @RequestParam("query") String query,
-            @RequestParam(value = "type", defaultValue = "title") String type,
-            HttpSession session,
+            @RequestParam(value = "type", defaultValue = "all") String type,
+            UserSummary user,
             Model model) {
 
-        String username = (String) session.getAttribute("username");
-
-        if (username == null) {
+        if (user == null) {
             log.warn("Access to search results denied: no user logged in");
             return "redirect:/";
         }
 
-        Client user = clientRepo.findByName(username).orElse(null);
-        log.info("User '{}' performed a '{}' search with query '{}'", username, type, query);
+        log.info("User '{}' performed a '{}' search with query '{}'", user.name(), type, query);
 
-        // Perform search by type
-        List<Song> songs = "genre".equalsIgnoreCase(type)
-                ? songService.searchSongsByGenre(query)
-                : songService.searchSongsByTitle(query);
-
-        log.debug("Found {} songs for query '{}' of type '{}'", songs.size(), query, type);
+        // Perform search by type, first page only; the rest is fetched while scrolling
+        boolean fuzzy = false;
+        SongService.SongPage page = findPage(query, type, false, null);
+        if (page.songs().isEmpty() && ("title".equalsIgnoreCase(type) || "artist".equalsIgnoreCase(type))) {
+            // Probably a typo: show close matches instead of making the user guess again
+            page = findPage(query, type, true, null);
+            fuzzy = !page.songs().isEmpty();
+        }
 
-        // Convert songs to SongView DTOs
-        List<SongView> songList = songs.stream().map(song -> {
-            String genreName = genreRepo.findById(song.getGenre().getId())
-                    .map(g -> g.getName())
-                    .orElse("Unknown");
-            return new SongView(song.getId(), song.getTitle(), song.getArtist(), genreName,song.getFilename());
-        }).toList();
+        log.debug("Found {} of about {} songs for query '{}' of type '{}'",
+                page.songs().size(), page.totalEstimate(), query, type);
 
-        List<Playlist> playlists = playlistService.getPlaylistsByClientId(user.getId());
+        List<SongView> songList = toViews(page.songs());
 
         // Add attributes for rendering
         model.addAttribute("user", user);
         model.addAttribute("songList", songList);
-        model.addAttribute("playlists", playlists);
         model.addAttribute("query", query);
         model.addAttribute("type", type);
+        model.addAttribute("fuzzy", fuzzy);
+        model.addAttribute("resultCount", page.totalEstimate());
+        model.addAttribute("nextPageUrl", nextPageUrl(query, type, fuzzy, page.nextCursor()));
         model.addAttribute("pageTitle", "Search Results");
 
         return "search";
     }
+
+    /**
+     * Returns the song cards of a further page of search results, for infinite scroll.
+     * The URL of the page after it is sent in the {@code X-Next-Page} header, which is
+     * absent on the last page.
+     *
+     * @param query    the search term entered by the user
+     * @param type     the type of search: "all", "title", "artist", "sounds-like" or "genre"
+     * @param fuzzy    whether the first page fell back to close matches
+     * @param cursor   the cursor returned with the previous page
+     * @param user     the logged-in user, from the session
+     * @param model    the Spring Model used to pass data to the view
+     * @param response the HTTP response, used to set the next page header
+     * @return the song cards fragment
+     * @throws ResponseStatusException with 401 if no user is logged in, so infinite scroll
+     *         stops instead of appending the page it would be redirected to
+     */
+    @GetMapping("/search/results/page")
+    public String searchResultsPage(
+            @RequestParam("query") String query,
+            @RequestParam(value = "type", defaultValue = "all") String type,
+            @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+            @RequestParam("cursor") String cursor,
+            UserSummary user,
+            Model model,
+            HttpServletResponse response) {
+
+        if (user == null) {
+            log.warn("Access to search results page denied: no user logged in");
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+
+        SongService.SongPage page = findPage(query, type, fuzzy, cursor);
+        log.debug("Loaded {} more songs for query '{}' of type '{}'", page.songs().size(), query, type);
+
+        String next = nextPageUrl(query, type, fuzzy, page.nextCursor());
+        if (next != null) {
+            response.setHeader(NEXT_PAGE_HEADER, next);
+        }
+        model.addAttribute("songList", toViews(page.songs()));
+        return "fragments/songFragment :: songCards";
+    }
+
+    /**
+     * Returns titles, artists and genres completing what the user has typed, for the
+     * suggestion list under the search box.
+     *
+     * @param prefix  the text typed so far
+     * @param limit   the maximum number of suggestions
+     * @param user    the logged-in user, from the session
+     * @return the suggestions as JSON, or 401 if no user is logged in
+     */
+    @GetMapping("/search/suggest")
+    @ResponseBody
+    public ResponseEntity<List<SuggestionTrie.Suggestion>> suggest(
+            @RequestParam("q") String prefix,
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_SUGGESTIONS) int limit,
+            UserSummary user) {
+
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        List<SuggestionTrie.Suggestion> suggestions = songService.suggest(prefix, limit);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(SUGGESTION_MAX_AGE).cachePrivate())
+                .body(suggestions);
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private SongService.SongPage findPage(String query, String type, boolean fuzzy, String cursor) {
+        if ("all".equalsIgnoreCase(type)) {
+            return songService.searchSongs(query, cursor, PAGE_SIZE);
+        } else if ("genre".equalsIgnoreCase(type)) {
+            return songService.searchSongsByGenre(query, cursor, PAGE_SIZE);
+        } else if ("sounds-like".equalsIgnoreCase(type)) {
+            return songService.searchSongsByArtistSoundsLike(query, cursor, PAGE_SIZE);
+        } else if ("artist".equalsIgnoreCase(type)) {
+            return songService.searchSongsByArtist(query, fuzzy, cursor, PAGE_SIZE);
+        }
+        return songService.searchSongsByTitle(query, fuzzy, cursor, PAGE_SIZE);
+    }
+
+    private static String nextPageUrl(String query, String type, boolean fuzzy, String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return UriComponentsBuilder.fromPath("/search/results/page")
+                .queryParam("query", query)
+                .queryParam("type", type)
+                .queryParam("fuzzy", fuzzy)
+                .queryParam("cursor", cursor)
+                .encode()
+                .toUriString();
+    }
+
+    /**
+     * Converts songs to SongView DTOs for display, reading all of them with their genre
+     * names in one query and keeping the ranking order.
+     */
+    private List<SongView> toViews(List<Song> songs) {
+        return songRepo.findViewsInOrder(songs.stream().map(Song::getId).toList());
+    }
 }
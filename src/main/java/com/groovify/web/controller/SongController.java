@@ -1,97 +1,136 @@
 package com.groovify.web.controller;
 
-import com.groovify.jpa.model.Client;
-import com.groovify.jpa.model.Playlist;
-import com.groovify.jpa.model.Song;
-import com.groovify.jpa.repo.ClientRepo;
 import com.groovify.jpa.repo.SongRepo;
-import com.groovify.jpa.repo.GenreRepo;
-import com.groovify.service.PlaylistService;
 import com.groovify.web.dto.SongView;
-import jakarta.servlet.http.HttpSession;
+import com.groovify.web.dto.UserSummary;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.List;
 
 /**
  * Controller responsible for displaying all songs to logged-in users.
  * <p>
- * Fetches all songs from the database, converts them to SongView DTOs
- * with genre names, and renders the songs page.
+ * Renders the songs page one page of songs at a time: the first page with the page
+ * itself, further pages as song card fragments fetched by infinite scroll. Pages are
+ * keyed on the song ID, so each page is a single query and no request holds more than
+ * one page of songs, however large the catalog grows.
  */
 @Controller
 public class SongController {
 
     private static final Logger log = LoggerFactory.getLogger(SongController.class);
 
-    private final ClientRepo clientRepo;
+    // Songs per page of the songs list
+    private static final int PAGE_SIZE = 48;
+
+    // Response header carrying the URL of the following page of songs
+    private static final String NEXT_PAGE_HEADER = "X-Next-Page";
+
     private final SongRepo songRepo;
-    private final GenreRepo genreRepo;
-    private final PlaylistService playlistService;
 
 
     /**
      * Constructs a SongController with required repositories.
      *
-     * @param clientRepo repository for accessing client data
      * @param songRepo   repository for accessing song data
-     * @param genreRepo  repository for accessing genre data
      */
-    public SongController(ClientRepo clientRepo, SongRepo songRepo, GenreRepo genreRepo, PlaylistService playlistService) {
-        this.clientRepo = clientRepo;
+    public SongController(SongRepo songRepo) {
         this.songRepo = songRepo;
-        this.genreRepo = genreRepo;
-        this.playlistService = playlistService;
     }
 
     /**
      * Handles GET requests to the songs page.
-     * Fetches all songs, maps them to SongView objects, and adds them to the model.
+     * Reads the first page of available songs as SongView objects and adds them to the
+     * model, with the URL of the next page for infinite scroll.
      *
-     * @param session the HTTP session containing user information
-     * @param model   the Spring Model used to pass data to the view
+     * @param user  the logged-in user, from the session
+     * @param model the Spring Model used to pass data to the view
      * @return the songs page view or redirect if user is not logged in
      */
     @GetMapping("/songs")
-    public String songPage(HttpSession session, Model model) {
-        String username = (String) session.getAttribute("username");
-
-        if (username == null) {
+    public String songPage(UserSummary user, Model model) {
+        if (user == null) {
             log.warn("Access to songs page denied: no user logged in");
             return "redirect:/";
         }
 
-        Client user = clientRepo.findByName(username).orElse(null);
-        log.info("User '{}' accessed songs page", username);
+        log.info("User '{}' accessed songs page", user.name());
 
-        // Fetch all songs from the database
-        List<Song> songs = songRepo.findAll();
-        log.debug("Fetched {} songs from database", songs.size());
-
-        List<Playlist> playlists = playlistService.getPlaylistsByClientId(user.getId());
-
-        // Map songs to SongView DTOs with genre names
-        List<SongView> songList = songs.stream().map(song -> {
-            String genreName = genreRepo.findById(song.getGenre().getId())
-                    .map(genre -> genre.getName())
-                    .orElse("Unknown");
-            return new SongView(song.getId(), song.getTitle(), song.getArtist(), genreName,song.getFilename());
-        }).toList();
-        log.debug("Converted songs to SongView list");
+        // Read the first page of available songs with their genre names in one query
+        List<SongView> songList = findPage(0);
+        log.debug("Fetched {} songs from database", songList.size());
 
         // Add model attributes for rendering
         model.addAttribute("user", user);
         model.addAttribute("pageTitle", "Songs");
         model.addAttribute("songList", songList);
         model.addAttribute("inPlaylist", false); // we are not in a playlist
-        model.addAttribute("playlists", playlists);
+        model.addAttribute("nextPageUrl", nextPageUrl(songList));
 
         return "songs";
     }
 
+    /**
+     * Returns the song cards of the page of songs after the given song ID, for infinite
+     * scroll. The URL of the page after it is sent in the {@code X-Next-Page} header,
+     * which is absent on the last page.
+     *
+     * @param after    the ID of the last song already shown
+     * @param user     the logged-in user, from the session
+     * @param model    the Spring Model used to pass data to the view
+     * @param response the HTTP response, used to set the next page header
+     * @return the song cards fragment
+     * @throws ResponseStatusException with 401 if no user is logged in, so infinite scroll
+     *         stops instead of appending the page it would be redirected to
+     */
+    @GetMapping("/songs/page")
+    public String songsPage(@RequestParam("after") long after, UserSummary user, Model model,
+                            HttpServletResponse response) {
+        if (user == null) {
+            log.warn("Access to songs page denied: no user logged in");
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+
+        List<SongView> songList = findPage(after);
+        log.debug("Loaded {} more songs after ID {}", songList.size(), after);
+
+        String next = nextPageUrl(songList);
+        if (next != null) {
+            response.setHeader(NEXT_PAGE_HEADER, next);
+        }
+        model.addAttribute("songList", songList);
+        model.addAttribute("inPlaylist", false);
+        return "fragments/songFragment :: songCards";
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private List<SongView> findPage(long afterId) {
+        return songRepo.findAvailableViewsAfter(afterId, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    /**
+     * Returns the URL of the page after the given one, or null if it was the last page.
+     * A full page may be followed by an empty one, which ends the scrolling.
+     */
+    private static String nextPageUrl(List<SongView> page) {
+        if (page.size() < PAGE_SIZE) {
+            return null;
+        }
+        return UriComponentsBuilder.fromPath("/songs/page")
+                .queryParam("after", page.get(page.size() - 1).id())
+                .toUriString();
+    }
 }
@@ -0,0 +1,250 @@
+package com.groovify.web.controller;
+
+import com.groovify.audio.PlaybackGain;
+import com.groovify.jpa.model.Song;
+import com.groovify.service.SongUploadService;
+import com.groovify.service.SongUploadService.UploadStatus;
+import com.groovify.util.Mp3StreamWriter;
+import com.groovify.util.MultipartStreamReader;
+import com.groovify.web.dto.SongView;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Controller for uploading MP3 files by logged-in users.
+ * <p>
+ * Request bodies are read directly from the servlet input stream and handed to
+ * {@link SongUploadService}, which writes them to the song store through a fixed-size
+ * buffer. Spring's multipart handling is disabled so that uploads are never buffered
+ * in memory or spooled to container temp files first.
+ * </p>
+ * <ul>
+ *     <li>{@code POST /songs/upload} &ndash; one or more files as {@code multipart/form-data};
+ *     the genre is given as a query parameter or as a {@code genre} field before the files.</li>
+ *     <li>{@code POST /songs/uploads} &ndash; starts a resumable upload.</li>
+ *     <li>{@code PUT /songs/uploads/{id}} &ndash; sends the next chunk with a {@code Content-Range} header.</li>
+ *     <li>{@code GET /songs/uploads/{id}} &ndash; reports how many bytes were received, for resuming.</li>
+ * </ul>
+ */
+@Controller
+public class SongUploadController {
+
+    private static final Logger log = LoggerFactory.getLogger(SongUploadController.class);
+
+    // Longest accepted value of a plain multipart form field
+    private static final int MAX_FIELD_BYTES = 1024;
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
+
+    private final SongUploadService songUploadService;
+
+    /**
+     * Constructs a {@code SongUploadController}.
+     *
+     * @param songUploadService service that stores and registers uploads
+     */
+    public SongUploadController(SongUploadService songUploadService) {
+        this.songUploadService = songUploadService;
+    }
+
+    /**
+     * Streams every MP3 file part of a multipart request into the song store.
+     *
+     * @param genre   the genre of the uploaded songs, unless sent as a form field
+     * @param request the request whose body is read as a stream
+     * @param session the HTTP session containing user information
+     * @return the registered songs, or an error status
+     */
+    @PostMapping("/songs/upload")
+    @ResponseBody
+    public ResponseEntity<?> upload(@RequestParam(value = "genre", required = false) String genre,
+                                    HttpServletRequest request, HttpSession session) {
+        String username = (String) session.getAttribute("username");
+        if (username == null) {
+            log.warn("Upload denied: no user logged in");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        List<SongView> uploaded = new ArrayList<>();
+        try {
+            MultipartStreamReader reader = new MultipartStreamReader(request.getInputStream(), request.getContentType());
+            while (reader.nextPart()) {
+                if (reader.getFilename() == null) {
+                    if ("genre".equals(reader.getName())) {
+                        genre = reader.readValue(MAX_FIELD_BYTES);
+                    }
+                    continue;
+                }
+                if (reader.getFilename().isEmpty()) {
+                    continue;
+                }
+
+                Song song = songUploadService.upload(genre, reader.getFilename(), reader.partStream());
+                uploaded.add(toView(song));
+            }
+        } catch (Exception e) {
+            return error(username, e);
+        }
+
+        log.info("User '{}' uploaded {} songs", username, uploaded.size());
+        return ResponseEntity.ok(uploaded);
+    }
+
+    /**
+     * Starts a resumable upload.
+     *
+     * @param genre    the genre of the song
+     * @param filename the MP3 file name
+     * @param size     the total file size in bytes
+     * @param session  the HTTP session containing user information
+     * @return {@code 201 Created} with the upload's location and status, or an error status
+     */
+    @PostMapping("/songs/uploads")
+    @ResponseBody
+    public ResponseEntity<?> startUpload(@RequestParam("genre") String genre,
+                                         @RequestParam("filename") String filename,
+                                         @RequestParam("size") long size,
+                                         HttpSession session) {
+        String username = (String) session.getAttribute("username");
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            UploadStatus status = songUploadService.startUpload(username, genre, filename, size);
+            return ResponseEntity.created(URI.create("/songs/uploads/" + status.uploadId())).body(status);
+        } catch (Exception e) {
+            return error(username, e);
+        }
+    }
+
+    /**
+     * Reports the progress of a resumable upload.
+     *
+     * @param uploadId the upload's identifier
+     * @param session  the HTTP session containing user information
+     * @return the upload status, or an error status
+     */
+    @GetMapping("/songs/uploads/{uploadId}")
+    @ResponseBody
+    public ResponseEntity<?> uploadStatus(@PathVariable String uploadId, HttpSession session) {
+        String username = (String) session.getAttribute("username");
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            UploadStatus status = songUploadService.getStatus(username, uploadId);
+            return withRange(ResponseEntity.ok(), status).body(status);
+        } catch (Exception e) {
+            return error(username, e);
+        }
+    }
+
+    /**
+     * Receives the next chunk of a resumable upload.
+     *
+     * @param uploadId     the upload's identifier
+     * @param contentRange the chunk's position, as {@code bytes start-end/total}
+     * @param request      the request whose body is the chunk
+     * @param session      the HTTP session containing user information
+     * @return {@code 200} with the song once complete, {@code 308} with a {@code Range}
+     *         header while more data is expected, or an error status
+     */
+    @PutMapping("/songs/uploads/{uploadId}")
+    @ResponseBody
+    public ResponseEntity<?> uploadChunk(@PathVariable String uploadId,
+                                         @RequestHeader(HttpHeaders.CONTENT_RANGE) String contentRange,
+                                         HttpServletRequest request, HttpSession session) {
+        String username = (String) session.getAttribute("username");
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Matcher range = CONTENT_RANGE.matcher(contentRange.trim());
+        if (!range.matches()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid Content-Range header"));
+        }
+
+        try {
+            Song song = songUploadService.appendChunk(username, uploadId,
+                    Long.parseLong(range.group(1)), request.getInputStream());
+            if (song != null) {
+                return ResponseEntity.ok(toView(song));
+            }
+            UploadStatus status = songUploadService.getStatus(username, uploadId);
+            return withRange(ResponseEntity.status(HttpStatus.PERMANENT_REDIRECT), status).body(status);
+        } catch (IllegalStateException e) {
+            // Tell the client where to resume from if the upload is still known
+            try {
+                UploadStatus status = songUploadService.getStatus(username, uploadId);
+                return withRange(ResponseEntity.status(HttpStatus.CONFLICT), status).body(status);
+            } catch (NoSuchElementException gone) {
+                return error(username, e);
+            }
+        } catch (Exception e) {
+            return error(username, e);
+        }
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Maps service failures to HTTP statuses.
+     */
+    private ResponseEntity<?> error(String username, Exception e) {
+        HttpStatus status;
+        if (e instanceof Mp3StreamWriter.InvalidMp3Exception) {
+            status = HttpStatus.UNSUPPORTED_MEDIA_TYPE;
+        } else if (e instanceof IllegalArgumentException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else if (e instanceof IllegalStateException) {
+            status = HttpStatus.CONFLICT;
+        } else if (e instanceof NoSuchElementException) {
+            status = HttpStatus.NOT_FOUND;
+        } else {
+            log.error("Upload by '{}' failed", username, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+
+        log.warn("Upload by '{}' rejected: {}", username, e.getMessage());
+        return ResponseEntity.status(status).body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
+    /**
+     * Adds a {@code Range} header listing the bytes received so far, if there are any.
+     */
+    private ResponseEntity.BodyBuilder withRange(ResponseEntity.BodyBuilder builder, UploadStatus status) {
+        if (status.received() > 0) {
+            builder.header(HttpHeaders.RANGE, "bytes=0-" + (status.received() - 1));
+        }
+        return builder;
+    }
+
+    /**
+     * Converts a song to the view returned to the client.
+     */
+    private SongView toView(Song song) {
+        String genreName = song.getGenre().getName();
+        return new SongView(song.getId(), song.getTitle(), song.getArtist(), genreName, song.getFilename(),
+                PlaybackGain.linear(song.getLoudness(), song.getPeak()),
+                SongView.artworkUrl(song.getArtworkHash(), genreName));
+    }
+}
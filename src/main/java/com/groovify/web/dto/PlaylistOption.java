@@ -0,0 +1,15 @@
+package com.groovify.web.dto;
+
+/**
+ * Data Transfer Object (DTO) for one choice of the add-to-playlist modal.
+ * <p>
+ * The modal's choices are fetched as JSON when it opens, rather than rendered with every
+ * page that has song cards, and are read in one query by
+ * {@link com.groovify.jpa.repo.PlaylistRepo#findOptionsByClientID}.
+ *
+ * @param id           the unique ID of the playlist
+ * @param name         the name of the playlist
+ * @param containsSong whether the song being added is already in the playlist
+ */
+public record PlaylistOption(Long id, String name, boolean containsSong) {
+}
@@ -1,24 +1,57 @@
 package com.groovify.web.dto;
 
+import com.groovify.audio.PlaybackGain;
+
 /**
  * Data Transfer Object (DTO) for representing a song in views.
  * <p>
- * Contains the song ID, title, artist, genre name, and filename.
+ * Contains the song ID, title, artist, genre name, filename, the playback gain that
+ * normalizes the song's loudness, and the URL of the card's cover image.
  * Provides helper methods to generate or retrieve values for use in templates.
+ * <p>
+ * Song lists build their views straight from the song table with the projection queries
+ * of {@link com.groovify.jpa.repo.SongRepo}, which use the column constructor below.
  */
-public record SongView(Long id, String title, String artist, String genreName, String filename) {
+public record SongView(Long id, String title, String artist, String genreName, String filename, double gain,
+                       String artworkUrl) {
+
+    /** Thumbnail size, in pixels, used for song cards. */
+    public static final int CARD_ARTWORK_SIZE = 320;
+
     /**
-     * Constructs a SongView DTO with the given ID, title, artist, genre, and filename.
+     * Constructs a SongView DTO with the given ID, title, artist, genre, filename, gain, and artwork URL.
      *
-     * @param id        the unique ID of the song
-     * @param title     the title of the song
-     * @param artist    the name of the artist
-     * @param genreName the name of the genre
-     * @param filename  the filename of the song
+     * @param id         the unique ID of the song
+     * @param title      the title of the song
+     * @param artist     the name of the artist
+     * @param genreName  the name of the genre
+     * @param filename   the filename of the song
+     * @param gain       the linear playback gain, 1.0 if the song has not been measured
+     * @param artworkUrl the URL of the song's cover image
      */
     public SongView {
     }
 
+    /**
+     * Constructs a SongView from song columns, deriving the playback gain and artwork URL.
+     * Used as a JPQL constructor expression, so a song list is read in one query.
+     *
+     * @param id          the unique ID of the song
+     * @param title       the title of the song
+     * @param artist      the name of the artist
+     * @param genreName   the name of the genre, or null if the song has none
+     * @param filename    the filename of the song
+     * @param loudness    the song's integrated loudness in LUFS, or null if unknown
+     * @param peak        the song's sample peak, or null if unknown
+     * @param artworkHash the song's artwork hash, or null
+     */
+    public SongView(Long id, String title, String artist, String genreName, String filename,
+                    Float loudness, Float peak, String artworkHash) {
+        this(id, title, artist, genreName != null ? genreName : "Unknown", filename,
+                PlaybackGain.linear(loudness, peak),
+                artworkUrl(artworkHash, genreName != null ? genreName : "Unknown"));
+    }
+
     /**
      * @return the song ID
      */
@@ -46,4 +79,43 @@ public record SongView(Long id, String title, String artist, String genreName, S
     public String filename() {
         return filename;
     }
+
+    /**
+     * Returns the linear gain the media player applies so songs play at a consistent loudness.
+     * <p>
+     * Can be used in Thymeleaf as ${song.gain}.
+     *
+     * @return the playback gain
+     */
+    @Override
+    public double gain() {
+        return gain;
+    }
+
+    /**
+     * Returns the URL of the song's cover image for use in templates.
+     * <p>
+     * Can be used in Thymeleaf as ${song.artworkUrl}.
+     *
+     * @return the artwork URL
+     */
+    @Override
+    public String artworkUrl() {
+        return artworkUrl;
+    }
+
+    /**
+     * Builds the cover image URL for a song card: the song's own thumbnail when its tag
+     * carried artwork, otherwise the image of its genre.
+     *
+     * @param artworkHash the song's artwork hash, or null
+     * @param genreName   the name of the song's genre
+     * @return the image URL
+     */
+    public static String artworkUrl(String artworkHash, String genreName) {
+        if (artworkHash != null) {
+            return "/artwork/" + artworkHash + "/" + CARD_ARTWORK_SIZE + ".jpg";
+        }
+        return "/images/album/" + genreName + ".jpg";
+    }
 }
@@ -0,0 +1,46 @@
+package com.groovify.web.dto;
+
+import com.groovify.jpa.model.Client;
+import com.groovify.jpa.model.Genre;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the logged-in user, kept in the HTTP session.
+ * <p>
+ * Holds what pages need about the user on every request: the ID their playlists are
+ * stored under, the name and profile image shown in the top bar, and the preferred
+ * genres used for recommendations. It is stored at login and replaced when the profile
+ * changes, and controllers receive it as a handler method parameter, so page requests
+ * do not look the user up in the database.
+ *
+ * @param id            the unique ID of the user
+ * @param name          the username
+ * @param imageFileName the file name of the profile image
+ * @param genreIds      the IDs of the user's preferred genres
+ */
+public record UserSummary(Long id, String name, String imageFileName, List<Long> genreIds) implements Serializable {
+
+    /** Name of the session attribute holding the summary. */
+    public static final String SESSION_ATTRIBUTE = "userSummary";
+
+    /**
+     * Constructs a UserSummary, copying the genre IDs.
+     */
+    public UserSummary {
+        genreIds = genreIds == null ? List.of() : List.copyOf(genreIds);
+    }
+
+    /**
+     * Builds the summary of a user.
+     *
+     * @param client the user
+     * @return the user's summary
+     */
+    public static UserSummary from(Client client) {
+        List<Long> genreIds = client.getGenres() == null ? List.of()
+                : client.getGenres().stream().map(Genre::getId).toList();
+        return new UserSummary(client.getId(), client.getName(), client.getImageFileName(), genreIds);
+    }
+}
@@ -1,9 +1,10 @@
 let currentSongId = null;
 
-// Open the modal and store which song is being added
+// Open the modal, store which song is being added and load the playlists to choose from
 function openAddToPlaylistModal(songId) {
     currentSongId = songId;
     document.getElementById('addToPlaylistModal').style.display = 'flex';
+    loadPlaylistOptions(songId);
 }
 
 // Close the modal
@@ -12,6 +13,56 @@ function closeAddToPlaylistModal() {
     currentSongId = null;
 }
 
+// Fetch the user's playlists, marking those that already hold the song. The browser
+// revalidates the response with its ETag, so reopening the modal is cheap.
+function loadPlaylistOptions(songId) {
+    const list = document.getElementById('playlistList');
+    showPlaylistMessage(list, 'Loading playlists...');
+
+    fetch(`/playlists/options?songId=${encodeURIComponent(songId)}`, {
+        headers: { 'Accept': 'application/json' }
+    }).then(response => {
+        if (!response.ok) throw new Error(`HTTP ${response.status}`);
+        return response.json();
+    }).then(options => {
+        // Ignore the answer if another song's modal was opened meanwhile
+        if (currentSongId !== songId) return;
+        renderPlaylistOptions(list, options);
+    }).catch(err => {
+        console.error(err);
+        if (currentSongId === songId) showPlaylistMessage(list, 'Could not load playlists.');
+    });
+}
+
+function renderPlaylistOptions(list, options) {
+    if (options.length === 0) {
+        showPlaylistMessage(list, 'You have no playlists yet.');
+        return;
+    }
+
+    list.replaceChildren(...options.map(option => {
+        const item = document.createElement('li');
+        const link = document.createElement('a');
+        link.href = '#';
+        link.textContent = option.name;
+        link.setAttribute('data-playlist-id', option.id);
+        if (option.containsSong) {
+            link.classList.add('in-playlist');
+            link.title = 'Already in this playlist';
+        }
+        link.addEventListener('click', event => addSongToPlaylist(event, link));
+        item.appendChild(link);
+        return item;
+    }));
+}
+
+function showPlaylistMessage(list, message) {
+    const item = document.createElement('li');
+    item.className = 'playlist-message';
+    item.textContent = message;
+    list.replaceChildren(item);
+}
+
 function addSongToPlaylist(event, playlistElement) {
     event.preventDefault();
     const playlistId = playlistElement.getAttribute('data-playlist-id');
@@ -0,0 +1,58 @@
+/**
+ * infiniteScroll.js
+ *
+ * Loads further pages of songs (search results or the songs list) as the
+ * user scrolls. The server marks the end of the list with #loadMore, whose
+ * data-next-url returns the next page's song cards; the URL of the page
+ * after that comes back in the X-Next-Page header, and is absent on the
+ * last page. Loading stops on any error status, such as the 401 sent once
+ * the session has expired, and on a redirect, so no other page is appended.
+ */
+
+document.addEventListener("DOMContentLoaded", () => {
+    const sentinel = document.getElementById("loadMore");
+    const holder = document.getElementById("songHolder");
+    if (!sentinel || !holder || !("IntersectionObserver" in window)) return;
+
+    let loading = false;
+
+    // Start loading a little before the user reaches the end of the list
+    const observer = new IntersectionObserver((entries) => {
+        if (entries.some(entry => entry.isIntersecting)) loadNext();
+    }, { rootMargin: "400px 0px" });
+    observer.observe(sentinel);
+
+    async function loadNext() {
+        const url = sentinel.dataset.nextUrl;
+        if (loading || !url) return;
+        loading = true;
+        try {
+            const response = await fetch(url, { headers: { "Accept": "text/html" } });
+            if (!response.ok || response.redirected) throw new Error(`HTTP ${response.status}`);
+
+            holder.insertAdjacentHTML("beforeend", await response.text());
+
+            const next = response.headers.get("X-Next-Page");
+            if (next) {
+                sentinel.dataset.nextUrl = next;
+            } else {
+                finish();
+            }
+        } catch (err) {
+            console.error("Could not load more songs:", err);
+            finish();
+        } finally {
+            loading = false;
+        }
+
+        // A short page may leave the sentinel on screen, which does not fire the observer again
+        if (sentinel.isConnected && sentinel.getBoundingClientRect().top < window.innerHeight) {
+            loadNext();
+        }
+    }
+
+    function finish() {
+        observer.disconnect();
+        sentinel.remove();
+    }
+});
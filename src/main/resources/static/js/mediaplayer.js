@@ -3,7 +3,7 @@
  *
  * Handles the functionality of the media player on the Groovify site.
  * Supports play/pause, next/previous song, playlist selection, progress tracking,
- * volume control, and folding/unfolding the media player UI.
+ * volume control, loudness normalization, and folding/unfolding the media player UI.
  */
 
 // -----------------------
@@ -21,10 +21,25 @@ const songTitleDisplay = document.getElementById("songTitle");
 const toggleButton = document.getElementById("toggleMediaplayer");
 const mediaPlayer = document.querySelector(".mediaplayer");
 
+// Loudness normalization: the server measures each song and supplies a gain,
+// applied through a Web Audio gain node so quiet songs can also be raised.
+// The audio graph is created on first playback, as browsers require a user gesture.
+let audioContext = null;
+let gainNode = null;
+let pendingGain = 1;
+
 // Playlist state
 let currentSong = null;
 let currentIndex = -1;
-const listedSongs = document.querySelectorAll("#songHolder .song-card");
+
+/**
+ * Returns the song cards currently on the page. Queried on every use because
+ * infinite scroll appends cards after the page has loaded.
+ * @returns {HTMLElement[]} the song cards in page order
+ */
+function listedSongs() {
+    return Array.from(document.querySelectorAll("#songHolder .song-card"));
+}
 
 // -----------------------
 // Helper functions
@@ -41,10 +56,40 @@ function formatTime(seconds) {
     return `${minutes}:${secs < 10 ? "0" : ""}${secs}`;
 }
 
+/**
+ * Route the audio element through a gain node, once.
+ * Falls back to plain playback if the browser has no Web Audio support.
+ */
+function ensureAudioGraph() {
+    if (audioContext || !(window.AudioContext || window.webkitAudioContext)) {
+        return;
+    }
+    audioContext = new (window.AudioContext || window.webkitAudioContext)();
+    gainNode = audioContext.createGain();
+    gainNode.gain.value = pendingGain;
+    audioContext.createMediaElementSource(audioPlayer).connect(gainNode);
+    gainNode.connect(audioContext.destination);
+}
+
+/**
+ * Set the normalization gain for the song being loaded.
+ * @param {number} gain linear gain factor, 1 for unmeasured songs
+ */
+function applySongGain(gain) {
+    pendingGain = Number.isFinite(gain) && gain > 0 ? gain : 1;
+    if (gainNode) {
+        gainNode.gain.setValueAtTime(pendingGain, audioContext.currentTime);
+    }
+}
+
 /**
  * Play the currently loaded audio.
  */
 function playSong() {
+    ensureAudioGraph();
+    if (audioContext && audioContext.state === "suspended") {
+        audioContext.resume();
+    }
     audioPlayer.play();
     playButton.textContent = "⏸";
 }
@@ -66,11 +111,13 @@ function playSongFromCard(songElement, index) {
     const filename = songElement.getAttribute("data-filename");
     const genre = songElement.getAttribute("data-genre");
     const title = songElement.getAttribute("data-title");
+    const gain = parseFloat(songElement.getAttribute("data-gain"));
 
     if (filename !== currentSong) {
         currentIndex = index;
         currentSong = filename;
         audioPlayer.src = `/songs/${encodeURIComponent(genre)}/${encodeURIComponent(filename)}`;
+        applySongGain(gain);
         songTitleDisplay.textContent = title;
 
         playSong();
@@ -86,11 +133,12 @@ function playSongFromCard(songElement, index) {
 // Event listeners
 // -----------------------
 
-// Click a song in the playlist
-listedSongs.forEach((song, index) => {
-    song.addEventListener('click', () => {
-        playSongFromCard(song, index);
-    });
+// Click a song in the playlist; delegated so that cards added later are playable too
+document.addEventListener('click', (event) => {
+    const song = event.target.closest("#songHolder .song-card");
+    if (song) {
+        playSongFromCard(song, listedSongs().indexOf(song));
+    }
 });
 
 // Play/pause button
@@ -104,20 +152,22 @@ playButton.addEventListener('click', () => {
 
 // Previous / Next buttons
 lastSongButton.addEventListener('click', () => {
+    const songs = listedSongs();
     if (currentIndex > 0) {
-        playSongFromCard(listedSongs[currentIndex - 1], currentIndex - 1);
+        playSongFromCard(songs[currentIndex - 1], currentIndex - 1);
     } else {
         // Wrap to last song
-        playSongFromCard(listedSongs[listedSongs.length - 1], listedSongs.length - 1);
+        playSongFromCard(songs[songs.length - 1], songs.length - 1);
     }
 });
 
 nextSongButton.addEventListener('click', () => {
-    if (currentIndex < listedSongs.length - 1) {
-        playSongFromCard(listedSongs[currentIndex + 1], currentIndex + 1);
+    const songs = listedSongs();
+    if (currentIndex < songs.length - 1) {
+        playSongFromCard(songs[currentIndex + 1], currentIndex + 1);
     } else {
         // Wrap to first song
-        playSongFromCard(listedSongs[0], 0);
+        playSongFromCard(songs[0], 0);
     }
 });
 
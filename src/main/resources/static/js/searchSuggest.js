@@ -0,0 +1,105 @@
+/**
+ * searchSuggest.js
+ *
+ * Search-as-you-type for the search page: asks /search/suggest for
+ * titles, artists and genres completing the typed text and lists them
+ * under the search box. Choosing one fills in the query and search type
+ * and submits the form.
+ */
+
+document.addEventListener("DOMContentLoaded", () => {
+    const input = document.getElementById("searchInput");
+    const typeSelect = document.getElementById("searchType");
+    const list = document.getElementById("searchSuggestions");
+    if (!input || !typeSelect || !list) return;
+
+    const DEBOUNCE_MS = 120;
+    let timer = null;
+    let controller = null;
+    let active = -1;
+
+    // --- Fetch suggestions shortly after the user stops typing ---
+    input.addEventListener("input", () => {
+        clearTimeout(timer);
+        const prefix = input.value.trim();
+        if (!prefix) {
+            hide();
+            return;
+        }
+        timer = setTimeout(() => load(prefix), DEBOUNCE_MS);
+    });
+
+    // --- Arrow keys move through the list, Enter picks, Escape closes ---
+    input.addEventListener("keydown", (e) => {
+        const items = list.querySelectorAll(".search-suggestion");
+        if (list.hidden || items.length === 0) return;
+
+        if (e.key === "ArrowDown" || e.key === "ArrowUp") {
+            e.preventDefault();
+            active = (active + (e.key === "ArrowDown" ? 1 : items.length - 1)) % items.length;
+            items.forEach((item, i) => item.classList.toggle("active", i === active));
+        } else if (e.key === "Enter" && active >= 0) {
+            e.preventDefault();
+            choose(items[active]);
+        } else if (e.key === "Escape") {
+            hide();
+        }
+    });
+
+    // --- Close the list when clicking elsewhere ---
+    document.addEventListener("click", (e) => {
+        if (e.target !== input && !list.contains(e.target)) hide();
+    });
+
+    function load(prefix) {
+        // Only the latest request matters; drop any still in flight
+        if (controller) controller.abort();
+        controller = new AbortController();
+
+        fetch(`/search/suggest?q=${encodeURIComponent(prefix)}`, { signal: controller.signal })
+            .then(response => response.ok ? response.json() : [])
+            .then(render)
+            .catch(err => {
+                if (err.name !== "AbortError") console.error("Suggestion request failed:", err);
+            });
+    }
+
+    function render(suggestions) {
+        list.innerHTML = "";
+        active = -1;
+        if (suggestions.length === 0) {
+            hide();
+            return;
+        }
+
+        suggestions.forEach(suggestion => {
+            const item = document.createElement("li");
+            item.className = "search-suggestion";
+            item.dataset.text = suggestion.text;
+            item.dataset.type = suggestion.field.toLowerCase();
+
+            const text = document.createElement("span");
+            text.textContent = suggestion.text;
+            const type = document.createElement("span");
+            type.className = "search-suggestion-type";
+            type.textContent = item.dataset.type;
+
+            item.append(text, type);
+            item.addEventListener("click", () => choose(item));
+            list.appendChild(item);
+        });
+        list.hidden = false;
+    }
+
+    function choose(item) {
+        input.value = item.dataset.text;
+        typeSelect.value = item.dataset.type;
+        hide();
+        input.form.submit();
+    }
+
+    function hide() {
+        list.hidden = true;
+        active = -1;
+    }
+});
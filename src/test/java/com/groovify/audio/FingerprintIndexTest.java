@@ -0,0 +1,104 @@
+package com.groovify.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit tests for {@link FingerprintIndex}, using random fingerprints, whose keys change
+ * at almost every frame.
+ */
+class FingerprintIndexTest {
+
+    // Happy Path
+
+    /**
+     * Tests that a stretch of an indexed fingerprint finds its song at the right offset.
+     */
+    @Test
+    public void candidatesFindsAlignedSongTest() {
+        FingerprintIndex index = new FingerprintIndex();
+        int[] fingerprint = randomFingerprint(600, 1);
+        index.add(1, fingerprint);
+        index.add(2, randomFingerprint(600, 2));
+
+        List<FingerprintIndex.Candidate> candidates = index.candidates(Arrays.copyOfRange(fingerprint, 200, 400), 10, 10);
+        assertEquals("Only the source song should be found", 1, candidates.size());
+        assertEquals("Candidate should be the source song", 1L, candidates.get(0).songId());
+        assertTrue("Offset range should contain the trim", Math.abs(candidates.get(0).offset() - 200) < 8);
+    }
+
+    /**
+     * Tests that a removed song that is added again is found by its new fingerprint only,
+     * since the postings of the old one are purged.
+     */
+    @Test
+    public void addAfterRemovePurgesOldPostingsTest() {
+        FingerprintIndex index = new FingerprintIndex();
+        int[] old = randomFingerprint(600, 3);
+        int[] replacement = randomFingerprint(600, 4);
+        for (long songId = 1; songId <= 20; songId++) {
+            index.add(songId, songId == 1 ? old : randomFingerprint(600, 100 + songId));
+        }
+
+        index.remove(1);
+        assertEquals("Removed song should not be counted", 19, index.size());
+        index.add(1, replacement);
+
+        assertEquals("Re-added song should be counted once", 20, index.size());
+        assertTrue("Old fingerprint should no longer match", index.candidates(old, 10, 10).isEmpty());
+        assertEquals("New fingerprint should match", 1L, index.candidates(replacement, 10, 10).get(0).songId());
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that a removed song is left out of lookups before its postings are purged.
+     */
+    @Test
+    public void removedSongNotFoundTest() {
+        FingerprintIndex index = new FingerprintIndex();
+        int[] fingerprint = randomFingerprint(600, 5);
+        for (long songId = 1; songId <= 20; songId++) {
+            index.add(songId, songId == 1 ? fingerprint : randomFingerprint(600, 200 + songId));
+        }
+
+        index.remove(1);
+
+        assertTrue("Removed song should not be a candidate", index.candidates(fingerprint, 10, 10).isEmpty());
+        assertFalse("Removed song should not be contained", index.contains(1));
+        assertTrue("Other songs should be contained", index.contains(2));
+        assertEquals("Other songs should stay", 19, index.size());
+    }
+
+    /**
+     * Tests that removing every song purges the index, leaving nothing to find.
+     */
+    @Test
+    public void removeAllSongsTest() {
+        FingerprintIndex index = new FingerprintIndex();
+        int[] fingerprint = randomFingerprint(600, 6);
+        index.add(1, fingerprint);
+
+        index.remove(1);
+        index.remove(1);
+
+        assertEquals("Index should be empty", 0, index.size());
+        assertTrue("Nothing should be found", index.candidates(fingerprint, 1, 10).isEmpty());
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private static int[] randomFingerprint(int frames, long seed) {
+        Random random = new Random(seed);
+        int[] fingerprint = new int[frames];
+        for (int i = 0; i < frames; i++) fingerprint[i] = random.nextInt();
+        return fingerprint;
+    }
+}
@@ -0,0 +1,133 @@
+package com.groovify.jpa.repo;
+
+import com.groovify.jpa.model.Genre;
+import com.groovify.jpa.model.Playlist;
+import com.groovify.jpa.model.Song;
+import com.groovify.web.dto.SongView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Integration tests for the {@link SongView} projection queries of {@link SongRepo},
+ * validating that song lists are read with their genre names and in a stable order.
+ */
+@Transactional
+@SpringBootTest
+class SongRepoTest {
+
+    @Autowired
+    private SongRepo songRepo;
+
+    @Autowired
+    private GenreRepo genreRepo;
+
+    @Autowired
+    private PlaylistRepo playlistRepo;
+
+    private Song first;
+    private Song second;
+    private Song third;
+
+    /**
+     * Saves three songs of one genre, in ID order.
+     */
+    @BeforeEach
+    void setUp() {
+        Genre genre = genreRepo.save(new Genre("View Genre"));
+        first = saveSong("view-first.mp3", "First View", genre);
+        second = saveSong("view-second.mp3", "Second View", genre);
+        third = saveSong("view-third.mp3", "Third View", genre);
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that songs read in a given order come back in that order with their genre names.
+     */
+    @Test
+    public void findViewsInOrderKeepsIdOrderTest() {
+        List<SongView> views = songRepo.findViewsInOrder(List.of(third.getId(), first.getId(), second.getId()));
+
+        assertEquals("Views should follow the given IDs", List.of(third.getId(), first.getId(), second.getId()), ids(views));
+        assertEquals("Genre name should be joined in", "View Genre", views.get(0).genreName());
+        assertEquals("Title should be read", "Third View", views.get(0).title());
+    }
+
+    /**
+     * Tests that a playlist's songs are read in song ID order, whatever order they were added in.
+     */
+    @Test
+    public void findViewsByPlaylistIdOrdersByIdTest() {
+        Playlist playlist = new Playlist();
+        playlist.setClientID(1L);
+        playlist.setName("View Playlist");
+        playlist.setSongs(new ArrayList<>(List.of(third, first, second)));
+        playlistRepo.save(playlist);
+
+        assertEquals("Playlist songs should be in ID order", List.of(first.getId(), second.getId(), third.getId()),
+                ids(songRepo.findViewsByPlaylistId(playlist.getId())));
+    }
+
+    /**
+     * Tests that pages of available songs start after the given ID and skip missing songs.
+     */
+    @Test
+    public void findAvailableViewsAfterPagesByIdTest() {
+        second.setMissingSince(Instant.now());
+        songRepo.save(second);
+
+        List<SongView> page = songRepo.findAvailableViewsAfter(first.getId() - 1, PageRequest.of(0, 2));
+        assertEquals("Page should skip the missing song", List.of(first.getId(), third.getId()), ids(page));
+
+        List<SongView> next = songRepo.findAvailableViewsAfter(first.getId(), PageRequest.of(0, 2));
+        assertEquals("Next page should start after the given ID", third.getId(), next.get(0).id());
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that a song without a genre is read with the "Unknown" genre name.
+     */
+    @Test
+    public void findViewsWithoutGenreTest() {
+        Song genreless = saveSong("view-genreless.mp3", "Genreless View", null);
+
+        List<SongView> views = songRepo.findViewsInOrder(List.of(genreless.getId()));
+        assertEquals("Song without a genre should be read", 1, views.size());
+        assertEquals("Missing genre should read as Unknown", "Unknown", views.get(0).genreName());
+    }
+
+    /**
+     * Tests that IDs of songs that do not exist are left out, and that no IDs read nothing.
+     */
+    @Test
+    public void findViewsInOrderSkipsUnknownIdsTest() {
+        assertEquals("Unknown ID should be left out", List.of(second.getId()),
+                ids(songRepo.findViewsInOrder(List.of(Long.MAX_VALUE, second.getId()))));
+        assertTrue("No IDs should read nothing", songRepo.findViewsInOrder(List.of()).isEmpty());
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private Song saveSong(String filename, String title, Genre genre) {
+        Song song = new Song(filename, title, "View Artist");
+        song.setGenre(genre);
+        return songRepo.save(song);
+    }
+
+    private static List<Long> ids(List<SongView> views) {
+        return views.stream().map(SongView::id).toList();
+    }
+}
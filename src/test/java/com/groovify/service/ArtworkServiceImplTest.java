@@ -0,0 +1,122 @@
+package com.groovify.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Integration tests for {@link ArtworkServiceImpl}, validating thumbnail generation,
+ * content addressing, and lookup.
+ */
+@SpringBootTest
+class ArtworkServiceImplTest {
+
+    @Autowired
+    private ArtworkServiceImpl artworkService;
+
+    @TempDir
+    Path root;
+
+    private byte[] image;
+
+    /**
+     * Points the service at a temporary directory and loads a sample image.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        artworkService.artworkDirectory = root.toString();
+        image = Files.readAllBytes(Path.of("src/main/resources/static/images/album/Rock.jpg"));
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that every thumbnail size is written as a square JPEG no larger than its size.
+     */
+    @Test
+    public void storeArtworkWritesThumbnailsTest() throws IOException {
+        String hash = artworkService.storeArtwork(image);
+        assertEquals("Hash should be SHA-256 hex", 64, hash.length());
+
+        for (int size : ArtworkService.THUMBNAIL_SIZES) {
+            Path thumbnail = artworkService.findThumbnail(hash, size);
+            assertNotNull("Thumbnail " + size + " should exist", thumbnail);
+            BufferedImage decoded = ImageIO.read(thumbnail.toFile());
+            assertEquals("Thumbnail should be square", decoded.getWidth(), decoded.getHeight());
+            assertTrue("Thumbnail should not exceed its size", decoded.getWidth() <= size);
+        }
+    }
+
+    /**
+     * Tests that the smallest thumbnail is much smaller than the source image.
+     */
+    @Test
+    public void storeArtworkShrinksImageTest() throws IOException {
+        String hash = artworkService.storeArtwork(image);
+        long size = Files.size(artworkService.findThumbnail(hash, ArtworkService.THUMBNAIL_SIZES.get(0)));
+        assertTrue("Thumbnail should be smaller than the source", size < image.length / 2);
+    }
+
+    /**
+     * Tests that storing the same image twice returns the same hash without rewriting files.
+     */
+    @Test
+    public void storeArtworkIsContentAddressedTest() throws IOException {
+        String hash = artworkService.storeArtwork(image);
+        Path thumbnail = artworkService.findThumbnail(hash, 320);
+        FileTime written = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(thumbnail, written);
+
+        assertEquals("Same image should have the same hash", hash, artworkService.storeArtwork(image.clone()));
+        assertEquals("Existing thumbnail should not be rewritten", written, Files.getLastModifiedTime(thumbnail));
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that data that is not an image is rejected.
+     */
+    @Test
+    public void storeArtworkInvalidImageTest() {
+        assertThrows(IOException.class, () -> artworkService.storeArtwork(new byte[]{1, 2, 3, 4}));
+    }
+
+    /**
+     * Tests that empty image data is rejected.
+     */
+    @Test
+    public void storeArtworkEmptyImageTest() {
+        assertThrows(IOException.class, () -> artworkService.storeArtwork(new byte[0]));
+    }
+
+    /**
+     * Tests that malformed hashes and unsupported sizes are not looked up.
+     */
+    @Test
+    public void findThumbnailInvalidRequestTest() throws IOException {
+        String hash = artworkService.storeArtwork(image);
+        assertNull("Unsupported size should not be found", artworkService.findThumbnail(hash, 321));
+        assertNull("Path-like hash should not be found", artworkService.findThumbnail("../" + hash.substring(3), 320));
+        assertNull("Null hash should not be found", artworkService.findThumbnail(null, 320));
+    }
+
+    /**
+     * Tests that a well-formed hash that was never stored is not found.
+     */
+    @Test
+    public void findThumbnailUnknownHashTest() {
+        assertNull("Unknown hash should not be found", artworkService.findThumbnail("0".repeat(64), 320));
+    }
+}
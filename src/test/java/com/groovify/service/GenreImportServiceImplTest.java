@@ -177,6 +177,59 @@ class GenreImportServiceImplTest {
         assertTrue("edm should exist as separate entry", genreImportService.genreExists("edm"));
     }
 
+    /**
+     * =====================================================
+     * upsertGenres Tests
+     * =====================================================
+     */
+
+    // ---------- Happy Path (Good Tests) ----------
+    /**
+     * Ensures upsert inserts every new genre and reports how many were created.
+     */
+    @Test
+    void upsertGenresInsertsMissingTest() {
+        assertEquals("Three genres should be inserted", 3,
+                genreImportService.upsertGenres(List.of(rock, pop, folk)));
+
+        assertTrue("Rock should exist", genreImportService.genreExists(rock));
+        assertTrue("Pop should exist", genreImportService.genreExists(pop));
+        assertTrue("Folk should exist", genreImportService.genreExists(folk));
+    }
+
+    /**
+     * Ensures only genres that do not exist yet are inserted.
+     */
+    @Test
+    void upsertGenresSkipsExistingTest() {
+        genreImportService.saveGenre(rock);
+
+        assertEquals("Only Pop should be inserted", 1,
+                genreImportService.upsertGenres(List.of(rock, pop)));
+        assertEquals("Nothing should be inserted again", 0,
+                genreImportService.upsertGenres(List.of(rock, pop)));
+    }
+
+    /**
+     * Ensures duplicates that differ only by surrounding whitespace are inserted once.
+     */
+    @Test
+    void upsertGenresCollapsesTrimmedDuplicatesTest() {
+        assertEquals("Grunge should be inserted once", 1,
+                genreImportService.upsertGenres(List.of("Grunge", " Grunge ", "Grunge")));
+    }
+
+    // ---------- Crappy Path (Expected Fail Tests) ----------
+    /**
+     * Ensures null, empty, and whitespace-only input inserts nothing.
+     */
+    @Test
+    void upsertGenresInvalidInputTest() {
+        assertEquals("Null list inserts nothing", 0, genreImportService.upsertGenres(null));
+        assertEquals("Invalid names insert nothing", 0,
+                genreImportService.upsertGenres(Arrays.asList(null, "", "   ")));
+    }
+
     /**
      * =====================================================
      * saveGenre Tests
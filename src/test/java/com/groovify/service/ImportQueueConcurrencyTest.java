@@ -0,0 +1,90 @@
+package com.groovify.service;
+
+import com.groovify.jpa.model.ImportTask;
+import com.groovify.jpa.repo.ImportTaskRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Concurrency tests for {@link ImportQueueServiceImpl}, validating that workers
+ * draining the queue at the same time never claim the same task.
+ * <p>
+ * Not transactional: two workers cannot share one transaction, and each must see
+ * the row locks the other commits. The tasks are deleted after every test, and
+ * point at a folder that does not exist so that no songs are imported.
+ */
+@SpringBootTest
+class ImportQueueConcurrencyTest {
+
+    @Autowired
+    private ImportQueueServiceImpl importQueueService;
+
+    @Autowired
+    private ImportTaskRepo importTaskRepo;
+
+    private int originalBatchSize;
+
+    /**
+     * Claims two tasks at a time, so the workers interleave their claims.
+     */
+    @BeforeEach
+    void setUp() {
+        originalBatchSize = importQueueService.batchSize;
+        importQueueService.batchSize = 2;
+    }
+
+    /**
+     * Restores the batch size and removes the tasks, which were committed.
+     */
+    @AfterEach
+    void tearDown() {
+        importQueueService.batchSize = originalBatchSize;
+        importTaskRepo.deleteAll();
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that two workers draining the queue at the same time each claim different
+     * tasks, so every task is processed exactly once.
+     */
+    @Test
+    public void concurrentDrainClaimsEachTaskOnceTest() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            importTaskRepo.save(new ImportTask("NoSuchFolder:" + i, "NoSuchFolder", "Song" + i + ".mp3"));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = workers.submit(() -> {
+                start.await();
+                return importQueueService.drain();
+            });
+            Future<Integer> second = workers.submit(() -> {
+                start.await();
+                return importQueueService.drain();
+            });
+            start.countDown();
+
+            assertEquals("Every task should be processed once", 20, first.get() + second.get());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        for (ImportTask task : importTaskRepo.findAll()) {
+            assertEquals("Task should be done", ImportTask.Status.DONE, task.getStatus());
+            assertEquals("Task should be claimed once", 1, task.getAttempts());
+        }
+    }
+}
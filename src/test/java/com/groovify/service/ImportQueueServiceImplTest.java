@@ -0,0 +1,190 @@
+package com.groovify.service;
+
+import com.groovify.jpa.model.ImportTask;
+import com.groovify.jpa.repo.ImportTaskRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Integration tests for {@link ImportQueueServiceImpl}, validating that the
+ * database-backed import queue enqueues each batch once and that draining it
+ * imports every song exactly once against the embedded H2 database.
+ */
+@Transactional
+@SpringBootTest
+class ImportQueueServiceImplTest {
+
+    @Autowired
+    private GenreImportService genreImportService;
+
+    @Autowired
+    private ImportQueueServiceImpl importQueueService;
+
+    @Autowired
+    private ImportTaskRepo importTaskRepo;
+
+    @Autowired
+    private SongService songService;
+
+    private String originalMusicDirectory;
+    private int originalBatchSize;
+
+    /**
+     * Imports the genres used by the project's song folders and points the queue
+     * at the project's music directory.
+     */
+    @BeforeEach
+    void setUp() {
+        originalMusicDirectory = importQueueService.musicDirectory;
+        originalBatchSize = importQueueService.batchSize;
+        genreImportService.importGenres(List.of("Rock", "Pop", "Classical", "Tech", "Country", "Folk"));
+        importQueueService.musicDirectory = "src/main/resources/static/songs";
+        importQueueService.batchSize = 2;
+    }
+
+    /**
+     * Restores the queue's settings, since the bean is shared with other test classes.
+     */
+    @AfterEach
+    void tearDown() {
+        importQueueService.musicDirectory = originalMusicDirectory;
+        importQueueService.batchSize = originalBatchSize;
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that enqueuing creates tasks and that draining imports every MP3 file.
+     */
+    @Test
+    public void drainImportsAllSongsTest() {
+        assertTrue("Tasks should be enqueued", importQueueService.enqueueLibrary() > 0);
+        assertTrue("Tasks should be processed", importQueueService.drain() > 0);
+
+        assertEquals("Every MP3 file should be imported", countMp3Files(), songService.getAllSongs().size());
+        assertEquals("No task should be left pending", 0L, importTaskRepo.countByStatus(ImportTask.Status.PENDING));
+    }
+
+    /**
+     * Tests that enqueuing the same library twice does not create duplicate tasks.
+     */
+    @Test
+    public void enqueueTwiceDoesNotDuplicateTasksTest() {
+        int first = importQueueService.enqueueLibrary();
+
+        assertTrue("Tasks should be enqueued", first > 0);
+        assertEquals("Second enqueue should add nothing", 0, importQueueService.enqueueLibrary());
+        assertEquals("Task count should match first enqueue", (long) first, importTaskRepo.count());
+    }
+
+    /**
+     * Tests that a drained queue has nothing left to claim.
+     */
+    @Test
+    public void drainTwiceProcessesNothingSecondTimeTest() {
+        importQueueService.enqueueLibrary();
+        importQueueService.drain();
+
+        assertEquals("Nothing should be left to claim", 0, importQueueService.drain());
+    }
+
+    /**
+     * Tests that files already in the catalog are not enqueued again, so finished
+     * tasks can be purged without the library being imported twice.
+     */
+    @Test
+    public void enqueueSkipsImportedFilesTest() {
+        importQueueService.enqueueLibrary();
+        importQueueService.drain();
+        importTaskRepo.deleteAll();
+
+        assertEquals("Imported files should not be enqueued", 0, importQueueService.enqueueLibrary());
+    }
+
+    /**
+     * Tests that adding a file to a folder enqueues that file alone and leaves the
+     * keys of the files already enqueued unchanged.
+     */
+    @Test
+    public void enqueueAddedFileKeepsKeysTest(@TempDir Path root) throws IOException {
+        importQueueService.musicDirectory = root.toString();
+        copySong(root, "Alpha.mp3");
+        copySong(root, "Gamma.mp3");
+        assertEquals("Each file should get its own task", 2, importQueueService.enqueueLibrary());
+        List<String> keys = importTaskRepo.findUnitKeysByFolder("Rock");
+
+        copySong(root, "Beta.mp3");
+
+        assertEquals("Only the new file should be enqueued", 1, importQueueService.enqueueLibrary());
+        assertTrue("Existing keys should be kept", importTaskRepo.findUnitKeysByFolder("Rock").containsAll(keys));
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that an expired claim is not taken over once the task has used up its
+     * attempts, so a file that keeps killing its node is eventually left alone.
+     */
+    @Test
+    public void expiredClaimWithoutAttemptsLeftTest() {
+        ImportTask task = new ImportTask("Rock:stuck", "Rock", "FunRock.mp3");
+        task.setStatus(ImportTask.Status.CLAIMED);
+        task.setClaimedBy("dead-node");
+        task.setClaimedAt(Instant.now().minus(Duration.ofDays(1)));
+        task.setAttempts(importQueueService.maxAttempts);
+        importTaskRepo.save(task);
+
+        assertEquals("Task should not be claimed again", 0, importQueueService.drain());
+    }
+
+    /**
+     * Tests that an invalid music directory enqueues nothing.
+     */
+    @Test
+    public void enqueueInvalidFolderTest() {
+        importQueueService.musicDirectory = "src/main/resources/static/DoesNotExist";
+
+        assertEquals("No tasks should be enqueued", 0, importQueueService.enqueueLibrary());
+        assertEquals("Nothing should be processed", 0, importQueueService.drain());
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Copies one of the project's songs into the Rock folder of a test music directory.
+     */
+    private void copySong(Path root, String filename) throws IOException {
+        Files.createDirectories(root.resolve("Rock"));
+        Files.copy(Path.of("src/main/resources/static/songs/Rock/FunRock.mp3"), root.resolve("Rock").resolve(filename));
+    }
+
+    /**
+     * Counts the MP3 files in the project's genre folders.
+     */
+    private int countMp3Files() {
+        int count = 0;
+        File[] folders = new File("src/main/resources/static/songs").listFiles(File::isDirectory);
+        for (File folder : folders) {
+            String[] names = folder.list((dir, name) -> name.toLowerCase().endsWith(".mp3"));
+            count += names == null ? 0 : names.length;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,269 @@
+package com.groovify.service;
+
+import com.groovify.jpa.repo.SongRepo;
+import com.groovify.search.SearchField;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit tests for {@link LuceneSearchEngine}, run against an index in a temporary
+ * directory. Searches are compared with {@link MemorySearchEngine} over the same songs,
+ * since the service must return the same results whichever engine is configured.
+ */
+class LuceneSearchEngineTest {
+
+    private static final List<SongRepo.SongText> SONGS = List.of(
+            text(1, "Hello World", "Adele", "Pop"),
+            text(2, "Yellow Submarine", "The Beatles", "Rock"),
+            text(3, "Hell's Bells", "AC/DC", "Rock"),
+            text(4, "World in My Eyes", "Depeche Mode", "Electronic"));
+
+    @TempDir
+    Path indexDirectory;
+
+    private LuceneSearchEngine lucene;
+    private MemorySearchEngine memory;
+
+    /**
+     * Loads the test songs into a new Lucene index and a memory engine.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        lucene = new LuceneSearchEngine(indexDirectory.toString());
+        lucene.putAll(SONGS);
+        lucene.flush();
+        memory = new MemorySearchEngine();
+        memory.putAll(SONGS);
+    }
+
+    /**
+     * Closes the index so the temporary directory can be removed.
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        lucene.close();
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that substring searches find and rank the same songs as the memory engine:
+     * whole words first, then words starting with the query, then matches inside a word.
+     */
+    @Test
+    public void findSubstringMatchesMemoryEngineTest() {
+        List<Long> expected = ids(memory.findSubstring("hell", SearchField.TITLE, null, 10));
+        assertEquals("Memory engine should find all three titles", List.of(3L, 1L, 2L), expected);
+        assertEquals("Lucene should rank like the memory engine", expected,
+                ids(lucene.findSubstring("hell", SearchField.TITLE, null, 10)));
+        assertEquals("Artist substrings should match like the memory engine",
+                ids(memory.findSubstring("eat", SearchField.ARTIST, null, 10)),
+                ids(lucene.findSubstring("eat", SearchField.ARTIST, null, 10)));
+    }
+
+    /**
+     * Tests that a substring search spanning two words matches, since the n-grams
+     * include the space between them.
+     */
+    @Test
+    public void findSubstringAcrossWordsTest() {
+        assertEquals("Query spanning two words should match", List.of(1L),
+                ids(lucene.findSubstring("lo wor", SearchField.TITLE, null, 10)));
+    }
+
+    /**
+     * Tests that fuzzy searches find the same songs as the memory engine.
+     */
+    @Test
+    public void findFuzzyMatchesMemoryEngineTest() {
+        Set<Long> expected = new HashSet<>(ids(memory.findFuzzy("helo", SearchField.TITLE, null, 10)));
+        assertFalse("Memory engine should find close titles", expected.isEmpty());
+        assertEquals("Lucene should find the same songs", expected,
+                new HashSet<>(ids(lucene.findFuzzy("helo", SearchField.TITLE, null, 10))));
+        assertEquals("Artist typos should match like the memory engine",
+                new HashSet<>(ids(memory.findFuzzy("beatels", SearchField.ARTIST, null, 10))),
+                new HashSet<>(ids(lucene.findFuzzy("beatels", SearchField.ARTIST, null, 10))));
+    }
+
+    /**
+     * Tests that searches across all fields find the same songs as the memory engine,
+     * with the same best match.
+     */
+    @Test
+    public void findAllFieldsMatchesMemoryEngineTest() {
+        for (String query : List.of("world", "beatles")) {
+            List<Long> expected = ids(memory.findAllFields(query, null, 10));
+            List<Long> actual = ids(lucene.findAllFields(query, null, 10));
+            assertFalse("Memory engine should match '" + query + "'", expected.isEmpty());
+            assertEquals("Lucene should find the same songs for '" + query + "'", new HashSet<>(expected), new HashSet<>(actual));
+            assertEquals("Lucene should rank the same song first for '" + query + "'", expected.get(0), actual.get(0));
+        }
+    }
+
+    /**
+     * Tests that a reopened index keeps its songs and resumes after the highest song ID
+     * and the re-index watermark of its last commit.
+     */
+    @Test
+    public void reopenResumesAfterIndexedThroughTest() throws IOException {
+        Instant beforeReopen = Instant.now();
+        lucene.close();
+        lucene = new LuceneSearchEngine(indexDirectory.toString());
+
+        assertEquals("Songs should survive a restart", SONGS.size(), lucene.size());
+        assertEquals("Loading should resume after the last song", 4L, lucene.indexedThrough());
+        assertNotNull("A re-index watermark should be committed", lucene.indexedAsOf());
+        assertFalse("Watermark should not be later than the last commit", lucene.indexedAsOf().isAfter(beforeReopen));
+        assertEquals("Reopened index should be searchable", List.of(1L),
+                ids(lucene.findSubstring("hello", SearchField.TITLE, null, 10)));
+    }
+
+    /**
+     * Tests that each commit records the start of the one before it, so songs enriched
+     * while a commit ran are indexed again at the next start.
+     */
+    @Test
+    public void flushKeepsWatermarkOneCommitBehindTest() {
+        Instant first = lucene.indexedAsOf();
+        lucene.put(2, "Yellow Submarine", "The Beatles", "Rock");
+        lucene.flush();
+        Instant second = lucene.indexedAsOf();
+        Instant beforeThird = Instant.now();
+        lucene.put(3, "Hells Bells", "AC/DC", "Rock");
+        lucene.flush();
+
+        assertFalse("Watermark should not move back", second.isBefore(first));
+        assertFalse("Watermark should advance with each commit", lucene.indexedAsOf().isBefore(second));
+        assertFalse("Watermark should trail the latest commit", lucene.indexedAsOf().isAfter(beforeThird));
+    }
+
+    /**
+     * Tests that walking a search one match at a time, each page after the last match
+     * of the one before, returns the whole ranking in order with the same total.
+     */
+    @Test
+    public void pagesAfterCursorFollowRankingTest() {
+        List<Long> expected = ids(lucene.findSubstring("hell", SearchField.TITLE, null, 10));
+
+        List<Long> paged = new ArrayList<>();
+        SongSearchEngine.Match after = null;
+        for (int page = 0; page < 10; page++) {
+            SongSearchEngine.MatchPage matches = lucene.findSubstring("hell", SearchField.TITLE, after, 1);
+            assertEquals("Every page should count the whole ranking", 3, matches.total());
+            if (matches.matches().isEmpty()) break;
+            assertEquals("Pages should hold one match", 1, matches.matches().size());
+            after = matches.matches().get(0);
+            paged.add(after.songId());
+        }
+        assertEquals("Pages should follow the ranking", expected, paged);
+    }
+
+    /**
+     * Tests that putting a song again replaces its document instead of adding another.
+     */
+    @Test
+    public void putReplacesDocumentTest() {
+        lucene.put(1, "Goodbye Moon", "Adele", "Pop");
+
+        assertEquals("Song count should not change", SONGS.size(), lucene.size());
+        assertTrue("Old title should no longer match",
+                lucene.findSubstring("hello", SearchField.TITLE, null, 10).matches().isEmpty());
+        assertEquals("New title should match", List.of(1L), ids(lucene.findSubstring("goodbye", SearchField.TITLE, null, 10)));
+    }
+
+    /**
+     * Tests that removing a song deletes its document from the Lucene and memory engines.
+     */
+    @Test
+    public void removeDeletesDocumentTest() {
+        lucene.remove(1);
+        memory.remove(1);
+
+        assertEquals("Song count should drop by one", SONGS.size() - 1, lucene.size());
+        assertEquals("Lucene should no longer find the song", List.of(3L),
+                ids(lucene.findSubstring("hell", SearchField.TITLE, null, 10)));
+        assertEquals("Memory engine should no longer find the song", List.of(3L),
+                ids(memory.findSubstring("hell", SearchField.TITLE, null, 10)));
+        assertEquals("All-field search should not count the song", 1,
+                lucene.findAllFields("world", null, 10).total());
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that removing a song that is not indexed changes nothing.
+     */
+    @Test
+    public void removeUnknownSongTest() {
+        lucene.remove(99);
+        memory.remove(99);
+
+        assertEquals("Song count should not change", SONGS.size(), lucene.size());
+        assertEquals("Memory engine should still find every song", SONGS.size(), memory.size());
+    }
+
+    /**
+     * Tests that queries without letters or digits match nothing.
+     */
+    @Test
+    public void blankQueryMatchesNothingTest() {
+        assertTrue("Substring search should be empty", lucene.findSubstring("!!", SearchField.TITLE, null, 10).matches().isEmpty());
+        assertTrue("Fuzzy search should be empty", lucene.findFuzzy(" ", SearchField.ARTIST, null, 10).matches().isEmpty());
+        assertTrue("All-field search should be empty", lucene.findAllFields("", null, 10).matches().isEmpty());
+    }
+
+    /**
+     * Tests that an all-field search with no room for results returns nothing.
+     */
+    @Test
+    public void findAllFieldsZeroLimitTest() {
+        assertTrue("Zero limit should return nothing", lucene.findAllFields("rock", null, 0).matches().isEmpty());
+    }
+
+    /**
+     * Tests that a new index has nothing to resume from.
+     */
+    @Test
+    public void newIndexHasNoWatermarkTest(@TempDir Path emptyDirectory) throws IOException {
+        LuceneSearchEngine empty = new LuceneSearchEngine(emptyDirectory.toString());
+        try {
+            assertEquals("New index should start from the first song", 0L, empty.indexedThrough());
+            assertNull("New index should have no watermark", empty.indexedAsOf());
+            assertEquals("New index should be empty", 0, empty.size());
+        } finally {
+            empty.close();
+        }
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private static List<Long> ids(SongSearchEngine.MatchPage page) {
+        return page.matches().stream().map(SongSearchEngine.Match::songId).toList();
+    }
+
+    private static SongRepo.SongText text(long id, String title, String artist, String genre) {
+        return new SongRepo.SongText() {
+            public Long getId() { return id; }
+            public String getTitle() { return title; }
+            public String getArtist() { return artist; }
+            public String getGenreName() { return genre; }
+            public Instant getMissingSince() { return null; }
+            public Instant getEnrichedAt() { return null; }
+            public Instant getAvailabilityChangedAt() { return null; }
+        };
+    }
+}
@@ -5,6 +5,7 @@ import com.groovify.jpa.model.Genre;
 import com.groovify.jpa.model.Playlist;
 import com.groovify.jpa.model.Song;
 import com.groovify.jpa.repo.GenreRepo;
+import com.groovify.web.dto.PlaylistOption;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -239,6 +240,76 @@ public class PlaylistServiceImplTest {
         assertTrue("Return true with an empty list", playlistService.getPlaylistsByClientId(null).equals(List.of()));
     }
 
+    /**
+     * getPlaylistOptions
+     */
+
+    // Happy Path
+
+    /**
+     * Tests retrieval of playlist options for a song in one of two playlists.
+     * Verifies that both playlists are returned and only the one holding the song is marked.
+     */
+    @Test
+    public void getPlaylistOptionsMarksPlaylistWithSongTest() {
+        Playlist playlist = makeTestPlaylist();
+        Playlist playlist2 = makeTestPlaylist();
+        playlist2.setName("Other Playlist");
+
+        assertTrue("Playlist should be persisted", playlistService.savePlaylist(playlist));
+        assertTrue("Playlist 2 should be persisted", playlistService.savePlaylist(playlist2));
+        assertTrue("Song should be added", playlistService.addSongToPlaylist(playlist.getId(), songID1));
+
+        List<PlaylistOption> options = playlistService.getPlaylistOptions(clientID, songID1);
+        assertEquals("Both playlists should be options", 2, options.size());
+        assertEquals("Options should be oldest first", playlist.getId(), options.get(0).id());
+        assertTrue("Playlist with the song should be marked", options.get(0).containsSong());
+        assertEquals("Option should carry the playlist name", "Other Playlist", options.get(1).name());
+        assertFalse("Playlist without the song should not be marked", options.get(1).containsSong());
+    }
+
+    /**
+     * Tests retrieval of playlist options for a song in no playlist.
+     * Verifies that no playlist is marked.
+     */
+    @Test
+    public void getPlaylistOptionsSongInNoPlaylistTest() {
+        Playlist playlist = makeTestPlaylist();
+
+        assertTrue("Playlist should be persisted", playlistService.savePlaylist(playlist));
+        assertTrue("Song should be added", playlistService.addSongToPlaylist(playlist.getId(), songID1));
+
+        List<PlaylistOption> options = playlistService.getPlaylistOptions(clientID, songID2);
+        assertEquals("Playlist should be an option", 1, options.size());
+        assertFalse("Playlist should not be marked", options.get(0).containsSong());
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests retrieval of playlist options for another client.
+     * Verifies that playlists of other clients are not returned.
+     */
+    @Test
+    public void getPlaylistOptionsOtherClientTest() {
+        assertTrue("Playlist should be persisted", playlistService.savePlaylist(makeTestPlaylist()));
+
+        assertTrue("Return true with an empty list", playlistService.getPlaylistOptions(clientID + 1, songID1).isEmpty());
+    }
+
+    /**
+     * Tests retrieval of playlist options for a song that does not exist.
+     * Verifies that the playlists are returned unmarked.
+     */
+    @Test
+    public void getPlaylistOptionsInvalidSongTest() {
+        assertTrue("Playlist should be persisted", playlistService.savePlaylist(makeTestPlaylist()));
+
+        List<PlaylistOption> options = playlistService.getPlaylistOptions(clientID, -1000L);
+        assertEquals("Playlist should be an option", 1, options.size());
+        assertFalse("Playlist should not be marked", options.get(0).containsSong());
+    }
+
     /**
      * getSongs
      */
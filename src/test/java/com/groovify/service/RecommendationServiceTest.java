@@ -1,7 +1,9 @@
 package com.groovify.service;
 
+import com.groovify.audio.FeatureVectors;
 import com.groovify.jpa.model.Client;
 import com.groovify.jpa.model.Genre;
+import com.groovify.jpa.model.Playlist;
 import com.groovify.jpa.model.Song;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,6 +30,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  *     <li><b>No duplicates:</b> The algorithm returns only unique songs in the recommendation list.</li>
  *     <li><b>Database-sized limits:</b> If the database contains fewer than 5 songs total, only available songs are returned.</li>
  *     <li><b>Empty database:</b> Users receive an empty list if no songs exist.</li>
+ *     <li><b>Taste profile:</b> When the user's playlists contain analysed songs, the most similar songs not already in a playlist come first.</li>
  * </ol>
  *
  * <p>This class ensures correctness across all edge cases, including multi-genre preference,
@@ -52,6 +55,9 @@ class RecommendationServiceTest {
     @Autowired
     private SongService songService;
 
+    @Autowired
+    private PlaylistService playlistService;
+
     private Genre rock;
     private Genre jazz;
     private Client userWithGenres;
@@ -291,6 +297,77 @@ class RecommendationServiceTest {
         assertThat(recommendations).allMatch(song -> song.getGenre().equals(jazz));
     }
 
+    /**
+     * Verifies that recommendations by user ID and genre IDs, as kept in the session,
+     * follow the same genre rules as recommendations for a loaded user.
+     */
+    @Test
+    void testRecommendationByUserIdAndGenreIds() {
+        addSong("rock1.mp3", "Rock 1", "Artist R", rock);
+        addSong("jazz1.mp3", "Jazz 1", "Artist J", jazz);
+
+        Client jazzUser = createUser("jazzIdUser", jazz);
+        List<Song> recommendations = recommendationService.getRecommendedSongs(jazzUser.getId(), List.of(jazz.getId()));
+        assertThat(recommendations).isNotEmpty();
+        assertThat(recommendations.get(0).getGenre()).isEqualTo(jazz);
+    }
+
+    /**
+     * Verifies that songs are ranked by audio similarity to the user's playlist songs.
+     */
+    @Test
+    void testRecommendationRanksBySimilarityToPlaylists() {
+        Client tasteUser = createUser("tasteUser", rock);
+        Song liked = addSong("liked.mp3", "Liked", "Artist L", rock, likedVector(1.0f, 0f));
+        Song close = addSong("close.mp3", "Close", "Artist C", rock, likedVector(1.1f, 0.02f));
+        for (int k = 0; k < 5; k++) {
+            float[] vector = new float[FeatureVectors.DIMENSIONS];
+            for (int i = 0; i < vector.length; i++) vector[i] = (float) Math.cos(i * (k + 2));
+            addSong("far" + k + ".mp3", "Far " + k, "Artist F", rock, vector);
+        }
+
+        Playlist playlist = new Playlist();
+        playlist.setClientID(tasteUser.getId());
+        playlist.setName("Favourites");
+        playlist.setDescription("Liked songs");
+        playlistService.savePlaylist(playlist);
+        assertThat(playlistService.addSongToPlaylist(playlist.getId(), liked.getId())).isTrue();
+
+        List<Song> recommendations = recommendationService.getRecommendedSongs(tasteUser);
+        assertThat(recommendations).hasSize(5);
+        assertThat(recommendations.get(0)).isEqualTo(close);
+        assertThat(recommendations).doesNotContain(liked);
+    }
+
+    /**
+     * Verifies that the shared feature vectors are read again once songs are enriched,
+     * so a song whose vector changed is ranked by its new vector.
+     */
+    @Test
+    void testRecommendationFeatureCacheRefreshedAfterEnrichment() {
+        Client tasteUser = createUser("refreshUser", rock);
+        Song liked = addSong("liked.mp3", "Liked", "Artist L", rock, likedVector(1.0f, 0f));
+        Song close = addSong("close.mp3", "Close", "Artist C", rock, likedVector(1.1f, 0.02f));
+        float[] farVector = new float[FeatureVectors.DIMENSIONS];
+        for (int i = 0; i < farVector.length; i++) farVector[i] = (float) Math.cos(i * 3);
+        Song far = addSong("far.mp3", "Far", "Artist F", rock, farVector);
+        addSong("other.mp3", "Other", "Artist O", rock, likedVector(-1.0f, 0.5f));
+
+        Playlist playlist = new Playlist();
+        playlist.setClientID(tasteUser.getId());
+        playlist.setName("Favourites");
+        playlist.setDescription("Liked songs");
+        playlistService.savePlaylist(playlist);
+        assertThat(playlistService.addSongToPlaylist(playlist.getId(), liked.getId())).isTrue();
+        assertThat(recommendationService.getRecommendedSongs(tasteUser).get(0)).isEqualTo(close);
+
+        // Enrichment re-analyses the far song and finds it identical to the liked one
+        far.setFeatureVector(FeatureVectors.pack(likedVector(1.0f, 0f)));
+        recommendationService.featuresChanged();
+
+        assertThat(recommendationService.getRecommendedSongs(tasteUser).get(0)).isEqualTo(far);
+    }
+
     // ========================================================================
     // Helper Methods
     // ========================================================================
@@ -351,4 +428,35 @@ class RecommendationServiceTest {
         songService.addSong(song);
         return song;
     }
+
+    /**
+     * Creates a song with a packed audio feature vector.
+     *
+     * @param fileName audio filename
+     * @param title    song title
+     * @param artist   artist name
+     * @param genre    song genre
+     * @param vector   feature values
+     * @return the saved {@link Song}
+     */
+    private Song addSong(String fileName, String title, String artist, Genre genre, float[] vector) {
+        Song song = new Song(fileName, title, artist);
+        song.setGenre(genre);
+        song.setFeatureVector(FeatureVectors.pack(vector));
+        songService.addSong(song);
+        return song;
+    }
+
+    /**
+     * Builds a feature vector following the pattern of the "liked" test song.
+     *
+     * @param scale  multiplier applied to the pattern
+     * @param offset value added to every dimension
+     * @return the feature values
+     */
+    private float[] likedVector(float scale, float offset) {
+        float[] vector = new float[FeatureVectors.DIMENSIONS];
+        for (int i = 0; i < vector.length; i++) vector[i] = (float) Math.sin(i) * scale + offset;
+        return vector;
+    }
 }
@@ -0,0 +1,364 @@
+package com.groovify.service;
+
+import com.groovify.audio.FeatureVectors;
+import com.groovify.audio.PlaybackGain;
+import com.groovify.jpa.model.Song;
+import com.groovify.jpa.repo.SongRepo;
+import com.groovify.service.enrichment.SongEnrichmentContext;
+import com.groovify.service.enrichment.SongEnrichmentStage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Integration tests for {@link SongEnrichmentServiceImpl}, validating that songs
+ * registered by the fast import pass are completed by the enrichment stages.
+ * Background threads are disabled in tests; enrichment is invoked synchronously.
+ */
+@Transactional
+@SpringBootTest
+class SongEnrichmentServiceImplTest {
+
+    @Autowired
+    private GenreImportService genreImportService;
+
+    @Autowired
+    private SongImportImpl songImportService;
+
+    @Autowired
+    private SongEnrichmentServiceImpl songEnrichmentService;
+
+    @Autowired
+    private SongService songService;
+
+    @Autowired
+    private ArtworkService artworkService;
+
+    @Autowired
+    private SongRepo songRepo;
+
+    @Autowired
+    private SongSearchService songSearchService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    /**
+     * Imports genres and registers the project's songs through the fast import pass.
+     */
+    @BeforeEach
+    void setUp() {
+        genreImportService.importGenres(List.of("Rock", "Pop", "Classical", "Tech", "Country", "Folk"));
+        songImportService.musicDirectory = "src/main/resources/static/songs";
+        songEnrichmentService.musicDirectory = "src/main/resources/static/songs";
+        songImportService.importSongs();
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that the fast import pass registers songs without enriching them.
+     */
+    @Test
+    public void fastImportLeavesSongsPendingTest() {
+        List<Song> songs = songService.getAllSongs();
+
+        assertFalse("Songs should be registered", songs.isEmpty());
+        for (Song song : songs) {
+            assertNotNull("File size should be recorded", song.getFileSize());
+            assertNull("Song should not be enriched yet", song.getEnrichmentVersion());
+        }
+    }
+
+    /**
+     * Tests that enriching pending songs fills in hash, size, duration, loudness, and audio features.
+     */
+    @Test
+    public void enrichPendingCompletesSongsTest() {
+        int total = songService.getAllSongs().size();
+
+        assertEquals("Every song should be enriched", total, songEnrichmentService.enrichPending(1000));
+        for (Song song : songService.getAllSongs()) {
+            assertNotNull("Enrichment version should be set", song.getEnrichmentVersion());
+            assertEquals("Hash should be SHA-256 hex", 64, song.getContentHash().length());
+            assertTrue("Duration should be positive", song.getDurationSeconds() > 0);
+            assertEquals("Feature vector should be packed", FeatureVectors.PACKED_BYTES, song.getFeatureVector().length);
+            assertNotNull("Peak should be measured", song.getPeak());
+        }
+    }
+
+    /**
+     * Tests that measured loudness and peak are in plausible ranges and yield a safe gain.
+     */
+    @Test
+    public void enrichPendingMeasuresLoudnessTest() {
+        songEnrichmentService.enrichPending(1000);
+        for (Song song : songService.getAllSongs()) {
+            assertTrue("Peak should be within full scale", song.getPeak() > 0 && song.getPeak() <= 1.0f);
+            assertNotNull("Loudness should be measured", song.getLoudness());
+            assertTrue("Loudness should be in LUFS", song.getLoudness() < 0 && song.getLoudness() > -70);
+
+            double gain = PlaybackGain.linear(song.getLoudness(), song.getPeak());
+            assertTrue("Gain should not push the peak past full scale", gain * song.getPeak() <= 1.0001);
+        }
+    }
+
+    /**
+     * Tests that the computed audio features are in plausible ranges.
+     */
+    @Test
+    public void enrichPendingComputesAudioFeaturesTest() {
+        songEnrichmentService.enrichPending(1000);
+        for (Song song : songService.getAllSongs()) {
+            float[] vector = FeatureVectors.unpack(song.getFeatureVector());
+            assertNotNull("Feature vector should unpack", vector);
+            assertTrue("Tempo should be zero or within the detected range",
+                    vector[FeatureVectors.TEMPO] == 0 || (vector[FeatureVectors.TEMPO] >= 55 && vector[FeatureVectors.TEMPO] <= 210));
+            assertTrue("Energy should be in dBFS", vector[FeatureVectors.ENERGY] <= 0);
+            assertTrue("Centroid should be below Nyquist", vector[FeatureVectors.CENTROID] >= 0 && vector[FeatureVectors.CENTROID] <= 5513);
+        }
+    }
+
+    /**
+     * Tests that cover art embedded in a song's tag is stored, while songs without it keep none.
+     */
+    @Test
+    public void enrichPendingExtractsCoverArtTest() {
+        songEnrichmentService.enrichPending(1000);
+        for (Song song : songService.getAllSongs()) {
+            if (song.getFilename().equals("Albumleaf.mp3")) {
+                assertNotNull("Embedded artwork should be stored", song.getArtworkHash());
+                assertNotNull("Card thumbnail should exist", artworkService.findThumbnail(song.getArtworkHash(), 320));
+            } else if (song.getFilename().equals("FunRock.mp3")) {
+                assertNull("Song without artwork should have no hash", song.getArtworkHash());
+            }
+        }
+    }
+
+    /**
+     * Tests that enriched songs are not processed again.
+     */
+    @Test
+    public void enrichPendingTwiceTest() {
+        songEnrichmentService.enrichPending(1000);
+
+        assertEquals("Nothing should be pending", 0, songEnrichmentService.enrichPending(1000));
+    }
+
+    /**
+     * Tests that the limit caps the number of songs enriched.
+     */
+    @Test
+    public void enrichPendingRespectsLimitTest() {
+        assertEquals("Only one song should be enriched", 1, songEnrichmentService.enrichPending(1));
+    }
+
+    /**
+     * Tests that a song tombstoned by reconciliation while it is being enriched stays
+     * tombstoned, and still receives what enrichment measured.
+     */
+    @Test
+    public void enrichSongKeepsConcurrentTombstoneTest() {
+        Long songId = songService.getAllSongs().get(0).getId();
+        SongEnrichmentStage tombstoningStage = new SongEnrichmentStage() {
+            @Override
+            public String name() {
+                return "tombstoning";
+            }
+
+            @Override
+            public boolean isPending(Song song) {
+                return true;
+            }
+
+            @Override
+            public void enrich(Song song, SongEnrichmentContext context) {
+                // Reconciliation runs its bulk update while the file is being decoded
+                songRepo.markMissing(List.of(song.getId()), Instant.now(), Instant.now());
+                song.setBitrate(128);
+            }
+        };
+        SongEnrichmentServiceImpl service = new SongEnrichmentServiceImpl(songRepo, List.of(tombstoningStage), songSearchService,
+                recommendationService);
+        service.musicDirectory = "src/main/resources/static/songs";
+        service.lease = Duration.ofMinutes(10);
+
+        assertTrue("Song should be enriched", service.enrichSong(songId));
+        Song stored = songRepo.findById(songId).orElseThrow();
+        assertNotNull("Tombstone should survive enrichment", stored.getMissingSince());
+        assertEquals("Enrichment result should be written", 128, stored.getBitrate());
+    }
+
+    /**
+     * Tests that a song whose stage failed once is stamped and has its failures reset
+     * when the next run succeeds.
+     */
+    @Test
+    public void enrichSongRetriesFailedStageTest() {
+        Long songId = pendingSongId();
+        SongEnrichmentStage flakyStage = new SongEnrichmentStage() {
+            private boolean failed;
+
+            @Override
+            public String name() {
+                return "flaky";
+            }
+
+            @Override
+            public boolean isPending(Song song) {
+                return true;
+            }
+
+            @Override
+            public void enrich(Song song, SongEnrichmentContext context) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("unreadable frame");
+                }
+                song.setBitrate(192);
+            }
+        };
+        SongEnrichmentServiceImpl service = stageService(flakyStage);
+
+        assertTrue("Song should be enriched", service.enrichSong(songId));
+        Song stored = songRepo.findById(songId).orElseThrow();
+        assertNull("Failed song should stay pending", stored.getEnrichmentVersion());
+        assertEquals("Failure should be counted", 1, stored.getEnrichmentFailures());
+
+        assertTrue("Song should be enriched again", service.enrichSong(songId));
+        stored = songRepo.findById(songId).orElseThrow();
+        assertEquals("Song should be stamped", SongEnrichmentServiceImpl.ENRICHMENT_VERSION, stored.getEnrichmentVersion());
+        assertNull("Failures should be reset", stored.getEnrichmentFailures());
+        assertEquals("Retried stage should write its result", 192, stored.getBitrate());
+    }
+
+    /**
+     * Tests that a claim abandoned by another node is taken over, and that enriching
+     * the song releases the claim.
+     */
+    @Test
+    public void enrichSongTakesOverStaleClaimTest() {
+        Long songId = pendingSongId();
+        songRepo.claimEnrichment(songId, Instant.now().minus(Duration.ofHours(1)), Instant.now());
+
+        assertTrue("Abandoned song should be enriched", songEnrichmentService.enrichSong(songId));
+        assertNull("Claim should be released", songRepo.findById(songId).orElseThrow().getEnrichmentClaimedAt());
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that a song another node is enriching is left to that node.
+     */
+    @Test
+    public void enrichSongClaimedByOtherNodeTest() {
+        Long songId = pendingSongId();
+        songRepo.claimEnrichment(songId, Instant.now(), Instant.now());
+
+        assertFalse("Claimed song should be skipped", songEnrichmentService.enrichSong(songId));
+        assertNull("Song should stay pending", songRepo.findById(songId).orElseThrow().getEnrichmentVersion());
+    }
+
+    /**
+     * Tests that a song whose file is gone is released unstamped, so it is enriched
+     * once the file is back, and that tombstoned songs are not walked as pending.
+     */
+    @Test
+    public void enrichSongMissingFileTest(@TempDir Path emptyRoot) {
+        Long songId = pendingSongId();
+        songEnrichmentService.musicDirectory = emptyRoot.toString();
+
+        assertFalse("Song without a file should not be enriched", songEnrichmentService.enrichSong(songId));
+        Song stored = songRepo.findById(songId).orElseThrow();
+        assertNull("Song should stay pending", stored.getEnrichmentVersion());
+        assertNull("Claim should be released", stored.getEnrichmentClaimedAt());
+
+        List<Long> ids = songService.getAllSongs().stream().map(Song::getId).toList();
+        songRepo.markMissing(ids, Instant.now(), Instant.now());
+        assertEquals("Tombstoned songs should not be pending", 0, songEnrichmentService.enrichPending(1000));
+    }
+
+    /**
+     * Tests that a song whose stage keeps failing stays pending until the configured
+     * number of attempts, then is stamped so it is not retried forever.
+     */
+    @Test
+    public void enrichSongGivesUpAfterMaxAttemptsTest() {
+        Long songId = pendingSongId();
+        SongEnrichmentStage failingStage = new SongEnrichmentStage() {
+            @Override
+            public String name() {
+                return "failing";
+            }
+
+            @Override
+            public boolean isPending(Song song) {
+                return true;
+            }
+
+            @Override
+            public void enrich(Song song, SongEnrichmentContext context) {
+                throw new IllegalStateException("unreadable file");
+            }
+        };
+        SongEnrichmentServiceImpl service = stageService(failingStage);
+
+        for (int attempt = 1; attempt < 3; attempt++) {
+            service.enrichSong(songId);
+            Song stored = songRepo.findById(songId).orElseThrow();
+            assertNull("Song should stay pending after attempt " + attempt, stored.getEnrichmentVersion());
+            assertEquals("Failures should be counted", attempt, stored.getEnrichmentFailures());
+        }
+
+        service.enrichSong(songId);
+        Song stored = songRepo.findById(songId).orElseThrow();
+        assertEquals("Song should be stamped after the last attempt", SongEnrichmentServiceImpl.ENRICHMENT_VERSION,
+                stored.getEnrichmentVersion());
+        assertNull("Failures should be reset", stored.getEnrichmentFailures());
+    }
+
+    /**
+     * Tests enriching a null song ID.
+     */
+    @Test
+    public void enrichSongNullIdTest() {
+        assertFalse("Null ID should not be enriched", songEnrichmentService.enrichSong(null));
+    }
+
+    /**
+     * Tests enriching a song ID that does not exist.
+     */
+    @Test
+    public void enrichSongMissingIdTest() {
+        assertFalse("Missing song should not be enriched", songEnrichmentService.enrichSong(100000L));
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private Long pendingSongId() {
+        return songService.getAllSongs().stream()
+                .filter(song -> song.getEnrichmentVersion() == null)
+                .findFirst().orElseThrow().getId();
+    }
+
+    private SongEnrichmentServiceImpl stageService(SongEnrichmentStage stage) {
+        SongEnrichmentServiceImpl service = new SongEnrichmentServiceImpl(songRepo, List.of(stage), songSearchService,
+                recommendationService);
+        service.musicDirectory = "src/main/resources/static/songs";
+        service.maxAttempts = 3;
+        service.lease = Duration.ofMinutes(10);
+        return service;
+    }
+}
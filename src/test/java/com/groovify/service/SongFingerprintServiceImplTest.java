@@ -0,0 +1,268 @@
+package com.groovify.service;
+
+import com.groovify.audio.AudioDecoder;
+import com.groovify.audio.ChromaFingerprinter;
+import com.groovify.jpa.model.Genre;
+import com.groovify.jpa.model.Song;
+import com.groovify.jpa.model.SongFingerprint;
+import com.groovify.jpa.repo.GenreRepo;
+import com.groovify.jpa.repo.SongFingerprintRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Integration tests for {@link SongFingerprintServiceImpl}, validating that copies of
+ * the same recording are found through the fingerprint index and unrelated songs are not.
+ */
+@Transactional
+@SpringBootTest
+class SongFingerprintServiceImplTest {
+
+    @Autowired
+    private SongFingerprintServiceImpl songFingerprintService;
+
+    @Autowired
+    private SongFingerprintRepo fingerprintRepo;
+
+    @Autowired
+    private SongService songService;
+
+    @Autowired
+    private GenreRepo genreRepo;
+
+    @Autowired
+    private GenreImportService genreImportService;
+
+    @Autowired
+    private SongImportImpl songImportService;
+
+    @Autowired
+    private SongEnrichmentServiceImpl songEnrichmentService;
+
+    @TempDir
+    Path root;
+
+    private Genre genre;
+
+    /**
+     * Creates the genre used by the test songs.
+     */
+    @BeforeEach
+    void setUp() {
+        genre = genreRepo.save(new Genre("Fingerprint Genre"));
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that a trimmed copy with some bit errors is recognised as a duplicate of the original.
+     */
+    @Test
+    public void registerFingerprintFindsTrimmedCopyTest() {
+        int[] original = randomFingerprint(600, 1);
+        Long originalId = addSong("original.mp3");
+        assertNull("First copy should be unique", songFingerprintService.registerFingerprint(originalId, original));
+
+        int[] copy = flipBits(Arrays.copyOfRange(original, 100, 500), 0.05, 2);
+        Long copyId = addSong("copy.mp3");
+        assertEquals("Copy should point at the original", originalId, songFingerprintService.registerFingerprint(copyId, copy));
+        assertTrue("Copy fingerprint should be stored", songFingerprintService.hasFingerprint(copyId));
+    }
+
+    /**
+     * Tests that a match reports where in the original the query starts.
+     */
+    @Test
+    public void findMatchesReportsOffsetTest() {
+        int[] original = randomFingerprint(600, 3);
+        Long originalId = addSong("original.mp3");
+        songFingerprintService.registerFingerprint(originalId, original);
+
+        List<SongFingerprintService.FingerprintMatch> matches =
+                songFingerprintService.findMatches(Arrays.copyOfRange(original, 250, 450));
+        assertEquals("One song should match", 1, matches.size());
+        assertEquals("Match should be the original", originalId, matches.get(0).songId());
+        assertEquals("Offset should be the trimmed length", 250, matches.get(0).offset());
+        assertEquals("Identical frames should have no bit errors", 0.0, matches.get(0).bitErrorRate());
+    }
+
+    /**
+     * Tests that a copy of a duplicate points at the first original, not at the duplicate.
+     */
+    @Test
+    public void registerFingerprintResolvesOriginalOfDuplicateTest() {
+        int[] original = randomFingerprint(600, 4);
+        Long originalId = addSong("original.mp3");
+        songFingerprintService.registerFingerprint(originalId, original);
+
+        Long copyId = addSong("copy.mp3");
+        Song copy = songService.getSongById(copyId);
+        copy.setDuplicateOf(songFingerprintService.registerFingerprint(copyId, flipBits(original, 0.03, 5)));
+        assertEquals("First copy should point at the original", originalId, copy.getDuplicateOf());
+
+        assertEquals("Second copy should point at the original", originalId,
+                songFingerprintService.registerFingerprint(addSong("copy2.mp3"), flipBits(original, 0.03, 6)));
+    }
+
+    /**
+     * Tests that enrichment marks a trimmed copy of a real MP3 as a duplicate.
+     */
+    @Test
+    public void enrichmentMarksTrimmedMp3AsDuplicateTest() throws IOException {
+        genreImportService.importGenres(List.of("Rock"));
+        Files.createDirectories(root.resolve("Rock"));
+        byte[] bytes = Files.readAllBytes(Path.of("src/main/resources/static/songs/Rock/FunRock.mp3"));
+        Files.write(root.resolve("Rock/FunRock.mp3"), bytes);
+        // Cut off the first third; the decoder resynchronises on the next frame header
+        Files.write(root.resolve("Rock/FunRockTrimmed.mp3"), Arrays.copyOfRange(bytes, bytes.length / 3, bytes.length));
+        Files.copy(Path.of("src/main/resources/static/songs/Rock/TheRock.mp3"), root.resolve("Rock/TheRock.mp3"));
+
+        songImportService.musicDirectory = root.toString();
+        songEnrichmentService.musicDirectory = root.toString();
+        songImportService.importSongs();
+        songEnrichmentService.enrichPending(1000);
+
+        Song original = findByFilename("FunRock.mp3");
+        Song trimmed = findByFilename("FunRockTrimmed.mp3");
+        Song other = findByFilename("TheRock.mp3");
+
+        assertNull("Original should not be a duplicate", original.getDuplicateOf());
+        assertEquals("Trimmed copy should point at the original", original.getId(), trimmed.getDuplicateOf());
+        assertNull("Different song should not be a duplicate", other.getDuplicateOf());
+    }
+
+    /**
+     * Tests that a fingerprint stored by another node is found once the index is refreshed.
+     */
+    @Test
+    public void refreshIndexesOtherNodesFingerprintsTest() {
+        songFingerprintService.findMatches(randomFingerprint(600, 12));
+        int[] fingerprint = randomFingerprint(600, 13);
+        Long otherNodeSongId = addSong("other-node.mp3");
+        fingerprintRepo.save(new SongFingerprint(otherNodeSongId, ChromaFingerprinter.pack(fingerprint)));
+        assertTrue("Fingerprint should not be indexed yet", songFingerprintService.findMatches(fingerprint).isEmpty());
+
+        songFingerprintService.refresh();
+
+        List<SongFingerprintService.FingerprintMatch> matches = songFingerprintService.findMatches(fingerprint);
+        assertFalse("Fingerprint should be indexed", matches.isEmpty());
+        assertEquals("Match should be the other node's song", otherNodeSongId, matches.get(0).songId());
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that different real recordings of the same genre never match each other at
+     * the duplicate threshold, even when the index nominates them as candidates.
+     */
+    @Test
+    public void findMatchesDifferentRecordingsTest() throws IOException {
+        List<String> filenames = List.of("FunRock.mp3", "IntenseBlack.mp3", "RunningRock.mp3", "TheRock.mp3");
+        List<Long> ids = new ArrayList<>();
+        List<int[]> fingerprints = new ArrayList<>();
+        for (String filename : filenames) {
+            int[] fingerprint = ChromaFingerprinter.fingerprint(
+                    AudioDecoder.decode(Path.of("src/main/resources/static/songs/Rock", filename)));
+            Long songId = addSong(filename);
+            assertNull(filename + " should be unique", songFingerprintService.registerFingerprint(songId, fingerprint));
+            ids.add(songId);
+            fingerprints.add(fingerprint);
+        }
+
+        for (int i = 0; i < filenames.size(); i++) {
+            for (SongFingerprintService.FingerprintMatch match : songFingerprintService.findMatches(fingerprints.get(i))) {
+                assertEquals(filenames.get(i) + " should only match itself", ids.get(i), match.songId());
+            }
+        }
+    }
+
+    /**
+     * Tests that an unrelated fingerprint is not reported as a duplicate.
+     */
+    @Test
+    public void registerFingerprintUnrelatedSongTest() {
+        songFingerprintService.registerFingerprint(addSong("first.mp3"), randomFingerprint(600, 7));
+        assertNull("Unrelated song should be unique",
+                songFingerprintService.registerFingerprint(addSong("second.mp3"), randomFingerprint(600, 8)));
+    }
+
+    /**
+     * Tests that a recording differing in a fifth of its bits, further apart than copies
+     * of one recording ever are, is not reported as a duplicate.
+     */
+    @Test
+    public void registerFingerprintDistantRecordingTest() {
+        int[] original = randomFingerprint(600, 10);
+        songFingerprintService.registerFingerprint(addSong("original.mp3"), original);
+        assertNull("Distant recording should be unique",
+                songFingerprintService.registerFingerprint(addSong("distant.mp3"), flipBits(original, 0.2, 11)));
+    }
+
+    /**
+     * Tests that fingerprints too short to compare never match.
+     */
+    @Test
+    public void findMatchesShortFingerprintTest() {
+        int[] original = randomFingerprint(600, 9);
+        songFingerprintService.registerFingerprint(addSong("original.mp3"), original);
+        assertTrue("Short query should not match", songFingerprintService.findMatches(Arrays.copyOf(original, 20)).isEmpty());
+    }
+
+    /**
+     * Tests that a null ID has no fingerprint.
+     */
+    @Test
+    public void hasFingerprintNullIdTest() {
+        assertFalse("Null ID should have no fingerprint", songFingerprintService.hasFingerprint(null));
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private Long addSong(String filename) {
+        Song song = new Song(filename, "Fingerprint Song", "Test Artist");
+        song.setGenre(genre);
+        songService.addSong(song);
+        return song.getId();
+    }
+
+    private Song findByFilename(String filename) {
+        return songService.getAllSongs().stream()
+                .filter(song -> song.getFilename().equals(filename))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static int[] randomFingerprint(int frames, long seed) {
+        Random random = new Random(seed);
+        int[] fingerprint = new int[frames];
+        for (int i = 0; i < frames; i++) fingerprint[i] = random.nextInt();
+        return fingerprint;
+    }
+
+    private static int[] flipBits(int[] fingerprint, double probability, long seed) {
+        Random random = new Random(seed);
+        int[] flipped = fingerprint.clone();
+        for (int i = 0; i < flipped.length; i++) {
+            for (int bit = 0; bit < 32; bit++) {
+                if (random.nextDouble() < probability) flipped[i] ^= 1 << bit;
+            }
+        }
+        return flipped;
+    }
+}
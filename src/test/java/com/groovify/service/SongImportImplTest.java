@@ -2,11 +2,23 @@ package com.groovify.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.springframework.test.util.AssertionErrors.*;
 
@@ -50,6 +62,86 @@ class SongImportImplTest {
         assertTrue("60 songs should exist", songService.getAllSongs().size() == 60);
     }
 
+    /**
+     * Tests that genre names are discovered from the folders that contain MP3 files.
+     */
+    @Test
+    public void discoverGenreNamesTest() {
+        List<String> names = songImportService.discoverGenreNames();
+
+        assertTrue("Rock folder should be discovered", names.contains("Rock"));
+        assertTrue("Classical folder should be discovered", names.contains("Classical"));
+    }
+
+    /**
+     * Tests that MP3 entries are imported straight from a ZIP archive into the
+     * genre folder and that the archive is marked as imported afterwards.
+     */
+    @Test
+    public void importArchivesZipTest(@TempDir Path root) throws IOException {
+        songImportService.musicDirectory = root.toString();
+        byte[] mp3 = Files.readAllBytes(Path.of("src/main/resources/static/songs/Rock/FunRock.mp3"));
+        writeZip(root.resolve("delivery.zip"), "Rock/FunRock.mp3", mp3);
+
+        assertEquals("One song should be imported", 1, songImportService.importArchives());
+        assertTrue("File should be in the genre folder", Files.exists(root.resolve("Rock/FunRock.mp3")));
+        assertEquals("File should be copied intact", (long) mp3.length, Files.size(root.resolve("Rock/FunRock.mp3")));
+        assertTrue("Archive should be marked imported", Files.exists(root.resolve("delivery.zip.imported")));
+        assertEquals("Song should carry its content hash", 64,
+                songService.getAllSongs().get(0).getContentHash().length());
+    }
+
+    /**
+     * Tests that MP3 entries are imported from a gzip-compressed TAR archive as they
+     * are from a ZIP archive.
+     */
+    @Test
+    public void importArchivesTarGzTest(@TempDir Path root) throws IOException {
+        songImportService.musicDirectory = root.toString();
+        byte[] mp3 = Files.readAllBytes(Path.of("src/main/resources/static/songs/Rock/FunRock.mp3"));
+        writeTarGz(root.resolve("delivery.tar.gz"), "Rock/FunRock.mp3", mp3);
+
+        assertEquals("One song should be imported", 1, songImportService.importArchives());
+        assertEquals("File should be copied intact", (long) mp3.length, Files.size(root.resolve("Rock/FunRock.mp3")));
+        assertTrue("Archive should be marked imported", Files.exists(root.resolve("delivery.tar.gz.imported")));
+    }
+
+    /**
+     * Tests that an archive whose entries belong to a genre not yet in the database
+     * creates the genre and imports its songs, instead of failing on every boot.
+     */
+    @Test
+    public void importArchivesNewGenreTest(@TempDir Path root) throws IOException {
+        songImportService.musicDirectory = root.toString();
+        byte[] mp3 = Files.readAllBytes(Path.of("src/main/resources/static/songs/Rock/FunRock.mp3"));
+        writeZip(root.resolve("delivery.zip"), "Jazz/FunRock.mp3", mp3);
+
+        assertFalse("Genre should not exist yet", genreImportService.genreExists("Jazz"));
+        assertEquals("One song should be imported", 1, songImportService.importArchives());
+        assertTrue("Genre should be created", genreImportService.genreExists("Jazz"));
+        assertEquals("Song should belong to the new genre", "Jazz",
+                songService.getAllSongs().get(0).getGenre().getName());
+        assertTrue("Archive should be marked imported", Files.exists(root.resolve("delivery.zip.imported")));
+    }
+
+    /**
+     * Tests that an archive inside a genre folder without songs, which is not
+     * discovered as a genre, creates that folder's genre.
+     */
+    @Test
+    public void importArchivesEmptyGenreFolderTest(@TempDir Path root) throws IOException {
+        songImportService.musicDirectory = root.toString();
+        Files.createDirectories(root.resolve("Blues"));
+        byte[] mp3 = Files.readAllBytes(Path.of("src/main/resources/static/songs/Rock/FunRock.mp3"));
+        writeZip(root.resolve("Blues/delivery.zip"), "FunRock.mp3", mp3);
+
+        assertTrue("Folder should not be discovered", songImportService.discoverGenreNames().isEmpty());
+        assertEquals("One song should be imported", 1, songImportService.importArchives());
+        assertTrue("Genre should be created", genreImportService.genreExists("Blues"));
+        assertTrue("File should be in the genre folder", Files.exists(root.resolve("Blues/FunRock.mp3")));
+        assertTrue("Archive should be marked imported", Files.exists(root.resolve("Blues/delivery.zip.imported")));
+    }
+
     // Crappy Path
 
     /**
@@ -89,4 +181,104 @@ class SongImportImplTest {
         assertFalse("Should fail to import", songImportService.importSongs());
         assertTrue("No songs should exist", songService.getAllSongs().isEmpty());
     }
+
+    /**
+     * Tests that folders without MP3 files are not treated as genres.
+     */
+    @Test
+    public void discoverGenreNamesWithoutSongsTest() {
+        songImportService.musicDirectory = "src/test/resources/static/songs";
+
+        assertTrue("No genres should be discovered", songImportService.discoverGenreNames().isEmpty());
+    }
+
+    /**
+     * Tests that an invalid music directory yields no genre names.
+     */
+    @Test
+    public void discoverGenreNamesInvalidFolderTest() {
+        songImportService.musicDirectory = "src/main/resources/static/DoesNotExist";
+
+        assertTrue("No genres should be discovered", songImportService.discoverGenreNames().isEmpty());
+    }
+
+    /**
+     * Tests that archive entries which are not MP3 data are skipped, and that an archive
+     * with nothing else to import is not retried on every startup.
+     */
+    @Test
+    public void importArchivesInvalidMp3Test(@TempDir Path root) throws IOException {
+        songImportService.musicDirectory = root.toString();
+        writeZip(root.resolve("delivery.zip"), "Rock/Fake.mp3", "not audio".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("No songs should be imported", 0, songImportService.importArchives());
+        assertFalse("No file should be written", Files.exists(root.resolve("Rock/Fake.mp3")));
+        assertFalse("No partial file should remain", Files.exists(root.resolve("Rock/Fake.mp3.part")));
+        assertTrue("Archive should be marked as imported", Files.exists(root.resolve("delivery.zip.imported")));
+    }
+
+    /**
+     * Tests that an archive claimed by another node is left to that node.
+     */
+    @Test
+    public void importArchivesClaimedByOtherNodeTest(@TempDir Path root) throws IOException {
+        songImportService.musicDirectory = root.toString();
+        Files.createDirectories(root.resolve("Rock"));
+        writeZip(root.resolve("delivery.zip.importing"), "Rock/FunRock.mp3",
+                Files.readAllBytes(Path.of("src/main/resources/static/songs/Rock/FunRock.mp3")));
+
+        assertEquals("No songs should be imported", 0, songImportService.importArchives());
+        assertTrue("Claim should be left in place", Files.exists(root.resolve("delivery.zip.importing")));
+        assertFalse("No file should be written", Files.exists(root.resolve("Rock/FunRock.mp3")));
+    }
+
+    /**
+     * Tests that an archive whose claim was abandoned is taken over and imported.
+     */
+    @Test
+    public void importArchivesStaleClaimTest(@TempDir Path root) throws IOException {
+        songImportService.musicDirectory = root.toString();
+        Files.createDirectories(root.resolve("Rock"));
+        Path claim = root.resolve("delivery.zip.importing");
+        writeZip(claim, "Rock/FunRock.mp3", Files.readAllBytes(Path.of("src/main/resources/static/songs/Rock/FunRock.mp3")));
+        Files.setLastModifiedTime(claim, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+
+        assertEquals("One song should be imported", 1, songImportService.importArchives());
+        assertTrue("Archive should be marked as imported", Files.exists(root.resolve("delivery.zip.imported")));
+        assertFalse("Claim should be gone", Files.exists(claim));
+    }
+
+    /**
+     * Writes a gzip-compressed TAR archive containing a single ustar entry.
+     */
+    private void writeTarGz(Path tarGz, String entryName, byte[] data) throws IOException {
+        byte[] header = new byte[512];
+        byte[] name = entryName.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(name, 0, header, 0, name.length);
+        byte[] size = String.format("%011o", data.length).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(size, 0, header, 124, size.length);
+        header[156] = '0';
+        byte[] magic = "ustar".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(magic, 0, header, 257, magic.length);
+
+        try (OutputStream file = Files.newOutputStream(tarGz);
+             OutputStream out = new GZIPOutputStream(file)) {
+            out.write(header);
+            out.write(data);
+            out.write(new byte[(512 - data.length % 512) % 512]);
+            out.write(new byte[1024]);
+        }
+    }
+
+    /**
+     * Writes a ZIP archive containing a single entry.
+     */
+    private void writeZip(Path zip, String entryName, byte[] data) throws IOException {
+        try (OutputStream file = Files.newOutputStream(zip);
+             ZipOutputStream out = new ZipOutputStream(file)) {
+            out.putNextEntry(new ZipEntry(entryName));
+            out.write(data);
+            out.closeEntry();
+        }
+    }
 }
@@ -0,0 +1,151 @@
+package com.groovify.service;
+
+import com.groovify.jpa.model.Song;
+import com.groovify.search.SearchField;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Integration tests for {@link SongReconciliationServiceImpl}, validating that songs
+ * are tombstoned when their files disappear and restored when they come back.
+ */
+@Transactional
+@SpringBootTest
+class SongReconciliationServiceImplTest {
+
+    @Autowired
+    private GenreImportService genreImportService;
+
+    @Autowired
+    private SongImportImpl songImportService;
+
+    @Autowired
+    private SongReconciliationServiceImpl songReconciliationService;
+
+    @Autowired
+    private SongService songService;
+
+    @Autowired
+    private SongSearchService songSearchService;
+
+    @TempDir
+    Path root;
+
+    /**
+     * Copies two of the project's MP3 files into a temporary music directory and
+     * imports them, with a small batch size so several pages are exercised.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        genreImportService.importGenres(List.of("Rock", "Pop", "Classical", "Tech", "Country", "Folk"));
+        Files.createDirectories(root.resolve("Rock"));
+        Files.copy(Path.of("src/main/resources/static/songs/Rock/FunRock.mp3"), root.resolve("Rock/FunRock.mp3"));
+        Files.copy(Path.of("src/main/resources/static/songs/Rock/TheRock.mp3"), root.resolve("Rock/TheRock.mp3"));
+
+        songImportService.musicDirectory = root.toString();
+        songReconciliationService.musicDirectory = root.toString();
+        songReconciliationService.batchSize = 1;
+        songImportService.importSongs();
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that nothing changes when every file is present.
+     */
+    @Test
+    public void reconcileNoChangesTest() {
+        SongReconciliationService.ReconciliationResult result = songReconciliationService.reconcile();
+
+        assertEquals("Both songs should be checked", 2L, result.checked());
+        assertEquals("No song should be missing", 0, result.missing());
+        assertEquals("Both songs should be listed", 2, songService.getAllSongs().size());
+    }
+
+    /**
+     * Tests that a song whose file was deleted is tombstoned and hidden.
+     */
+    @Test
+    public void reconcileMarksMissingSongTest() throws IOException {
+        Files.delete(root.resolve("Rock/TheRock.mp3"));
+
+        assertEquals("One song should be missing", 1, songReconciliationService.reconcile().missing());
+        assertEquals("Missing song should be hidden", 1, songService.getAllSongs().size());
+        assertEquals("Remaining song should be listed", "FunRock.mp3", songService.getAllSongs().get(0).getFilename());
+        assertEquals("Tombstone should not be counted twice", 0, songReconciliationService.reconcile().missing());
+    }
+
+    /**
+     * Tests that a tombstoned song is restored when its file reappears.
+     */
+    @Test
+    public void reconcileRestoresSongTest() throws IOException {
+        Path file = root.resolve("Rock/TheRock.mp3");
+        Path moved = root.resolve("TheRock.bak");
+        Files.move(file, moved);
+        songReconciliationService.reconcile();
+        Files.move(moved, file);
+
+        assertEquals("One song should be restored", 1, songReconciliationService.reconcile().restored());
+        assertEquals("Both songs should be listed", 2, songService.getAllSongs().size());
+    }
+
+    /**
+     * Tests that a tombstoned song's title is no longer suggested, and is suggested again
+     * once the song is restored.
+     */
+    @Test
+    public void reconcileUpdatesSuggestionsTest() throws IOException {
+        // A title no other test's song has, so only this song can be suggested for it
+        String title = "Reconciled Probe";
+        Song song = songService.getAllSongs().stream()
+                .filter(candidate -> candidate.getFilename().equals("TheRock.mp3"))
+                .findFirst().orElseThrow();
+        song.setTitle(title);
+        songSearchService.indexSong(song);
+        assertTrue("Title should be suggested", suggestsTitle(title));
+
+        Path file = root.resolve("Rock/TheRock.mp3");
+        Path moved = root.resolve("TheRock.bak");
+        Files.move(file, moved);
+        songReconciliationService.reconcile();
+        assertFalse("Missing song's title should not be suggested", suggestsTitle(title));
+
+        Files.move(moved, file);
+        songReconciliationService.reconcile();
+        assertTrue("Restored song's title should be suggested again", suggestsTitle(title));
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that a missing music directory does not tombstone the catalog.
+     */
+    @Test
+    public void reconcileInvalidFolderTest() {
+        songReconciliationService.musicDirectory = root.resolve("DoesNotExist").toString();
+
+        assertEquals("Nothing should be checked", 0L, songReconciliationService.reconcile().checked());
+        assertEquals("Both songs should still be listed", 2, songService.getAllSongs().size());
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private boolean suggestsTitle(String title) {
+        return songSearchService.suggest(title, 10).stream()
+                .anyMatch(suggestion -> suggestion.field() == SearchField.TITLE && suggestion.text().equals(title));
+    }
+}
@@ -0,0 +1,604 @@
+package com.groovify.service;
+
+import com.groovify.jpa.model.Genre;
+import com.groovify.jpa.model.Song;
+import com.groovify.jpa.repo.GenreRepo;
+import com.groovify.jpa.repo.SongRepo;
+import com.groovify.search.SearchField;
+import com.groovify.search.SuggestionTrie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Integration tests for {@link SongSearchServiceImpl}, validating that searches and
+ * completions are served from the in-memory indexes and stay consistent with the song table.
+ */
+@Transactional
+@SpringBootTest
+class SongSearchServiceImplTest {
+
+    @Autowired
+    private SongSearchService songSearchService;
+
+    @Autowired
+    private SongService songService;
+
+    @Autowired
+    private SongSearchServiceImpl songSearchServiceImpl;
+
+    @Autowired
+    private SongRepo songRepo;
+
+    @Autowired
+    private GenreRepo genreRepo;
+
+    private Genre genre;
+
+    /**
+     * Creates the genre used by the test songs.
+     */
+    @BeforeEach
+    void setUp() {
+        genre = genreRepo.save(new Genre("Search Genre"));
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that whole-word matches on short titles rank above longer titles and prefix matches.
+     */
+    @Test
+    public void searchByTitleRanksExactMatchesFirstTest() {
+        Song prefix = addSong("prefix.mp3", "Quasarian");
+        Song longer = addSong("longer.mp3", "Quasar Nights");
+        Song exact = addSong("exact.mp3", "Quasar");
+
+        List<Song> results = songSearchService.searchByTitle("quasar");
+        assertEquals("All three songs should match", 3, results.size());
+        assertEquals("Exact title should rank first", exact.getId(), results.get(0).getId());
+        assertEquals("Longer title should rank second", longer.getId(), results.get(1).getId());
+        assertEquals("Prefix match should rank last", prefix.getId(), results.get(2).getId());
+    }
+
+    /**
+     * Tests that a query matches inside a word, as the title search always has.
+     */
+    @Test
+    public void searchByTitleMatchesSubstringTest() {
+        Song song = addSong("substring.mp3", "FunRock");
+        addSong("other.mp3", "Funk Sunrise");
+
+        List<Song> results = songSearchService.searchByTitle("ock");
+        assertEquals("Only the song containing the query should match", 1, results.size());
+        assertEquals("Matching song should be returned", song.getId(), results.get(0).getId());
+    }
+
+    /**
+     * Tests that one- and two-character queries are matched anywhere in the title.
+     */
+    @Test
+    public void searchByTitleShortQueryTest() {
+        Song song = addSong("short.mp3", "Xylophone Jam");
+
+        assertTrue("Two-character query at the end should match",
+                songSearchService.searchByTitle("am").stream().anyMatch(s -> s.getId().equals(song.getId())));
+        assertTrue("One-character query should match",
+                songSearchService.searchByTitle("X").stream().anyMatch(s -> s.getId().equals(song.getId())));
+        assertTrue("Query across words should match",
+                songSearchService.searchByTitle("e j").stream().anyMatch(s -> s.getId().equals(song.getId())));
+    }
+
+    /**
+     * Tests that re-indexing a song after its title changes replaces its old words.
+     */
+    @Test
+    public void indexSongReplacesOldTitleTest() {
+        Song song = addSong("renamed.mp3", "Placeholder Title");
+        song.setTitle("Zephyrine");
+        songSearchService.indexSong(song);
+
+        assertEquals("New title should match", 1, songSearchService.searchByTitle("zephyrine").size());
+        assertTrue("Old title should no longer match", songSearchService.searchByTitle("placeholder").isEmpty());
+        assertTrue("Old title substring should no longer match", songSearchService.searchByTitle("eholde").isEmpty());
+    }
+
+    /**
+     * Tests that artist searches match inside the artist name and not the title.
+     */
+    @Test
+    public void searchByArtistMatchesSubstringTest() {
+        Song song = addSong("artist.mp3", "Untitled", "The Marmalade Hours");
+        addSong("title.mp3", "Marmalade", "Someone Else");
+
+        List<Song> results = songSearchService.searchByArtist("malade h");
+        assertEquals("Only the song by the artist should match", 1, results.size());
+        assertEquals("Matching song should be returned", song.getId(), results.get(0).getId());
+    }
+
+    /**
+     * Tests that fuzzy title searches tolerate substitutions, insertions and swapped letters.
+     */
+    @Test
+    public void searchByTitleFuzzyToleratesTyposTest() {
+        Song song = addSong("fuzzy.mp3", "Bohemian Rhapsodies");
+        addSong("unrelated.mp3", "Quiet Harbour");
+
+        assertTrue("Exact search should miss the misspelling", songSearchService.searchByTitle("bohemain rapsodies").isEmpty());
+        List<Song> results = songSearchService.searchByTitleFuzzy("bohemain rapsodies");
+        assertEquals("Misspelled title should match", 1, results.size());
+        assertEquals("Matching song should be returned", song.getId(), results.get(0).getId());
+    }
+
+    /**
+     * Tests that fuzzy artist searches rank closer matches first.
+     */
+    @Test
+    public void searchByArtistFuzzyRanksCloserMatchesFirstTest() {
+        Song exact = addSong("exact.mp3", "Song One", "Fleetwoodz");
+        Song close = addSong("close.mp3", "Song Two", "Fleetwoodx");
+
+        List<Song> results = songSearchService.searchByArtistFuzzy("fleetwoodz");
+        assertEquals("Both artists should match", 2, results.size());
+        assertEquals("Exact artist should rank first", exact.getId(), results.get(0).getId());
+        assertEquals("Artist one edit away should rank second", close.getId(), results.get(1).getId());
+    }
+
+    /**
+     * Tests that completions cover titles, artists and genres, with artists on more songs first.
+     */
+    @Test
+    public void suggestCompletesTitlesArtistsAndGenresTest() {
+        addSong("zanzibar1.mp3", "Zanzibar Nights", "Zanzibar Crew");
+        addSong("zanzibar2.mp3", "Harbour", "Zanzibar Crew");
+
+        List<SuggestionTrie.Suggestion> suggestions = songSearchService.suggest("zanz", 10);
+        assertEquals("Artist and title should be suggested", 2, suggestions.size());
+        assertEquals("Artist on two songs should come first", "Zanzibar Crew", suggestions.get(0).text());
+        assertEquals("Artist should be labelled", SearchField.ARTIST, suggestions.get(0).field());
+        assertEquals("Title should come second", "Zanzibar Nights", suggestions.get(1).text());
+
+        assertEquals("Later words should be completed too", "Zanzibar Nights",
+                songSearchService.suggest("NIGH", 10).get(0).text());
+        assertTrue("Genre should be suggested", songSearchService.suggest("search gen", 10).stream()
+                .anyMatch(suggestion -> suggestion.field() == SearchField.GENRE
+                        && suggestion.text().equals("Search Genre")));
+    }
+
+    /**
+     * Tests that walking the pages of a search returns every match once, in the same
+     * order as the unpaged search.
+     */
+    @Test
+    public void searchPagesFollowRankingTest() {
+        for (int i = 0; i < 5; i++) {
+            addSong("paged" + i + ".mp3", "Nebula " + "x".repeat(i));
+        }
+        List<Long> expected = songSearchService.searchByTitle("nebula").stream().map(Song::getId).toList();
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            SongService.SongPage page = songSearchService.search("nebula", SearchField.TITLE, false, cursor, 2);
+            assertEquals("Every page should estimate all matches", 5L, page.totalEstimate());
+            page.songs().forEach(song -> paged.add(song.getId()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertEquals("Three pages should be needed", 3, pages);
+        assertEquals("Pages should list every match once, in ranking order", expected, paged);
+    }
+
+    /**
+     * Tests that a song added between two pages is found by the following page, since
+     * each page asks the engine for the matches ranked after the cursor.
+     */
+    @Test
+    public void searchPagesSeeSongsAddedBetweenPagesTest() {
+        addSong("comet1.mp3", "Comet");
+        addSong("comet2.mp3", "Comet Tail");
+        SongService.SongPage first = songSearchService.search("comet", SearchField.TITLE, false, null, 1);
+        assertEquals("First page should hold the shortest title", "Comet", first.songs().get(0).getTitle());
+
+        Song added = addSong("comet3.mp3", "Comet Tails");
+        SongService.SongPage rest = songSearchService.search("comet", SearchField.TITLE, false, first.nextCursor(), 10);
+
+        assertEquals("Remaining matches should include the added song", 2, rest.songs().size());
+        assertEquals("Added song should rank after the longer title", added.getId(), rest.songs().get(1).getId());
+        assertEquals("Estimate should count the added song", 3L, rest.totalEstimate());
+    }
+
+    /**
+     * Tests that fuzzy searches can be paged as well.
+     */
+    @Test
+    public void searchFuzzyPagesTest() {
+        addSong("fuzzy-page1.mp3", "Velvet Thunder");
+        addSong("fuzzy-page2.mp3", "Velvet Thunders");
+
+        SongService.SongPage first = songSearchService.search("velvit", SearchField.TITLE, true, null, 1);
+        assertEquals("First page should hold one song", 1, first.songs().size());
+        assertNotNull("A second page should follow", first.nextCursor());
+
+        SongService.SongPage second = songSearchService.search("velvit", SearchField.TITLE, true, first.nextCursor(), 1);
+        assertEquals("Second page should hold one song", 1, second.songs().size());
+        assertNotEquals("Pages should not overlap", first.songs().get(0).getId(), second.songs().get(0).getId());
+    }
+
+    /**
+     * Tests that genre names are matched in part and ignoring case.
+     */
+    @Test
+    public void findGenreIdsMatchesPartOfNameTest() {
+        Genre zydeco = genreRepo.save(new Genre("Zydeco Blues"));
+        Genre delta = genreRepo.save(new Genre("Delta Blues"));
+
+        List<Long> blues = songSearchService.findGenreIds("BLUES");
+        assertTrue("Zydeco Blues should match", blues.contains(zydeco.getId()));
+        assertTrue("Delta Blues should match", blues.contains(delta.getId()));
+        assertEquals("Only Zydeco Blues should match", List.of(zydeco.getId()), songSearchService.findGenreIds("zydeco"));
+    }
+
+    /**
+     * Tests that a renamed genre is found by its new name only.
+     */
+    @Test
+    public void findGenreIdsSeesRenamedGenreTest() {
+        Genre renamed = genreRepo.save(new Genre("Chiptune"));
+        assertEquals("Genre should be found by its name", List.of(renamed.getId()), songSearchService.findGenreIds("chiptune"));
+
+        renamed.setName("Bitpop");
+        genreRepo.saveAndFlush(renamed);
+        assertTrue("Old name should no longer match", songSearchService.findGenreIds("chiptune").isEmpty());
+        assertEquals("New name should match", List.of(renamed.getId()), songSearchService.findGenreIds("bitpop"));
+    }
+
+    /**
+     * Tests that a query can mix words from the artist and the title.
+     */
+    @Test
+    public void searchAllFieldsCombinesFieldsTest() {
+        Song song = addSong("combined.mp3", "Moonlit Harbor", "Zephyr Lane");
+        addSong("title-only.mp3", "Harbor Lights", "Other Artist");
+
+        List<Song> results = songSearchService.searchAllFields("zephyr harbor", 10);
+        assertEquals("Only the song matching both words should be found", List.of(song), results);
+    }
+
+    /**
+     * Tests that title matches rank above genre matches, and that genres are searched.
+     */
+    @Test
+    public void searchAllFieldsRanksTitleAboveGenreTest() {
+        Genre nocturne = genreRepo.save(new Genre("Nocturne Jazz"));
+        Song byGenre = new Song("by-genre.mp3", "Xylo Tide", "Test Artist");
+        byGenre.setGenre(nocturne);
+        songService.addSong(byGenre);
+        Song byTitle = addSong("by-title.mp3", "Nocturne");
+
+        List<Song> results = songSearchService.searchAllFields("nocturne", 10);
+        assertEquals("Both songs should be found", 2, results.size());
+        assertEquals("Title match should rank first", byTitle.getId(), results.get(0).getId());
+        assertEquals("Genre match should rank second", byGenre.getId(), results.get(1).getId());
+    }
+
+    /**
+     * Tests that a search across all fields pages past its first page, in ranking order
+     * and without repeating songs.
+     */
+    @Test
+    public void searchAllFieldsPagesTest() {
+        Song first = addSong("paged1.mp3", "Obsidian");
+        Song second = addSong("paged2.mp3", "Obsidian Dawn");
+        Song third = addSong("paged3.mp3", "Obsidian Dawn Rising");
+
+        SongService.SongPage page = songSearchService.searchAllFields("obsidian", null, 2);
+        assertEquals("First page should hold two songs", 2, page.songs().size());
+        assertNotNull("A second page should follow", page.nextCursor());
+
+        SongService.SongPage rest = songSearchService.searchAllFields("obsidian", page.nextCursor(), 2);
+        List<Song> all = new ArrayList<>(page.songs());
+        all.addAll(rest.songs());
+        assertEquals("Every song should be found once, best first",
+                songSearchService.searchAllFields("obsidian", 10), all);
+        assertTrue("All three songs should be found", all.containsAll(List.of(first, second, third)));
+        assertNull("No matches should remain", rest.nextCursor());
+    }
+
+    /**
+     * Tests that sounds-like searches find artists spelled the way they sound.
+     */
+    @Test
+    public void searchSoundsLikeFindsMisspelledArtistTest() {
+        Song song = addSong("sounds1.mp3", "Song One", "Zbigniew Qvortrup");
+        addSong("sounds2.mp3", "Song Two", "Quartz Echo");
+
+        SongService.SongPage page = songSearchService.searchSoundsLike("Kvortrup", null, 10);
+        assertEquals("Only the artist sounding alike should match", List.of(song), page.songs());
+    }
+
+    /**
+     * Tests that sounds-like searches rank artists matching on their primary pronunciation first.
+     */
+    @Test
+    public void searchSoundsLikeRanksPrimaryMatchesFirstTest() {
+        Song alternate = addSong("sounds3.mp3", "Song One", "Zbigniew Qvortrup");
+        Song primary = addSong("sounds4.mp3", "Song Two", "Zbignev Kvortrupp");
+
+        List<Song> results = songSearchService.searchSoundsLike("zbignef kvortrop", null, 10).songs();
+        assertEquals("Both artists should match", List.of(primary, alternate), results);
+    }
+
+    /**
+     * Tests that searches ignore accents on either side, and that the search-as-you-type
+     * completions do too.
+     */
+    @Test
+    public void searchIgnoresAccentsTest() {
+        Song accented = addSong("accented.mp3", "Café Quixotique", "Zoë Ångström");
+        Song plain = addSong("plain.mp3", "Naive Quixote", "Test Artist");
+        Song folded = addSong("folded.mp3", "Naïve Quixote", "Test Artist");
+
+        assertEquals("Plain query should find accented title", List.of(accented), songSearchService.searchByTitle("cafe quixotique"));
+        assertEquals("Plain query should find accented artist", List.of(accented), songSearchService.searchByArtist("ZOE ANGSTROM"));
+        List<Song> naive = songSearchService.searchByTitle("naïve quixote");
+        assertTrue("Accented query should find plain title", naive.contains(plain));
+        assertTrue("Accented query should find accented title", naive.contains(folded));
+    }
+
+    /**
+     * Tests that genre names are matched ignoring accents and punctuation.
+     */
+    @Test
+    public void findGenreIdsIgnoresAccentsTest() {
+        Genre genre = genreRepo.save(new Genre("Música Criolla"));
+
+        assertEquals("Plain query should find accented genre", List.of(genre.getId()), songSearchService.findGenreIds("musica-criolla"));
+    }
+
+    /**
+     * Tests that a song written straight to the song table, as by another node, is
+     * found after the next refresh.
+     */
+    @Test
+    public void refreshIndexesSongsAddedElsewhereTest() {
+        assertTrue("Song should not be found yet", songSearchService.searchByTitle("Faraway Node").isEmpty());
+        Song song = new Song("faraway.mp3", "Faraway Node", "Remote Artist");
+        song.setGenre(genre);
+        songRepo.save(song);
+        assertTrue("Song should not be indexed before the refresh", songSearchService.searchByTitle("Faraway Node").isEmpty());
+
+        songSearchServiceImpl.refresh();
+
+        List<Song> results = songSearchService.searchByTitle("Faraway Node");
+        assertEquals("Song should be found after the refresh", 1, results.size());
+        assertEquals("Added song should be returned", song.getId(), results.get(0).getId());
+    }
+
+    /**
+     * Tests that a song re-tagged by enrichment on another node is found by its new
+     * title after the next refresh.
+     */
+    @Test
+    public void refreshReindexesSongsEnrichedElsewhereTest() {
+        Song song = addSong("retagged.mp3", "Untagged Track");
+        song.setTitle("Retagged Elsewhere");
+        song.setEnrichedAt(Instant.now());
+        songRepo.save(song);
+        assertTrue("New title should not be indexed before the refresh",
+                songSearchService.searchByTitle("Retagged Elsewhere").isEmpty());
+
+        songSearchServiceImpl.refresh();
+
+        List<Song> results = songSearchService.searchByTitle("Retagged Elsewhere");
+        assertEquals("Song should be found by its new title", 1, results.size());
+        assertEquals("Re-tagged song should be returned", song.getId(), results.get(0).getId());
+    }
+
+    /**
+     * Tests that a tombstoned song leaves the engine, so searches neither find nor count
+     * it, and that restoring it makes it searchable again.
+     */
+    @Test
+    public void songsMissingRemovesFromEngineTest() {
+        Song song = addSong("tombstoned.mp3", "Eclipsed Lantern", "Lunar Echo");
+        List<Long> ids = List.of(song.getId());
+        songRepo.markMissing(ids, Instant.now(), Instant.now());
+        songSearchService.songsMissing(ids);
+
+        SongService.SongPage page = songSearchService.search("lantern", SearchField.TITLE, false, null, 10);
+        assertTrue("Tombstoned song should not be found", page.songs().isEmpty());
+        assertEquals("Tombstoned song should not be counted", 0L, page.totalEstimate());
+        assertTrue("Tombstoned artist should not sound like the query",
+                songSearchService.searchSoundsLike("Lunar Echo", null, 10).songs().isEmpty());
+
+        songRepo.markAvailable(ids, Instant.now());
+        songSearchService.songsRestored(ids);
+
+        assertEquals("Restored song should be found again", List.of(song.getId()),
+                songSearchService.search("lantern", SearchField.TITLE, false, null, 10).songs().stream().map(Song::getId).toList());
+    }
+
+    /**
+     * Tests that songs tombstoned and restored by another node leave and rejoin the
+     * engine on the next refresh.
+     */
+    @Test
+    public void refreshAppliesAvailabilityChangesElsewhereTest() {
+        Song song = addSong("elsewhere-missing.mp3", "Wandering Beacon");
+        List<Long> ids = List.of(song.getId());
+        assertEquals("Song should be found before it goes missing", 1,
+                songSearchService.search("beacon", SearchField.TITLE, false, null, 10).songs().size());
+        songRepo.markMissing(ids, Instant.now(), Instant.now());
+
+        songSearchServiceImpl.refresh();
+        assertEquals("Song tombstoned elsewhere should not be counted after the refresh", 0L,
+                songSearchService.search("beacon", SearchField.TITLE, false, null, 10).totalEstimate());
+
+        songRepo.markAvailable(ids, Instant.now());
+        songSearchServiceImpl.refresh();
+        assertEquals("Song restored elsewhere should be found after the refresh", 1,
+                songSearchService.search("beacon", SearchField.TITLE, false, null, 10).songs().size());
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that a match whose song was deleted is dropped from the page and removed from
+     * the engine, so later searches no longer count it.
+     */
+    @Test
+    public void searchRemovesDeletedSongsFromEngineTest() {
+        Song song = addSong("deleted.mp3", "Phantom Harbor");
+        songRepo.deleteById(song.getId());
+        songRepo.flush();
+
+        SongService.SongPage first = songSearchService.search("harbor", SearchField.TITLE, false, null, 10);
+        assertTrue("Deleted song should not be returned", first.songs().isEmpty());
+        assertEquals("Deleted song should no longer be counted", 0L,
+                songSearchService.search("harbor", SearchField.TITLE, false, null, 10).totalEstimate());
+    }
+
+    /**
+     * Tests that blank prefixes and prefixes matching nothing have no completions.
+     */
+    @Test
+    public void suggestNoMatchesTest() {
+        addSong("quokka.mp3", "Quokka Parade");
+
+        assertTrue("Blank prefix should have no completions", songSearchService.suggest("  ", 10).isEmpty());
+        assertTrue("Null prefix should have no completions", songSearchService.suggest(null, 10).isEmpty());
+        assertTrue("Unknown prefix should have no completions", songSearchService.suggest("quokkaz", 10).isEmpty());
+        assertEquals("Limit should be respected", 0, songSearchService.suggest("quokka", 0).size());
+    }
+
+    /**
+     * Tests that songs whose files went missing are left out of search results.
+     */
+    @Test
+    public void searchByTitleSkipsMissingSongsTest() {
+        Song song = addSong("missing.mp3", "Vanishing Comet");
+        song.setMissingSince(Instant.now());
+
+        assertTrue("Missing song should not be found", songSearchService.searchByTitle("comet").isEmpty());
+    }
+
+    /**
+     * Tests that queries without letters or digits match nothing.
+     */
+    @Test
+    public void searchByTitleNoWordsTest() {
+        addSong("punctuation.mp3", "!!!");
+
+        assertTrue("Punctuation-only query should match nothing", songSearchService.searchByTitle("!!!").isEmpty());
+        assertTrue("Null query should match nothing", songSearchService.searchByTitle(null).isEmpty());
+    }
+
+    /**
+     * Tests that fuzzy searches do not stretch short words or allow too many edits.
+     */
+    @Test
+    public void searchByTitleFuzzyRejectsDistantWordsTest() {
+        addSong("distant.mp3", "Amber Umbrella Ox");
+
+        assertTrue("Two-letter words must match exactly", songSearchService.searchByTitleFuzzy("ax").isEmpty());
+        assertTrue("Short words allow one edit only", songSearchService.searchByTitleFuzzy("ambra").isEmpty());
+        assertTrue("Long words allow two edits only", songSearchService.searchByTitleFuzzy("umbrolloo").isEmpty());
+        assertTrue("Blank query should match nothing", songSearchService.searchByTitleFuzzy(" ").isEmpty());
+    }
+
+    /**
+     * Tests that a malformed cursor starts over at the first page.
+     */
+    @Test
+    public void searchMalformedCursorTest() {
+        Song song = addSong("cursor.mp3", "Cursor Canyon");
+
+        SongService.SongPage page = songSearchService.search("canyon", SearchField.TITLE, false, "not-a-cursor", 10);
+        assertEquals("Malformed cursor should return the first page", List.of(song), page.songs());
+        assertNull("A single page should have no next cursor", page.nextCursor());
+    }
+
+    /**
+     * Tests that a missing song on a page is skipped without ending the search early.
+     */
+    @Test
+    public void searchPageSkipsMissingSongsTest() {
+        Song missing = addSong("page-missing.mp3", "Drift");
+        Song kept = addSong("page-kept.mp3", "Drift Away");
+        missing.setMissingSince(Instant.now());
+
+        SongService.SongPage page = songSearchService.search("drift", SearchField.TITLE, false, null, 1);
+        assertEquals("The page should be filled from the next match", List.of(kept), page.songs());
+        assertNull("No matches should remain", page.nextCursor());
+    }
+
+    /**
+     * Tests that blank or unknown genre names match no genres.
+     */
+    @Test
+    public void findGenreIdsNoMatchesTest() {
+        assertTrue("Unknown genre should match nothing", songSearchService.findGenreIds("no such genre").isEmpty());
+        assertTrue("Blank genre should match nothing", songSearchService.findGenreIds(" ").isEmpty());
+        assertTrue("Null genre should match nothing", songSearchService.findGenreIds(null).isEmpty());
+    }
+
+    /**
+     * Tests that searches across all fields respect the limit and ignore blank queries.
+     */
+    @Test
+    public void searchAllFieldsLimitTest() {
+        addSong("limit1.mp3", "Quartz Echo");
+        addSong("limit2.mp3", "Quartz Echoes");
+
+        assertEquals("Only the best match should be returned", 1, songSearchService.searchAllFields("quartz", 1).size());
+        assertTrue("Blank query should match nothing", songSearchService.searchAllFields(" ", 10).isEmpty());
+        assertTrue("Zero limit should match nothing", songSearchService.searchAllFields("quartz", 0).isEmpty());
+    }
+
+    /**
+     * Tests that sounds-like searches ignore queries without letters and re-tagged artists.
+     */
+    @Test
+    public void searchSoundsLikeNoMatchesTest() {
+        Song song = addSong("sounds5.mp3", "Song One", "Zbigniew Qvortrup");
+        song.setArtist("Somebody Else");
+        songSearchService.indexSong(song);
+
+        assertTrue("Re-tagged artist should not match", songSearchService.searchSoundsLike("kvortrup", null, 10).songs().isEmpty());
+        assertTrue("Digits should match nothing", songSearchService.searchSoundsLike("123", null, 10).songs().isEmpty());
+        assertTrue("Blank query should match nothing", songSearchService.searchSoundsLike(" ", null, 10).songs().isEmpty());
+    }
+
+    /**
+     * Tests that indexing a song without an ID is ignored.
+     */
+    @Test
+    public void indexSongWithoutIdTest() {
+        songSearchService.indexSong(new Song("unsaved.mp3", "Unsaved Orbit", "Test Artist"));
+        songSearchService.indexSong(null);
+
+        assertTrue("Unsaved song should not be found", songSearchService.searchByTitle("orbit").isEmpty());
+    }
+
+    private Song addSong(String filename, String title) {
+        return addSong(filename, title, "Test Artist");
+    }
+
+    private Song addSong(String filename, String title, String artist) {
+        Song song = new Song(filename, title, artist);
+        song.setGenre(genre);
+        songService.addSong(song);
+        return song;
+    }
+}
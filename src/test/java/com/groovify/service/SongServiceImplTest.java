@@ -9,6 +9,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 import static org.springframework.test.util.AssertionErrors.*;
 
 
@@ -26,6 +28,9 @@ class SongServiceImplTest {
     @Autowired
     private SongService songService;
 
+    @Autowired
+    private SongSearchService songSearchService;
+
     private Long genreId1;
     private Long genreId2;
     private Long genreId3;
@@ -301,6 +306,48 @@ class SongServiceImplTest {
         assertTrue("No song should be found", songService.searchSongsByTitle(null).isEmpty());
     }
 
+    /**
+     * Tests that queries differing only in case or punctuation are answered from one cached result.
+     */
+    @Test
+    public void searchSongsByTitleCachedTest() {
+        Song song = createSong("cached.mp3");
+        assertTrue("Song should be added", songService.addSong(song));
+
+        List<Song> first = songService.searchSongsByTitle("Test");
+        assertEquals("One song should be found", 1, first.size());
+        assertTrue("Equivalent query should reuse the cached result", first == songService.searchSongsByTitle("test!"));
+    }
+
+    /**
+     * Tests that importing a song invalidates cached results.
+     */
+    @Test
+    public void searchSongsByTitleCacheInvalidatedByImportTest() {
+        List<Song> before = songService.searchSongsByTitle("test");
+        assertTrue("Song should be added", songService.addSong(createSong("invalidate.mp3")));
+
+        List<Song> after = songService.searchSongsByTitle("test");
+        assertFalse("A new result should be computed", before == after);
+        assertEquals("The new song should be found", before.size() + 1, after.size());
+    }
+
+    /**
+     * Tests that re-indexing a song whose searchable text is unchanged, as enrichment
+     * does, keeps cached results.
+     */
+    @Test
+    public void searchSongsByTitleCacheKeptByEnrichmentTest() {
+        Song song = createSong("enriched.mp3");
+        assertTrue("Song should be added", songService.addSong(song));
+        List<Song> before = songService.searchSongsByTitle("test");
+
+        song.setBitrate(320);
+        songSearchService.indexSong(song);
+
+        assertTrue("Cached result should be reused", before == songService.searchSongsByTitle("test"));
+    }
+
     /**
      * Tests searching by genre when valid song exists.
      */
@@ -417,6 +464,36 @@ class SongServiceImplTest {
         assertTrue("No song should be found", songService.searchSongsByGenre("Rock").isEmpty());
     }
 
+    /**
+     * Tests paging through a genre search with the returned cursors.
+     */
+    @Test
+    public void searchSongsByGenrePagedTest() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue("Song should be added", songService.addSong(createSong("paged" + i + ".mp3")));
+        }
+
+        SongService.SongPage first = songService.searchSongsByGenre("Rock", null, 2);
+        assertEquals("First page should hold two songs", 2, first.songs().size());
+        assertEquals("Total should count every song", 3L, first.totalEstimate());
+        assertNotNull("A second page should follow", first.nextCursor());
+
+        SongService.SongPage second = songService.searchSongsByGenre("Rock", first.nextCursor(), 2);
+        assertEquals("Second page should hold the last song", 1, second.songs().size());
+        assertNull("No page should follow the last one", second.nextCursor());
+        assertTrue("Pages should not overlap", second.songs().get(0).getId() > first.songs().get(1).getId());
+    }
+
+    /**
+     * Tests that a blank genre query returns an empty page.
+     */
+    @Test
+    public void searchSongsByGenrePagedBlankTest() {
+        SongService.SongPage page = songService.searchSongsByGenre(" ", null, 10);
+        assertTrue("No song should be found", page.songs().isEmpty());
+        assertNull("No page should follow", page.nextCursor());
+    }
+
     /**
      * Tests searching by wrong/nonexistent genre keyword.
      */
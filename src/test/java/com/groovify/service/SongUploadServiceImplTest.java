@@ -0,0 +1,167 @@
+package com.groovify.service;
+
+import com.groovify.jpa.model.Song;
+import com.groovify.util.Mp3StreamWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Integration tests for {@link SongUploadServiceImpl}, validating single-stream and
+ * resumable chunked uploads into a temporary song store.
+ */
+@Transactional
+@SpringBootTest
+class SongUploadServiceImplTest {
+
+    @Autowired
+    private GenreImportService genreImportService;
+
+    @Autowired
+    private SongUploadServiceImpl songUploadService;
+
+    @TempDir
+    Path root;
+
+    private byte[] mp3;
+
+    /**
+     * Imports genres, points the service at a temporary music directory, and loads
+     * one of the project's MP3 files to upload.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        genreImportService.importGenres(List.of("Rock", "Pop", "Classical", "Tech", "Country", "Folk"));
+        songUploadService.musicDirectory = root.toString();
+        mp3 = Files.readAllBytes(Path.of("src/main/resources/static/songs/Rock/FunRock.mp3"));
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that a single-stream upload is stored and registered with its hash.
+     */
+    @Test
+    public void uploadStoresSongTest() throws IOException {
+        Song song = songUploadService.upload("Rock", "FunRock.mp3", new ByteArrayInputStream(mp3));
+
+        assertNotNull("Song should be registered", song.getId());
+        assertEquals("Size should match", (long) mp3.length, song.getFileSize());
+        assertEquals("Hash should be SHA-256 hex", 64, song.getContentHash().length());
+        assertEquals("File should be stored intact", (long) mp3.length, Files.size(root.resolve("Rock/FunRock.mp3")));
+    }
+
+    /**
+     * Tests that a file sent in chunks is assembled, hashed, and registered once complete.
+     */
+    @Test
+    public void chunkedUploadTest() throws IOException {
+        String expectedHash = songUploadService.upload("Pop", "Copy.mp3", new ByteArrayInputStream(mp3)).getContentHash();
+
+        SongUploadService.UploadStatus status = songUploadService.startUpload("alice", "Rock", "FunRock.mp3", mp3.length);
+        int half = mp3.length / 2;
+
+        assertNull("First chunk should not complete the upload",
+                songUploadService.appendChunk("alice", status.uploadId(), 0, chunk(0, half)));
+        assertEquals("Received bytes should be reported", (long) half,
+                songUploadService.getStatus("alice", status.uploadId()).received());
+
+        Song song = songUploadService.appendChunk("alice", status.uploadId(), half, chunk(half, mp3.length));
+
+        assertNotNull("Last chunk should register the song", song);
+        assertEquals("Chunked hash should match single upload", expectedHash, song.getContentHash());
+        assertTrue("File should be stored", Files.exists(root.resolve("Rock/FunRock.mp3")));
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that data which is not an MP3 file is rejected and not stored.
+     */
+    @Test
+    public void uploadRejectsNonMp3Test() {
+        byte[] text = "definitely not audio".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(Mp3StreamWriter.InvalidMp3Exception.class,
+                () -> songUploadService.upload("Rock", "Fake.mp3", new ByteArrayInputStream(text)));
+        assertFalse("Nothing should be stored", Files.exists(root.resolve("Rock/Fake.mp3")));
+    }
+
+    /**
+     * Tests that uploads into unknown genres or with invalid names are rejected.
+     */
+    @Test
+    public void uploadRejectsInvalidTargetTest() {
+        assertThrows(IllegalArgumentException.class,
+                () -> songUploadService.upload("Jazz", "FunRock.mp3", new ByteArrayInputStream(mp3)));
+        assertThrows(IllegalArgumentException.class,
+                () -> songUploadService.upload("Rock", "../FunRock.mp3", new ByteArrayInputStream(mp3)));
+    }
+
+    /**
+     * Tests that a chunk sent at the wrong offset is refused without losing progress.
+     */
+    @Test
+    public void chunkAtWrongOffsetTest() throws IOException {
+        SongUploadService.UploadStatus status = songUploadService.startUpload("alice", "Rock", "FunRock.mp3", mp3.length);
+        songUploadService.appendChunk("alice", status.uploadId(), 0, chunk(0, 1000));
+
+        assertThrows(IllegalStateException.class,
+                () -> songUploadService.appendChunk("alice", status.uploadId(), 5000, chunk(5000, 6000)));
+        assertEquals("Progress should be kept", 1000L,
+                songUploadService.getStatus("alice", status.uploadId()).received());
+    }
+
+    /**
+     * Tests that another user cannot see or continue someone else's upload.
+     */
+    @Test
+    public void uploadBelongsToOwnerTest() throws IOException {
+        SongUploadService.UploadStatus status = songUploadService.startUpload("alice", "Rock", "FunRock.mp3", mp3.length);
+
+        assertThrows(NoSuchElementException.class, () -> songUploadService.getStatus("bob", status.uploadId()));
+    }
+
+    /**
+     * Tests that an upload finishing after another file took its name fails without
+     * replacing or deleting that file, and leaves no part file behind.
+     */
+    @Test
+    public void uploadDoesNotReplaceFileCreatedMeanwhileTest() throws IOException {
+        SongUploadService.UploadStatus status = songUploadService.startUpload("alice", "Rock", "FunRock.mp3", mp3.length);
+        byte[] other = "written by another node".getBytes(StandardCharsets.UTF_8);
+        Path target = root.resolve("Rock/FunRock.mp3");
+        Files.write(target, other);
+
+        assertThrows(IllegalStateException.class,
+                () -> songUploadService.appendChunk("alice", status.uploadId(), 0, chunk(0, mp3.length)));
+        assertArrayEquals("Existing file should be kept intact", other, Files.readAllBytes(target));
+        try (Stream<Path> files = Files.list(target.getParent())) {
+            assertEquals("Only the existing file should remain", List.of(target), files.toList());
+        }
+    }
+
+    /**
+     * Returns a stream over part of the test MP3 file.
+     */
+    private ByteArrayInputStream chunk(int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(mp3, from, to));
+    }
+}
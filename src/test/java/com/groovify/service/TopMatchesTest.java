@@ -0,0 +1,71 @@
+package com.groovify.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit tests for {@link TopMatches}, the bounded selection every search engine pages with.
+ */
+class TopMatchesTest {
+
+    // Happy Path
+
+    /**
+     * Tests that only the best matches are kept, in ranking order, while every match is counted.
+     */
+    @Test
+    public void keepsBestMatchesTest() {
+        TopMatches top = new TopMatches(null, 2);
+        top.add(match(1, 0.5));
+        top.add(match(2, 2.0));
+        top.add(match(3, 1.0));
+        top.add(match(4, 0.1));
+
+        SongSearchEngine.MatchPage page = top.page();
+        assertEquals("Best two should be kept, best first", List.of(2L, 3L), ids(page));
+        assertEquals("Every match should be counted", 4, page.total());
+    }
+
+    /**
+     * Tests that matches ranked at or before the cursor are left out of the page.
+     */
+    @Test
+    public void skipsMatchesUpToCursorTest() {
+        TopMatches top = new TopMatches(match(3, 1.0), 10);
+        top.add(match(1, 0.5));
+        top.add(match(2, 2.0));
+        top.add(match(3, 1.0));
+        top.add(match(5, 1.0));
+
+        assertEquals("Only matches after the cursor should be kept", List.of(5L, 1L), ids(top.page()));
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that a zero limit keeps nothing but still counts the matches.
+     */
+    @Test
+    public void zeroLimitTest() {
+        TopMatches top = new TopMatches(null, 0);
+        top.add(match(1, 1.0));
+
+        assertTrue("Nothing should be kept", top.page().matches().isEmpty());
+        assertEquals("Match should be counted", 1, top.page().total());
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private static SongSearchEngine.Match match(long songId, double score) {
+        return new SongSearchEngine.Match(songId, score, 0, 0);
+    }
+
+    private static List<Long> ids(SongSearchEngine.MatchPage page) {
+        return page.matches().stream().map(SongSearchEngine.Match::songId).toList();
+    }
+}
@@ -0,0 +1,320 @@
+package com.groovify.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit tests for the TAR support of {@link ArchiveReader}, reading archives written by
+ * hand so each header extension can be exercised on its own.
+ */
+class ArchiveReaderTest {
+
+    private static final int BLOCK = 512;
+
+    @TempDir
+    Path root;
+
+    // Happy Path
+
+    /**
+     * Tests that file entries are returned with their contents and directories skipped.
+     */
+    @Test
+    public void readsPlainEntriesTest() throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeEntry(tar, header("Rock/", 0, '5', ""), new byte[0]);
+        writeEntry(tar, header("Rock/One.mp3", 700, '0', ""), bytes(700));
+        writeEntry(tar, header("Rock/Two.mp3", 1024, '0', ""), bytes(1024));
+        writeEnd(tar);
+
+        List<String> names = readAll(write("plain.tar", tar.toByteArray()));
+        assertEquals("Only files should be listed", List.of("Rock/One.mp3", "Rock/Two.mp3"), names);
+    }
+
+    /**
+     * Tests that the ustar prefix field is joined to the name with a slash.
+     */
+    @Test
+    public void joinsUstarPrefixTest() throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeEntry(tar, header("Song.mp3", 10, '0', "Rock/Live"), bytes(10));
+        writeEnd(tar);
+
+        assertEquals("Prefix should be joined", List.of("Rock/Live/Song.mp3"), readAll(write("prefix.tar", tar.toByteArray())));
+    }
+
+    /**
+     * Tests that a GNU 'L' entry supplies the name of the entry after it.
+     */
+    @Test
+    public void readsGnuLongNameTest() throws IOException {
+        String longName = "Rock/" + "a".repeat(150) + ".mp3";
+        byte[] nameData = (longName + "\0").getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeEntry(tar, header("././@LongLink", nameData.length, 'L', ""), nameData);
+        writeEntry(tar, header(longName.substring(0, 99), 20, '0', ""), bytes(20));
+        writeEntry(tar, header("Rock/Short.mp3", 5, '0', ""), bytes(5));
+        writeEnd(tar);
+
+        assertEquals("Long name should apply to the next entry only", List.of(longName, "Rock/Short.mp3"),
+                readAll(write("gnu.tar", tar.toByteArray())));
+    }
+
+    /**
+     * Tests that a PAX 'path' record supplies the name of the entry after it.
+     */
+    @Test
+    public void readsPaxPathTest() throws IOException {
+        String path = "Pop/" + "Ünïcode ".repeat(20).trim() + ".mp3";
+        byte[] records = (paxRecord("mtime", "1700000000") + paxRecord("path", path)).getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeEntry(tar, header("PaxHeaders/Song.mp3", records.length, 'x', ""), records);
+        writeEntry(tar, header("Song.mp3", 30, '0', ""), bytes(30));
+        writeEnd(tar);
+
+        assertEquals("PAX path should be used", List.of(path), readAll(write("pax.tar", tar.toByteArray())));
+    }
+
+    /**
+     * Tests that a size stored in base-256, as used for entries over 8 GB, is parsed and
+     * the entry's contents read in full.
+     */
+    @Test
+    public void readsBase256SizeTest() throws IOException {
+        byte[] data = bytes(3000);
+        byte[] header = header("Rock/Big.mp3", 0, '0', "");
+        Arrays.fill(header, 124, 136, (byte) 0);
+        header[124] = (byte) 0x80;
+        header[134] = (byte) (data.length >> 8);
+        header[135] = (byte) data.length;
+        checksum(header);
+
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeEntry(tar, header, data);
+        writeEntry(tar, header("Rock/After.mp3", 4, '0', ""), bytes(4));
+        writeEnd(tar);
+
+        try (ArchiveReader reader = ArchiveReader.open(write("base256.tar", tar.toByteArray()))) {
+            assertEquals("Entry should be found", "Rock/Big.mp3", reader.nextEntry());
+            assertTrue("Contents should be read in full", Arrays.equals(data, reader.entryStream().readAllBytes()));
+            assertEquals("Next entry should follow the padding", "Rock/After.mp3", reader.nextEntry());
+        }
+    }
+
+    /**
+     * Tests that gzip-compressed archives are read by both extensions, and that unread
+     * entries are skipped.
+     */
+    @Test
+    public void readsTarGzTest() throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeEntry(tar, header("Folk/One.mp3", 5000, '0', ""), bytes(5000));
+        writeEntry(tar, header("Folk/Two.mp3", 10, '0', ""), bytes(10));
+        writeEnd(tar);
+        byte[] compressed = gzip(tar.toByteArray());
+
+        assertEquals("tar.gz should be read", List.of("Folk/One.mp3", "Folk/Two.mp3"), readAll(write("delivery.tar.gz", compressed)));
+        try (ArchiveReader reader = ArchiveReader.open(write("delivery.tgz", compressed))) {
+            reader.nextEntry();
+            assertEquals("Unread entry should be skipped", "Folk/Two.mp3", reader.nextEntry());
+            assertTrue("Second entry should be intact", Arrays.equals(bytes(10), reader.entryStream().readAllBytes()));
+        }
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that an archive cut off inside an entry's data fails instead of returning a
+     * short file.
+     */
+    @Test
+    public void truncatedEntryTest() throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        tar.write(header("Rock/Cut.mp3", 4000, '0', ""));
+        tar.write(bytes(1500));
+
+        try (ArchiveReader reader = ArchiveReader.open(write("cut.tar", tar.toByteArray()))) {
+            assertEquals("Entry should be found", "Rock/Cut.mp3", reader.nextEntry());
+            assertThrows(EOFException.class, () -> reader.entryStream().readAllBytes());
+        }
+    }
+
+    /**
+     * Tests that skipping an entry that is cut off fails.
+     */
+    @Test
+    public void truncatedSkippedEntryTest() throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        tar.write(header("Rock/Cut.mp3", 4000, '0', ""));
+        tar.write(bytes(1500));
+
+        try (ArchiveReader reader = ArchiveReader.open(write("cut-skip.tar", tar.toByteArray()))) {
+            reader.nextEntry();
+            assertThrows(EOFException.class, reader::nextEntry);
+        }
+    }
+
+    /**
+     * Tests that a long-name entry cut off before its data ends fails.
+     */
+    @Test
+    public void truncatedLongNameTest() throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        tar.write(header("././@LongLink", 300, 'L', ""));
+        tar.write(bytes(100));
+
+        try (ArchiveReader reader = ArchiveReader.open(write("cut-name.tar", tar.toByteArray()))) {
+            assertThrows(EOFException.class, reader::nextEntry);
+        }
+    }
+
+    /**
+     * Tests that an archive ending without its zero blocks simply ends after the last
+     * complete entry.
+     */
+    @Test
+    public void missingEndBlocksTest() throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeEntry(tar, header("Rock/Only.mp3", 10, '0', ""), bytes(10));
+
+        assertEquals("Complete entry should be read", List.of("Rock/Only.mp3"), readAll(write("no-end.tar", tar.toByteArray())));
+    }
+
+    /**
+     * Tests that a header with a size that is not octal is reported as corrupt.
+     */
+    @Test
+    public void corruptSizeTest() throws IOException {
+        byte[] header = header("Rock/Bad.mp3", 0, '0', "");
+        byte[] size = "12x45\0".getBytes(StandardCharsets.US_ASCII);
+        Arrays.fill(header, 124, 136, (byte) 0);
+        System.arraycopy(size, 0, header, 124, size.length);
+        checksum(header);
+
+        try (ArchiveReader reader = ArchiveReader.open(write("corrupt.tar", header))) {
+            assertThrows(IOException.class, reader::nextEntry);
+        }
+    }
+
+    /**
+     * Tests that files with other extensions are refused.
+     */
+    @Test
+    public void unsupportedExtensionTest() throws IOException {
+        Path rar = write("delivery.rar", new byte[BLOCK]);
+
+        assertFalse("RAR should not be an archive", ArchiveReader.isArchive("delivery.rar"));
+        assertThrows(IOException.class, () -> ArchiveReader.open(rar));
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    /**
+     * Builds a ustar header block with an octal size and a valid checksum.
+     */
+    private static byte[] header(String name, long size, char type, String prefix) {
+        byte[] header = new byte[BLOCK];
+        put(header, 0, name);
+        put(header, 100, "0000644");
+        put(header, 108, "0000000");
+        put(header, 116, "0000000");
+        put(header, 124, String.format("%011o", size));
+        put(header, 136, String.format("%011o", 1700000000L));
+        header[156] = (byte) type;
+        put(header, 257, "ustar");
+        put(header, 263, "00");
+        put(header, 345, prefix);
+        checksum(header);
+        return header;
+    }
+
+    private static void put(byte[] header, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+
+    /**
+     * Recomputes the header checksum, summing the block with the checksum field as spaces.
+     */
+    private static void checksum(byte[] header) {
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        long sum = 0;
+        for (byte b : header) sum += b & 0xFF;
+        put(header, 148, String.format("%06o", sum));
+        header[154] = 0;
+    }
+
+    private static void writeEntry(ByteArrayOutputStream tar, byte[] header, byte[] data) throws IOException {
+        tar.write(header);
+        tar.write(data);
+        tar.write(new byte[(BLOCK - data.length % BLOCK) % BLOCK]);
+    }
+
+    private static void writeEnd(ByteArrayOutputStream tar) throws IOException {
+        tar.write(new byte[2 * BLOCK]);
+    }
+
+    /**
+     * Formats a PAX record, whose length prefix counts itself.
+     */
+    private static String paxRecord(String key, String value) {
+        int length = key.getBytes(StandardCharsets.UTF_8).length + value.getBytes(StandardCharsets.UTF_8).length + 3;
+        int total = length + String.valueOf(length).length();
+        if (String.valueOf(total).length() > String.valueOf(length).length()) total++;
+        return total + " " + key + "=" + value + "\n";
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) data[i] = (byte) (i * 7 + 1);
+        return data;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    private Path write(String filename, byte[] data) throws IOException {
+        Path file = root.resolve(filename);
+        Files.write(file, data);
+        return file;
+    }
+
+    /**
+     * Lists every entry name, checking that each entry's contents can be read in full.
+     */
+    private static List<String> readAll(Path archive) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (ArchiveReader reader = ArchiveReader.open(archive)) {
+            String name;
+            while ((name = reader.nextEntry()) != null) {
+                reader.entryStream().readAllBytes();
+                names.add(name);
+            }
+        }
+        return names;
+    }
+}
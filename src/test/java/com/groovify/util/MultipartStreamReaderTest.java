@@ -0,0 +1,284 @@
+package com.groovify.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Unit tests for {@link MultipartStreamReader}, validating that parts are split at
+ * their boundaries wherever those fall in the read buffer, and that malformed bodies
+ * are rejected.
+ */
+class MultipartStreamReaderTest {
+
+    private static final String BOUNDARY = "groovify-test-boundary";
+    private static final String CONTENT_TYPE = "multipart/form-data; boundary=" + BOUNDARY;
+
+    // Size of the reader's buffer, so delimiters can be placed across a refill
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Happy Path
+
+    /**
+     * Tests that a genre field sent before several files is read as a value, and each
+     * file part is returned intact with its name.
+     */
+    @Test
+    public void readsFieldBeforeSeveralFilesTest() throws IOException {
+        byte[] first = bytes(1000, 1);
+        byte[] second = bytes(3000, 2);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeField(body, "genre", "Rock");
+        writeFile(body, "first.mp3", first);
+        writeFile(body, "second.mp3", second);
+        writeEnd(body);
+
+        MultipartStreamReader reader = new MultipartStreamReader(new ByteArrayInputStream(body.toByteArray()), CONTENT_TYPE);
+
+        assertTrue("Genre field should be read", reader.nextPart());
+        assertEquals("Field name should be parsed", "genre", reader.getName());
+        assertNull("Plain field should have no filename", reader.getFilename());
+        assertEquals("Field value should be read", "Rock", reader.readValue(1024));
+
+        assertTrue("First file should be read", reader.nextPart());
+        assertEquals("First filename should be parsed", "first.mp3", reader.getFilename());
+        assertTrue("First file should be intact", Arrays.equals(first, reader.partStream().readAllBytes()));
+
+        assertTrue("Second file should be read", reader.nextPart());
+        assertEquals("Second filename should be parsed", "second.mp3", reader.getFilename());
+        assertTrue("Second file should be intact", Arrays.equals(second, reader.partStream().readAllBytes()));
+
+        assertFalse("Body should end after the closing boundary", reader.nextPart());
+        assertFalse("Reader should stay at the end", reader.nextPart());
+    }
+
+    /**
+     * Tests that a part's content is not cut short or extended when the delimiter after
+     * it is split across a refill of the 64 KB buffer, at every offset around it.
+     */
+    @Test
+    public void delimiterSplitAcrossBufferRefillTest() throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        writeFileHeader(header, "split.mp3");
+        int delimiterLength = ("\r\n--" + BOUNDARY).length();
+
+        // Content lengths that put the delimiter just before, across, and just after the refill
+        int straddling = BUFFER_SIZE - header.size() - delimiterLength / 2;
+        for (int length = straddling - delimiterLength; length <= straddling + delimiterLength; length++) {
+            byte[] content = bytes(length, length);
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            writeFile(body, "split.mp3", content);
+            writeField(body, "after", "next");
+            writeEnd(body);
+
+            MultipartStreamReader reader = new MultipartStreamReader(new ByteArrayInputStream(body.toByteArray()), CONTENT_TYPE);
+            assertTrue("File part should be read", reader.nextPart());
+            assertTrue("Content of length " + length + " should be intact",
+                    Arrays.equals(content, reader.partStream().readAllBytes()));
+            assertTrue("Following part should be read", reader.nextPart());
+            assertEquals("Following part should be intact", "next", reader.readValue(16));
+            assertFalse("Body should end", reader.nextPart());
+        }
+    }
+
+    /**
+     * Tests that parts are split correctly when the body arrives a few bytes at a time,
+     * as from a slow client.
+     */
+    @Test
+    public void readsBodyArrivingInSmallReadsTest() throws IOException {
+        byte[] content = bytes(BUFFER_SIZE * 2 + 17, 3);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeField(body, "genre", "Pop");
+        writeFile(body, "slow.mp3", content);
+        writeEnd(body);
+
+        MultipartStreamReader reader = new MultipartStreamReader(trickle(body.toByteArray(), 7), CONTENT_TYPE);
+        assertTrue("Genre field should be read", reader.nextPart());
+        assertEquals("Field value should be read", "Pop", reader.readValue(1024));
+        assertTrue("File should be read", reader.nextPart());
+        assertTrue("File should be intact", Arrays.equals(content, reader.partStream().readAllBytes()));
+        assertFalse("Body should end", reader.nextPart());
+    }
+
+    /**
+     * Tests that moving to the next part skips what was left unread of the current one.
+     */
+    @Test
+    public void nextPartSkipsUnreadContentTest() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeFile(body, "skipped.mp3", bytes(BUFFER_SIZE + 100, 4));
+        writeField(body, "genre", "Folk");
+        writeEnd(body);
+
+        MultipartStreamReader reader = new MultipartStreamReader(new ByteArrayInputStream(body.toByteArray()), CONTENT_TYPE);
+        assertTrue("File should be read", reader.nextPart());
+        assertTrue("Next part should be reached", reader.nextPart());
+        assertEquals("Next part should be the field", "genre", reader.getName());
+        assertEquals("Field value should be read", "Folk", reader.readValue(1024));
+    }
+
+    /**
+     * Tests that quoted boundaries and a preamble before the first boundary are accepted.
+     */
+    @Test
+    public void quotedBoundaryAndPreambleTest() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write("This is a preamble\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        writeField(body, "genre", "Tech");
+        writeEnd(body);
+
+        MultipartStreamReader reader = new MultipartStreamReader(new ByteArrayInputStream(body.toByteArray()),
+                "multipart/form-data; boundary=\"" + BOUNDARY + "\"");
+        assertTrue("Field should be read", reader.nextPart());
+        assertEquals("Field value should be read", "Tech", reader.readValue(1024));
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that a body cut off before its closing boundary fails instead of returning a
+     * truncated file as if it were complete.
+     */
+    @Test
+    public void missingClosingBoundaryTest() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeFileHeader(body, "cut.mp3");
+        body.write(bytes(BUFFER_SIZE + 10, 5));
+
+        MultipartStreamReader reader = new MultipartStreamReader(new ByteArrayInputStream(body.toByteArray()), CONTENT_TYPE);
+        assertTrue("File part should start", reader.nextPart());
+        InputStream part = reader.partStream();
+        assertThrows(EOFException.class, part::readAllBytes);
+    }
+
+    /**
+     * Tests that a body without any boundary is rejected.
+     */
+    @Test
+    public void missingBoundaryTest() {
+        byte[] body = "no parts here\r\n".getBytes(StandardCharsets.ISO_8859_1);
+        MultipartStreamReader reader = new MultipartStreamReader(new ByteArrayInputStream(body), CONTENT_TYPE);
+
+        assertThrows(EOFException.class, reader::nextPart);
+    }
+
+    /**
+     * Tests that a header line longer than the limit is rejected rather than buffered.
+     */
+    @Test
+    public void oversizeHeaderLineTest() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + BOUNDARY + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        body.write(("Content-Disposition: form-data; name=\"" + "x".repeat(9000) + "\"\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+        body.write("value".getBytes(StandardCharsets.ISO_8859_1));
+        writeEnd(body);
+
+        MultipartStreamReader reader = new MultipartStreamReader(new ByteArrayInputStream(body.toByteArray()), CONTENT_TYPE);
+        IOException e = assertThrows(IOException.class, reader::nextPart);
+        assertTrue("Error should name the long line", e.getMessage().contains("too long"));
+    }
+
+    /**
+     * Tests that many short header lines adding up to more than the limit are rejected.
+     */
+    @Test
+    public void oversizeHeaderBlockTest() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + BOUNDARY + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        for (int i = 0; i < 200; i++) {
+            body.write(("X-Filler-" + i + ": " + "y".repeat(60) + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        }
+        body.write("\r\nvalue".getBytes(StandardCharsets.ISO_8859_1));
+        writeEnd(body);
+
+        MultipartStreamReader reader = new MultipartStreamReader(new ByteArrayInputStream(body.toByteArray()), CONTENT_TYPE);
+        IOException e = assertThrows(IOException.class, reader::nextPart);
+        assertTrue("Error should name the header block", e.getMessage().contains("too large"));
+    }
+
+    /**
+     * Tests that a form field larger than the caller's limit is rejected.
+     */
+    @Test
+    public void oversizeFieldValueTest() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeField(body, "genre", "g".repeat(2000));
+        writeEnd(body);
+
+        MultipartStreamReader reader = new MultipartStreamReader(new ByteArrayInputStream(body.toByteArray()), CONTENT_TYPE);
+        assertTrue("Field should be read", reader.nextPart());
+        assertThrows(IOException.class, () -> reader.readValue(1024));
+    }
+
+    /**
+     * Tests that content types without a boundary, or that are not multipart, are refused.
+     */
+    @Test
+    public void invalidContentTypeTest() {
+        assertThrows(IllegalArgumentException.class, () -> MultipartStreamReader.extractBoundary(null));
+        assertThrows(IllegalArgumentException.class, () -> MultipartStreamReader.extractBoundary("application/json"));
+        assertThrows(IllegalArgumentException.class, () -> MultipartStreamReader.extractBoundary("multipart/form-data"));
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private static void writeField(ByteArrayOutputStream body, String name, String value) throws IOException {
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeFile(ByteArrayOutputStream body, String filename, byte[] content) throws IOException {
+        writeFileHeader(body, filename);
+        body.write(content);
+        body.write("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void writeFileHeader(ByteArrayOutputStream body, String filename) throws IOException {
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"files\"; filename=\"" + filename
+                + "\"\r\nContent-Type: audio/mpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeEnd(ByteArrayOutputStream body) throws IOException {
+        body.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Builds content that includes CR, LF and dashes, so it resembles the delimiter.
+     */
+    private static byte[] bytes(int length, int seed) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) ((i * 31 + seed) % 251);
+            if (i % 97 == 0) content[i] = '\r';
+            if (i % 97 == 1) content[i] = '\n';
+            if (i % 97 == 2 || i % 97 == 3) content[i] = '-';
+        }
+        return content;
+    }
+
+    /**
+     * Returns a stream that hands out at most {@code chunk} bytes per read.
+     */
+    private static InputStream trickle(byte[] data, int chunk) {
+        return new FilterInputStream(new ByteArrayInputStream(data)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, chunk));
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.groovify.web.config;
+
+import com.groovify.jpa.model.Client;
+import com.groovify.jpa.repo.ClientRepo;
+import com.groovify.service.RegisterService;
+import com.groovify.web.dto.UserSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+
+/**
+ * Integration tests for {@link CurrentUserArgumentResolver}, validating that the
+ * logged-in user is read from the session and loaded only when the session lacks it.
+ */
+@Transactional
+@SpringBootTest
+class CurrentUserArgumentResolverTest {
+
+    @Autowired
+    private ClientRepo clientRepo;
+
+    @Autowired
+    private RegisterService registerService;
+
+    private CurrentUserArgumentResolver resolver;
+    private Client user;
+
+    /**
+     * Registers the test user and creates the resolver.
+     */
+    @BeforeEach
+    void setUp() {
+        user = new Client("ResolverUser", "Password123");
+        registerService.registerUser(user);
+        resolver = new CurrentUserArgumentResolver(clientRepo);
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that the summary stored in the session is returned as it is.
+     */
+    @Test
+    public void resolvesSummaryFromSessionTest() {
+        MockHttpSession session = new MockHttpSession();
+        UserSummary summary = new UserSummary(1L, "alice", null, List.of());
+        session.setAttribute(UserSummary.SESSION_ATTRIBUTE, summary);
+
+        assertEquals("Session summary should be returned", summary, resolve(session));
+    }
+
+    /**
+     * Tests that a session holding only a username gets its summary loaded and stored.
+     */
+    @Test
+    public void loadsSummaryForUsernameOnlySessionTest() {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("username", "ResolverUser");
+
+        Object resolved = resolve(session);
+
+        assertTrue("A summary should be loaded", resolved instanceof UserSummary);
+        UserSummary summary = (UserSummary) resolved;
+        assertEquals("Summary should be the user's", user.getId(), summary.id());
+        assertEquals("Summary should carry the name", "ResolverUser", summary.name());
+        assertEquals("Summary should be stored in the session", summary,
+                session.getAttribute(UserSummary.SESSION_ATTRIBUTE));
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that a request without a session resolves to no user.
+     */
+    @Test
+    public void noSessionTest() {
+        assertNull("No session should resolve to null", resolve(null));
+    }
+
+    /**
+     * Tests that a session without a username, or with one that no longer exists,
+     * resolves to no user and stores nothing.
+     */
+    @Test
+    public void unknownUserTest() {
+        MockHttpSession session = new MockHttpSession();
+        assertNull("Anonymous session should resolve to null", resolve(session));
+
+        session.setAttribute("username", "NoSuchUser");
+        assertNull("Unknown user should resolve to null", resolve(session));
+        assertNull("Nothing should be stored", session.getAttribute(UserSummary.SESSION_ATTRIBUTE));
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private Object resolve(MockHttpSession session) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+        return resolver.resolveArgument(null, null, new ServletWebRequest(request), null);
+    }
+}
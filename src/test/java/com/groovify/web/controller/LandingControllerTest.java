@@ -0,0 +1,82 @@
+package com.groovify.web.controller;
+
+import com.groovify.jpa.model.Client;
+import com.groovify.service.RegisterService;
+import com.groovify.web.dto.UserSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * Integration tests for the login endpoint of {@link LandingController}, validating
+ * that the session summary pages read the user from is stored at login.
+ */
+@Transactional
+@SpringBootTest
+@AutoConfigureMockMvc
+class LandingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RegisterService registerService;
+
+    private Client user;
+
+    /**
+     * Registers the user who logs in.
+     */
+    @BeforeEach
+    void setUp() {
+        user = new Client("LandingUser", "Password123");
+        registerService.registerUser(user);
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that logging in replaces a stale summary with the user's own.
+     */
+    @Test
+    public void loginStoresUserSummaryTest() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(UserSummary.SESSION_ATTRIBUTE, new UserSummary(1L, "alice", null, List.of()));
+
+        mockMvc.perform(post("/").param("username", "LandingUser").param("password", "Password123").session(session))
+                .andExpect(redirectedUrl("/home"));
+
+        UserSummary summary = (UserSummary) session.getAttribute(UserSummary.SESSION_ATTRIBUTE);
+        assertNotNull("Summary should be stored", summary);
+        assertEquals("Summary should be the user's", user.getId(), summary.id());
+        assertEquals("Summary should carry the name", "LandingUser", summary.name());
+        assertEquals("Username should be stored", "LandingUser", session.getAttribute("username"));
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that a failed login stores neither a username nor a summary.
+     */
+    @Test
+    public void loginWrongPasswordTest() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+
+        mockMvc.perform(post("/").param("username", "LandingUser").param("password", "Wrong123").session(session))
+                .andExpect(redirectedUrl("/"));
+
+        assertNull("No username should be stored", session.getAttribute("username"));
+        assertNull("No summary should be stored", session.getAttribute(UserSummary.SESSION_ATTRIBUTE));
+    }
+}
@@ -0,0 +1,86 @@
+package com.groovify.web.controller;
+
+import com.groovify.jpa.model.Client;
+import com.groovify.service.RegisterService;
+import com.groovify.web.dto.UserSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.util.AssertionErrors.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * Integration tests for the profile update endpoint of {@link ProfileController},
+ * validating that the session summary follows the updated profile.
+ */
+@Transactional
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProfileControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RegisterService registerService;
+
+    private Client user;
+
+    /**
+     * Registers the user whose profile is updated.
+     */
+    @BeforeEach
+    void setUp() {
+        user = new Client("ProfileUser", "Password123");
+        registerService.registerUser(user);
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that renaming the user and changing their image refreshes the session summary.
+     */
+    @Test
+    public void updateProfileRefreshesSummaryTest() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("username", "ProfileUser");
+        session.setAttribute(UserSummary.SESSION_ATTRIBUTE, UserSummary.from(user));
+
+        mockMvc.perform(post("/profile/update").session(session)
+                        .param("name", "RenamedUser")
+                        .param("description", "New description")
+                        .param("imageFileName", "avatar.png"))
+                .andExpect(redirectedUrl("/profile"));
+
+        UserSummary summary = (UserSummary) session.getAttribute(UserSummary.SESSION_ATTRIBUTE);
+        assertEquals("Summary should be the same user", user.getId(), summary.id());
+        assertEquals("Summary should carry the new name", "RenamedUser", summary.name());
+        assertEquals("Summary should carry the new image", "avatar.png", summary.imageFileName());
+        assertEquals("Username should follow the new name", "RenamedUser", session.getAttribute("username"));
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that an update without a logged-in user is sent to the landing page and
+     * stores no summary.
+     */
+    @Test
+    public void updateProfileWithoutUserTest() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+
+        mockMvc.perform(post("/profile/update").session(session)
+                        .param("name", "RenamedUser")
+                        .param("description", "New description"))
+                .andExpect(redirectedUrl("/"));
+
+        assertNull("No summary should be stored", session.getAttribute(UserSummary.SESSION_ATTRIBUTE));
+    }
+}
@@ -0,0 +1,94 @@
+package com.groovify.web.controller;
+
+import com.groovify.jpa.model.Genre;
+import com.groovify.jpa.model.Song;
+import com.groovify.jpa.repo.GenreRepo;
+import com.groovify.service.SongService;
+import com.groovify.web.dto.UserSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the search results and infinite scroll endpoints of {@link SearchController}.
+ */
+@Transactional
+@SpringBootTest
+@AutoConfigureMockMvc
+class SearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GenreRepo genreRepo;
+
+    @Autowired
+    private SongService songService;
+
+    // Happy Path
+
+    /**
+     * Tests that a logged-in user is sent the song cards of a further page of the search results.
+     */
+    @Test
+    public void searchResultsPageLoggedInTest() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(UserSummary.SESSION_ATTRIBUTE, new UserSummary(1L, "alice", null, List.of()));
+
+        mockMvc.perform(get("/search/results/page").param("query", "nebula").param("cursor", "0.0.0.0").session(session))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Tests that the default search across all fields offers a further page when it
+     * finds more songs than fit on one, instead of cutting the results off.
+     */
+    @Test
+    public void searchResultsAllFieldsHasNextPageTest() throws Exception {
+        Genre genre = genreRepo.save(new Genre("Paging Genre"));
+        for (int i = 0; i < 30; i++) {
+            Song song = new Song("nebula" + i + ".mp3", "Nebula Song " + i, "Test Artist");
+            song.setGenre(genre);
+            songService.addSong(song);
+        }
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(UserSummary.SESSION_ATTRIBUTE, new UserSummary(1L, "alice", null, List.of()));
+
+        MvcResult first = mockMvc.perform(get("/search/results").param("query", "nebula").session(session))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("nextPageUrl", notNullValue()))
+                .andReturn();
+
+        String next = (String) first.getModelAndView().getModel().get("nextPageUrl");
+        mockMvc.perform(get(URI.create(next)).session(session))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Page"));
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that a page requested after the session expired is refused with 401 instead
+     * of a redirect, whose target infinite scroll would append to the list.
+     */
+    @Test
+    public void searchResultsPageWithoutUserTest() throws Exception {
+        mockMvc.perform(get("/search/results/page").param("query", "nebula").param("cursor", "0.0.0.0"))
+                .andExpect(status().isUnauthorized());
+    }
+}
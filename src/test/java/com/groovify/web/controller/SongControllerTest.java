@@ -0,0 +1,53 @@
+package com.groovify.web.controller;
+
+import com.groovify.web.dto.UserSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the infinite scroll endpoint of {@link SongController}.
+ */
+@Transactional
+@SpringBootTest
+@AutoConfigureMockMvc
+class SongControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Happy Path
+
+    /**
+     * Tests that a logged-in user is sent the song cards of a further page of the songs list.
+     */
+    @Test
+    public void songsPageLoggedInTest() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(UserSummary.SESSION_ATTRIBUTE, new UserSummary(1L, "alice", null, List.of()));
+
+        mockMvc.perform(get("/songs/page").param("after", "0").session(session))
+                .andExpect(status().isOk());
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that a page requested after the session expired is refused with 401 instead
+     * of a redirect, whose target infinite scroll would append to the list.
+     */
+    @Test
+    public void songsPageWithoutUserTest() throws Exception {
+        mockMvc.perform(get("/songs/page").param("after", "0"))
+                .andExpect(status().isUnauthorized());
+    }
+}
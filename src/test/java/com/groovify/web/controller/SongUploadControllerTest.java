@@ -0,0 +1,223 @@
+package com.groovify.web.controller;
+
+import com.groovify.service.GenreImportService;
+import com.groovify.service.SongUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for {@link SongUploadController}, sending streamed multipart and
+ * resumable chunked uploads through MockMvc into a temporary song store.
+ */
+@Transactional
+@SpringBootTest
+@AutoConfigureMockMvc
+class SongUploadControllerTest {
+
+    private static final String BOUNDARY = "groovify-upload-boundary";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GenreImportService genreImportService;
+
+    @Autowired
+    private SongUploadService songUploadService;
+
+    @TempDir
+    Path root;
+
+    private MockHttpSession session;
+    private byte[] mp3;
+
+    /**
+     * Imports genres, points uploads at a temporary music directory, logs a user in
+     * and loads one of the project's MP3 files to upload.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        genreImportService.importGenres(List.of("Rock", "Pop", "Classical", "Tech", "Country", "Folk"));
+        ReflectionTestUtils.setField(songUploadService, "musicDirectory", root.toString());
+        session = new MockHttpSession();
+        session.setAttribute("username", "alice");
+        mp3 = Files.readAllBytes(Path.of("src/main/resources/static/songs/Rock/FunRock.mp3"));
+    }
+
+    // Happy Path
+
+    /**
+     * Tests that a multipart upload with the genre field before the files stores and
+     * registers every file in that genre.
+     */
+    @Test
+    public void uploadGenreFieldBeforeFilesTest() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeField(body, "genre", "Pop");
+        writeFile(body, "First.mp3", mp3);
+        writeFile(body, "Second.mp3", mp3);
+        body.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+
+        mockMvc.perform(post("/songs/upload").session(session)
+                        .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(body.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].genreName").value("Pop"))
+                .andExpect(jsonPath("$[1].filename").value("Second.mp3"));
+
+        assertTrue("First file should be stored intact", Arrays.equals(mp3, Files.readAllBytes(root.resolve("Pop/First.mp3"))));
+        assertTrue("Second file should be stored intact", Arrays.equals(mp3, Files.readAllBytes(root.resolve("Pop/Second.mp3"))));
+    }
+
+    /**
+     * Tests the resumable flow: each partial chunk is answered with 308 and a Range
+     * header, the status request reports the same range after an interruption, and the
+     * last chunk registers the song.
+     */
+    @Test
+    public void resumableUploadTest() throws Exception {
+        MvcResult started = mockMvc.perform(post("/songs/uploads").session(session)
+                        .param("genre", "Rock")
+                        .param("filename", "FunRock.mp3")
+                        .param("size", String.valueOf(mp3.length)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.received").value(0))
+                .andReturn();
+        String location = started.getResponse().getHeader(HttpHeaders.LOCATION);
+        assertNotNull("Upload location should be returned", location);
+
+        int half = mp3.length / 2;
+        String range = "bytes=0-" + (half - 1);
+        mockMvc.perform(put(location).session(session)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes 0-" + (half - 1) + "/" + mp3.length)
+                        .content(Arrays.copyOfRange(mp3, 0, half)))
+                .andExpect(status().isPermanentRedirect())
+                .andExpect(header().string(HttpHeaders.RANGE, range));
+
+        // The client lost the response and asks where to resume
+        mockMvc.perform(get(location).session(session))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.RANGE, range))
+                .andExpect(jsonPath("$.received").value(half));
+
+        mockMvc.perform(put(location).session(session)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes " + half + "-" + (mp3.length - 1) + "/" + mp3.length)
+                        .content(Arrays.copyOfRange(mp3, half, mp3.length)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filename").value("FunRock.mp3"));
+
+        assertTrue("File should be stored intact", Arrays.equals(mp3, Files.readAllBytes(root.resolve("Rock/FunRock.mp3"))));
+    }
+
+    // Crappy Path
+
+    /**
+     * Tests that a chunk resent from an old offset is refused with 409 and the Range
+     * the client should resume from.
+     */
+    @Test
+    public void resumableUploadWrongOffsetTest() throws Exception {
+        String location = mockMvc.perform(post("/songs/uploads").session(session)
+                        .param("genre", "Rock")
+                        .param("filename", "FunRock.mp3")
+                        .param("size", String.valueOf(mp3.length)))
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        int half = mp3.length / 2;
+        mockMvc.perform(put(location).session(session)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes 0-" + (half - 1) + "/" + mp3.length)
+                .content(Arrays.copyOfRange(mp3, 0, half)));
+
+        mockMvc.perform(put(location).session(session)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes 0-" + (half - 1) + "/" + mp3.length)
+                        .content(Arrays.copyOfRange(mp3, 0, half)))
+                .andExpect(status().isConflict())
+                .andExpect(header().string(HttpHeaders.RANGE, "bytes=0-" + (half - 1)));
+    }
+
+    /**
+     * Tests that a malformed Content-Range header is rejected.
+     */
+    @Test
+    public void resumableUploadInvalidContentRangeTest() throws Exception {
+        mockMvc.perform(put("/songs/uploads/unknown").session(session)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */*")
+                        .content(new byte[1]))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests that a multipart body cut off before its closing boundary is not registered.
+     */
+    @Test
+    public void uploadTruncatedBodyTest() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeField(body, "genre", "Rock");
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"files\"; filename=\"Cut.mp3\"\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+        body.write(mp3, 0, mp3.length / 2);
+
+        MvcResult result = mockMvc.perform(post("/songs/upload").session(session)
+                        .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(body.toByteArray()))
+                .andReturn();
+
+        assertFalse("Truncated upload should fail", result.getResponse().getStatus() == 200);
+        assertFalse("Truncated file should not be kept", Files.exists(root.resolve("Rock/Cut.mp3")));
+    }
+
+    /**
+     * Tests that uploads are refused without a logged-in user.
+     */
+    @Test
+    public void uploadWithoutUserTest() throws Exception {
+        mockMvc.perform(post("/songs/upload")
+                        .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(new byte[0]))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/songs/uploads/unknown"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    // -------------------------------------------------------
+    // HELPER METHODS
+    // -------------------------------------------------------
+
+    private static void writeField(ByteArrayOutputStream body, String name, String value) throws IOException {
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeFile(ByteArrayOutputStream body, String filename, byte[] content) throws IOException {
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"files\"; filename=\"" + filename
+                + "\"\r\nContent-Type: audio/mpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(content);
+        body.write("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+    }
+}